@@ -0,0 +1,90 @@
+package bankprojekt.messung;
+
+import bankprojekt.Observer.Beobachterbus;
+import bankprojekt.Observer.KontoKonflator;
+import bankprojekt.Observer.KontoObserver;
+import bankprojekt.Observer.Ueberlaufstrategie;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark für eine Einzahlung auf ein Konto mit einem langsamen Beobachter,
+ * einmal direkt benachrichtigt, über einen {@link Beobachterbus} und über einen
+ * {@link KontoKonflator}, der alle 10 ms abholt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsynchroneBeobachterBenchmark {
+
+    /**
+     * Rechenaufwand des Beobachters in Blackhole-Token
+     */
+    private static final long AUFWAND = 10_000;
+
+    @Param({"DIREKT", "AELTESTES_VERWERFEN", "ZUSAMMENFASSEN", "KONFLATOR"})
+    String zustellung;
+
+    private Girokonto konto;
+    private Beobachterbus bus;
+    private KontoKonflator konflator;
+
+    /**
+     * legt das Konto an und meldet den Beobachter direkt oder über den Bus an
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        konto = new Girokonto(Kunde.wiederherstellen("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1)), 1, 500);
+        KontoObserver langsam = k -> Blackhole.consumeCPU(AUFWAND);
+        if (zustellung.equals("DIREKT")) {
+            konto.addObserver(langsam);
+        } else if (zustellung.equals("KONFLATOR")) {
+            konflator = new KontoKonflator();
+            konflator.abonnieren(konto);
+            konflator.starten(Duration.ofMillis(10), meldung -> Blackhole.consumeCPU(AUFWAND));
+        } else {
+            bus = new Beobachterbus(1024, Ueberlaufstrategie.valueOf(zustellung));
+            konto.addObserver(bus.asynchron(langsam));
+        }
+    }
+
+    /**
+     * beendet Bus oder Konflator
+     */
+    @TearDown(Level.Trial)
+    public void beenden() {
+        if (bus != null)
+            bus.close();
+        if (konflator != null)
+            konflator.close();
+    }
+
+    /**
+     * zahlt einen Cent ein
+     */
+    @Benchmark
+    public void einzahlen() {
+        konto.einzahlen(0.01);
+    }
+}
@@ -0,0 +1,68 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmarks für das Auflisten aller Konten einer Bank, einmal als String mit
+ * {@link Bank#getAlleKonten()} und einmal gestreamt mit {@link Bank#alleKontenAusgeben(Writer)}.
+ * Für 10 Millionen Konten wird nur gestreamt, der String passt dann nicht mehr in den Heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class AuflistungBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    int anzahlKonten;
+
+    private Bank bank;
+
+    /**
+     * legt die Bank an
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        bank = new Bank(12030000);
+        BankBenchmark.kontenImportieren(bank,
+                Kunde.wiederherstellen("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1)), anzahlKonten);
+    }
+
+    /**
+     * baut die Auflistung als String auf
+     */
+    @Benchmark
+    public String getAlleKonten() {
+        if (anzahlKonten > 1_000_000)
+            return "";
+        return bank.getAlleKonten();
+    }
+
+    /**
+     * schreibt die Auflistung in einen Writer, der alles verwirft
+     */
+    @Benchmark
+    public void alleKontenAusgeben() throws IOException {
+        bank.alleKontenAusgeben(Writer.nullWriter());
+    }
+}
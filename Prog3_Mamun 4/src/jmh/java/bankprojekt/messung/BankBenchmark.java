@@ -0,0 +1,165 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmarks der Einzeloperationen der {@link Bank} bei verschiedenen Bankgrößen und
+ * Zugriffsverteilungen. Die Benchmarks laufen einmal mit einem Thread ({@link Einfaedig})
+ * und einmal mit mehreren Threads auf derselben Bank ({@link Mehrfaedig}).
+ * <p>
+ * Aufruf: {@code java -jar target/benchmarks.jar BankBenchmark}, siehe {@link Benchmarklauf}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public abstract class BankBenchmark {
+
+    /**
+     * Anzahl der vorab gezogenen Zugriffe, die reihum verwendet werden
+     */
+    static final int ANZAHL_ZUGRIFFE = 1 << 20;
+
+    /**
+     * die Bank mit ihren Konten, für alle Threads gemeinsam
+     */
+    @State(Scope.Benchmark)
+    public static class Bankzustand {
+        @Param({"1000", "1000000", "10000000"})
+        int anzahlKonten;
+
+        @Param({"GLEICH", "ZIPF"})
+        Zugriffsverteilung verteilung;
+
+        Bank bank;
+        long[] nummern;
+        int[] zugriffe;
+        Kunde kunde;
+
+        /**
+         * legt die Bank an und zieht die Zugriffe
+         */
+        @Setup(Level.Trial)
+        public void anlegen() {
+            kunde = Kunde.wiederherstellen("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1));
+            bank = new Bank(12030000);
+            nummern = kontenImportieren(bank, kunde, anzahlKonten);
+            zugriffe = verteilung.ziehen(anzahlKonten, ANZAHL_ZUGRIFFE, new Random(42));
+        }
+    }
+
+    /**
+     * die Position eines Threads in den vorab gezogenen Zugriffen
+     */
+    @State(Scope.Thread)
+    public static class Zugriff {
+        private int position;
+
+        /**
+         * jeder Thread beginnt an einer anderen Stelle
+         */
+        @Setup(Level.Trial)
+        public void anfangen() {
+            position = ThreadLocalRandom.current().nextInt(ANZAHL_ZUGRIFFE);
+        }
+
+        /**
+         * @param zustand die Bank
+         * @return die Nummer des nächsten Kontos
+         */
+        long naechstesKonto(Bankzustand zustand) {
+            position = (position + 1) & (ANZAHL_ZUGRIFFE - 1);
+            return zustand.nummern[zustand.zugriffe[position]];
+        }
+    }
+
+    /**
+     * legt die Konten über einen reservierten Nummernblock an; jedes Konto erhält so viel
+     * Guthaben, dass es auch in langen Messungen nicht leer wird
+     *
+     * @param bank   die Bank
+     * @param kunde  der gemeinsame Inhaber
+     * @param anzahl Anzahl der Konten
+     * @return die Kontonummern
+     */
+    static long[] kontenImportieren(Bank bank, Kunde kunde, int anzahl) {
+        long erste = bank.kontonummernReservieren(anzahl);
+        long[] nummern = new long[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            Girokonto konto = new Girokonto(kunde, erste + i, 500);
+            konto.einzahlen(1_000_000_000);
+            bank.kontoImportieren(konto);
+            nummern[i] = erste + i;
+        }
+        return nummern;
+    }
+
+    /**
+     * legt ein Girokonto an und löscht es wieder, damit die Bank ihre Größe behält
+     */
+    @Benchmark
+    public boolean girokontoErstellen(Bankzustand zustand) {
+        return zustand.bank.kontoLoeschen(zustand.bank.girokontoErstellen(zustand.kunde));
+    }
+
+    /**
+     * überweist einen Cent zwischen zwei gezogenen Konten
+     */
+    @Benchmark
+    public boolean geldUeberweisen(Bankzustand zustand, Zugriff zugriff) {
+        return zustand.bank.geldUeberweisen(zugriff.naechstesKonto(zustand), zugriff.naechstesKonto(zustand),
+                0.01, "Benchmark");
+    }
+
+    /**
+     * hebt einen Cent von einem gezogenen Konto ab
+     */
+    @Benchmark
+    public boolean geldAbheben(Bankzustand zustand, Zugriff zugriff) throws GesperrtException {
+        return zustand.bank.geldAbheben(zugriff.naechstesKonto(zustand), 0.01);
+    }
+
+    /**
+     * fragt den Kontostand eines gezogenen Kontos ab
+     */
+    @Benchmark
+    public double getKontostand(Bankzustand zustand, Zugriff zugriff) {
+        return zustand.bank.getKontostand(zugriff.naechstesKonto(zustand));
+    }
+
+    /**
+     * alle Benchmarks mit einem Thread
+     */
+    @Threads(1)
+    public static class Einfaedig extends BankBenchmark {
+    }
+
+    /**
+     * alle Benchmarks mit vier Threads auf derselben Bank
+     */
+    @Threads(4)
+    public static class Mehrfaedig extends BankBenchmark {
+    }
+}
@@ -0,0 +1,29 @@
+package bankprojekt.messung;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * startet die JMH-Benchmarks immer mit dem GC-Profiler, sodass zu jedem Benchmark
+ * auch die Allokationsrate (gc.alloc.rate.norm in Byte pro Operation) ausgegeben wird.
+ * Alle Optionen von JMH können wie gewohnt angegeben werden, z.B.
+ * {@code java -jar target/benchmarks.jar BankBenchmark.Einfaedig -p anzahlKonten=1000000}.
+ */
+public class Benchmarklauf {
+
+    /**
+     * startet die Benchmarks
+     *
+     * @param args Optionen und Filter für JMH
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
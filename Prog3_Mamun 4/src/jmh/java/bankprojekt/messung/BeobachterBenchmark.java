@@ -0,0 +1,61 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark für die Benachrichtigung der Beobachter eines Kontos: jede Einzahlung
+ * ruft alle angemeldeten {@link bankprojekt.Observer.KontoObserver} im aufrufenden Thread auf.
+ * Die Beobachter tun selbst nichts außer das Konto an ein Blackhole zu übergeben,
+ * gemessen wird also nur der Aufwand für das Verteilen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeobachterBenchmark {
+
+    @Param({"0", "1", "10"})
+    int anzahlBeobachter;
+
+    private Girokonto konto;
+
+    /**
+     * legt das Konto an und meldet die Beobachter an
+     *
+     * @param blackhole nimmt die benachrichtigten Konten auf
+     */
+    @Setup(Level.Trial)
+    public void anlegen(Blackhole blackhole) {
+        konto = new Girokonto(Kunde.wiederherstellen("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1)), 1, 500);
+        for (int i = 0; i < anzahlBeobachter; i++) {
+            konto.addObserver(blackhole::consume);
+        }
+    }
+
+    /**
+     * zahlt einen Cent ein und benachrichtigt dabei alle Beobachter
+     */
+    @Benchmark
+    public void einzahlen() {
+        konto.einzahlen(0.01);
+    }
+}
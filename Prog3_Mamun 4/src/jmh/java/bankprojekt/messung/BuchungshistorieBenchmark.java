@@ -0,0 +1,79 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Buchungshistorie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark für die {@link Buchungshistorie}: Anhängen einer Buchung mit einem schon
+ * vorhandenen Verwendungszweck-String und Abfrage eines Zeitraums von 100 Buchungen aus einer
+ * Historie mit einer Million Buchungen. Mit dem GC-Profiler zeigt sich, dass das Anhängen
+ * im Mittel nur den Platz der Buchung selbst anlegt ({@link Buchungshistorie#BYTES_PRO_BUCHUNG} Byte).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuchungshistorieBenchmark {
+
+    private static final int ANZAHL = 1_000_000;
+
+    private Buchungshistorie historie;
+    private Buchungshistorie gefuellt;
+    private long zeitpunkt;
+    private long abfrage;
+
+    /**
+     * füllt die Historie für die Abfragen
+     */
+    @Setup(Level.Trial)
+    public void fuellen() {
+        gefuellt = new Buchungshistorie();
+        for (int i = 0; i < ANZAHL; i++) {
+            gefuellt.anhaengen(i, i, i, "Miete");
+        }
+    }
+
+    /**
+     * beginnt jede Iteration mit einer leeren Historie, damit sie nicht unbegrenzt wächst
+     */
+    @Setup(Level.Iteration)
+    public void leeren() {
+        historie = new Buchungshistorie();
+    }
+
+    /**
+     * hängt eine Buchung an
+     */
+    @Benchmark
+    public void anhaengen() {
+        historie.anhaengen(zeitpunkt++, 100, 4711, "Miete");
+    }
+
+    /**
+     * liest 100 aufeinanderfolgende Buchungen an wechselnder Stelle
+     *
+     * @param blackhole nimmt die Beträge auf
+     * @return Anzahl der gelesenen Buchungen
+     */
+    @Benchmark
+    public int zeitraumAbfragen(Blackhole blackhole) {
+        long von = abfrage;
+        abfrage = (abfrage + 7919) % (ANZAHL - 100);
+        return gefuellt.abfragen(von, von + 99, (z, betrag, g, v) -> blackhole.consume(betrag));
+    }
+}
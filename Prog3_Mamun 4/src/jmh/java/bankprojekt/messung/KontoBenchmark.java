@@ -0,0 +1,130 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verarbeitung.Waehrung;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmarks der Kontooperationen aus {@code bankprojekt.verarbeitung} ohne die Bank:
+ * Abheben und Überweisen beim Girokonto mit Dispoprüfung, Abheben beim Sparbuch mit
+ * Monatsgrenze und Abheben und Einzahlen in fremder Währung.
+ * Jeder Thread arbeitet auf eigenen Konten, gemessen wird also ohne Sperrkonflikte.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KontoBenchmark {
+
+    /**
+     * nach so vielen Abhebungen wird das Sparbuch auf seinen Anfangszustand zurückgesetzt,
+     * damit es die Monatsgrenze von {@link Sparbuch#ABHEBESUMME} nie erreicht
+     */
+    private static final int SPARBUCH_ABHEBUNGEN = 100_000;
+
+    private Girokonto girokonto;
+    private Sparbuch sparbuch;
+    private ByteBuffer sparbuchAnfang;
+    private int sparbuchAbhebungen;
+
+    /**
+     * legt die Konten mit so viel Guthaben an, dass sie während der Messung nicht leer werden
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        Kunde kunde = Kunde.wiederherstellen("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1));
+        girokonto = new Girokonto(kunde, 1, 500);
+        girokonto.einzahlen(1_000_000_000);
+        sparbuch = new Sparbuch(kunde, 2);
+        sparbuch.einzahlen(1_000_000_000);
+        sparbuchAnfang = ByteBuffer.allocate(sparbuch.zustandGroesse());
+        sparbuch.zustandSchreiben(sparbuchAnfang);
+    }
+
+    /**
+     * hebt einen Cent vom Girokonto ab
+     */
+    @Benchmark
+    public boolean girokontoAbheben() throws GesperrtException {
+        return girokonto.abheben(0.01);
+    }
+
+    /**
+     * versucht mehr abzuheben, als Kontostand und Dispo erlauben
+     */
+    @Benchmark
+    public boolean girokontoAbhebenUeberDispo() throws GesperrtException {
+        return girokonto.abheben(2_000_000_000);
+    }
+
+    /**
+     * sendet eine Überweisung über einen Cent
+     */
+    @Benchmark
+    public boolean ueberweisungAbsenden() throws GesperrtException {
+        return girokonto.ueberweisungAbsenden(0.01, "Erika Mustermann", 2, 12030000, "Benchmark");
+    }
+
+    /**
+     * hebt einen Cent vom Sparbuch ab, dabei wird der Monat mit dem des Kalenders verglichen
+     */
+    @Benchmark
+    public boolean sparbuchAbheben() throws GesperrtException {
+        if (++sparbuchAbhebungen == SPARBUCH_ABHEBUNGEN) {
+            sparbuchAbhebungen = 0;
+            sparbuch.zustandUebernehmen(sparbuchAnfang.rewind());
+        }
+        return sparbuch.abheben(0.01);
+    }
+
+    /**
+     * versucht mehr abzuheben, als das Sparbuch im Monat erlaubt
+     */
+    @Benchmark
+    public boolean sparbuchAbhebenUeberGrenze() throws GesperrtException {
+        return sparbuch.abheben(Sparbuch.ABHEBESUMME + 1);
+    }
+
+    /**
+     * hebt einen Betrag in Escudo ab, der dafür in Euro umgerechnet und gerundet wird
+     */
+    @Benchmark
+    public boolean abhebenInWaehrung() throws GesperrtException {
+        return girokonto.abheben(1.09, Waehrung.ESCUDO);
+    }
+
+    /**
+     * zahlt einen Betrag in Escudo ein
+     */
+    @Benchmark
+    public void einzahlenInWaehrung() throws GesperrtException {
+        girokonto.einzahlen(1.09, Waehrung.ESCUDO);
+    }
+
+    /**
+     * rechnet einen Euro-Betrag in Escudo um, ohne Konto
+     */
+    @Benchmark
+    public double euroInWaehrungUmrechnen() {
+        return Waehrung.ESCUDO.euroInWaehrungUmrechnen(123.45);
+    }
+}
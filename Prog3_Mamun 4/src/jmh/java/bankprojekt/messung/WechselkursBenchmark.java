@@ -0,0 +1,111 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verarbeitung.Wechselkurs;
+import org.decimal4j.util.DoubleRounder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Benchmark für die Umrechnung von {@value #ANZAHL} Beträgen von Euro in Escudo:
+ * wie bisher mit double und {@link DoubleRounder}, einzeln über {@link Waehrung} und
+ * {@link Wechselkurs} sowie als Massenumrechnung eines ganzen Feldes.
+ * Angegeben ist die Zeit pro Betrag.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WechselkursBenchmark {
+
+    private static final int ANZAHL = 1024;
+
+    private final Wechselkurs kurs = Wechselkurs.von(Waehrung.EUR, Waehrung.ESCUDO);
+    private long[] cent;
+    private double[] betraege;
+    private long[] ergebnisse;
+    private double[] doubleErgebnisse;
+
+    /**
+     * erzeugt die Beträge zwischen 0 und 10.000 €
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        cent = new Random(1).longs(ANZAHL, 0, 1_000_000).toArray();
+        betraege = new double[ANZAHL];
+        for (int i = 0; i < ANZAHL; i++) {
+            betraege[i] = cent[i] / 100.0;
+        }
+        ergebnisse = new long[ANZAHL];
+        doubleErgebnisse = new double[ANZAHL];
+    }
+
+    /**
+     * die bisherige Umrechnung: double-Multiplikation und Runden mit DoubleRounder
+     *
+     * @return die Ergebnisse
+     */
+    @Benchmark
+    @OperationsPerInvocation(ANZAHL)
+    public double[] doubleRounder() {
+        for (int i = 0; i < ANZAHL; i++) {
+            doubleErgebnisse[i] = DoubleRounder.round(betraege[i] * 109.8269, 2);
+        }
+        return doubleErgebnisse;
+    }
+
+    /**
+     * einzeln über {@link Waehrung#euroInWaehrungUmrechnen(double)}
+     *
+     * @return die Ergebnisse
+     */
+    @Benchmark
+    @OperationsPerInvocation(ANZAHL)
+    public double[] waehrung() {
+        for (int i = 0; i < ANZAHL; i++) {
+            doubleErgebnisse[i] = Waehrung.ESCUDO.euroInWaehrungUmrechnen(betraege[i]);
+        }
+        return doubleErgebnisse;
+    }
+
+    /**
+     * einzeln über {@link Wechselkurs#umrechnen(long)}
+     *
+     * @return die Ergebnisse
+     */
+    @Benchmark
+    @OperationsPerInvocation(ANZAHL)
+    public long[] einzeln() {
+        for (int i = 0; i < ANZAHL; i++) {
+            ergebnisse[i] = kurs.umrechnen(cent[i]);
+        }
+        return ergebnisse;
+    }
+
+    /**
+     * das ganze Feld mit {@link Wechselkurs#umrechnen(long[], int, long[], int, int)}
+     *
+     * @return die Ergebnisse
+     */
+    @Benchmark
+    @OperationsPerInvocation(ANZAHL)
+    public long[] masse() {
+        kurs.umrechnen(cent, 0, ergebnisse, 0, ANZAHL);
+        return ergebnisse;
+    }
+}
@@ -0,0 +1,70 @@
+package bankprojekt.messung;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Verteilung, nach der Benchmarks auf die Konten einer Bank zugreifen.
+ * Die Zugriffe werden vorab gezogen, damit das Ziehen nicht mitgemessen wird.
+ */
+public enum Zugriffsverteilung {
+    /**
+     * jedes Konto wird gleich oft verwendet
+     */
+    GLEICH {
+        @Override
+        int[] ziehen(int anzahlKonten, int anzahlZugriffe, Random zufall) {
+            int[] zugriffe = new int[anzahlZugriffe];
+            for (int i = 0; i < anzahlZugriffe; i++) {
+                zugriffe[i] = zufall.nextInt(anzahlKonten);
+            }
+            return zugriffe;
+        }
+    },
+    /**
+     * wenige Konten werden sehr oft verwendet: das Konto auf Rang k wird mit einer
+     * Wahrscheinlichkeit proportional zu 1/k^{@value #ZIPF_EXPONENT} gewählt.
+     * Die Ränge werden zufällig auf die Konten verteilt, damit die häufigen Konten
+     * nicht alle nebeneinander liegen.
+     */
+    ZIPF {
+        @Override
+        int[] ziehen(int anzahlKonten, int anzahlZugriffe, Random zufall) {
+            double[] verteilung = new double[anzahlKonten];
+            double summe = 0;
+            for (int k = 0; k < anzahlKonten; k++) {
+                summe += 1 / Math.pow(k + 1, ZIPF_EXPONENT);
+                verteilung[k] = summe;
+            }
+            int[] kontoAufRang = new int[anzahlKonten];
+            for (int i = 0; i < anzahlKonten; i++) {
+                int j = zufall.nextInt(i + 1);
+                kontoAufRang[i] = kontoAufRang[j];
+                kontoAufRang[j] = i;
+            }
+            int[] zugriffe = new int[anzahlZugriffe];
+            for (int i = 0; i < anzahlZugriffe; i++) {
+                int rang = Arrays.binarySearch(verteilung, zufall.nextDouble() * summe);
+                if (rang < 0)
+                    rang = -rang - 1;
+                zugriffe[i] = kontoAufRang[Math.min(rang, anzahlKonten - 1)];
+            }
+            return zugriffe;
+        }
+    };
+
+    /**
+     * Exponent der Zipf-Verteilung, wie er in üblichen Lastmodellen (z.B. YCSB) verwendet wird
+     */
+    public static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * zieht die Indizes der Konten, auf die nacheinander zugegriffen wird
+     *
+     * @param anzahlKonten   Anzahl der Konten, gezogen wird aus 0 bis anzahlKonten - 1
+     * @param anzahlZugriffe Anzahl der zu ziehenden Zugriffe
+     * @param zufall         der Zufallsgenerator
+     * @return die Indizes der Konten
+     */
+    abstract int[] ziehen(int anzahlKonten, int anzahlZugriffe, Random zufall);
+}
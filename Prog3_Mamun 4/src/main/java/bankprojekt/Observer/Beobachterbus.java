@@ -0,0 +1,286 @@
+package bankprojekt.Observer;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * stellt Kontoänderungen asynchron an Beobachter zu, damit ein langsamer Beobachter
+ * (Oberfläche, Revision) nicht die Dauer von Abhebungen und Einzahlungen verlängert.
+ * <p>
+ * Mit {@link #asynchron(KontoObserver)} wird ein Beobachter so verpackt, dass
+ * {@link KontoObserver#update(Konto)} nur ein Ereignis in einen Ringpuffer fester Größe
+ * einstellt. Verbraucher-Threads holen die Ereignisse bündelweise ab und rufen die
+ * eigentlichen Beobachter auf. Jeder Verbraucher hat einen eigenen Ringpuffer, in den die
+ * Ereignisse nach Kontonummer verteilt werden; die Ereignisse eines Kontos werden daher
+ * in der Reihenfolge ihres Entstehens und nie gleichzeitig zugestellt.
+ * Was bei vollem Puffer geschieht, legt die {@link Ueberlaufstrategie} fest.
+ * <p>
+ * Die Ereignisse enthalten nur das Konto; der Beobachter liest bei der Zustellung dessen
+ * aktuellen Stand. Bei {@link Ueberlaufstrategie#BLOCKIEREN} wartet der ändernde Thread,
+ * während er das Konto gesperrt hat. Beobachter dürfen dann keine synchronisierten
+ * Methoden des Kontos aufrufen, sonst können sich Verbraucher und ändernder Thread
+ * gegenseitig blockieren; die lesenden Methoden wie getKontostand sind nicht synchronisiert.
+ */
+public final class Beobachterbus implements AutoCloseable {
+
+    /**
+     * Anzahl der Ereignisse, die ein Verbraucher höchstens auf einmal abholt
+     */
+    private static final int BUENDEL = 64;
+
+    private final Ring[] ringe;
+    private final Thread[] verbraucher;
+    private final Ueberlaufstrategie strategie;
+    private final LongAdder verworfen = new LongAdder();
+    private volatile boolean geschlossen;
+
+    /**
+     * startet einen Bus mit einem Verbraucher-Thread
+     *
+     * @param kapazitaet Anzahl der Ereignisse, die höchstens auf ihre Zustellung warten
+     * @param strategie  das Verhalten bei vollem Puffer
+     * @throws IllegalArgumentException wenn kapazitaet nicht positiv oder strategie null ist
+     */
+    public Beobachterbus(int kapazitaet, Ueberlaufstrategie strategie) {
+        this(kapazitaet, 1, strategie);
+    }
+
+    /**
+     * startet einen Bus
+     *
+     * @param kapazitaet        Anzahl der Ereignisse, die je Verbraucher höchstens auf ihre Zustellung warten
+     * @param anzahlVerbraucher Anzahl der Verbraucher-Threads
+     * @param strategie         das Verhalten bei vollem Puffer
+     * @throws IllegalArgumentException wenn kapazitaet oder anzahlVerbraucher nicht positiv
+     *                                  oder strategie null ist
+     */
+    public Beobachterbus(int kapazitaet, int anzahlVerbraucher, Ueberlaufstrategie strategie) {
+        if (kapazitaet <= 0 || anzahlVerbraucher <= 0)
+            throw new IllegalArgumentException("Kapazität und Anzahl der Verbraucher müssen positiv sein!");
+        if (strategie == null)
+            throw new IllegalArgumentException("Die Überlaufstrategie darf nicht null sein!");
+        this.strategie = strategie;
+        this.ringe = new Ring[anzahlVerbraucher];
+        this.verbraucher = new Thread[anzahlVerbraucher];
+        for (int i = 0; i < anzahlVerbraucher; i++) {
+            Ring ring = new Ring(kapazitaet);
+            ringe[i] = ring;
+            verbraucher[i] = new Thread(ring::zustellen, "Beobachterbus-" + i);
+            verbraucher[i].setDaemon(true);
+            verbraucher[i].start();
+        }
+    }
+
+    /**
+     * verpackt einen Beobachter, sodass er über diesen Bus benachrichtigt wird.
+     * Der gelieferte Beobachter wird statt ziel am Konto angemeldet.
+     *
+     * @param ziel der eigentliche Beobachter
+     * @return ein Beobachter, der nur Ereignisse einstellt
+     * @throws IllegalArgumentException wenn ziel null ist
+     */
+    public KontoObserver asynchron(KontoObserver ziel) {
+        if (ziel == null)
+            throw new IllegalArgumentException("Der Beobachter darf nicht null sein!");
+        return konto -> einstellen(konto, ziel);
+    }
+
+    /**
+     * @return Anzahl der Ereignisse, die wegen eines vollen Puffers verworfen wurden
+     */
+    public long getVerworfen() {
+        return verworfen.sum();
+    }
+
+    /**
+     * wartet, bis alle bis jetzt eingestellten Ereignisse zugestellt sind
+     *
+     * @throws InterruptedException wenn der Thread beim Warten unterbrochen wird
+     */
+    public void abwarten() throws InterruptedException {
+        for (Ring ring : ringe) {
+            ring.abwarten();
+        }
+    }
+
+    /**
+     * stellt die noch ausstehenden Ereignisse zu und beendet die Verbraucher.
+     * Danach eingestellte Ereignisse werden direkt im ändernden Thread zugestellt.
+     */
+    @Override
+    public void close() {
+        geschlossen = true;
+        for (Ring ring : ringe) {
+            ring.aufwecken();
+        }
+        boolean unterbrochen = false;
+        for (Thread thread : verbraucher) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    unterbrochen = true;
+                }
+            }
+        }
+        if (unterbrochen)
+            Thread.currentThread().interrupt();
+    }
+
+    private void einstellen(Konto konto, KontoObserver ziel) {
+        int index = (int) Long.remainderUnsigned(konto.getKontonummer() * 0x9E3779B97F4A7C15L >>> 16, ringe.length);
+        if (!ringe[index].einstellen(new Ereignis(konto, ziel)))
+            ziel.update(konto);
+    }
+
+    /**
+     * eine Änderung an einem Konto, die einem Beobachter zugestellt werden muss.
+     * Zwei Ereignisse sind gleich, wenn sie dasselbe Konto-Objekt und denselben Beobachter betreffen.
+     */
+    private record Ereignis(Konto konto, KontoObserver ziel) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Ereignis e && e.konto == konto && e.ziel == ziel;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(konto) + System.identityHashCode(ziel);
+        }
+    }
+
+    /**
+     * der Ringpuffer eines Verbrauchers
+     */
+    private final class Ring {
+        private final Ereignis[] ereignisse;
+        private final ReentrantLock sperre = new ReentrantLock();
+        private final Condition nichtLeer = sperre.newCondition();
+        private final Condition nichtVoll = sperre.newCondition();
+        private final Condition zugestellt = sperre.newCondition();
+        /**
+         * die noch nicht abgeholten Ereignisse, nur bei {@link Ueberlaufstrategie#ZUSAMMENFASSEN}
+         */
+        private final Set<Ereignis> ausstehend;
+        private int kopf;
+        private int anzahl;
+        /**
+         * true, solange der Verbraucher ein abgeholtes Bündel zustellt
+         */
+        private boolean inZustellung;
+
+        Ring(int kapazitaet) {
+            ereignisse = new Ereignis[kapazitaet];
+            ausstehend = strategie == Ueberlaufstrategie.ZUSAMMENFASSEN ? new HashSet<>() : null;
+        }
+
+        /**
+         * @return false, wenn der Bus geschlossen ist und das Ereignis direkt zugestellt werden muss
+         */
+        boolean einstellen(Ereignis ereignis) {
+            boolean unterbrochen = false;
+            boolean eingestellt = false;
+            sperre.lock();
+            try {
+                if (ausstehend != null && ausstehend.contains(ereignis))
+                    return true;
+                while (anzahl == ereignisse.length) {
+                    if (geschlossen)
+                        break;
+                    if (strategie == Ueberlaufstrategie.AELTESTES_VERWERFEN) {
+                        ereignisse[kopf] = null;
+                        kopf = (kopf + 1) % ereignisse.length;
+                        anzahl--;
+                        verworfen.increment();
+                    } else {
+                        try {
+                            nichtVoll.await();
+                        } catch (InterruptedException e) {
+                            unterbrochen = true; // die Änderung am Konto ist schon geschehen, das Ereignis muss hinein
+                        }
+                    }
+                }
+                if (!geschlossen) { // sonst ist der Verbraucher womöglich schon beendet
+                    ereignisse[(kopf + anzahl) % ereignisse.length] = ereignis;
+                    anzahl++;
+                    if (ausstehend != null)
+                        ausstehend.add(ereignis);
+                    nichtLeer.signal();
+                    eingestellt = true;
+                }
+            } finally {
+                sperre.unlock();
+            }
+            if (unterbrochen)
+                Thread.currentThread().interrupt();
+            return eingestellt;
+        }
+
+        /**
+         * die Schleife des Verbraucher-Threads
+         */
+        void zustellen() {
+            Ereignis[] buendel = new Ereignis[Math.min(BUENDEL, ereignisse.length)];
+            while (true) {
+                int n = 0;
+                sperre.lock();
+                try {
+                    inZustellung = false;
+                    zugestellt.signalAll();
+                    while (anzahl == 0) {
+                        if (geschlossen)
+                            return;
+                        nichtLeer.awaitUninterruptibly();
+                    }
+                    while (n < buendel.length && anzahl > 0) {
+                        Ereignis ereignis = ereignisse[kopf];
+                        ereignisse[kopf] = null;
+                        kopf = (kopf + 1) % ereignisse.length;
+                        anzahl--;
+                        if (ausstehend != null)
+                            ausstehend.remove(ereignis);
+                        buendel[n++] = ereignis;
+                    }
+                    inZustellung = true;
+                    nichtVoll.signalAll();
+                } finally {
+                    sperre.unlock();
+                }
+                for (int i = 0; i < n; i++) {
+                    try {
+                        buendel[i].ziel().update(buendel[i].konto());
+                    } catch (RuntimeException e) {
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                    buendel[i] = null;
+                }
+            }
+        }
+
+        void abwarten() throws InterruptedException {
+            sperre.lock();
+            try {
+                while (anzahl > 0 || inZustellung) {
+                    zugestellt.await();
+                }
+            } finally {
+                sperre.unlock();
+            }
+        }
+
+        void aufwecken() {
+            sperre.lock();
+            try {
+                nichtLeer.signalAll();
+            } finally {
+                sperre.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package bankprojekt.Observer;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * fasst die Änderungen an Konten zusammen, damit Oberflächen und Übersichten nicht bei
+ * jeder Buchung benachrichtigt werden, sondern nur einmal je geändertem Konto.
+ * <p>
+ * Für jedes abonnierte Konto meldet sich der Konflator als Beobachter an. Bei einer Änderung
+ * wird das Konto nur als geändert markiert (ein compareAndSet) und beim ersten Markieren in
+ * eine nicht blockierende Warteschlange eingereiht; weitere Änderungen bis zur nächsten
+ * Abholung kosten nur das Lesen der Markierung. {@link #abholen(Consumer)} liefert für jedes
+ * seitdem geänderte Konto genau eine {@link Kontomeldung} mit dessen neuestem Stand,
+ * {@link #starten(Duration, Consumer)} holt in festen Abständen ab. Der Aufwand für den
+ * Empfänger hängt so von der Anzahl der geänderten Konten ab, nicht von der Anzahl der Buchungen.
+ * Markieren und Abholen kommen ohne Sperre aus; nur das Lesen des Kontostands mit seiner
+ * Währung sperrt das Konto kurz (siehe {@link Kontomeldung}).
+ */
+public final class KontoKonflator implements AutoCloseable {
+
+    private final Map<Konto, Abonnement> abonnements = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Abonnement> geaendert = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService zeitgeber;
+    private Consumer<Kontomeldung> regelmaessigerEmpfaenger;
+    /**
+     * zählt die Abholungen, damit ein Konto je Abholung nur einmal gemeldet wird
+     */
+    private long runde;
+
+    /**
+     * meldet den Konflator am Konto an; ein schon abonniertes Konto bleibt unverändert
+     *
+     * @param konto das Konto
+     * @throws IllegalArgumentException wenn konto null ist
+     */
+    public void abonnieren(Konto konto) {
+        if (konto == null)
+            throw new IllegalArgumentException("Das Konto darf nicht null sein!");
+        Abonnement neu = new Abonnement(konto);
+        if (abonnements.putIfAbsent(konto, neu) == null)
+            konto.addObserver(neu);
+    }
+
+    /**
+     * meldet den Konflator vom Konto ab; noch nicht abgeholte Änderungen werden nicht mehr gemeldet
+     *
+     * @param konto das Konto
+     */
+    public void abbestellen(Konto konto) {
+        Abonnement abonnement = abonnements.remove(konto);
+        if (abonnement != null) {
+            konto.removeObserver(abonnement);
+            abonnement.abbestellt = true;
+        }
+    }
+
+    /**
+     * @return Anzahl der abonnierten Konten
+     */
+    public int getAnzahlAbonnements() {
+        return abonnements.size();
+    }
+
+    /**
+     * übergibt für jedes seit der letzten Abholung geänderte Konto eine Meldung mit seinem
+     * aktuellen Stand an den Empfänger. Konten, die sich während der Abholung erneut ändern,
+     * werden erst bei der nächsten Abholung wieder gemeldet.
+     * Es darf immer nur ein Thread gleichzeitig abholen.
+     *
+     * @param empfaenger erhält die Meldungen
+     * @return Anzahl der gemeldeten Konten
+     */
+    public int abholen(Consumer<Kontomeldung> empfaenger) {
+        long dieseRunde = ++runde;
+        int anzahl = 0;
+        Abonnement abonnement;
+        while ((abonnement = geaendert.poll()) != null) {
+            if (abonnement.runde == dieseRunde) {
+                geaendert.add(abonnement); // erst während dieser Abholung wieder geändert
+                break;
+            }
+            abonnement.runde = dieseRunde;
+            // erst die Markierung löschen, dann lesen: eine spätere Änderung markiert neu
+            abonnement.markiert.set(false);
+            if (abonnement.abbestellt)
+                continue;
+            empfaenger.accept(new Kontomeldung(abonnement.konto));
+            anzahl++;
+        }
+        return anzahl;
+    }
+
+    /**
+     * holt in festen Abständen in einem eigenen Thread ab
+     *
+     * @param intervall  Abstand zwischen zwei Abholungen
+     * @param empfaenger erhält die Meldungen
+     * @throws IllegalArgumentException wenn der Intervall nicht positiv ist oder empfaenger null ist
+     * @throws IllegalStateException    wenn schon regelmäßig abgeholt wird
+     */
+    public synchronized void starten(Duration intervall, Consumer<Kontomeldung> empfaenger) {
+        if (intervall == null || intervall.isNegative() || intervall.isZero() || empfaenger == null)
+            throw new IllegalArgumentException("Intervall und Empfänger sind ungültig!");
+        if (zeitgeber != null)
+            throw new IllegalStateException("Der Konflator wurde schon gestartet!");
+        zeitgeber = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "KontoKonflator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        regelmaessigerEmpfaenger = empfaenger;
+        long nanos = intervall.toNanos();
+        zeitgeber.scheduleWithFixedDelay(() -> abholen(empfaenger), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * beendet das regelmäßige Abholen, stellt dabei die noch ausstehenden Meldungen zu
+     * und meldet den Konflator von allen Konten ab
+     */
+    @Override
+    public synchronized void close() {
+        if (zeitgeber != null) {
+            zeitgeber.shutdown();
+            try {
+                zeitgeber.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            abholen(regelmaessigerEmpfaenger);
+        }
+        for (Konto konto : abonnements.keySet()) {
+            abbestellen(konto);
+        }
+    }
+
+    /**
+     * der Beobachter für ein Konto
+     */
+    private final class Abonnement implements KontoObserver {
+        final Konto konto;
+        final AtomicBoolean markiert = new AtomicBoolean();
+        volatile boolean abbestellt;
+        /**
+         * die Abholung, in der das Konto zuletzt gemeldet wurde; nur vom abholenden Thread verwendet
+         */
+        long runde;
+
+        Abonnement(Konto konto) {
+            this.konto = konto;
+        }
+
+        @Override
+        public void update(Konto k) {
+            if (!markiert.get() && markiert.compareAndSet(false, true))
+                geaendert.add(this);
+        }
+    }
+}
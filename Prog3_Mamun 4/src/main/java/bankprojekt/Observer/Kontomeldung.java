@@ -0,0 +1,85 @@
+package bankprojekt.Observer;
+
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Waehrung;
+
+/**
+ * der Stand eines Kontos zum Zeitpunkt der Zustellung durch einen {@link KontoKonflator}
+ */
+public final class Kontomeldung {
+    /**
+     * die Kontonummer
+     */
+    private final long kontonummer;
+    /**
+     * der Kontostand in Cent der Kontowährung
+     */
+    private final long kontostandCent;
+    /**
+     * der Sperrvermerk
+     */
+    private final boolean gesperrt;
+    /**
+     * die Kontowährung
+     */
+    private final Waehrung waehrung;
+
+    /**
+     * liest den aktuellen Stand des Kontos. Kontostand und Währung werden unter der Sperre des
+     * Kontos gemeinsam gelesen, damit eine gleichzeitige Währungsumstellung nie den alten
+     * Kontostand mit der neuen Währung liefert; die Sperre wird nur für diese Lesezugriffe gehalten.
+     *
+     * @param konto das Konto
+     */
+    Kontomeldung(Konto konto) {
+        this.kontonummer = konto.getKontonummer();
+        synchronized (konto) {
+            this.kontostandCent = konto.getKontostandCent();
+            this.gesperrt = konto.isGesperrt();
+            this.waehrung = konto.getAktuelleWaehrung();
+        }
+    }
+
+    /**
+     * @return die Kontonummer
+     */
+    public long getKontonummer() {
+        return kontonummer;
+    }
+
+    /**
+     * @return der Kontostand
+     */
+    public double getKontostand() {
+        return Cent.inBetrag(kontostandCent);
+    }
+
+    /**
+     * @return der Kontostand in Cent der Kontowährung
+     */
+    public long getKontostandCent() {
+        return kontostandCent;
+    }
+
+    /**
+     * @return true, wenn der Kontostand mindestens 0 ist
+     */
+    public boolean isImPlus() {
+        return kontostandCent >= 0;
+    }
+
+    /**
+     * @return true, wenn das Konto gesperrt ist
+     */
+    public boolean isGesperrt() {
+        return gesperrt;
+    }
+
+    /**
+     * @return die Kontowährung
+     */
+    public Waehrung getWaehrung() {
+        return waehrung;
+    }
+}
@@ -0,0 +1,22 @@
+package bankprojekt.Observer;
+
+/**
+ * legt fest, was der {@link Beobachterbus} tut, wenn ein Ereignis eingestellt wird,
+ * während sein Puffer voll ist
+ */
+public enum Ueberlaufstrategie {
+    /**
+     * der ändernde Thread wartet, bis wieder Platz ist; es geht kein Ereignis verloren
+     */
+    BLOCKIEREN,
+    /**
+     * das älteste noch nicht zugestellte Ereignis wird verworfen
+     */
+    AELTESTES_VERWERFEN,
+    /**
+     * ein Ereignis wird nicht eingestellt, wenn für dasselbe Konto und denselben Beobachter
+     * noch eines aussteht; der Beobachter liest bei der Zustellung ohnehin den aktuellen
+     * Stand des Kontos. Ist der Puffer trotzdem voll, wird wie bei {@link #BLOCKIEREN} gewartet.
+     */
+    ZUSAMMENFASSEN
+}
@@ -0,0 +1,90 @@
+package bankprojekt.messung;
+
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.Clearingabrechnung;
+import bankprojekt.verwaltung.Clearingstelle;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * lässt mehrere Threads zufällige Überweisungen zwischen mehreren Banken einreichen und die
+ * {@link Clearingstelle} im Takt abrechnen. Ausgegeben werden der Durchsatz und wie viele
+ * Ausgleiche zwischen den Banken die Verrechnung je Bankenpaar gegenüber einem Ausgleich
+ * je Überweisung einspart.
+ * <p>
+ * Aufruf: {@code Clearingmessung [banken] [kontenJeBank] [threads] [sekunden] [taktMillis]}
+ */
+public class Clearingmessung {
+
+    /**
+     * startet die Messung
+     *
+     * @param args Anzahl Banken, Konten je Bank, einreichende Threads, Messdauer in Sekunden
+     *             und Takt der Abrechnung in Millisekunden
+     * @throws InterruptedException wenn der Hauptthread unterbrochen wird
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int anzahlBanken = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int kontenJeBank = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int anzahlThreads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int sekunden = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long takt = args.length > 4 ? Long.parseLong(args[4]) : 100;
+
+        Bank[] banken = new Bank[anzahlBanken];
+        long[][] konten = new long[anzahlBanken][];
+        Clearingstelle stelle = new Clearingstelle();
+        for (int i = 0; i < anzahlBanken; i++) {
+            banken[i] = new Bank(12030000 + i);
+            stelle.anmelden(banken[i]);
+            konten[i] = Durchsatzvergleich.kontenAnlegen(banken[i], kontenJeBank);
+        }
+
+        long ende = System.nanoTime() + sekunden * 1_000_000_000L;
+        LongAdder eingereicht = new LongAdder();
+        Thread[] threads = new Thread[anzahlThreads];
+        for (int t = 0; t < anzahlThreads; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                long anzahl = 0;
+                while (System.nanoTime() < ende) {
+                    int von = zufall.nextInt(anzahlBanken);
+                    int nach = (von + 1 + zufall.nextInt(anzahlBanken - 1)) % anzahlBanken;
+                    if (banken[von].geldUeberweisen(konten[von][zufall.nextInt(kontenJeBank)],
+                            banken[nach].getBankleitzahl(), konten[nach][zufall.nextInt(kontenJeBank)],
+                            1, "Clearing"))
+                        anzahl++;
+                }
+                eingereicht.add(anzahl);
+            });
+            threads[t].start();
+        }
+
+        long gutgeschrieben = 0;
+        long ausgleiche = 0;
+        long abrechnungen = 0;
+        long dauer = 0;
+        while (System.nanoTime() < ende) {
+            Thread.sleep(takt);
+            Clearingabrechnung a = stelle.abrechnen();
+            gutgeschrieben += a.getGutgeschrieben();
+            ausgleiche += a.getAusgleiche();
+            dauer += a.getDauerNanos();
+            abrechnungen++;
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Clearingabrechnung rest = stelle.abrechnen();
+        gutgeschrieben += rest.getGutgeschrieben();
+        ausgleiche += rest.getAusgleiche();
+
+        System.out.printf("%d Banken, %d Konten je Bank, %d Threads, Takt %d ms, %d Prozessoren%n", anzahlBanken,
+                kontenJeBank, anzahlThreads, takt, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%12.0f Überweisungen/s eingereicht%n", eingereicht.sum() / (double) sekunden);
+        System.out.printf("%12d gutgeschrieben in %d Abrechnungen, je Abrechnung %.1f ms%n", gutgeschrieben,
+                abrechnungen, dauer / 1e6 / Math.max(1, abrechnungen));
+        System.out.printf("%12d Ausgleiche zwischen Banken statt %d (Faktor %.0f)%n", ausgleiche, gutgeschrieben,
+                gutgeschrieben / (double) Math.max(1, ausgleiche));
+    }
+}
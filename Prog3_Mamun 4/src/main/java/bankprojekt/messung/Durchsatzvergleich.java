@@ -0,0 +1,110 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * vergleicht den Durchsatz der Bank mit einer globalen Sperre um die ganze Bank
+ * (so wie sie früher von außen nötig war) mit dem Durchsatz der Sperren pro Konto.
+ * Die Last besteht zu 80% aus Überweisungen, zu 10% aus Einzahlungen
+ * und zu 10% aus Kontostandsabfragen auf zufällig gewählten Konten.
+ * <p>
+ * Aufruf: {@code Durchsatzvergleich [anzahlKonten] [sekundenProMessung]}
+ */
+public class Durchsatzvergleich {
+
+    /**
+     * startet die Messung für 1, 2, 4, ... Threads bis zur doppelten Prozessoranzahl
+     *
+     * @param args Anzahl der Konten und Dauer einer Messung in Sekunden
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int sekunden = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        Bank bank = new Bank(12030000);
+        long[] nummern = kontenAnlegen(bank, anzahlKonten);
+
+        System.out.printf("%d Konten, %d s pro Messung%n", anzahlKonten, sekunden);
+        System.out.printf("%8s %18s %18s %8s%n", "Threads", "global [Op/s]", "pro Konto [Op/s]", "Faktor");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double global = messen(bank, nummern, threads, sekunden, true);
+            double proKonto = messen(bank, nummern, threads, sekunden, false);
+            System.out.printf("%8d %18.0f %18.0f %8.2f%n", threads, global, proKonto, proKonto / global);
+        }
+    }
+
+    /**
+     * legt anzahl Girokonten mit je 1000 € Startguthaben an
+     *
+     * @param bank   die Bank
+     * @param anzahl Anzahl der Konten
+     * @return die Kontonummern
+     */
+    static long[] kontenAnlegen(Bank bank, int anzahl) {
+        // ein gemeinsamer Kunde, da jeder Kunde einen eigenen Shutdown-Hook registriert
+        Kunde kunde = new Kunde("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1));
+        long[] nummern = new long[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            nummern[i] = bank.girokontoErstellen(kunde);
+            bank.geldEinzahlen(nummern[i], 1000);
+        }
+        return nummern;
+    }
+
+    /**
+     * führt die Last mit der angegebenen Anzahl Threads aus
+     *
+     * @param bank          die Bank
+     * @param nummern       die Kontonummern, aus denen zufällig gewählt wird
+     * @param threads       Anzahl der Threads
+     * @param sekunden      Dauer der Messung
+     * @param globaleSperre true, wenn jede Operation zusätzlich die ganze Bank sperren soll
+     * @return Operationen pro Sekunde
+     */
+    static double messen(Bank bank, long[] nummern, int threads, int sekunden, boolean globaleSperre)
+            throws InterruptedException {
+        LongAdder operationen = new LongAdder();
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(sekunden);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                while (System.nanoTime() < ende) {
+                    long von = nummern[zufall.nextInt(nummern.length)];
+                    long nach = nummern[zufall.nextInt(nummern.length)];
+                    int art = zufall.nextInt(10);
+                    if (globaleSperre) {
+                        synchronized (bank) {
+                            ausfuehren(bank, art, von, nach);
+                        }
+                    } else {
+                        ausfuehren(bank, art, von, nach);
+                    }
+                    operationen.increment();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(sekunden + 60L, TimeUnit.SECONDS);
+        return operationen.sum() / (double) sekunden;
+    }
+
+    private static void ausfuehren(Bank bank, int art, long von, long nach) {
+        if (art < 8) {
+            bank.geldUeberweisen(von, nach, 1, "Messung");
+        } else if (art == 8) {
+            bank.geldEinzahlen(von, 1);
+        } else {
+            bank.getKontostand(von);
+        }
+    }
+}
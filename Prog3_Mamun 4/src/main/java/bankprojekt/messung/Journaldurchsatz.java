@@ -0,0 +1,111 @@
+package bankprojekt.messung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verwaltung.Bank;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * misst Durchsatz und Latenz von Einzahlungen einer Bank mit Journal für jede
+ * {@link Haltbarkeit} und verschiedene Anzahlen von Threads. Jeder Thread zahlt
+ * nacheinander auf zufällige Konten ein und misst die Dauer jedes Aufrufs.
+ * Die Journale werden in Unterverzeichnissen des angegebenen Verzeichnisses
+ * angelegt und danach wieder gelöscht; gemessen wird also der Datenträger dieses Verzeichnisses.
+ * <p>
+ * Aufruf: {@code Journaldurchsatz [verzeichnis] [sekundenProMessung]}
+ */
+public class Journaldurchsatz {
+
+    private static final int ANZAHL_KONTEN = 10_000;
+    private static final int[] THREADS = {1, 8, 64};
+
+    /**
+     * startet die Messungen
+     *
+     * @param args Verzeichnis für die Journale und Dauer einer Messung in Sekunden
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path basis = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("journal");
+        int sekunden = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.printf("Journal in %s, %d Konten, %d s pro Messung%n", basis, ANZAHL_KONTEN, sekunden);
+        System.out.printf("%-10s %8s %14s %12s %12s %12s%n",
+                "Modus", "Threads", "Op/s", "p50 [us]", "p99 [us]", "max [us]");
+        for (Haltbarkeit haltbarkeit : Haltbarkeit.values()) {
+            for (int threads : THREADS) {
+                Path verzeichnis = Files.createTempDirectory(basis, haltbarkeit.name());
+                try (Journal journal = Journal.oeffnen(verzeichnis, haltbarkeit)) {
+                    messen(new Bank(12030000, journal), haltbarkeit, threads, sekunden);
+                } finally {
+                    loeschen(verzeichnis);
+                }
+            }
+        }
+    }
+
+    private static void messen(Bank bank, Haltbarkeit haltbarkeit, int threads, int sekunden)
+            throws InterruptedException {
+        long[] nummern = Durchsatzvergleich.kontenAnlegen(bank, ANZAHL_KONTEN);
+        long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(sekunden);
+        long[][] dauern = new long[threads][];
+        int[] anzahl = new int[threads];
+        Thread[] arbeiter = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int nr = t;
+            arbeiter[t] = new Thread(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                long[] eigene = new long[1 << 16];
+                int n = 0;
+                long jetzt = System.nanoTime();
+                while (jetzt < ende) {
+                    bank.geldEinzahlen(nummern[zufall.nextInt(nummern.length)], 1);
+                    long danach = System.nanoTime();
+                    if (n == eigene.length)
+                        eigene = Arrays.copyOf(eigene, n * 2);
+                    eigene[n++] = danach - jetzt;
+                    jetzt = danach;
+                }
+                dauern[nr] = eigene;
+                anzahl[nr] = n;
+            });
+            arbeiter[t].start();
+        }
+        for (Thread thread : arbeiter) {
+            thread.join();
+        }
+        int gesamt = 0;
+        for (int n : anzahl) {
+            gesamt += n;
+        }
+        long[] alle = new long[gesamt];
+        int i = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(dauern[t], 0, alle, i, anzahl[t]);
+            i += anzahl[t];
+        }
+        Arrays.sort(alle);
+        System.out.printf("%-10s %8d %14.0f %12.1f %12.1f %12.1f%n", haltbarkeit, threads,
+                gesamt / (double) sekunden, quantil(alle, 0.5), quantil(alle, 0.99), alle[alle.length - 1] / 1000.0);
+    }
+
+    private static double quantil(long[] sortiert, double anteil) {
+        return sortiert[(int) Math.min(sortiert.length - 1, (long) (sortiert.length * anteil))] / 1000.0;
+    }
+
+    private static void loeschen(Path verzeichnis) throws IOException {
+        try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+            for (Path datei : dateien.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(datei);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package bankprojekt.messung;
+
+import bankprojekt.server.Binaerclient;
+import bankprojekt.server.Binaerserver;
+import bankprojekt.server.Bankprotokoll;
+import bankprojekt.verwaltung.Bank;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lastgenerator für den {@link Binaerserver}: startet den Dienst auf localhost und lässt über
+ * {@code verbindungen} Verbindungen je bis zu {@code fenster} Anfragen gleichzeitig ausstehen,
+ * gemischt aus 80% Überweisung, 10% Einzahlung und 10% Kontostand. Mit {@code fenster} 1
+ * wartet jede Anfrage auf ihre Antwort, das zeigt den Gewinn durch das Pipelining.
+ * <p>
+ * Aufruf: {@code Protokolllast [verbindungen] [fenster] [sekunden] [anzahlKonten]}
+ */
+public class Protokolllast {
+
+    /**
+     * startet Dienst und Last
+     *
+     * @param args Anzahl Verbindungen, ausstehende Anfragen je Verbindung, Messdauer in Sekunden
+     *             und Anzahl der Konten
+     * @throws IOException          wenn der Dienst nicht gestartet werden kann
+     * @throws InterruptedException wenn der Hauptthread unterbrochen wird
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int verbindungen = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int fenster = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        int sekunden = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int anzahlKonten = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        Bank bank = new Bank(12030000);
+        long[] nummern = Durchsatzvergleich.kontenAnlegen(bank, anzahlKonten);
+        try (Binaerserver dienst = Binaerserver.starten(bank,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            System.out.printf("%d Verbindungen, Fenster %d, %d Konten, %d Prozessoren%n", verbindungen, fenster,
+                    anzahlKonten, Runtime.getRuntime().availableProcessors());
+            long[] aufwaermen = last(dienst.getAdresse(), nummern, verbindungen, fenster, Math.max(2, sekunden / 3));
+            System.out.printf("Aufwärmen: %d Anfragen, %d Fehler%n", aufwaermen[0], aufwaermen[1]);
+            long[] ergebnis = last(dienst.getAdresse(), nummern, verbindungen, fenster, sekunden);
+            System.out.printf("%12.0f Anfragen/s, %d Fehler%n", ergebnis[0] / (double) sekunden, ergebnis[1]);
+        }
+    }
+
+    /**
+     * lässt die Last sekunden lang laufen
+     *
+     * @return Anzahl der Antworten und Anzahl der Fehler
+     */
+    private static long[] last(InetSocketAddress adresse, long[] nummern, int verbindungen, int fenster,
+                               long sekunden) throws InterruptedException {
+        long ende = System.nanoTime() + sekunden * 1_000_000_000L;
+        LongAdder antworten = new LongAdder();
+        LongAdder fehler = new LongAdder();
+        Thread[] threads = new Thread[verbindungen];
+        for (int v = 0; v < verbindungen; v++) {
+            threads[v] = new Thread(() -> {
+                try (Binaerclient client = Binaerclient.verbinden(adresse)) {
+                    senden(client, nummern, fenster, ende, antworten, fehler);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            threads[v].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        return new long[]{antworten.sum(), fehler.sum()};
+    }
+
+    /**
+     * hält bis zum Ende zwischen fenster/2 und fenster Anfragen ausstehend: liest jeweils eine
+     * halbe Fensterbreite Antworten und sendet ebenso viele neue Anfragen auf einmal
+     */
+    private static void senden(Binaerclient client, long[] nummern, int fenster, long ende,
+                               LongAdder antworten, LongAdder fehler) throws IOException {
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        int nachschub = Math.max(1, fenster / 2);
+        long kennung = 0;
+        long gelesen = 0;
+        long falsch = 0;
+        for (int i = 0; i < fenster; i++) {
+            anfragen(client, nummern, zufall, kennung++);
+        }
+        client.senden();
+        while (System.nanoTime() < ende) {
+            for (int i = 0; i < nachschub; i++) {
+                client.antwortLesen();
+                if (client.getStatus() != Bankprotokoll.OK && client.getStatus() != Bankprotokoll.ABGELEHNT)
+                    falsch++;
+                if (client.getKennung() != gelesen++)
+                    throw new IllegalStateException("Antwort außer der Reihe: " + client.getKennung());
+            }
+            for (int i = 0; i < nachschub; i++) {
+                anfragen(client, nummern, zufall, kennung++);
+            }
+            client.senden();
+        }
+        while (client.getAusstehend() > 0) {
+            client.antwortLesen();
+        }
+        antworten.add(gelesen);
+        fehler.add(falsch);
+    }
+
+    private static void anfragen(Binaerclient client, long[] nummern, ThreadLocalRandom zufall, long kennung)
+            throws IOException {
+        long konto = nummern[zufall.nextInt(nummern.length)];
+        int art = zufall.nextInt(10);
+        if (art < 8)
+            client.ueberweisen(kennung, konto, nummern[zufall.nextInt(nummern.length)], 1, "Clearing");
+        else if (art < 9)
+            client.einzahlen(kennung, konto, 1);
+        else
+            client.kontostandAbfragen(kennung, konto);
+    }
+}
@@ -0,0 +1,71 @@
+package bankprojekt.messung;
+
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.Ueberweisungsauftrag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * vergleicht eine Schleife über Bank.geldUeberweisen mit einer Sammelüberweisung
+ * derselben Aufträge auf zwei gleich aufgebauten Banken und prüft, dass
+ * beide Wege zu denselben Kontoständen führen.
+ * <p>
+ * Aufruf: {@code Sammeldurchsatz [anzahlKonten] [anzahlAuftraege] [wiederholungen]}
+ */
+public class Sammeldurchsatz {
+
+    /**
+     * startet die Messung
+     *
+     * @param args Anzahl der Konten, Anzahl der Aufträge je Lauf und Anzahl der Läufe
+     */
+    public static void main(String[] args) {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int anzahlAuftraege = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int wiederholungen = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Bank einzeln = new Bank(12030000);
+        Bank sammel = new Bank(12030000);
+        long[] nummern = Durchsatzvergleich.kontenAnlegen(einzeln, anzahlKonten);
+        Durchsatzvergleich.kontenAnlegen(sammel, anzahlKonten);
+
+        Random zufall = new Random(42);
+        long dauerEinzeln = 0;
+        long dauerSammel = 0;
+        for (int w = 0; w < wiederholungen; w++) {
+            List<Ueberweisungsauftrag> auftraege = new ArrayList<>(anzahlAuftraege);
+            for (int i = 0; i < anzahlAuftraege; i++) {
+                auftraege.add(new Ueberweisungsauftrag(nummern[zufall.nextInt(anzahlKonten)],
+                        nummern[zufall.nextInt(anzahlKonten)], 1 + zufall.nextInt(100), "Zahllauf"));
+            }
+
+            long start = System.nanoTime();
+            boolean[] erwartet = new boolean[anzahlAuftraege];
+            for (int i = 0; i < anzahlAuftraege; i++) {
+                Ueberweisungsauftrag a = auftraege.get(i);
+                erwartet[i] = einzeln.geldUeberweisen(a.getVonKontonr(), a.getNachKontonr(), a.getBetrag(),
+                        a.getVerwendungszweck());
+            }
+            dauerEinzeln += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            boolean[] ergebnisse = sammel.geldUeberweisen(auftraege);
+            dauerSammel += System.nanoTime() - start;
+
+            if (!Arrays.equals(erwartet, ergebnisse))
+                throw new IllegalStateException("Sammelüberweisung liefert andere Ergebnisse im Lauf " + w);
+        }
+        for (long nummer : nummern) {
+            if (einzeln.getKontostand(nummer) != sammel.getKontostand(nummer))
+                throw new IllegalStateException("Kontostand von " + nummer + " weicht ab");
+        }
+
+        long gesamt = (long) anzahlAuftraege * wiederholungen;
+        System.out.printf("einzeln: %12.0f Überweisungen/s%n", gesamt * 1e9 / dauerEinzeln);
+        System.out.printf("Sammel:  %12.0f Überweisungen/s%n", gesamt * 1e9 / dauerSammel);
+        System.out.printf("Faktor:  %12.2f%n", dauerEinzeln / (double) dauerSammel);
+    }
+}
@@ -0,0 +1,181 @@
+package bankprojekt.messung;
+
+import bankprojekt.server.Bankserver;
+import bankprojekt.verwaltung.Bank;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lastgenerator für den {@link Bankserver}: startet den Dienst auf localhost und lässt
+ * {@code verbindungen} virtuelle Threads über je eine eigene HTTP-Verbindung so schnell wie
+ * möglich Anfragen senden, gemischt aus 70% Kontostand, 15% Einzahlung, 10% Überweisung und
+ * 5% Abhebung. Nach der Aufwärmzeit werden Durchsatz und Antwortzeiten (Median, p99, p99,9,
+ * Maximum) über die Messdauer ausgegeben.
+ * <p>
+ * Aufruf: {@code Serverlast [verbindungen] [sekunden] [anzahlKonten]}
+ */
+public class Serverlast {
+
+    /**
+     * startet Dienst und Last
+     *
+     * @param args Anzahl gleichzeitiger Verbindungen, Messdauer in Sekunden und Anzahl der Konten
+     * @throws IOException          wenn der Dienst nicht gestartet werden kann
+     * @throws InterruptedException wenn der Hauptthread unterbrochen wird
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int verbindungen = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int sekunden = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int anzahlKonten = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        // sonst schließt der Dienst alle Verbindungen über 200 nach jeder Antwort
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(verbindungen));
+
+        Bank bank = new Bank(12030000);
+        long[] nummern = Durchsatzvergleich.kontenAnlegen(bank, anzahlKonten);
+        try (Bankserver dienst = Bankserver.starten(bank, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            String basis = "http://localhost:" + dienst.getAdresse().getPort();
+            System.out.printf("%d Verbindungen, %d Konten, %d Prozessoren%n", verbindungen, anzahlKonten,
+                    Runtime.getRuntime().availableProcessors());
+            long warmup = Math.max(2, sekunden / 3);
+            Ergebnis aufwaermen = last(basis, nummern, verbindungen, warmup);
+            System.out.printf("Aufwärmen: %d Anfragen, %d Fehler%n", aufwaermen.anzahl(), aufwaermen.fehler.sum());
+            Ergebnis ergebnis = last(basis, nummern, verbindungen, sekunden);
+            long[] zeiten = ergebnis.zeiten();
+            System.out.printf("%10.0f Anfragen/s, %d Fehler%n", zeiten.length / (double) sekunden, ergebnis.fehler.sum());
+            System.out.printf("Median %8.2f ms, p99 %8.2f ms, p99,9 %8.2f ms, max %8.2f ms%n",
+                    quantil(zeiten, 0.5), quantil(zeiten, 0.99), quantil(zeiten, 0.999),
+                    zeiten.length == 0 ? 0 : zeiten[zeiten.length - 1] / 1e6);
+        }
+    }
+
+    /**
+     * lässt die Last sekunden lang laufen
+     */
+    private static Ergebnis last(String basis, long[] nummern, int verbindungen, long sekunden)
+            throws InterruptedException {
+        long ende = System.nanoTime() + sekunden * 1_000_000_000L;
+        Ergebnis ergebnis = new Ergebnis(verbindungen);
+        // HTTP/1.1 ohne Pipelining: der Client öffnet für jede gleichzeitige Anfrage eine
+        // eigene Verbindung und verwendet sie danach wieder
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(30)).executor(threads).build()) {
+            for (int v = 0; v < verbindungen; v++) {
+                int nr = v;
+                threads.submit(() -> {
+                    ergebnis.zeiten[nr] = senden(client, basis, nummern, ende, ergebnis.fehler);
+                    ergebnis.fertig.increment();
+                });
+            }
+            while (ergebnis.fertig.sum() < verbindungen) {
+                Thread.sleep(10);
+            }
+        }
+        return ergebnis;
+    }
+
+    /**
+     * sendet bis zum Ende Anfragen und liefert die Antwortzeiten in Nanosekunden
+     */
+    private static long[] senden(HttpClient client, String basis, long[] nummern, long ende, LongAdder fehler) {
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        long[] zeiten = new long[1024];
+        int anzahl = 0;
+        while (System.nanoTime() < ende) {
+            long konto = nummern[zufall.nextInt(nummern.length)];
+            int art = zufall.nextInt(100);
+            HttpRequest anfrage;
+            if (art < 70) {
+                anfrage = HttpRequest.newBuilder(URI.create(basis + "/konten/" + konto)).GET().build();
+            } else if (art < 85) {
+                anfrage = post(basis + "/konten/" + konto + "/einzahlung?betrag=1");
+            } else if (art < 95) {
+                long nach = nummern[zufall.nextInt(nummern.length)];
+                anfrage = post(basis + "/ueberweisungen?von=" + konto + "&nach=" + nach + "&betrag=1&zweck=Last");
+            } else {
+                anfrage = post(basis + "/konten/" + konto + "/abhebung?betrag=1");
+            }
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> antwort = client.send(anfrage, HttpResponse.BodyHandlers.discarding());
+                // 409: Überweisung auf dasselbe Konto oder nicht gedeckt, fachlich kein Fehler des Dienstes
+                if (antwort.statusCode() != 200 && antwort.statusCode() != 409)
+                    fehler.increment();
+            } catch (IOException e) {
+                fehler.increment();
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (anzahl == zeiten.length)
+                zeiten = Arrays.copyOf(zeiten, anzahl * 2);
+            zeiten[anzahl++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(zeiten, anzahl);
+    }
+
+    private static HttpRequest post(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    /**
+     * @param zeiten aufsteigend sortierte Antwortzeiten in Nanosekunden
+     * @param anteil das Quantil zwischen 0 und 1
+     * @return das Quantil in Millisekunden
+     */
+    private static double quantil(long[] zeiten, double anteil) {
+        if (zeiten.length == 0)
+            return 0;
+        return zeiten[(int) Math.min(zeiten.length - 1, Math.ceil(anteil * zeiten.length) - 1)] / 1e6;
+    }
+
+    /**
+     * die Antwortzeiten aller Threads eines Laufs
+     */
+    private static final class Ergebnis {
+        final long[][] zeiten;
+        final LongAdder fehler = new LongAdder();
+        final LongAdder fertig = new LongAdder();
+
+        Ergebnis(int verbindungen) {
+            zeiten = new long[verbindungen][];
+        }
+
+        long anzahl() {
+            long summe = 0;
+            for (long[] z : zeiten) {
+                summe += z == null ? 0 : z.length;
+            }
+            return summe;
+        }
+
+        /**
+         * @return alle Antwortzeiten aufsteigend sortiert
+         */
+        long[] zeiten() {
+            long[] alle = new long[(int) anzahl()];
+            int stelle = 0;
+            for (long[] z : zeiten) {
+                if (z != null) {
+                    System.arraycopy(z, 0, alle, stelle, z.length);
+                    stelle += z.length;
+                }
+            }
+            Arrays.sort(alle);
+            return alle;
+        }
+    }
+}
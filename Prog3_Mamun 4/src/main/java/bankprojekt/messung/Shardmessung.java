@@ -0,0 +1,84 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.VerteilteBank;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * misst den Durchsatz einer {@link VerteilteBank} mit 1, 2, 4, ... Shards und je Shard einem
+ * Thread. Jeder Thread überweist zwischen zufälligen Konten; ein einstellbarer Anteil der
+ * Überweisungen geht in einen anderen Shard und läuft damit über beide Phasen. Nahezu lineare
+ * Skalierung ist nur zu erwarten, solange es mindestens so viele Prozessoren wie Shards gibt.
+ * <p>
+ * Aufruf: {@code Shardmessung [maxShards] [kontenJeShard] [sekunden] [anteilUebergreifendProzent]}
+ */
+public class Shardmessung {
+
+    /**
+     * startet die Messung
+     *
+     * @param args größte Anzahl Shards, Konten je Shard, Messdauer je Lauf in Sekunden und
+     *             Anteil der Überweisungen zwischen Shards in Prozent
+     * @throws InterruptedException wenn der Hauptthread unterbrochen wird
+     * @throws IOException          wird von der nur im Speicher arbeitenden Bank nicht geworfen
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int maxShards = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int kontenJeShard = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int sekunden = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int uebergreifendProzent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        System.out.printf("%d Konten je Shard, %d %% zwischen Shards, %d Prozessoren%n", kontenJeShard,
+                uebergreifendProzent, Runtime.getRuntime().availableProcessors());
+        double basis = 0;
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            double durchsatz = messen(shards, kontenJeShard, sekunden, uebergreifendProzent);
+            if (shards == 1)
+                basis = durchsatz;
+            System.out.printf("%2d Shards: %12.0f Überweisungen/s (Faktor %.2f)%n", shards, durchsatz,
+                    durchsatz / basis);
+        }
+    }
+
+    private static double messen(int anzahlShards, int kontenJeShard, int sekunden, int uebergreifendProzent)
+            throws InterruptedException, IOException {
+        try (VerteilteBank bank = new VerteilteBank(12030000, anzahlShards)) {
+            long[][] konten = new long[anzahlShards][kontenJeShard];
+            for (int k = 0; k < kontenJeShard; k++) {
+                for (int s = 0; s < anzahlShards; s++) {
+                    long nummer = bank.girokontoErstellen(Kunde.MUSTERMANN);
+                    bank.geldEinzahlen(nummer, 1000);
+                    konten[bank.getShard(nummer)][k] = nummer;
+                }
+            }
+            long ende = System.nanoTime() + sekunden * 1_000_000_000L;
+            LongAdder ausgefuehrt = new LongAdder();
+            Thread[] threads = new Thread[anzahlShards];
+            for (int t = 0; t < anzahlShards; t++) {
+                int heimat = t;
+                threads[t] = new Thread(() -> {
+                    ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                    long anzahl = 0;
+                    while (System.nanoTime() < ende) {
+                        for (int i = 0; i < 256; i++) {
+                            int ziel = anzahlShards > 1 && zufall.nextInt(100) < uebergreifendProzent
+                                    ? (heimat + 1 + zufall.nextInt(anzahlShards - 1)) % anzahlShards : heimat;
+                            bank.geldUeberweisen(konten[heimat][zufall.nextInt(kontenJeShard)],
+                                    konten[ziel][zufall.nextInt(kontenJeShard)], 1, "Last");
+                        }
+                        anzahl += 256;
+                    }
+                    ausgefuehrt.add(anzahl);
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            return ausgefuehrt.sum() / (double) sekunden;
+        }
+    }
+}
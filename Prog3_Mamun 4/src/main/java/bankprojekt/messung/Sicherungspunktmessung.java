@@ -0,0 +1,75 @@
+package bankprojekt.messung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * misst, wie lange das Schreiben eines Sicherungspunkts und das Wiederherstellen einer Bank
+ * daraus dauert. Die Konten werden über einen reservierten Nummernblock importiert;
+ * Kunden werden ohne Shutdown-Hook angelegt, damit die Messung nicht am Speicher scheitert.
+ * <p>
+ * Aufruf: {@code Sicherungspunktmessung [anzahlKonten] [kontenProKunde] [verzeichnis]}
+ */
+public class Sicherungspunktmessung {
+
+    /**
+     * legt die Bank an, schreibt den Sicherungspunkt und lädt ihn wieder
+     *
+     * @param args Anzahl der Konten, Konten pro Kunde und Verzeichnis für Sicherungspunkt und Journal
+     */
+    public static void main(String[] args) throws IOException {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int kontenProKunde = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path verzeichnis = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("sicherungspunkt");
+        Path datei = verzeichnis.resolve("bank.sicherung");
+        Path journalVerzeichnis = verzeichnis.resolve("journal");
+
+        try {
+            schreiben(anzahl, kontenProKunde, datei);
+            System.gc();
+            long beginn = System.nanoTime();
+            Bank bank;
+            try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.GRUPPE)) {
+                bank = new Bank(12030000, journal, datei);
+            }
+            double sekunden = (System.nanoTime() - beginn) / 1e9;
+            System.out.printf("Laden:     %.2f s für %d Konten (%.0f Konten/s)%n",
+                    sekunden, bank.getKontonummern().count(), anzahl / sekunden);
+        } finally {
+            try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+                for (Path p : dateien.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+
+    private static void schreiben(int anzahl, int kontenProKunde, Path datei) throws IOException {
+        Bank bank = new Bank(12030000);
+        long erste = bank.kontonummernReservieren(anzahl);
+        Kunde kunde = null;
+        for (int i = 0; i < anzahl; i++) {
+            if (i % kontenProKunde == 0)
+                kunde = Kunde.wiederherstellen("Max", "Messung" + i, "Labor", LocalDate.of(2000, 1, 1));
+            Girokonto konto = new Girokonto(kunde, erste + i, 500);
+            konto.einzahlen(i % 1000);
+            bank.kontoImportieren(konto);
+        }
+        long beginn = System.nanoTime();
+        bank.sicherungspunktSchreiben(datei);
+        double sekunden = (System.nanoTime() - beginn) / 1e9;
+        System.out.printf("Schreiben: %.2f s für %d Konten, %d MB%n",
+                sekunden, anzahl, Files.size(datei) >> 20);
+    }
+}
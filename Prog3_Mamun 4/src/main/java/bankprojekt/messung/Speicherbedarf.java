@@ -0,0 +1,56 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+
+/**
+ * misst den Speicherbedarf pro Konto, indem viele Konten angelegt werden und
+ * die Differenz des belegten Heaps vor und nach dem Anlegen durch die Anzahl geteilt wird.
+ * Alle Konten gehören demselben Kunden, gemessen wird also nur das Konto selbst.
+ * <p>
+ * Aufruf: {@code Speicherbedarf [anzahlKonten]}
+ */
+public class Speicherbedarf {
+
+    /**
+     * startet die Messung für Girokonten und Sparbücher
+     *
+     * @param args Anzahl der Konten
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Kunde kunde = new Kunde("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1));
+
+        Konto[] konten = new Konto[anzahl];
+        long vorher = belegterSpeicher();
+        for (int i = 0; i < anzahl; i++) {
+            konten[i] = new Girokonto(kunde, i + 1, 500);
+        }
+        long nachher = belegterSpeicher();
+        Reference.reachabilityFence(konten);
+        System.out.printf("Girokonto: %6.1f Byte pro Konto%n", (nachher - vorher) / (double) anzahl);
+
+        konten = new Konto[anzahl];
+        vorher = belegterSpeicher();
+        for (int i = 0; i < anzahl; i++) {
+            konten[i] = new Sparbuch(kunde, i + 1);
+        }
+        nachher = belegterSpeicher();
+        Reference.reachabilityFence(konten);
+        System.out.printf("Sparbuch:  %6.1f Byte pro Konto%n", (nachher - vorher) / (double) anzahl);
+    }
+
+    private static long belegterSpeicher() throws InterruptedException {
+        Runtime laufzeit = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return laufzeit.totalMemory() - laufzeit.freeMemory();
+    }
+}
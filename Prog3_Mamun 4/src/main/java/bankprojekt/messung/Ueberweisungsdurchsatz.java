@@ -0,0 +1,66 @@
+package bankprojekt.messung;
+
+import bankprojekt.verwaltung.Bank;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * misst den Durchsatz von Bank.geldUeberweisen in Abhängigkeit von der Threadanzahl
+ * und prüft nach jeder Messung, dass die Summe aller Kontostände unverändert ist.
+ * <p>
+ * Aufruf: {@code Ueberweisungsdurchsatz [anzahlKonten] [ueberweisungenProMessung]}
+ */
+public class Ueberweisungsdurchsatz {
+
+    /**
+     * startet die Messung für 1, 2, 4, ... Threads bis zur doppelten Prozessoranzahl
+     *
+     * @param args Anzahl der Konten und Anzahl der Überweisungen je Messung
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ueberweisungen = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        Bank bank = new Bank(12030000);
+        long[] nummern = Durchsatzvergleich.kontenAnlegen(bank, anzahlKonten);
+        double summeVorher = summe(bank, nummern);
+
+        System.out.printf("%d Konten, %d Überweisungen pro Messung%n", anzahlKonten, ueberweisungen);
+        System.out.printf("%8s %18s %16s%n", "Threads", "Überweisungen/s", "Summe erhalten");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long dauer = messen(bank, nummern, threads, ueberweisungen / threads);
+            double durchsatz = (ueberweisungen / threads) * (double) threads / dauer * TimeUnit.SECONDS.toNanos(1);
+            System.out.printf("%8d %18.0f %16s%n", threads, durchsatz, summe(bank, nummern) == summeVorher);
+        }
+    }
+
+    private static long messen(Bank bank, long[] nummern, int threads, int proThread) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                for (int i = 0; i < proThread; i++) {
+                    long von = nummern[zufall.nextInt(nummern.length)];
+                    long nach = nummern[zufall.nextInt(nummern.length)];
+                    bank.geldUeberweisen(von, nach, 1 + zufall.nextInt(100), "Messung");
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        return System.nanoTime() - start;
+    }
+
+    private static double summe(Bank bank, long[] nummern) {
+        double summe = 0;
+        for (long nummer : nummern) {
+            summe += bank.getKontostand(nummer);
+        }
+        return summe;
+    }
+}
@@ -0,0 +1,47 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.Waehrungsumstellung;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * misst den Durchsatz der Umstellung aller Konten einer Bank auf eine andere Währung
+ * mit 1, 2, 4, ... Threads bis zur angegebenen Parallelität. Jede Bank wird zum Aufwärmen
+ * einmal hin und zurück umgestellt, gemessen wird die dritte Umstellung.
+ * <p>
+ * Aufruf: {@code Umstellungsmessung [anzahlKonten] [maxParallelitaet]}
+ */
+public class Umstellungsmessung {
+
+    /**
+     * startet die Messung
+     *
+     * @param args Anzahl der Konten und größte Anzahl Threads
+     */
+    public static void main(String[] args) {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxParallelitaet = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        Bank bank = new Bank(12030000);
+        Durchsatzvergleich.kontenAnlegen(bank, anzahlKonten);
+        System.out.printf("%d Konten, %d Prozessoren%n", anzahlKonten, Runtime.getRuntime().availableProcessors());
+        for (int parallelitaet = 1; parallelitaet <= maxParallelitaet; parallelitaet *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelitaet);
+            try {
+                bank.waehrungUmstellen(Waehrung.ESCUDO, pool).abwarten();
+                bank.waehrungUmstellen(Waehrung.EUR, pool).abwarten();
+                Waehrungsumstellung umstellung = bank.waehrungUmstellen(Waehrung.ESCUDO, pool);
+                umstellung.abwarten();
+                System.out.printf("%2d Threads: %12.0f Konten/s, Umrechnungsdifferenz %.2f Cent%n", parallelitaet,
+                        umstellung.getUmgestellt() * 1e9 / umstellung.getDauerNanos(),
+                        umstellung.getUmrechnungsdifferenz());
+                bank.waehrungUmstellen(Waehrung.EUR, pool).abwarten();
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
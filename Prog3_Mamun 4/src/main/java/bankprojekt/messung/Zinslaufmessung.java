@@ -0,0 +1,57 @@
+package bankprojekt.messung;
+
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.Zinslauf;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * misst die Dauer des monatlichen Zinslaufs über eine Bank mit lauter Sparbüchern,
+ * einmal für einen neuen Monat und einmal wiederholt für denselben Monat.
+ * <p>
+ * Aufruf: {@code Zinslaufmessung [anzahlKonten] [parallelitaet]}
+ */
+public class Zinslaufmessung {
+
+    /**
+     * startet die Messung
+     *
+     * @param args Anzahl der Sparbücher und Anzahl Threads
+     */
+    public static void main(String[] args) {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int parallelitaet = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        Bank bank = new Bank(12030000);
+        // ein gemeinsamer Kunde, da jeder Kunde einen eigenen Shutdown-Hook registriert
+        Kunde kunde = new Kunde("Max", "Messung", "Labor", LocalDate.of(2000, 1, 1));
+        for (int i = 0; i < anzahlKonten; i++) {
+            bank.geldEinzahlen(bank.sparbuchErstellen(kunde), 1000);
+        }
+        System.out.printf("%d Sparbücher, %d Threads, %d Prozessoren%n", anzahlKonten, parallelitaet,
+                Runtime.getRuntime().availableProcessors());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelitaet);
+        try {
+            YearMonth monat = YearMonth.of(2000, 1);
+            for (int i = 0; i < 3; i++) {
+                Zinslauf lauf = bank.zinsenGutschreiben(monat, pool);
+                lauf.abwarten();
+                System.out.printf("%s: %6.2f s, %d verzinst, Zinsen %.2f €%n", monat, lauf.getDauerNanos() / 1e9,
+                        lauf.getVerzinst(), lauf.getZinsen(Waehrung.EUR));
+                monat = monat.plusMonths(1);
+            }
+            Zinslauf wiederholt = bank.zinsenGutschreiben(monat.minusMonths(1), pool);
+            wiederholt.abwarten();
+            System.out.printf("wiederholt: %6.2f s, %d schon verzinst%n", wiederholt.getDauerNanos() / 1e9,
+                    wiederholt.getSchonVerzinst());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
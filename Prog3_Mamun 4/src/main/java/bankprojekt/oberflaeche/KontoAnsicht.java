@@ -0,0 +1,99 @@
+package bankprojekt.oberflaeche;
+
+import bankprojekt.Observer.KontoObserver;
+import bankprojekt.verarbeitung.Konto;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleBooleanProperty;
+
+/**
+ * stellt die Eigenschaften eines Kontos als JavaFX-Properties zur Verfügung,
+ * damit eine Oberfläche sich daran binden kann. Das Konto selbst kennt kein
+ * JavaFX; die Ansicht wird erst angelegt, wenn eine Oberfläche sie braucht,
+ * und meldet sich als Beobachter am Konto an, um die Properties mitzuführen.
+ */
+public final class KontoAnsicht implements KontoObserver {
+    /**
+     * das dargestellte Konto
+     */
+    private final Konto konto;
+    /**
+     * der Kontostand
+     */
+    private final ReadOnlyDoubleWrapper kontostand;
+    /**
+     * true, wenn der Kontostand nicht negativ ist
+     */
+    private final ReadOnlyBooleanWrapper imPlus;
+    /**
+     * der Sperrvermerk; eine Änderung an der Property sperrt bzw. entsperrt das Konto
+     */
+    private final BooleanProperty gesperrt;
+
+    /**
+     * erstellt die Ansicht und meldet sie am Konto an
+     *
+     * @param konto das darzustellende Konto
+     * @throws IllegalArgumentException wenn konto null ist
+     */
+    public KontoAnsicht(Konto konto) {
+        if (konto == null)
+            throw new IllegalArgumentException("Konto darf nicht null sein!");
+        this.konto = konto;
+        this.kontostand = new ReadOnlyDoubleWrapper(this, "kontostand", konto.getKontostand());
+        this.imPlus = new ReadOnlyBooleanWrapper(this, "imPlus", konto.isImPlus());
+        this.gesperrt = new SimpleBooleanProperty(this, "gesperrt", konto.isGesperrt());
+        this.gesperrt.addListener((property, alt, neu) -> {
+            if (neu)
+                konto.sperren();
+            else
+                konto.entsperren();
+        });
+        konto.addObserver(this);
+    }
+
+    @Override
+    public void update(Konto geaendert) {
+        kontostand.set(geaendert.getKontostand());
+        imPlus.set(geaendert.isImPlus());
+        gesperrt.set(geaendert.isGesperrt());
+    }
+
+    /**
+     * meldet die Ansicht wieder vom Konto ab
+     */
+    public void abmelden() {
+        konto.removeObserver(this);
+    }
+
+    /**
+     * @return das dargestellte Konto
+     */
+    public Konto getKonto() {
+        return konto;
+    }
+
+    /**
+     * @return der Kontostand als Property
+     */
+    public ReadOnlyDoubleProperty kontostandProperty() {
+        return kontostand.getReadOnlyProperty();
+    }
+
+    /**
+     * @return true als Property, wenn der Kontostand nicht negativ ist
+     */
+    public ReadOnlyBooleanProperty imPlusProperty() {
+        return imPlus.getReadOnlyProperty();
+    }
+
+    /**
+     * @return der Sperrvermerk als Property, kann auch bidirektional gebunden werden
+     */
+    public BooleanProperty gesperrtProperty() {
+        return gesperrt;
+    }
+}
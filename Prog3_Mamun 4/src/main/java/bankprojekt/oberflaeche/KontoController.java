@@ -40,9 +40,10 @@ public class KontoController extends Application {
 
         // Oberfläche erstellen und mit dem Modell verknüpfen
         kontoOberflaeche = new KontoOberflaeche(girokonto, kunde);
-        kontoOberflaeche.getKontostand().textProperty().bind(girokonto.kontostandProperty().asString("%.2f €"));
-        kontoOberflaeche.getGesperrt().selectedProperty().bindBidirectional(girokonto.gesperrtProperty());
-        kontoOberflaeche.getAdresse().textProperty().bindBidirectional(kunde.adresseProperty());
+        KontoAnsicht kontoAnsicht = kontoOberflaeche.getKontoAnsicht();
+        kontoOberflaeche.getKontostand().textProperty().bind(kontoAnsicht.kontostandProperty().asString("%.2f €"));
+        kontoOberflaeche.getGesperrt().selectedProperty().bindBidirectional(kontoAnsicht.gesperrtProperty());
+        kontoOberflaeche.getAdresse().textProperty().bindBidirectional(kontoOberflaeche.getKundeAnsicht().adresseProperty());
 
         // Ereignishandler für die Buttons einrichten
         kontoOberflaeche.getEinzahlen().setOnAction(e -> einzahlen());
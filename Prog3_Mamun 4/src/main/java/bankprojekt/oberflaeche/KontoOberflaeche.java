@@ -28,7 +28,7 @@ import static javafx.beans.binding.Bindings.createStringBinding;
  *
  * @author Doro
  */
-public class KontoOberflaeche extends BorderPane {
+public final class KontoOberflaeche extends BorderPane {
     @FXML
     private Text ueberschrift;
     @FXML
@@ -81,6 +81,14 @@ public class KontoOberflaeche extends BorderPane {
 
     private Konto konto;
     private Kunde kunde;
+    /**
+     * JavaFX-Sicht auf das Konto, an die sich die Anzeige bindet
+     */
+    private KontoAnsicht kontoAnsicht;
+    /**
+     * JavaFX-Sicht auf den Kontoinhaber, an die sich die Anzeige bindet
+     */
+    private KundeAnsicht kundeAnsicht;
 
     /**
      * Erstellt die Oberfläche für ein Konto.
@@ -153,21 +161,23 @@ public class KontoOberflaeche extends BorderPane {
 
         this.konto = konto;
         this.kunde = kunde;
+        this.kontoAnsicht = new KontoAnsicht(konto);
+        this.kundeAnsicht = new KundeAnsicht(kunde);
         // Kontonummer anzeigen
 
         // Kontostand anzeigen und Farbanpassung je nach Wert
         stand.textProperty().bind(createStringBinding(
                 () -> String.format("%.2f €", konto.getKontostand()),
-                konto.kontostandProperty()));
+                kontoAnsicht.kontostandProperty()));
         stand.fillProperty().bind(Bindings.createObjectBinding(
-                () -> konto.getKontostand() >= 0 ? Color.GREEN : Color.RED,
-                konto.kontostandProperty()));
+                () -> kontoAnsicht.imPlusProperty().get() ? Color.GREEN : Color.RED,
+                kontoAnsicht.imPlusProperty()));
 
         // Gesperrt Zustand und Möglichkeit zur Änderung
-        gesperrt.selectedProperty().bindBidirectional(konto.gesperrtProperty());
+        gesperrt.selectedProperty().bindBidirectional(kontoAnsicht.gesperrtProperty());
 
         // Adresse anzeigen und Änderung ermöglichen
-        adresse.textProperty().bindBidirectional(kunde.adresseProperty());
+        adresse.textProperty().bindBidirectional(kundeAnsicht.adresseProperty());
 
         // Ereignishandler für Einzahlungen und Abhebungen
         einzahlen.setOnAction(e -> handleEinzahlung());
@@ -289,4 +299,22 @@ public class KontoOberflaeche extends BorderPane {
     public Text getMeldung() {
         return meldung;
     }
+
+    /**
+     * Getter für die JavaFX-Sicht auf das angezeigte Konto.
+     *
+     * @return Die KontoAnsicht, an die sich die Anzeige bindet.
+     */
+    public KontoAnsicht getKontoAnsicht() {
+        return kontoAnsicht;
+    }
+
+    /**
+     * Getter für die JavaFX-Sicht auf den Kontoinhaber.
+     *
+     * @return Die KundeAnsicht, an die sich die Anzeige bindet.
+     */
+    public KundeAnsicht getKundeAnsicht() {
+        return kundeAnsicht;
+    }
 }
\ No newline at end of file
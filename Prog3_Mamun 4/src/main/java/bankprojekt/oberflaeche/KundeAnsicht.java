@@ -0,0 +1,51 @@
+package bankprojekt.oberflaeche;
+
+import bankprojekt.verarbeitung.Kunde;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * stellt die änderbaren Eigenschaften eines Kunden als JavaFX-Properties
+ * zur Verfügung. Änderungen an den Properties werden in den Kunden übernommen.
+ */
+public final class KundeAnsicht {
+    /**
+     * der dargestellte Kunde
+     */
+    private final Kunde kunde;
+    /**
+     * die Adresse des Kunden
+     */
+    private final StringProperty adresse;
+
+    /**
+     * erstellt die Ansicht für den angegebenen Kunden
+     *
+     * @param kunde der darzustellende Kunde
+     * @throws IllegalArgumentException wenn kunde null ist
+     */
+    public KundeAnsicht(Kunde kunde) {
+        if (kunde == null)
+            throw new IllegalArgumentException("Kunde darf nicht null sein!");
+        this.kunde = kunde;
+        this.adresse = new SimpleStringProperty(this, "adresse", kunde.getAdresse());
+        this.adresse.addListener((property, alt, neu) -> {
+            if (neu != null)
+                kunde.setAdresse(neu);
+        });
+    }
+
+    /**
+     * @return der dargestellte Kunde
+     */
+    public Kunde getKunde() {
+        return kunde;
+    }
+
+    /**
+     * @return die Adresse als Property
+     */
+    public StringProperty adresseProperty() {
+        return adresse;
+    }
+}
@@ -0,0 +1,97 @@
+package bankprojekt.persistenz;
+
+/**
+ * die Arten von Einträgen im {@link Journal}. Bis auf {@link #KONTO_GELOESCHT} enthält jeder
+ * Eintrag den vollständigen Zustand der betroffenen Konten nach der Änderung, die Art
+ * dient nur der Nachvollziehbarkeit. Beim Abspielen wird der Zustand einfach übernommen,
+ * das Ergebnis hängt also nicht von Uhrzeit oder Kontoregeln zum Zeitpunkt des Abspielens ab.
+ * <p>
+ * Die Reihenfolge der Konstanten ist Teil des Dateiformats und darf nicht verändert werden.
+ */
+public enum Eintragsart {
+    /**
+     * ein Konto wurde eröffnet, der Eintrag enthält zusätzlich den Inhaber
+     */
+    KONTO_ANGELEGT,
+    /**
+     * ein Konto wurde gelöscht, der Eintrag enthält nur die Kontonummer
+     */
+    KONTO_GELOESCHT,
+    /**
+     * auf ein Konto wurde eingezahlt
+     */
+    EINZAHLUNG,
+    /**
+     * von einem Konto wurde abgehoben
+     */
+    ABHEBUNG,
+    /**
+     * eine Überweisung, der Eintrag enthält beide Konten
+     */
+    UEBERWEISUNG,
+    /**
+     * ein Konto wurde gesperrt
+     */
+    KONTO_GESPERRT,
+    /**
+     * ein Konto wurde entsperrt
+     */
+    KONTO_ENTSPERRT,
+    /**
+     * die Währung eines Kontos wurde gewechselt
+     */
+    WAEHRUNGSWECHSEL,
+    /**
+     * einem Sparbuch wurden die Zinsen eines Monats gutgeschrieben
+     */
+    ZINSGUTSCHRIFT,
+    /**
+     * eine Überweisung an eine andere Bank wurde abgebucht und der Clearingstelle übergeben;
+     * die Zusatzdaten beschreiben die Überweisung, damit sie nach einem Neustart erneut
+     * eingereicht werden kann
+     */
+    CLEARING_AUSGANG,
+    /**
+     * die Clearingstelle hat eine Überweisung einer anderen Bank oder eine Rückbuchung
+     * gutgeschrieben; die Zusatzdaten nennen Bankleitzahl und Kennung der ursprünglichen Überweisung
+     */
+    CLEARING_EINGANG,
+    /**
+     * erste Phase einer Überweisung zwischen zwei Shards: das sendende Konto wurde belastet,
+     * die Zusatzdaten beschreiben die Überweisung
+     */
+    TRANSFER_VORBEREITET,
+    /**
+     * zweite Phase einer Überweisung zwischen zwei Shards: dem empfangenden Konto wurde der Betrag gutgeschrieben
+     */
+    TRANSFER_GUTGESCHRIEBEN,
+    /**
+     * die Gutschrift war nicht möglich, das sendende Konto wurde zurückerstattet
+     */
+    TRANSFER_ABGEBROCHEN,
+    /**
+     * die Überweisung zwischen zwei Shards ist vollständig abgeschlossen, nur Zusatzdaten
+     */
+    TRANSFER_ABGESCHLOSSEN,
+    /**
+     * die Clearingstelle hat Überweisungen dieser Bank abgerechnet, nur Zusatzdaten mit ihren Kennungen
+     */
+    CLEARING_ABGERECHNET;
+
+    private static final Eintragsart[] ARTEN = values();
+
+    /**
+     * @return der Code dieser Art im Journal
+     */
+    byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * @param code Code aus dem Journal
+     * @return die zugehörige Art oder null, wenn der Code unbekannt ist
+     */
+    static Eintragsart ausCode(byte code) {
+        return code >= 1 && code <= ARTEN.length ? ARTEN[code - 1] : null;
+    }
+}
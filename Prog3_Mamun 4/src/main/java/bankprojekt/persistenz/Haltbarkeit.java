@@ -0,0 +1,27 @@
+package bankprojekt.persistenz;
+
+/**
+ * legt fest, wann eine Änderung als dauerhaft gespeichert gilt, d.h. wann
+ * {@link Journal#sichern(long)} zurückkehrt
+ */
+public enum Haltbarkeit {
+    /**
+     * jeder Aufruf von {@link Journal#sichern(long)} schreibt die Einträge bis zu seiner
+     * Position mit einem eigenen fsync auf den Datenträger, ohne auf andere Sichernde zu
+     * warten. Am sichersten, aber jede Änderung kostet einen fsync.
+     */
+    SYNCHRON,
+    /**
+     * Gruppen-Commit: {@link Journal#sichern(long)} wartet, bis der Eintrag auf dem Datenträger
+     * ist, aber alle Einträge, die während eines laufenden fsync angehängt wurden,
+     * werden gemeinsam mit dem nächsten fsync geschrieben.
+     */
+    GRUPPE,
+    /**
+     * {@link Journal#sichern(long)} wartet nicht; ein Hintergrund-Thread schreibt das Journal
+     * in kurzen Abständen auf den Datenträger. Bei einem Absturz des Rechners können
+     * die Änderungen der letzten Millisekunden verloren gehen, bei einem Absturz
+     * nur des Programms nicht, da die Segmente in den Speicher eingeblendet sind.
+     */
+    ASYNCHRON
+}
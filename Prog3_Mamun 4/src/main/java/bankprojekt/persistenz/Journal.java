@@ -0,0 +1,686 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * ein Journal (Write-Ahead-Log), in das die Bank jede Änderung an ihren Konten schreibt,
+ * bevor sie als erledigt gilt. Nach einem Absturz wird die Bank durch
+ * {@link #abspielen(Wiederherstellungsziel)} wiederhergestellt.
+ * <p>
+ * Das Journal besteht aus Segmentdateien fester Größe in einem Verzeichnis, die in den
+ * Speicher eingeblendet werden ({@link MappedByteBuffer}). Ein Eintrag besteht aus seiner
+ * Länge, einer CRC32C-Prüfsumme, der {@link Eintragsart} und dem Inhalt; ein Eintrag mit
+ * falscher Prüfsumme am Ende des Journals stammt von einem Absturz während des Schreibens
+ * und wird verworfen. Einträge werden nicht über Segmentgrenzen hinweg geschrieben.
+ * <p>
+ * Eine Position im Journal ist die Segmentnummer mal Segmentgröße plus der Versatz im Segment.
+ * {@link #kontenAnhaengen(Eintragsart, Konto...)} liefert die Position hinter dem Eintrag,
+ * {@link #sichern(long)} wartet je nach {@link Haltbarkeit}, bis diese Position auf dem
+ * Datenträger ist. Anhängen geht schnell und darf unter der Sperre des Kontos geschehen,
+ * gesichert wird erst nach deren Freigabe, damit beim Warten auf den Datenträger keine
+ * Kontosperren gehalten werden.
+ */
+public class Journal implements Closeable {
+    /**
+     * Standardgröße eines Segments in Bytes
+     */
+    public static final int STANDARD_SEGMENTGROESSE = 64 << 20;
+
+    /**
+     * Abstand in Millisekunden, in dem bei {@link Haltbarkeit#ASYNCHRON} gesichert wird
+     */
+    static final long SICHERUNGSABSTAND_MS = 10;
+
+    private static final int KENNUNG = 0x424A4E4C; // "BJNL"
+    private static final int VERSION = 1;
+    /**
+     * Kennung, Version, Segmentgröße, reserviert
+     */
+    private static final int SEGMENTKOPF = 16;
+    /**
+     * Länge des Inhalts, Prüfsumme, Eintragsart
+     */
+    private static final int EINTRAGSKOPF = 9;
+    /**
+     * steht statt einer Länge da, wenn der Rest des Segments leer bleibt
+     */
+    private static final int SEGMENTENDE = -1;
+    private static final String ENDUNG = ".journal";
+
+    /**
+     * eine in den Speicher eingeblendete Segmentdatei
+     */
+    private static final class Segment {
+        final long nummer;
+        final long beginn;
+        final FileChannel kanal;
+        final MappedByteBuffer puffer;
+
+        Segment(long nummer, long beginn, FileChannel kanal, MappedByteBuffer puffer) {
+            this.nummer = nummer;
+            this.beginn = beginn;
+            this.kanal = kanal;
+            this.puffer = puffer;
+        }
+    }
+
+    private final Path verzeichnis;
+    private final Haltbarkeit haltbarkeit;
+    private final int segmentGroesse;
+
+    /**
+     * schützt segment, geschrieben und pruefsumme; wird nur kurz zum Anhängen gehalten
+     */
+    private final ReentrantLock schreibSperre = new ReentrantLock();
+    private Segment segment;
+    private long geschrieben;
+    private final CRC32C pruefsumme = new CRC32C();
+    private boolean geschlossen;
+
+    /**
+     * schützt gesichert und sicherungLaeuft
+     */
+    private final Object sicherungsMonitor = new Object();
+    private long gesichert;
+    private boolean sicherungLaeuft;
+
+    private final Thread sicherungsThread;
+
+    private Journal(Path verzeichnis, Haltbarkeit haltbarkeit, int segmentGroesse, Segment segment, long ende) {
+        this.verzeichnis = verzeichnis;
+        this.haltbarkeit = haltbarkeit;
+        this.segmentGroesse = segmentGroesse;
+        this.segment = segment;
+        this.geschrieben = ende;
+        this.gesichert = ende;
+        if (haltbarkeit == Haltbarkeit.ASYNCHRON) {
+            sicherungsThread = new Thread(this::regelmaessigSichern, "Journal-Sicherung");
+            sicherungsThread.setDaemon(true);
+            sicherungsThread.start();
+        } else {
+            sicherungsThread = null;
+        }
+    }
+
+    /**
+     * öffnet das Journal im Verzeichnis oder legt ein neues an
+     *
+     * @param verzeichnis das Verzeichnis der Segmentdateien, wird bei Bedarf angelegt
+     * @param haltbarkeit wann Einträge als gesichert gelten
+     * @return das Journal, neue Einträge werden hinter den vorhandenen angehängt
+     * @throws IOException wenn das Journal nicht gelesen oder angelegt werden kann
+     */
+    public static Journal oeffnen(Path verzeichnis, Haltbarkeit haltbarkeit) throws IOException {
+        return oeffnen(verzeichnis, haltbarkeit, STANDARD_SEGMENTGROESSE);
+    }
+
+    /**
+     * öffnet das Journal im Verzeichnis oder legt ein neues an
+     *
+     * @param verzeichnis    das Verzeichnis der Segmentdateien, wird bei Bedarf angelegt
+     * @param haltbarkeit    wann Einträge als gesichert gelten
+     * @param segmentGroesse Größe neuer Segmentdateien in Bytes; ein vorhandenes Journal
+     *                       behält seine Segmentgröße
+     * @return das Journal, neue Einträge werden hinter den vorhandenen angehängt
+     * @throws IOException              wenn das Journal nicht gelesen oder angelegt werden kann
+     * @throws IllegalArgumentException wenn ein Parameter null oder die Segmentgröße zu klein ist
+     */
+    public static Journal oeffnen(Path verzeichnis, Haltbarkeit haltbarkeit, int segmentGroesse) throws IOException {
+        if (verzeichnis == null || haltbarkeit == null)
+            throw new IllegalArgumentException("null als Parameter nicht erlaubt");
+        if (segmentGroesse < 4096)
+            throw new IllegalArgumentException("Die Segmentgröße muss mindestens 4096 Bytes betragen!");
+        if (!Files.isDirectory(verzeichnis)) {
+            Files.createDirectories(verzeichnis);
+            if (verzeichnis.toAbsolutePath().getParent() != null)
+                verzeichnisSichern(verzeichnis.toAbsolutePath().getParent());
+        }
+        List<Long> nummern = segmentNummern(verzeichnis);
+        if (nummern.isEmpty()) {
+            Segment neu = segmentAnlegen(verzeichnis, 0, segmentGroesse);
+            return new Journal(verzeichnis, haltbarkeit, segmentGroesse, neu, SEGMENTKOPF);
+        }
+        long letzte = nummern.get(nummern.size() - 1);
+        int vorhandeneGroesse = (int) Files.size(segmentDatei(verzeichnis, letzte));
+        Segment s = segmentOeffnen(verzeichnis, letzte, vorhandeneGroesse);
+        // das Ende der gültigen Einträge suchen und alles dahinter löschen, damit Reste eines
+        // abgebrochenen Eintrags nie als gültige Einträge hinter neuen Einträgen erscheinen
+        int ende = SEGMENTKOPF;
+        int naechstes;
+        while ((naechstes = naechsterEintrag(s.puffer, ende)) > 0) {
+            ende = naechstes;
+        }
+        if (naechstes == 0) {
+            for (int i = ende; i < vorhandeneGroesse; i++) {
+                if (s.puffer.get(i) != 0)
+                    s.puffer.put(i, (byte) 0);
+            }
+            s.puffer.force();
+        } else {
+            ende = vorhandeneGroesse; // Segment ist abgeschlossen, das nächste wird beim Anhängen angelegt
+        }
+        return new Journal(verzeichnis, haltbarkeit, vorhandeneGroesse, s, s.beginn + ende);
+    }
+
+    /**
+     * @return die eingestellte Haltbarkeit
+     */
+    public Haltbarkeit getHaltbarkeit() {
+        return haltbarkeit;
+    }
+
+    /**
+     * @return die Position hinter dem zuletzt angehängten Eintrag
+     */
+    public long getPosition() {
+        schreibSperre.lock();
+        try {
+            return geschrieben;
+        } finally {
+            schreibSperre.unlock();
+        }
+    }
+
+    /**
+     * hängt einen Eintrag mit dem aktuellen Zustand der Konten an. Der Aufrufer sollte die
+     * Konten gesperrt halten, damit die Reihenfolge im Journal der Reihenfolge der Änderungen
+     * entspricht.
+     *
+     * @param art    die Art der Änderung, nicht {@link Eintragsart#KONTO_GELOESCHT}
+     * @param konten die geänderten Konten; bei {@link Eintragsart#KONTO_ANGELEGT} wird auch
+     *               der Inhaber gespeichert
+     * @return die Position hinter dem Eintrag, für {@link #sichern(long)}
+     * @throws IllegalArgumentException wenn die Art ungültig ist oder eine Kontoart nicht gespeichert werden kann
+     * @throws IllegalStateException    wenn das Journal geschlossen ist
+     * @throws UncheckedIOException     wenn nicht geschrieben werden kann
+     */
+    public long kontenAnhaengen(Eintragsart art, Konto... konten) {
+        return kontenAnhaengen(art, null, konten);
+    }
+
+    /**
+     * hängt einen Eintrag mit dem aktuellen Zustand der Konten und Zusatzdaten an, die mit
+     * den Konten unteilbar geschrieben werden. Beim Abspielen werden die Zusatzdaten nach den
+     * Konten an {@link Wiederherstellungsziel#zusatzUebernehmen(Eintragsart, ByteBuffer)} übergeben.
+     *
+     * @param art    die Art der Änderung, nicht {@link Eintragsart#KONTO_GELOESCHT}
+     * @param zusatz die Zusatzdaten zwischen Position und Limit oder null; wird nicht verändert
+     * @param konten die geänderten Konten, ohne Zusatzdaten mindestens eines; bei
+     *               {@link Eintragsart#KONTO_ANGELEGT} wird auch der Inhaber gespeichert
+     * @return die Position hinter dem Eintrag, für {@link #sichern(long)}
+     * @throws IllegalArgumentException wenn die Art ungültig ist oder eine Kontoart nicht gespeichert werden kann
+     * @throws IllegalStateException    wenn das Journal geschlossen ist
+     * @throws UncheckedIOException     wenn nicht geschrieben werden kann
+     */
+    public long kontenAnhaengen(Eintragsart art, ByteBuffer zusatz, Konto... konten) {
+        boolean ohneZusatz = zusatz == null || !zusatz.hasRemaining();
+        if (art == null || art == Eintragsart.KONTO_GELOESCHT || (konten.length == 0 && ohneZusatz)
+                || konten.length > 255)
+            throw new IllegalArgumentException("Ungültiger Journaleintrag");
+        byte[][] inhaber = null;
+        int laenge = 1;
+        if (art == Eintragsart.KONTO_ANGELEGT) {
+            inhaber = new byte[konten.length][];
+            for (int i = 0; i < konten.length; i++) {
+                inhaber[i] = Kontozustand.kundeKodieren(konten[i].getInhaber());
+                laenge += inhaber[i].length;
+            }
+        }
+        for (Konto konto : konten) {
+            Kontozustand.art(konto);
+            laenge += Kontozustand.groesse(konto);
+        }
+        if (!ohneZusatz)
+            laenge += zusatz.remaining();
+        schreibSperre.lock();
+        try {
+            ByteBuffer puffer = eintragBeginnen(laenge);
+            int beginn = puffer.position();
+            puffer.position(beginn + EINTRAGSKOPF);
+            puffer.put((byte) konten.length);
+            for (int i = 0; i < konten.length; i++) {
+                if (inhaber != null)
+                    puffer.put(inhaber[i]);
+                Kontozustand.schreiben(puffer, konten[i]);
+            }
+            if (!ohneZusatz)
+                puffer.put(zusatz.duplicate());
+            return eintragAbschliessen(puffer, beginn, art, laenge);
+        } finally {
+            schreibSperre.unlock();
+        }
+    }
+
+    /**
+     * hängt einen Eintrag an, dass das Konto gelöscht wurde
+     *
+     * @param kontonummer die Nummer des gelöschten Kontos
+     * @return die Position hinter dem Eintrag, für {@link #sichern(long)}
+     * @throws IllegalStateException wenn das Journal geschlossen ist
+     * @throws UncheckedIOException  wenn nicht geschrieben werden kann
+     */
+    public long loeschungAnhaengen(long kontonummer) {
+        schreibSperre.lock();
+        try {
+            ByteBuffer puffer = eintragBeginnen(8);
+            int beginn = puffer.position();
+            puffer.putLong(beginn + EINTRAGSKOPF, kontonummer);
+            return eintragAbschliessen(puffer, beginn, Eintragsart.KONTO_GELOESCHT, 8);
+        } finally {
+            schreibSperre.unlock();
+        }
+    }
+
+    /**
+     * wartet, bis alle Einträge bis zur angegebenen Position so gesichert sind, wie es die
+     * {@link Haltbarkeit} verlangt. Bei {@link Haltbarkeit#SYNCHRON} schreibt jeder Aufruf mit
+     * einem eigenen fsync, bei {@link Haltbarkeit#GRUPPE} schreibt einer der Wartenden
+     * alle bis dahin angehängten Einträge mit einem einzigen fsync, die anderen warten darauf.
+     *
+     * @param position eine von einer Anhängen-Methode gelieferte Position
+     * @throws UncheckedIOException wenn nicht geschrieben werden kann
+     */
+    public void sichern(long position) {
+        if (haltbarkeit == Haltbarkeit.GRUPPE)
+            sichernBis(position);
+        else if (haltbarkeit == Haltbarkeit.SYNCHRON)
+            einzelnSichern(position);
+    }
+
+    /**
+     * spielt alle Einträge ab dem Anfang des Journals ab
+     *
+     * @param ziel nimmt die wiederhergestellten Konten auf
+     * @return Anzahl der abgespielten Einträge
+     * @throws IOException wenn das Journal nicht gelesen werden kann oder beschädigt ist
+     */
+    public long abspielen(Wiederherstellungsziel ziel) throws IOException {
+        return abspielen(0, ziel);
+    }
+
+    /**
+     * spielt alle Einträge ab der angegebenen Position ab. Das Ergebnis hängt nur vom Inhalt
+     * des Journals ab; wird ein Eintrag mehrfach abgespielt, ändert sich nichts.
+     *
+     * @param ab   die Position, ab der abgespielt wird, z.B. aus {@link #getPosition()}
+     * @param ziel nimmt die wiederhergestellten Konten auf
+     * @return Anzahl der abgespielten Einträge
+     * @throws IOException wenn das Journal nicht gelesen werden kann oder vor seinem Ende beschädigt ist
+     */
+    public long abspielen(long ab, Wiederherstellungsziel ziel) throws IOException {
+        return abspielen(ab, ziel, new Kundenregister());
+    }
+
+    /**
+     * spielt alle Einträge ab der angegebenen Position ab und legt Kunden dabei nur an, wenn sie
+     * noch nicht im Kundenregister stehen, z.B. weil sie schon aus einem Sicherungspunkt gelesen
+     * wurden.
+     *
+     * @param ab     die Position, ab der abgespielt wird
+     * @param ziel   nimmt die wiederhergestellten Konten auf
+     * @param kunden die bereits angelegten Kunden, wird ergänzt
+     * @return Anzahl der abgespielten Einträge
+     * @throws IOException wenn das Journal nicht gelesen werden kann oder vor seinem Ende beschädigt ist
+     */
+    public long abspielen(long ab, Wiederherstellungsziel ziel, Kundenregister kunden) throws IOException {
+        long ende = getPosition();
+        long anzahl = 0;
+        for (long nummer : segmentNummern(verzeichnis)) {
+            long segmentBeginn = nummer * segmentGroesse;
+            if (segmentBeginn + segmentGroesse <= ab || segmentBeginn >= ende)
+                continue;
+            MappedByteBuffer puffer;
+            try (FileChannel kanal = FileChannel.open(segmentDatei(verzeichnis, nummer), StandardOpenOption.READ)) {
+                puffer = kanal.map(FileChannel.MapMode.READ_ONLY, 0, segmentGroesse);
+            }
+            kopfPruefen(puffer, nummer);
+            int position = SEGMENTKOPF;
+            int naechstes;
+            while (segmentBeginn + position < ende && (naechstes = naechsterEintrag(puffer, position)) > 0) {
+                if (segmentBeginn + position >= ab) {
+                    eintragAbspielen(puffer, position, ziel, kunden);
+                    anzahl++;
+                }
+                position = naechstes;
+            }
+            if (segmentBeginn + position < ende && naechsterEintrag(puffer, position) == 0)
+                throw new IOException("Journal beschädigt in Segment " + nummer + " bei " + position);
+        }
+        return anzahl;
+    }
+
+    /**
+     * löscht alle Segmentdateien, die nur Einträge vor der angegebenen Position enthalten,
+     * z.B. nachdem ein Sicherungspunkt geschrieben wurde
+     *
+     * @param bis Einträge vor dieser Position werden nicht mehr benötigt
+     * @return Anzahl der gelöschten Segmente
+     * @throws IOException wenn eine Datei nicht gelöscht werden kann
+     */
+    public int segmenteFreigeben(long bis) throws IOException {
+        long aktuell;
+        schreibSperre.lock();
+        try {
+            aktuell = segment.nummer;
+        } finally {
+            schreibSperre.unlock();
+        }
+        int geloescht = 0;
+        for (long nummer : segmentNummern(verzeichnis)) {
+            if (nummer < aktuell && (nummer + 1) * segmentGroesse <= bis) {
+                Files.delete(segmentDatei(verzeichnis, nummer));
+                geloescht++;
+            }
+        }
+        return geloescht;
+    }
+
+    /**
+     * sichert alle Einträge und schließt das Journal
+     *
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    @Override
+    public void close() throws IOException {
+        schreibSperre.lock();
+        try {
+            if (geschlossen)
+                return;
+            geschlossen = true;
+        } finally {
+            schreibSperre.unlock();
+        }
+        if (sicherungsThread != null) {
+            sicherungsThread.interrupt();
+            try {
+                sicherungsThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        segment.puffer.force();
+        segment.kanal.close();
+    }
+
+    /**
+     * sorgt dafür, dass im aktuellen Segment Platz für den Eintrag ist, und stellt die Position
+     * des Puffers auf seinen Beginn; wird unter der Schreibsperre aufgerufen
+     */
+    private ByteBuffer eintragBeginnen(int laenge) {
+        if (geschlossen)
+            throw new IllegalStateException("Das Journal ist geschlossen!");
+        if (SEGMENTKOPF + EINTRAGSKOPF + laenge > segmentGroesse)
+            throw new IllegalArgumentException("Eintrag zu groß für ein Segment");
+        int position = (int) (geschrieben - segment.beginn);
+        if (position + EINTRAGSKOPF + laenge > segmentGroesse) {
+            if (position + 4 <= segmentGroesse)
+                segment.puffer.putInt(position, SEGMENTENDE);
+            segmentWechseln();
+            position = SEGMENTKOPF;
+        }
+        segment.puffer.position(position);
+        return segment.puffer;
+    }
+
+    /**
+     * trägt Kopf und Prüfsumme ein; gesichert wird erst in {@link #sichern(long)}, nach der
+     * Freigabe der Schreibsperre und der Kontosperren des Aufrufers
+     */
+    private long eintragAbschliessen(ByteBuffer puffer, int beginn, Eintragsart art, int laenge) {
+        puffer.put(beginn + 8, art.code());
+        pruefsumme.reset();
+        pruefsumme.update(puffer.slice(beginn + 8, 1 + laenge));
+        puffer.putInt(beginn + 4, (int) pruefsumme.getValue());
+        puffer.putInt(beginn, laenge);
+        geschrieben = segment.beginn + beginn + EINTRAGSKOPF + laenge;
+        return geschrieben;
+    }
+
+    /**
+     * schließt das volle Segment ab und legt das nächste an; unter der Schreibsperre
+     */
+    private void segmentWechseln() {
+        Segment alt = segment;
+        try {
+            // das alte Segment vollständig sichern, damit beim Sichern nur das aktuelle betrachtet werden muss
+            alt.puffer.force();
+            alt.kanal.close();
+            segment = segmentAnlegen(verzeichnis, alt.nummer + 1, segmentGroesse);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        geschrieben = segment.beginn + SEGMENTKOPF;
+    }
+
+    /**
+     * Gruppen-Commit: wer als Erster kommt, sichert alles bisher Angehängte,
+     * alle anderen warten darauf und sichern danach gegebenenfalls selbst
+     */
+    private void sichernBis(long position) {
+        boolean unterbrochen = false;
+        long von;
+        synchronized (sicherungsMonitor) {
+            while (gesichert < position && sicherungLaeuft) {
+                try {
+                    sicherungsMonitor.wait();
+                } catch (InterruptedException e) {
+                    unterbrochen = true;
+                }
+            }
+            if (gesichert >= position) {
+                if (unterbrochen)
+                    Thread.currentThread().interrupt();
+                return;
+            }
+            sicherungLaeuft = true;
+            von = gesichert;
+        }
+        long erreicht = von;
+        try {
+            erreicht = ausschreiben(von);
+        } finally {
+            synchronized (sicherungsMonitor) {
+                gesichert = Math.max(gesichert, erreicht);
+                sicherungLaeuft = false;
+                sicherungsMonitor.notifyAll();
+            }
+            if (unterbrochen)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * sichert bei {@link Haltbarkeit#SYNCHRON} die Einträge bis zur Position mit einem eigenen
+     * fsync, ohne auf andere Sichernde zu warten; geschrieben wird nur der Bereich hinter dem
+     * bisher gesicherten Ende
+     */
+    private void einzelnSichern(long position) {
+        long von;
+        synchronized (sicherungsMonitor) {
+            if (gesichert >= position)
+                return;
+            von = gesichert;
+        }
+        Segment s;
+        schreibSperre.lock();
+        try {
+            s = segment;
+        } finally {
+            schreibSperre.unlock();
+        }
+        // liegt die Position vor dem aktuellen Segment, wurde sie beim Wechsel gesichert
+        if (position > s.beginn) {
+            long beginn = Math.max(von, s.beginn);
+            s.puffer.force((int) (beginn - s.beginn), (int) (position - beginn));
+        }
+        synchronized (sicherungsMonitor) {
+            gesichert = Math.max(gesichert, position);
+        }
+    }
+
+    /**
+     * schreibt die Einträge ab der Position von bis zum aktuellen Ende auf den Datenträger
+     *
+     * @return die Position, bis zu der gesichert wurde
+     */
+    private long ausschreiben(long von) {
+        Segment s;
+        long bis;
+        schreibSperre.lock();
+        try {
+            s = segment;
+            bis = geschrieben;
+        } finally {
+            schreibSperre.unlock();
+        }
+        long beginn = Math.max(von, s.beginn); // frühere Segmente wurden beim Wechsel gesichert
+        if (bis > beginn)
+            s.puffer.force((int) (beginn - s.beginn), (int) (bis - beginn));
+        return bis;
+    }
+
+    /**
+     * Rumpf des Sicherungs-Threads bei {@link Haltbarkeit#ASYNCHRON}
+     */
+    private void regelmaessigSichern() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(SICHERUNGSABSTAND_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long ziel;
+            schreibSperre.lock();
+            try {
+                ziel = geschrieben;
+            } finally {
+                schreibSperre.unlock();
+            }
+            try {
+                sichernBis(ziel);
+            } catch (UncheckedIOException e) {
+                // beim nächsten Durchlauf erneut versuchen; close() sichert zum Schluss synchron
+            }
+        }
+    }
+
+    /**
+     * prüft den Eintrag an der Position
+     *
+     * @return die Position des nächsten Eintrags; 0, wenn hier kein gültiger Eintrag steht
+     * (Ende des Journals); -1, wenn das Segment hier abgeschlossen ist
+     */
+    private static int naechsterEintrag(ByteBuffer puffer, int position) {
+        if (position + EINTRAGSKOPF > puffer.limit())
+            return -1; // hier passt kein Eintrag mehr hin, das Segment ist voll
+        int laenge = puffer.getInt(position);
+        if (laenge == SEGMENTENDE)
+            return -1;
+        if (laenge <= 0 || laenge > puffer.limit() - position - EINTRAGSKOPF)
+            return 0;
+        if (Eintragsart.ausCode(puffer.get(position + 8)) == null)
+            return 0;
+        CRC32C crc = new CRC32C();
+        crc.update(puffer.slice(position + 8, 1 + laenge));
+        if ((int) crc.getValue() != puffer.getInt(position + 4))
+            return 0;
+        return position + EINTRAGSKOPF + laenge;
+    }
+
+    private static void eintragAbspielen(ByteBuffer puffer, int position, Wiederherstellungsziel ziel,
+                                         Kundenregister kunden) {
+        int laenge = puffer.getInt(position);
+        Eintragsart art = Eintragsart.ausCode(puffer.get(position + 8));
+        ByteBuffer inhalt = puffer.slice(position + EINTRAGSKOPF, laenge);
+        if (art == Eintragsart.KONTO_GELOESCHT) {
+            ziel.kontoEntfernen(inhalt.getLong());
+            return;
+        }
+        int anzahl = Byte.toUnsignedInt(inhalt.get());
+        for (int i = 0; i < anzahl; i++) {
+            if (art == Eintragsart.KONTO_ANGELEGT) {
+                Kunde inhaber = Kontozustand.kundeLesen(inhalt, kunden);
+                ziel.kontoEinfuegen(Kontozustand.lesen(inhalt, inhaber));
+            } else {
+                Kontozustand.uebernehmen(inhalt, ziel);
+            }
+        }
+        if (inhalt.hasRemaining())
+            ziel.zusatzUebernehmen(art, inhalt.slice());
+    }
+
+    private static List<Long> segmentNummern(Path verzeichnis) throws IOException {
+        List<Long> nummern = new ArrayList<>();
+        try (DirectoryStream<Path> dateien = Files.newDirectoryStream(verzeichnis, "*" + ENDUNG)) {
+            for (Path datei : dateien) {
+                String name = datei.getFileName().toString();
+                try {
+                    nummern.add(Long.parseLong(name.substring(0, name.length() - ENDUNG.length())));
+                } catch (NumberFormatException e) {
+                    // keine Segmentdatei
+                }
+            }
+        }
+        Collections.sort(nummern);
+        return nummern;
+    }
+
+    private static Path segmentDatei(Path verzeichnis, long nummer) {
+        return verzeichnis.resolve(String.format("%016d%s", nummer, ENDUNG));
+    }
+
+    private static Segment segmentAnlegen(Path verzeichnis, long nummer, int segmentGroesse) throws IOException {
+        FileChannel kanal = FileChannel.open(segmentDatei(verzeichnis, nummer),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0, segmentGroesse);
+        puffer.putInt(0, KENNUNG).putInt(4, VERSION).putInt(8, segmentGroesse);
+        puffer.force(0, SEGMENTKOPF);
+        kanal.force(true); // Dateigröße
+        // der Verzeichniseintrag der neuen Datei wird erst mit dem Verzeichnis dauerhaft
+        verzeichnisSichern(verzeichnis);
+        return new Segment(nummer, nummer * segmentGroesse, kanal, puffer);
+    }
+
+    /**
+     * schreibt das Verzeichnis auf den Datenträger, damit darin angelegte, umbenannte oder
+     * gelöschte Dateien einen Absturz des Rechners überstehen
+     *
+     * @param verzeichnis das Verzeichnis
+     * @throws IOException wenn das Verzeichnis nicht gesichert werden kann
+     */
+    static void verzeichnisSichern(Path verzeichnis) throws IOException {
+        try (FileChannel kanal = FileChannel.open(verzeichnis, StandardOpenOption.READ)) {
+            kanal.force(true);
+        }
+    }
+
+    private static Segment segmentOeffnen(Path verzeichnis, long nummer, int segmentGroesse) throws IOException {
+        FileChannel kanal = FileChannel.open(segmentDatei(verzeichnis, nummer),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0, segmentGroesse);
+        kopfPruefen(puffer, nummer);
+        return new Segment(nummer, nummer * segmentGroesse, kanal, puffer);
+    }
+
+    private static void kopfPruefen(ByteBuffer puffer, long nummer) throws IOException {
+        if (puffer.getInt(0) != KENNUNG || puffer.getInt(4) != VERSION || puffer.getInt(8) != puffer.limit())
+            throw new IOException("Segment " + nummer + " ist keine gültige Journaldatei");
+    }
+}
@@ -0,0 +1,150 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * binäre Darstellung von Konten und Kunden für Journal und Sicherungspunkt.
+ * Ein Konto wird als Kontonummer (long), Kontoart (byte), Länge des Zustands (short)
+ * und dem Zustand aus {@link Konto#zustandSchreiben(ByteBuffer)} geschrieben; durch die
+ * Länge kann ein Leser Konten überspringen, die er nicht kennt.
+ * Ein Kunde wird als Vorname, Nachname, Adresse (je Länge als short und UTF-8) und
+ * Geburtstag (Tage seit 1970 als long) geschrieben.
+ */
+final class Kontozustand {
+    private static final Kontoart[] ARTEN = Kontoart.values();
+
+    private Kontozustand() {
+    }
+
+    /**
+     * @param konto das Konto
+     * @return Anzahl der Bytes, die {@link #schreiben(ByteBuffer, Konto)} für das Konto schreibt
+     */
+    static int groesse(Konto konto) {
+        return 8 + 1 + 2 + konto.zustandGroesse();
+    }
+
+    /**
+     * schreibt Kontonummer, Kontoart und Zustand des Kontos
+     *
+     * @param ziel  der Puffer
+     * @param konto das Konto
+     * @throws IllegalArgumentException wenn die Kontoart nicht gespeichert werden kann
+     */
+    static void schreiben(ByteBuffer ziel, Konto konto) {
+        ziel.putLong(konto.getKontonummer())
+                .put((byte) art(konto).ordinal())
+                .putShort((short) konto.zustandGroesse());
+        konto.zustandSchreiben(ziel);
+    }
+
+    /**
+     * liest ein mit {@link #schreiben(ByteBuffer, Konto)} geschriebenes Konto und legt es neu an
+     *
+     * @param quelle  der Puffer
+     * @param inhaber der Inhaber des neuen Kontos
+     * @return das Konto
+     * @throws IllegalArgumentException wenn die Kontoart unbekannt ist
+     */
+    static Konto lesen(ByteBuffer quelle, Kunde inhaber) {
+        long nummer = quelle.getLong();
+        byte art = quelle.get();
+        quelle.getShort();
+        Konto konto;
+        if (art == Kontoart.GIROKONTO.ordinal()) {
+            konto = new Girokonto(inhaber, nummer, 0);
+        } else if (art == Kontoart.SPARBUCH.ordinal()) {
+            konto = new Sparbuch(inhaber, nummer);
+        } else {
+            throw new IllegalArgumentException("Unbekannte Kontoart " + art);
+        }
+        konto.zustandUebernehmen(quelle);
+        return konto;
+    }
+
+    /**
+     * liest einen mit {@link #schreiben(ByteBuffer, Konto)} geschriebenen Zustand und überträgt
+     * ihn auf das vorhandene Konto mit dieser Nummer. Gibt es das Konto nicht (mehr) oder
+     * hat es eine andere Art, wird der Zustand übersprungen.
+     *
+     * @param quelle der Puffer
+     * @param ziel   liefert das vorhandene Konto
+     */
+    static void uebernehmen(ByteBuffer quelle, Wiederherstellungsziel ziel) {
+        long nummer = quelle.getLong();
+        byte art = quelle.get();
+        int laenge = quelle.getShort();
+        Konto konto = ziel.kontoSuchen(nummer);
+        if (konto != null && art >= 0 && art < ARTEN.length && art(konto) == ARTEN[art]) {
+            konto.zustandUebernehmen(quelle);
+        } else {
+            quelle.position(quelle.position() + laenge);
+        }
+    }
+
+    /**
+     * @param konto das Konto
+     * @return die Kontoart
+     * @throws IllegalArgumentException wenn die Kontoart nicht gespeichert werden kann
+     */
+    static Kontoart art(Konto konto) {
+        if (konto instanceof Girokonto)
+            return Kontoart.GIROKONTO;
+        if (konto instanceof Sparbuch)
+            return Kontoart.SPARBUCH;
+        throw new IllegalArgumentException("Kontoart kann nicht gespeichert werden: "
+                + konto.getClass().getName());
+    }
+
+    /**
+     * @param kunde der Kunde
+     * @return die binäre Darstellung des Kunden
+     */
+    static byte[] kundeKodieren(Kunde kunde) {
+        byte[] vorname = kunde.getVorname().getBytes(StandardCharsets.UTF_8);
+        byte[] nachname = kunde.getNachname().getBytes(StandardCharsets.UTF_8);
+        byte[] adresse = kunde.getAdresse().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer puffer = ByteBuffer.allocate(6 + vorname.length + nachname.length + adresse.length + 8);
+        textSchreiben(puffer, vorname);
+        textSchreiben(puffer, nachname);
+        textSchreiben(puffer, adresse);
+        puffer.putLong(kunde.getGeburtstag().toEpochDay());
+        return puffer.array();
+    }
+
+    /**
+     * liest einen mit {@link #kundeKodieren(Kunde)} geschriebenen Kunden. Kunden mit
+     * denselben Daten werden nur einmal angelegt, damit sich ihre Konten wie vor dem
+     * Speichern einen Kunden teilen.
+     *
+     * @param quelle   der Puffer
+     * @param bekannte die bereits gelesenen Kunden, werden ergänzt
+     * @return der Kunde
+     */
+    static Kunde kundeLesen(ByteBuffer quelle, Kundenregister bekannte) {
+        String vorname = textLesen(quelle);
+        String nachname = textLesen(quelle);
+        String adresse = textLesen(quelle);
+        long geburtstag = quelle.getLong();
+        return bekannte.kunde(vorname, nachname, adresse, geburtstag);
+    }
+
+    private static void textSchreiben(ByteBuffer ziel, byte[] text) {
+        if (text.length > 0xFFFF)
+            throw new IllegalArgumentException("Text zu lang");
+        ziel.putShort((short) text.length).put(text);
+    }
+
+    private static String textLesen(ByteBuffer quelle) {
+        byte[] text = new byte[Short.toUnsignedInt(quelle.getShort())];
+        quelle.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
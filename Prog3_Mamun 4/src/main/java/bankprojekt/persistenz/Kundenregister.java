@@ -0,0 +1,31 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.Kunde;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * die beim Wiederherstellen bereits angelegten Kunden. Wird derselbe Kundenregister an
+ * {@link Sicherungspunkt#lesen(java.nio.file.Path, Wiederherstellungsziel, Kundenregister)} und
+ * an {@link Journal#abspielen(long, Wiederherstellungsziel, Kundenregister)} übergeben, teilen
+ * sich die Konten eines Kunden wie vor dem Speichern ein Kunden-Objekt, auch wenn ein Teil
+ * seiner Konten aus dem Sicherungspunkt und ein Teil aus dem Journal stammt.
+ * <p>
+ * Journal und Sicherungspunkt speichern nur die Daten eines Kunden, Kunden mit gleichem
+ * Vornamen, Nachnamen, gleicher Adresse und gleichem Geburtstag werden deshalb zu einem
+ * Kunden. Nicht threadsicher; wird nur während des Wiederherstellens benutzt.
+ */
+public final class Kundenregister {
+    private final Map<String, Kunde> kunden = new HashMap<>();
+
+    /**
+     * liefert den Kunden mit diesen Daten und legt ihn an, wenn es ihn noch nicht gibt
+     */
+    Kunde kunde(String vorname, String nachname, String adresse, long geburtstag) {
+        String schluessel = vorname + '\n' + nachname + '\n' + adresse + '\n' + geburtstag;
+        return kunden.computeIfAbsent(schluessel,
+                s -> Kunde.wiederherstellen(vorname, nachname, adresse, LocalDate.ofEpochDay(geburtstag)));
+    }
+}
@@ -0,0 +1,291 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * ein Sicherungspunkt (Checkpoint): der Zustand aller Konten einer Bank in einer Binärdatei,
+ * damit beim Start nicht das ganze {@link Journal} abgespielt werden muss.
+ * <p>
+ * Die Datei beginnt mit einem Kopf (Kennung, Version, Journalposition, höchste Kontonummer,
+ * ungefähre Anzahl der Konten). Danach folgen Datensätze aus Art (byte), Länge (int) und Inhalt:
+ * ein Kunde (er erhält die nächste fortlaufende Kundennummer, jeder Kunde wird nur einmal
+ * geschrieben), ein Konto (Kundennummer des Inhabers und Kontozustand) und zum Schluss
+ * ein Ende-Datensatz mit Anzahl der Konten und CRC32C-Prüfsumme über alle Datensätze.
+ * Geschrieben wird in eine temporäre Datei, die erst nach dem fsync an ihren Platz
+ * verschoben wird; ein unvollständiger Sicherungspunkt ersetzt also nie einen vollständigen.
+ * Nach dem Verschieben wird auch das Verzeichnis gesichert, damit nach einem Absturz des
+ * Rechners nicht der alte Sicherungspunkt zurückkehrt, während die Journalsegmente, die er
+ * braucht, schon gelöscht sind.
+ * <p>
+ * Der Sicherungspunkt ist unscharf: die Konten werden nacheinander geschrieben, während die
+ * Bank weiterarbeitet, jedes Konto ist nur für das Schreiben seines eigenen Zustands gesperrt.
+ * Vollständig wird er erst zusammen mit dem Journal ab der im Kopf vermerkten Position, die vor
+ * dem ersten Konto festgehalten wurde: Jede Änderung, die im Sicherungspunkt fehlt, steht im
+ * Journal dahinter, und das erneute Abspielen bereits enthaltener Änderungen schadet nicht,
+ * da das Journal die Zustände nach der Änderung enthält.
+ */
+public final class Sicherungspunkt {
+    private static final int KENNUNG = 0x4253504B; // "BSPK"
+    private static final int VERSION = 1;
+    private static final byte KUNDE = 1;
+    private static final byte KONTO = 2;
+    private static final byte ENDE = 3;
+    private static final int PUFFERGROESSE = 1 << 20;
+
+    private final long journalPosition;
+    private final long hoechsteNummer;
+    private final long anzahlKonten;
+
+    private Sicherungspunkt(long journalPosition, long hoechsteNummer, long anzahlKonten) {
+        this.journalPosition = journalPosition;
+        this.hoechsteNummer = hoechsteNummer;
+        this.anzahlKonten = anzahlKonten;
+    }
+
+    /**
+     * @return die Journalposition, ab der das Journal nach dem Laden abgespielt werden muss
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * @return die höchste bis zum Sicherungspunkt vergebene Kontonummer
+     */
+    public long getHoechsteNummer() {
+        return hoechsteNummer;
+    }
+
+    /**
+     * @return Anzahl der gelesenen Konten
+     */
+    public long getAnzahlKonten() {
+        return anzahlKonten;
+    }
+
+    /**
+     * beginnt einen neuen Sicherungspunkt
+     *
+     * @param datei            die Datei des Sicherungspunkts, wird erst beim Abschließen ersetzt
+     * @param journalPosition  die Position des Journals vor dem ersten Konto, 0 ohne Journal
+     * @param hoechsteNummer   die höchste bisher vergebene Kontonummer
+     * @param erwarteteAnzahl  ungefähre Anzahl der Konten, damit beim Laden passend Platz reserviert wird
+     * @return der Schreiber, in den die Konten geschrieben werden
+     * @throws IOException wenn die temporäre Datei nicht angelegt werden kann
+     */
+    public static Schreiber schreiben(Path datei, long journalPosition, long hoechsteNummer, long erwarteteAnzahl)
+            throws IOException {
+        return new Schreiber(datei, journalPosition, hoechsteNummer, erwarteteAnzahl);
+    }
+
+    /**
+     * liest einen Sicherungspunkt und übergibt alle Konten an das Ziel.
+     * Die Datei wird in großen Blöcken gelesen, Kunden werden nur einmal angelegt.
+     *
+     * @param datei die Datei des Sicherungspunkts
+     * @param ziel  nimmt die Konten auf
+     * @return Journalposition und höchste Kontonummer des Sicherungspunkts
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder beschädigt ist
+     */
+    public static Sicherungspunkt lesen(Path datei, Wiederherstellungsziel ziel) throws IOException {
+        return lesen(datei, ziel, new Kundenregister());
+    }
+
+    /**
+     * liest einen Sicherungspunkt, übergibt alle Konten an das Ziel und trägt die Kunden in
+     * den Kundenregister ein, damit das anschließende Abspielen des Journals dieselben
+     * Kunden-Objekte verwendet
+     *
+     * @param datei  die Datei des Sicherungspunkts
+     * @param ziel   nimmt die Konten auf
+     * @param kunden die bereits angelegten Kunden, wird ergänzt
+     * @return Journalposition und höchste Kontonummer des Sicherungspunkts
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder beschädigt ist
+     */
+    public static Sicherungspunkt lesen(Path datei, Wiederherstellungsziel ziel, Kundenregister kunden)
+            throws IOException {
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+            ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFERGROESSE);
+            puffer.limit(0);
+            verfuegbarMachen(kanal, puffer, 32);
+            if (puffer.getInt() != KENNUNG || puffer.getInt() != VERSION)
+                throw new IOException(datei + " ist kein Sicherungspunkt");
+            long journalPosition = puffer.getLong();
+            long hoechsteNummer = puffer.getLong();
+            ziel.kontenErwartet(puffer.getLong());
+
+            List<Kunde> kundennummern = new ArrayList<>();
+            CRC32C pruefsumme = new CRC32C();
+            long anzahl = 0;
+            while (true) {
+                verfuegbarMachen(kanal, puffer, 5);
+                byte art = puffer.get(puffer.position());
+                int laenge = puffer.getInt(puffer.position() + 1);
+                if (art == ENDE) {
+                    puffer.position(puffer.position() + 5);
+                    verfuegbarMachen(kanal, puffer, 12);
+                    if (puffer.getLong() != anzahl || puffer.getInt() != (int) pruefsumme.getValue())
+                        throw new IOException(datei + " ist beschädigt");
+                    return new Sicherungspunkt(journalPosition, hoechsteNummer, anzahl);
+                }
+                if (laenge < 0 || laenge > PUFFERGROESSE - 5)
+                    throw new IOException(datei + " ist beschädigt");
+                verfuegbarMachen(kanal, puffer, 5 + laenge);
+                pruefsumme.update(puffer.slice(puffer.position(), 5 + laenge));
+                puffer.position(puffer.position() + 5);
+                ByteBuffer inhalt = puffer.slice(puffer.position(), laenge);
+                puffer.position(puffer.position() + laenge);
+                if (art == KUNDE) {
+                    kundennummern.add(Kontozustand.kundeLesen(inhalt, kunden));
+                } else if (art == KONTO) {
+                    Kunde inhaber = kundennummern.get(inhalt.getInt());
+                    ziel.kontoEinfuegen(Kontozustand.lesen(inhalt, inhaber));
+                    anzahl++;
+                } else {
+                    throw new IOException(datei + " ist beschädigt");
+                }
+            }
+        }
+    }
+
+    /**
+     * sorgt dafür, dass ab der Position mindestens anzahl Bytes im Puffer stehen
+     */
+    private static void verfuegbarMachen(FileChannel kanal, ByteBuffer puffer, int anzahl) throws IOException {
+        if (puffer.remaining() >= anzahl)
+            return;
+        puffer.compact();
+        while (puffer.position() < anzahl) {
+            if (kanal.read(puffer) < 0)
+                throw new EOFException("Sicherungspunkt ist unvollständig");
+        }
+        puffer.flip();
+    }
+
+    /**
+     * schreibt die Konten eines Sicherungspunkts nacheinander in eine temporäre Datei
+     */
+    public static final class Schreiber implements Closeable {
+        private final Path datei;
+        private final Path temporaer;
+        private final FileChannel kanal;
+        private final ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFERGROESSE);
+        private final Map<Kunde, Integer> kundennummern = new IdentityHashMap<>();
+        private final CRC32C pruefsumme = new CRC32C();
+        private long anzahl;
+        private boolean abgeschlossen;
+
+        private Schreiber(Path datei, long journalPosition, long hoechsteNummer, long erwarteteAnzahl)
+                throws IOException {
+            this.datei = datei;
+            this.temporaer = datei.resolveSibling(datei.getFileName() + ".tmp");
+            this.kanal = FileChannel.open(temporaer, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            puffer.putInt(KENNUNG).putInt(VERSION)
+                    .putLong(journalPosition).putLong(hoechsteNummer).putLong(erwarteteAnzahl);
+        }
+
+        /**
+         * schreibt den Zustand des Kontos und bei seinem ersten Auftreten dessen Inhaber.
+         * Das Konto wird nur während des Lesens seines Zustands gesperrt.
+         *
+         * @param konto das Konto
+         * @throws IOException              wenn nicht geschrieben werden kann
+         * @throws IllegalArgumentException wenn die Kontoart nicht gespeichert werden kann
+         */
+        public void kontoSchreiben(Konto konto) throws IOException {
+            Kunde inhaber = konto.getInhaber();
+            Integer kundennummer = kundennummern.get(inhaber);
+            if (kundennummer == null) {
+                kundennummer = kundennummern.size();
+                kundennummern.put(inhaber, kundennummer);
+                byte[] kunde = Kontozustand.kundeKodieren(inhaber);
+                datensatzBeginnen(KUNDE, kunde.length);
+                puffer.put(kunde);
+                datensatzAbschliessen(kunde.length);
+            }
+            int laenge = 4 + Kontozustand.groesse(konto);
+            datensatzBeginnen(KONTO, laenge);
+            puffer.putInt(kundennummer);
+            Kontozustand.schreiben(puffer, konto);
+            datensatzAbschliessen(laenge);
+            anzahl++;
+        }
+
+        /**
+         * schreibt den Ende-Datensatz, sichert die Datei auf den Datenträger und ersetzt
+         * damit den bisherigen Sicherungspunkt; kehrt erst zurück, wenn auch das Ersetzen
+         * gesichert ist
+         *
+         * @throws IOException wenn nicht geschrieben werden kann
+         */
+        public void abschliessen() throws IOException {
+            if (puffer.remaining() < 17)
+                ausschreiben();
+            puffer.put(ENDE).putInt(12).putLong(anzahl).putInt((int) pruefsumme.getValue());
+            ausschreiben();
+            kanal.force(true);
+            kanal.close();
+            Files.move(temporaer, datei, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            abgeschlossen = true;
+            Journal.verzeichnisSichern(datei.toAbsolutePath().getParent());
+        }
+
+        /**
+         * @return Anzahl der bisher geschriebenen Konten
+         */
+        public long getAnzahlKonten() {
+            return anzahl;
+        }
+
+        /**
+         * bricht einen nicht abgeschlossenen Sicherungspunkt ab und löscht die temporäre Datei
+         *
+         * @throws IOException wenn die Datei nicht gelöscht werden kann
+         */
+        @Override
+        public void close() throws IOException {
+            if (!abgeschlossen) {
+                kanal.close();
+                Files.deleteIfExists(temporaer);
+            }
+        }
+
+        private void datensatzBeginnen(byte art, int laenge) throws IOException {
+            if (laenge > PUFFERGROESSE - 5)
+                throw new IllegalArgumentException("Datensatz zu groß");
+            if (puffer.remaining() < 5 + laenge)
+                ausschreiben();
+            puffer.put(art).putInt(laenge);
+        }
+
+        private void datensatzAbschliessen(int laenge) {
+            int beginn = puffer.position() - 5 - laenge;
+            pruefsumme.update(puffer.slice(beginn, 5 + laenge));
+        }
+
+        private void ausschreiben() throws IOException {
+            puffer.flip();
+            while (puffer.hasRemaining()) {
+                kanal.write(puffer);
+            }
+            puffer.clear();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * nimmt die Konten auf, die beim Abspielen des {@link Journal}s wiederhergestellt werden;
+ * wird von der Bank implementiert
+ */
+public interface Wiederherstellungsziel {
+    /**
+     * @param kontonummer die Kontonummer
+     * @return das bereits wiederhergestellte Konto oder null
+     */
+    Konto kontoSuchen(long kontonummer);
+
+    /**
+     * nimmt ein wiederhergestelltes Konto unter seiner Kontonummer auf
+     *
+     * @param konto das Konto
+     */
+    void kontoEinfuegen(Konto konto);
+
+    /**
+     * entfernt ein Konto
+     *
+     * @param kontonummer die Kontonummer
+     */
+    void kontoEntfernen(long kontonummer);
+
+    /**
+     * teilt vor dem Einfügen mit, wie viele Konten ungefähr folgen werden,
+     * damit das Ziel passend Platz reservieren kann
+     *
+     * @param anzahl die erwartete Anzahl der Konten
+     */
+    default void kontenErwartet(long anzahl) {
+    }
+
+    /**
+     * nimmt die Zusatzdaten eines Eintrags auf, der mit
+     * {@link Journal#kontenAnhaengen(Eintragsart, ByteBuffer, Konto...)} geschrieben wurde;
+     * wird nach den Konten des Eintrags aufgerufen
+     *
+     * @param art    die Art des Eintrags
+     * @param zusatz die Zusatzdaten, nur während des Aufrufs gültig
+     */
+    default void zusatzUebernehmen(Eintragsart art, ByteBuffer zusatz) {
+    }
+}
@@ -0,0 +1,83 @@
+package bankprojekt.server;
+
+/**
+ * das binäre Protokoll zwischen {@link Binaerclient} und {@link Binaerserver}.
+ * <p>
+ * Jede Nachricht ist ein Rahmen aus einem int mit der Länge des Inhalts und dem Inhalt
+ * selbst, alle Zahlen in Netzwerk-Bytereihenfolge (big endian), Beträge in Cent:
+ * <pre>
+ * Anfrage:  byte art, long kennung, dann je nach Art
+ *           KONTOSTAND    long konto
+ *           EINZAHLUNG    long konto, long cent
+ *           UEBERWEISUNG  long von, long nach, long cent, short n, n Byte Verwendungszweck (UTF-8)
+ * Antwort:  byte status, long kennung, long wert
+ * </pre>
+ * Die Kennung wählt der Client frei und bekommt sie in der Antwort zurück. Ein Client darf
+ * beliebig viele Anfragen senden, ohne auf die Antworten zu warten; der Server beantwortet
+ * die Anfragen einer Verbindung immer in der Reihenfolge, in der sie eingegangen sind.
+ * Der Wert der Antwort ist bei Kontostand und Einzahlung der (neue) Kontostand in Cent,
+ * sonst 0.
+ */
+public final class Bankprotokoll {
+    /**
+     * Art einer Anfrage: Kontostand abfragen
+     */
+    public static final byte KONTOSTAND = 1;
+    /**
+     * Art einer Anfrage: Geld einzahlen
+     */
+    public static final byte EINZAHLUNG = 2;
+    /**
+     * Art einer Anfrage: Geld überweisen
+     */
+    public static final byte UEBERWEISUNG = 3;
+
+    /**
+     * Status einer Antwort: ausgeführt
+     */
+    public static final byte OK = 0;
+    /**
+     * Status einer Antwort: von der Bank abgelehnt, z.B. nicht gedeckt oder gesperrt
+     */
+    public static final byte ABGELEHNT = 1;
+    /**
+     * Status einer Antwort: ein Konto gibt es nicht
+     */
+    public static final byte UNBEKANNT = 2;
+    /**
+     * Status einer Antwort: ungültige Anfrage, z.B. negativer Betrag oder unbekannte Art
+     */
+    public static final byte UNGUELTIG = 3;
+    /**
+     * Status einer Antwort: unerwarteter Fehler im Server
+     */
+    public static final byte FEHLER = 4;
+
+    /**
+     * so viele Byte darf der Verwendungszweck einer Überweisung höchstens haben
+     */
+    public static final int MAX_ZWECK = 1024;
+
+    /**
+     * Größe des Längenfelds vor jedem Rahmen
+     */
+    static final int LAENGENFELD = Integer.BYTES;
+    /**
+     * Art und Kennung am Anfang jeder Anfrage
+     */
+    static final int KOPF = 1 + Long.BYTES;
+    static final int KONTOSTAND_LAENGE = KOPF + Long.BYTES;
+    static final int EINZAHLUNG_LAENGE = KOPF + 2 * Long.BYTES;
+    /**
+     * Länge einer Überweisung ohne die Bytes des Verwendungszwecks
+     */
+    static final int UEBERWEISUNG_LAENGE = KOPF + 3 * Long.BYTES + Short.BYTES;
+    static final int MAX_ANFRAGE = UEBERWEISUNG_LAENGE + MAX_ZWECK;
+    /**
+     * Länge des Inhalts einer Antwort
+     */
+    static final int ANTWORT_LAENGE = 1 + 2 * Long.BYTES;
+
+    private Bankprotokoll() {
+    }
+}
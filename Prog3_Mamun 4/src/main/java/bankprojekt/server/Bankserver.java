@@ -0,0 +1,347 @@
+package bankprojekt.server;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.KontenSeite;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ein HTTP-Dienst für eine {@link Bank} auf Grundlage des im JDK enthaltenen
+ * {@code com.sun.net.httpserver}. Jede Anfrage läuft in einem eigenen virtuellen Thread;
+ * ein Thread, der auf die Sperre eines Kontos oder das Journal wartet, belegt also keinen
+ * Betriebssystem-Thread, und tausende gleichzeitige Verbindungen kosten kaum mehr als ihren Puffer.
+ * <p>
+ * Parameter werden in der Query oder als {@code application/x-www-form-urlencoded} im Rumpf
+ * übergeben, Antworten sind JSON:
+ * <ul>
+ *     <li>{@code POST /konten?art=GIROKONTO|SPARBUCH[&vorname=&nachname=&adresse=&geburtstag=JJJJ-MM-TT]}
+ *     eröffnet ein Konto, 201 mit der Kontonummer</li>
+ *     <li>{@code GET /konten[?cursor=&anzahl=]} liefert eine Seite der Kontenliste
+ *     (siehe {@link Bank#getKontenSeite(long, int)})</li>
+ *     <li>{@code GET /konten/{nummer}} liefert den Kontostand</li>
+ *     <li>{@code POST /konten/{nummer}/einzahlung?betrag=} zahlt ein</li>
+ *     <li>{@code POST /konten/{nummer}/abhebung?betrag=} hebt ab, 409 wenn das Konto es nicht erlaubt</li>
+ *     <li>{@code POST /ueberweisungen?von=&nach=&betrag=[&zweck=]} überweist, 409 wenn es nicht möglich ist</li>
+ * </ul>
+ * Ungültige Parameter ergeben 400, unbekannte Konten 404 und gesperrte Konten 423.
+ */
+public final class Bankserver implements Closeable {
+    /**
+     * Anzahl der Verbindungen, die in der Warteschlange des Betriebssystems auf ihre Annahme warten dürfen
+     */
+    private static final int WARTESCHLANGE = 4096;
+    /**
+     * so viele Konten enthält eine Seite der Kontenliste höchstens
+     */
+    static final int MAX_SEITE = 1000;
+
+    private final Bank bank;
+    private final HttpServer server;
+    private final ExecutorService threads;
+
+    private Bankserver(Bank bank, HttpServer server) {
+        this.bank = bank;
+        this.server = server;
+        this.threads = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(threads);
+        server.createContext("/konten", this::konten);
+        server.createContext("/ueberweisungen", this::ueberweisungen);
+    }
+
+    /**
+     * startet den Dienst für die Bank.
+     * <p>
+     * Ist die Systemeigenschaft {@code sun.net.httpserver.nodelay} noch nicht gesetzt, wird sie
+     * auf {@code true} gesetzt: Der JDK-Server schreibt Kopf und Rumpf getrennt, mit Nagle wartet
+     * der Rumpf auf das verzögerte ACK des Clients, und das kostet bei kleinen Antworten bis zu
+     * 40 ms je Anfrage. Die Eigenschaft gilt für die ganze JVM und wird nur beim ersten Erzeugen
+     * eines HttpServers gelesen; wer vorher schon einen startet, setzt sie beim Start der JVM mit
+     * {@code -Dsun.net.httpserver.nodelay=true}.
+     *
+     * @param bank    die Bank
+     * @param adresse die Adresse, an der der Dienst lauscht; Port 0 wählt einen freien Port
+     * @return der laufende Dienst
+     * @throws IOException              wenn die Adresse nicht belegt werden kann
+     * @throws IllegalArgumentException wenn bank oder adresse null ist
+     */
+    public static Bankserver starten(Bank bank, InetSocketAddress adresse) throws IOException {
+        if (bank == null || adresse == null)
+            throw new IllegalArgumentException("Bank und Adresse dürfen nicht null sein!");
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+        Bankserver dienst = new Bankserver(bank, HttpServer.create(adresse, WARTESCHLANGE));
+        dienst.server.start();
+        return dienst;
+    }
+
+    /**
+     * @return die tatsächliche Adresse des Dienstes, mit dem gewählten Port
+     */
+    public InetSocketAddress getAdresse() {
+        return server.getAddress();
+    }
+
+    /**
+     * beendet den Dienst; laufende Anfragen werden noch bis zu einer Sekunde lang beantwortet
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        threads.close();
+    }
+
+    /**
+     * startet einen Dienst für eine neue, leere Bank im Speicher
+     *
+     * @param args Port (Standard 8080) und Bankleitzahl (Standard 12030000)
+     * @throws IOException wenn der Port nicht belegt werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        long bankleitzahl = args.length > 1 ? Long.parseLong(args[1]) : 12030000;
+        Bankserver dienst = starten(new Bank(bankleitzahl), new InetSocketAddress(port));
+        System.out.println("Bank " + bankleitzahl + " unter http://localhost:" + dienst.getAdresse().getPort() + "/konten");
+    }
+
+    private void konten(HttpExchange anfrage) throws IOException {
+        bearbeiten(anfrage, (methode, pfad, parameter) -> {
+            String[] teile = pfad.split("/");
+            // teile[0] ist leer, teile[1] ist "konten"
+            if (teile.length < 2 || !teile[1].equals("konten"))
+                return Antwort.NICHT_GEFUNDEN;
+            if (teile.length == 2) {
+                if (methode.equals("POST"))
+                    return kontoEroeffnen(parameter);
+                if (methode.equals("GET"))
+                    return kontenAuflisten(parameter);
+                return Antwort.METHODE_FALSCH;
+            }
+            long nummer = zahl(teile[2], "Kontonummer");
+            if (!bank.kontoExistiert(nummer))
+                return new Antwort(404, fehler("Konto " + nummer + " gibt es nicht"));
+            if (teile.length == 3) {
+                if (!methode.equals("GET"))
+                    return Antwort.METHODE_FALSCH;
+                return kontostand(nummer);
+            }
+            if (teile.length > 4)
+                return Antwort.NICHT_GEFUNDEN;
+            if (!methode.equals("POST"))
+                return Antwort.METHODE_FALSCH;
+            double betrag = betrag(parameter);
+            switch (teile[3]) {
+                case "einzahlung":
+                    bank.geldEinzahlen(nummer, betrag);
+                    return kontostand(nummer);
+                case "abhebung":
+                    if (!bank.geldAbheben(nummer, betrag))
+                        return new Antwort(409, fehler("Abhebung nicht möglich"));
+                    return kontostand(nummer);
+                default:
+                    return Antwort.NICHT_GEFUNDEN;
+            }
+        });
+    }
+
+    private void ueberweisungen(HttpExchange anfrage) throws IOException {
+        bearbeiten(anfrage, (methode, pfad, parameter) -> {
+            if (!pfad.equals("/ueberweisungen") && !pfad.equals("/ueberweisungen/"))
+                return Antwort.NICHT_GEFUNDEN;
+            if (!methode.equals("POST"))
+                return Antwort.METHODE_FALSCH;
+            long von = zahl(parameter.get("von"), "von");
+            long nach = zahl(parameter.get("nach"), "nach");
+            double betrag = betrag(parameter);
+            String zweck = parameter.getOrDefault("zweck", "");
+            if (!bank.kontoExistiert(von) || !bank.kontoExistiert(nach))
+                return new Antwort(404, fehler("Konto gibt es nicht"));
+            if (!bank.geldUeberweisen(von, nach, betrag, zweck))
+                return new Antwort(409, fehler("Überweisung nicht möglich"));
+            return new Antwort(200, "{\"von\":" + von + ",\"nach\":" + nach + ",\"betrag\":" + betrag + "}");
+        });
+    }
+
+    private Antwort kontostand(long nummer) {
+        return new Antwort(200, "{\"nummer\":" + nummer + ",\"kontostand\":" + bank.getKontostand(nummer) + "}");
+    }
+
+    private Antwort kontoEroeffnen(Map<String, String> parameter) {
+        String art = parameter.getOrDefault("art", Kontoart.GIROKONTO.name());
+        Kunde inhaber = Kunde.MUSTERMANN;
+        if (parameter.containsKey("nachname")) {
+            LocalDate geburtstag;
+            try {
+                geburtstag = LocalDate.parse(parameter.getOrDefault("geburtstag", "2000-01-01"));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Ungültiger Geburtstag", e);
+            }
+            // ohne Shutdown-Hook, sonst hielte jeder über den Dienst angelegte Kunde die JVM fest
+            inhaber = Kunde.wiederherstellen(parameter.getOrDefault("vorname", ""),
+                    parameter.get("nachname"), parameter.getOrDefault("adresse", ""), geburtstag);
+        }
+        long nummer;
+        if (art.equalsIgnoreCase(Kontoart.GIROKONTO.name()))
+            nummer = bank.girokontoErstellen(inhaber);
+        else if (art.equalsIgnoreCase(Kontoart.SPARBUCH.name()))
+            nummer = bank.sparbuchErstellen(inhaber);
+        else
+            throw new IllegalArgumentException("Unbekannte Kontoart " + art);
+        return new Antwort(201, "{\"nummer\":" + nummer + "}");
+    }
+
+    private Antwort kontenAuflisten(Map<String, String> parameter) {
+        long cursor = parameter.containsKey("cursor") ? zahl(parameter.get("cursor"), "cursor") : KontenSeite.ANFANG;
+        long anzahl = parameter.containsKey("anzahl") ? zahl(parameter.get("anzahl"), "anzahl") : 100;
+        if (anzahl <= 0 || anzahl > MAX_SEITE)
+            throw new IllegalArgumentException("anzahl muss zwischen 1 und " + MAX_SEITE + " liegen");
+        KontenSeite seite = bank.getKontenSeite(cursor, (int) anzahl);
+        StringBuilder json = new StringBuilder(64 + 48 * seite.getAnzahl()).append("{\"konten\":[");
+        long[] nummern = seite.getKontonummern();
+        for (int i = 0; i < nummern.length; i++) {
+            Konto konto = seite.getKonten().get(i);
+            if (i > 0)
+                json.append(',');
+            json.append("{\"nummer\":").append(nummern[i])
+                    .append(",\"kontostand\":").append(konto.getKontostand())
+                    .append(",\"waehrung\":\"").append(konto.getAktuelleWaehrung()).append("\"}");
+        }
+        return new Antwort(200, json.append("],\"cursor\":").append(seite.getCursor())
+                .append(",\"weitere\":").append(seite.hatWeitere()).append('}').toString());
+    }
+
+    /**
+     * liest die Parameter, führt die Aktion aus und sendet ihre Antwort; Ausnahmen werden
+     * in die passenden Statuscodes übersetzt
+     */
+    private static void bearbeiten(HttpExchange anfrage, Aktion aktion) throws IOException {
+        Antwort antwort;
+        try {
+            Map<String, String> parameter = parameter(anfrage);
+            antwort = aktion.ausfuehren(anfrage.getRequestMethod(), anfrage.getRequestURI().getPath(), parameter);
+        } catch (IllegalArgumentException e) {
+            antwort = new Antwort(400, fehler(e.getMessage()));
+        } catch (GesperrtException e) {
+            antwort = new Antwort(423, fehler(e.getMessage()));
+        } catch (ArithmeticException e) {
+            antwort = new Antwort(422, fehler(e.getMessage()));
+        } catch (RuntimeException e) {
+            antwort = new Antwort(500, fehler(e.toString()));
+        }
+        byte[] inhalt = antwort.text.getBytes(StandardCharsets.UTF_8);
+        anfrage.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        anfrage.sendResponseHeaders(antwort.status, inhalt.length);
+        try (OutputStream aus = anfrage.getResponseBody()) {
+            aus.write(inhalt);
+        }
+    }
+
+    /**
+     * liest die Parameter aus Query und Rumpf; der Rumpf wird dabei immer ganz gelesen,
+     * damit die Verbindung für die nächste Anfrage offen bleiben kann
+     */
+    private static Map<String, String> parameter(HttpExchange anfrage) throws IOException {
+        Map<String, String> parameter = new HashMap<>();
+        zerlegen(anfrage.getRequestURI().getRawQuery(), parameter);
+        try (InputStream rumpf = anfrage.getRequestBody()) {
+            byte[] gelesen = rumpf.readAllBytes();
+            if (gelesen.length > 0)
+                zerlegen(new String(gelesen, StandardCharsets.UTF_8), parameter);
+        }
+        return parameter;
+    }
+
+    private static void zerlegen(String text, Map<String, String> parameter) {
+        if (text == null || text.isEmpty())
+            return;
+        for (String paar : text.split("&")) {
+            int gleich = paar.indexOf('=');
+            if (gleich < 0)
+                parameter.put(URLDecoder.decode(paar, StandardCharsets.UTF_8), "");
+            else
+                parameter.put(URLDecoder.decode(paar.substring(0, gleich), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paar.substring(gleich + 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long zahl(String text, String name) {
+        if (text == null)
+            throw new IllegalArgumentException("Parameter " + name + " fehlt");
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiger Wert für " + name + ": " + text, e);
+        }
+    }
+
+    private static double betrag(Map<String, String> parameter) {
+        String text = parameter.get("betrag");
+        if (text == null)
+            throw new IllegalArgumentException("Parameter betrag fehlt");
+        double betrag;
+        try {
+            betrag = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiger Betrag: " + text, e);
+        }
+        if (betrag < 0 || !Double.isFinite(betrag))
+            throw new IllegalArgumentException("Ungültiger Betrag: " + text);
+        return betrag;
+    }
+
+    private static String fehler(String meldung) {
+        StringBuilder json = new StringBuilder("{\"fehler\":\"");
+        if (meldung != null) {
+            for (int i = 0; i < meldung.length(); i++) {
+                char c = meldung.charAt(i);
+                if (c == '"' || c == '\\')
+                    json.append('\\').append(c);
+                else if (c < 0x20)
+                    json.append(' ');
+                else
+                    json.append(c);
+            }
+        }
+        return json.append("\"}").toString();
+    }
+
+    /**
+     * die Aktion zu einer Anfrage
+     */
+    @FunctionalInterface
+    private interface Aktion {
+        Antwort ausfuehren(String methode, String pfad, Map<String, String> parameter) throws GesperrtException;
+    }
+
+    /**
+     * Statuscode und JSON-Rumpf einer Antwort
+     */
+    private static final class Antwort {
+        static final Antwort NICHT_GEFUNDEN = new Antwort(404, fehler("Unbekannter Pfad"));
+        static final Antwort METHODE_FALSCH = new Antwort(405, fehler("Methode nicht erlaubt"));
+
+        final int status;
+        final String text;
+
+        Antwort(int status, String text) {
+            this.status = status;
+            this.text = text;
+        }
+    }
+}
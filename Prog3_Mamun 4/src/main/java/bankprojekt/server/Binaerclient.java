@@ -0,0 +1,198 @@
+package bankprojekt.server;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ein blockierender Client für den {@link Binaerserver}, der Anfragen ohne Warten auf die
+ * Antworten hintereinander senden kann (Pipelining).
+ * <p>
+ * Die Methoden {@link #kontostandAbfragen}, {@link #einzahlen} und {@link #ueberweisen} legen
+ * eine Anfrage nur in den Sendepuffer; gesendet wird mit {@link #senden()} oder automatisch,
+ * wenn der Puffer voll ist. {@link #antwortLesen()} liest die jeweils nächste Antwort, deren
+ * Status, Kennung und Wert danach über die Getter abgefragt werden. Die Antworten kommen in
+ * der Reihenfolge der Anfragen.
+ * <p>
+ * Der Aufrufer muss die Antworten ablesen: Sendet er immer weiter, ohne zu lesen, nimmt der
+ * Server irgendwann nichts mehr an und {@link #senden()} blockiert für immer. Einige tausend
+ * ausstehende Anfragen sind unbedenklich.
+ * <p>
+ * Ein Client ist nicht threadsicher; jeder Thread braucht seine eigene Verbindung.
+ */
+public final class Binaerclient implements Closeable {
+    private final SocketChannel kanal;
+    private final ByteBuffer ausgang = ByteBuffer.allocateDirect(Binaerserver.PUFFERGROESSE);
+    /**
+     * empfangene Bytes; zwischen zwei Aufrufen im Lesemodus
+     */
+    private final ByteBuffer eingang = ByteBuffer.allocateDirect(Binaerserver.PUFFERGROESSE).flip();
+    private int ausstehend;
+    private byte status;
+    private long kennung;
+    private long wert;
+    private String letzterZweck;
+    private byte[] letzterZweckBytes;
+
+    private Binaerclient(SocketChannel kanal) {
+        this.kanal = kanal;
+    }
+
+    /**
+     * verbindet sich mit einem Binaerserver
+     *
+     * @param adresse die Adresse des Servers
+     * @return der verbundene Client
+     * @throws IOException wenn die Verbindung nicht aufgebaut werden kann
+     */
+    public static Binaerclient verbinden(InetSocketAddress adresse) throws IOException {
+        SocketChannel kanal = SocketChannel.open(adresse);
+        kanal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new Binaerclient(kanal);
+    }
+
+    /**
+     * legt eine Abfrage des Kontostands in den Sendepuffer
+     *
+     * @param kennung die Kennung, die die Antwort trägt
+     * @param konto   die Kontonummer
+     * @throws IOException wenn der volle Sendepuffer nicht gesendet werden kann
+     */
+    public void kontostandAbfragen(long kennung, long konto) throws IOException {
+        platzSchaffen(Bankprotokoll.KONTOSTAND_LAENGE);
+        ausgang.putInt(Bankprotokoll.KONTOSTAND_LAENGE).put(Bankprotokoll.KONTOSTAND).putLong(kennung)
+                .putLong(konto);
+        ausstehend++;
+    }
+
+    /**
+     * legt eine Einzahlung in den Sendepuffer
+     *
+     * @param kennung die Kennung, die die Antwort trägt
+     * @param konto   die Kontonummer
+     * @param cent    der Betrag in Cent
+     * @throws IOException wenn der volle Sendepuffer nicht gesendet werden kann
+     */
+    public void einzahlen(long kennung, long konto, long cent) throws IOException {
+        platzSchaffen(Bankprotokoll.EINZAHLUNG_LAENGE);
+        ausgang.putInt(Bankprotokoll.EINZAHLUNG_LAENGE).put(Bankprotokoll.EINZAHLUNG).putLong(kennung)
+                .putLong(konto).putLong(cent);
+        ausstehend++;
+    }
+
+    /**
+     * legt eine Überweisung in den Sendepuffer
+     *
+     * @param kennung          die Kennung, die die Antwort trägt
+     * @param von              die Kontonummer des sendenden Kontos
+     * @param nach             die Kontonummer des empfangenden Kontos
+     * @param cent             der Betrag in Cent
+     * @param verwendungszweck der Verwendungszweck
+     * @throws IOException              wenn der volle Sendepuffer nicht gesendet werden kann
+     * @throws IllegalArgumentException wenn der Verwendungszweck null oder länger als
+     *                                  {@link Bankprotokoll#MAX_ZWECK} Byte ist
+     */
+    public void ueberweisen(long kennung, long von, long nach, long cent, String verwendungszweck)
+            throws IOException {
+        if (verwendungszweck == null)
+            throw new IllegalArgumentException("Der Verwendungszweck darf nicht null sein!");
+        if (!verwendungszweck.equals(letzterZweck)) {
+            byte[] bytes = verwendungszweck.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Bankprotokoll.MAX_ZWECK)
+                throw new IllegalArgumentException("Verwendungszweck länger als " + Bankprotokoll.MAX_ZWECK + " Byte");
+            letzterZweck = verwendungszweck;
+            letzterZweckBytes = bytes;
+        }
+        int laenge = Bankprotokoll.UEBERWEISUNG_LAENGE + letzterZweckBytes.length;
+        platzSchaffen(laenge);
+        ausgang.putInt(laenge).put(Bankprotokoll.UEBERWEISUNG).putLong(kennung)
+                .putLong(von).putLong(nach).putLong(cent)
+                .putShort((short) letzterZweckBytes.length).put(letzterZweckBytes);
+        ausstehend++;
+    }
+
+    private void platzSchaffen(int laenge) throws IOException {
+        if (ausgang.remaining() < Bankprotokoll.LAENGENFELD + laenge)
+            senden();
+    }
+
+    /**
+     * sendet alle Anfragen im Sendepuffer
+     *
+     * @throws IOException wenn die Verbindung unterbrochen ist
+     */
+    public void senden() throws IOException {
+        ausgang.flip();
+        while (ausgang.hasRemaining()) {
+            kanal.write(ausgang);
+        }
+        ausgang.clear();
+    }
+
+    /**
+     * liest die nächste Antwort; noch nicht gesendete Anfragen werden vorher gesendet
+     *
+     * @throws IOException           wenn die Verbindung unterbrochen ist
+     * @throws IllegalStateException wenn keine Antwort mehr aussteht
+     */
+    public void antwortLesen() throws IOException {
+        if (ausstehend == 0)
+            throw new IllegalStateException("Es steht keine Antwort aus");
+        int rahmen = Bankprotokoll.LAENGENFELD + Bankprotokoll.ANTWORT_LAENGE;
+        if (eingang.remaining() < rahmen) {
+            if (ausgang.position() > 0)
+                senden();
+            eingang.compact();
+            while (eingang.position() < rahmen) {
+                if (kanal.read(eingang) < 0)
+                    throw new EOFException("Der Server hat die Verbindung geschlossen");
+            }
+            eingang.flip();
+        }
+        if (eingang.getInt() != Bankprotokoll.ANTWORT_LAENGE)
+            throw new IOException("Ungültige Antwort des Servers");
+        status = eingang.get();
+        kennung = eingang.getLong();
+        wert = eingang.getLong();
+        ausstehend--;
+    }
+
+    /**
+     * @return die Anzahl der Anfragen, deren Antwort noch nicht gelesen ist
+     */
+    public int getAusstehend() {
+        return ausstehend;
+    }
+
+    /**
+     * @return der Status der zuletzt gelesenen Antwort, siehe {@link Bankprotokoll#OK} usw.
+     */
+    public byte getStatus() {
+        return status;
+    }
+
+    /**
+     * @return die Kennung der zuletzt gelesenen Antwort
+     */
+    public long getKennung() {
+        return kennung;
+    }
+
+    /**
+     * @return der Wert der zuletzt gelesenen Antwort: der Kontostand in Cent bei Kontostand
+     * und Einzahlung, sonst 0
+     */
+    public long getWert() {
+        return wert;
+    }
+
+    @Override
+    public void close() throws IOException {
+        kanal.close();
+    }
+}
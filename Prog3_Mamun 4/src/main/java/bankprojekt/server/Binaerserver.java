@@ -0,0 +1,418 @@
+package bankprojekt.server;
+
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verwaltung.Bank;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ein Dienst für eine {@link Bank}, der das binäre {@link Bankprotokoll} über
+ * NIO-{@link SocketChannel}s spricht, für Anwendungen wie eine Clearingstelle, die sehr viele
+ * kleine Aufträge einliefern.
+ * <p>
+ * Ein Annahme-Thread verteilt die Verbindungen reihum auf eine feste Anzahl von Schleifen,
+ * jede mit einem eigenen {@link Selector} und Thread. Eine Schleife liest so viele Byte wie
+ * vorhanden, führt alle darin vollständig enthaltenen Anfragen nacheinander aus und schreibt
+ * die Antworten gesammelt zurück; die Antworten einer Verbindung kommen damit von selbst in
+ * der Reihenfolge der Anfragen. Jede Verbindung hat einen Eingangs- und einen Ausgangspuffer
+ * (direkt, je {@value #PUFFERGROESSE} Byte), die immer wieder verwendet werden. Beim Dekodieren
+ * wird nichts angelegt; nur ein neuer Verwendungszweck, der sich vom vorigen der Verbindung
+ * unterscheidet, wird in einen String umgewandelt.
+ * <p>
+ * Liest ein Client seine Antworten nicht ab und ist der Ausgangspuffer voll, nimmt die Schleife
+ * von dieser Verbindung keine Anfragen mehr an, bis er wieder Platz hat. Ein Rahmen mit
+ * ungültiger Länge beendet die Verbindung.
+ * <p>
+ * Die Bankmethoden laufen im Thread der Schleife. Arbeitet die Bank mit einem Journal, das
+ * jede Änderung auf die Platte zwingt, wartet eine Schleife also bei jeder Anfrage auf die
+ * Platte; dann sollten mehr Schleifen als Prozessoren laufen, damit das Journal mehrere
+ * Einträge gemeinsam sichern kann.
+ */
+public final class Binaerserver implements Closeable {
+    /**
+     * Größe der Ein- und Ausgangspuffer jeder Verbindung
+     */
+    static final int PUFFERGROESSE = 64 * 1024;
+
+    private final Bank bank;
+    private final ServerSocketChannel annahme;
+    private final Schleife[] schleifen;
+    private final Thread annahmeThread;
+    private volatile boolean laufend = true;
+
+    private Binaerserver(Bank bank, ServerSocketChannel annahme, int anzahlSchleifen) throws IOException {
+        this.bank = bank;
+        this.annahme = annahme;
+        this.schleifen = new Schleife[anzahlSchleifen];
+        for (int i = 0; i < anzahlSchleifen; i++) {
+            schleifen[i] = new Schleife(Selector.open(), "Binaerserver-Schleife-" + i);
+        }
+        this.annahmeThread = new Thread(this::annehmen, "Binaerserver-Annahme");
+    }
+
+    /**
+     * startet den Dienst mit einer Schleife je Prozessor
+     *
+     * @param bank    die Bank
+     * @param adresse die Adresse, an der der Dienst lauscht; Port 0 wählt einen freien Port
+     * @return der laufende Dienst
+     * @throws IOException              wenn die Adresse nicht belegt werden kann
+     * @throws IllegalArgumentException wenn bank oder adresse null ist
+     */
+    public static Binaerserver starten(Bank bank, InetSocketAddress adresse) throws IOException {
+        return starten(bank, adresse, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * startet den Dienst
+     *
+     * @param bank      die Bank
+     * @param adresse   die Adresse, an der der Dienst lauscht; Port 0 wählt einen freien Port
+     * @param schleifen die Anzahl der Threads, auf die die Verbindungen verteilt werden
+     * @return der laufende Dienst
+     * @throws IOException              wenn die Adresse nicht belegt werden kann
+     * @throws IllegalArgumentException wenn bank oder adresse null ist oder schleifen nicht positiv
+     */
+    public static Binaerserver starten(Bank bank, InetSocketAddress adresse, int schleifen) throws IOException {
+        if (bank == null || adresse == null)
+            throw new IllegalArgumentException("Bank und Adresse dürfen nicht null sein!");
+        if (schleifen <= 0)
+            throw new IllegalArgumentException("Es muss mindestens eine Schleife geben!");
+        ServerSocketChannel annahme = ServerSocketChannel.open();
+        annahme.bind(adresse, 1024);
+        Binaerserver dienst = new Binaerserver(bank, annahme, schleifen);
+        for (Schleife s : dienst.schleifen) {
+            s.thread.start();
+        }
+        dienst.annahmeThread.start();
+        return dienst;
+    }
+
+    /**
+     * @return die tatsächliche Adresse des Dienstes, mit dem gewählten Port
+     */
+    public InetSocketAddress getAdresse() {
+        try {
+            return (InetSocketAddress) annahme.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("Der Dienst ist geschlossen", e);
+        }
+    }
+
+    /**
+     * beendet den Dienst und schließt alle Verbindungen; noch nicht beantwortete Anfragen gehen verloren
+     */
+    @Override
+    public void close() throws IOException {
+        laufend = false;
+        annahme.close();
+        for (Schleife s : schleifen) {
+            s.selector.wakeup();
+        }
+        try {
+            annahmeThread.join();
+            for (Schleife s : schleifen) {
+                s.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * startet einen Dienst für eine neue, leere Bank im Speicher
+     *
+     * @param args Port (Standard 9090) und Bankleitzahl (Standard 12030000)
+     * @throws IOException wenn der Port nicht belegt werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        long bankleitzahl = args.length > 1 ? Long.parseLong(args[1]) : 12030000;
+        Binaerserver dienst = starten(new Bank(bankleitzahl), new InetSocketAddress(port));
+        System.out.println("Bank " + bankleitzahl + " auf Port " + dienst.getAdresse().getPort());
+    }
+
+    /**
+     * nimmt Verbindungen an und verteilt sie reihum auf die Schleifen
+     */
+    private void annehmen() {
+        int naechste = 0;
+        while (laufend) {
+            SocketChannel kanal;
+            try {
+                kanal = annahme.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                continue;
+            }
+            schleifen[naechste].neue.add(kanal);
+            schleifen[naechste].selector.wakeup();
+            naechste = (naechste + 1) % schleifen.length;
+        }
+    }
+
+    /**
+     * ein Selector mit seinem Thread, der die ihm zugeteilten Verbindungen bedient
+     */
+    private final class Schleife implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<SocketChannel> neue = new ConcurrentLinkedQueue<>();
+
+        Schleife(Selector selector, String name) {
+            this.selector = selector;
+            this.thread = new Thread(this, name);
+        }
+
+        @Override
+        public void run() {
+            try (selector) {
+                while (laufend) {
+                    selector.select();
+                    anmelden();
+                    Iterator<SelectionKey> bereit = selector.selectedKeys().iterator();
+                    while (bereit.hasNext()) {
+                        SelectionKey schluessel = bereit.next();
+                        bereit.remove();
+                        Verbindung verbindung = (Verbindung) schluessel.attachment();
+                        try {
+                            if (schluessel.isReadable() && !verbindung.lesen())
+                                verbindung.schliessen();
+                            else if (schluessel.isValid() && schluessel.isWritable())
+                                verbindung.schreibenFortsetzen();
+                        } catch (IOException e) {
+                            verbindung.schliessen();
+                        }
+                    }
+                }
+                for (SelectionKey schluessel : selector.keys()) {
+                    ((Verbindung) schluessel.attachment()).schliessen();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Selector der Schleife " + thread.getName() + " ausgefallen", e);
+            } finally {
+                SocketChannel kanal;
+                while ((kanal = neue.poll()) != null) {
+                    try {
+                        kanal.close();
+                    } catch (IOException ignoriert) {
+                        // die Verbindung wird ohnehin verworfen
+                    }
+                }
+            }
+        }
+
+        private void anmelden() {
+            SocketChannel kanal;
+            while ((kanal = neue.poll()) != null) {
+                try {
+                    kanal.configureBlocking(false);
+                    kanal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    SelectionKey schluessel = kanal.register(selector, SelectionKey.OP_READ);
+                    schluessel.attach(new Verbindung(kanal, schluessel));
+                } catch (IOException e) {
+                    try {
+                        kanal.close();
+                    } catch (IOException ignoriert) {
+                        // die Verbindung wird ohnehin verworfen
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * eine Verbindung mit ihren Puffern; wird nur vom Thread ihrer Schleife benutzt
+     */
+    private final class Verbindung {
+        private final SocketChannel kanal;
+        private final SelectionKey schluessel;
+        /**
+         * empfangene, noch nicht ausgeführte Bytes; zwischen zwei Aufrufen im Schreibmodus
+         */
+        private final ByteBuffer eingang = ByteBuffer.allocateDirect(PUFFERGROESSE);
+        /**
+         * Antworten, die noch nicht gesendet sind; zwischen zwei Aufrufen im Schreibmodus
+         */
+        private final ByteBuffer ausgang = ByteBuffer.allocateDirect(PUFFERGROESSE);
+        private final byte[] zweckBytes = new byte[Bankprotokoll.MAX_ZWECK];
+        private final byte[] letzterZweckBytes = new byte[Bankprotokoll.MAX_ZWECK];
+        private int letzteZweckLaenge = -1;
+        private String letzterZweck;
+
+        Verbindung(SocketChannel kanal, SelectionKey schluessel) {
+            this.kanal = kanal;
+            this.schluessel = schluessel;
+        }
+
+        /**
+         * liest, was vorhanden ist, und bearbeitet alle vollständigen Anfragen
+         *
+         * @return false, wenn die Verbindung geschlossen werden muss
+         */
+        boolean lesen() throws IOException {
+            if (kanal.read(eingang) < 0)
+                return false;
+            return bearbeiten();
+        }
+
+        /**
+         * sendet den Rest des Ausgangspuffers und nimmt danach, falls wieder Platz ist,
+         * die bereits empfangenen Anfragen wieder auf
+         */
+        void schreibenFortsetzen() throws IOException {
+            if (!bearbeiten())
+                schliessen();
+        }
+
+        /**
+         * führt alle vollständigen Anfragen im Eingangspuffer aus, solange der Ausgangspuffer
+         * Platz für die Antworten hat, und sendet die Antworten
+         */
+        private boolean bearbeiten() throws IOException {
+            eingang.flip();
+            try {
+                while (eingang.remaining() >= Bankprotokoll.LAENGENFELD) {
+                    int anfang = eingang.position();
+                    int laenge = eingang.getInt(anfang);
+                    if (laenge < Bankprotokoll.KONTOSTAND_LAENGE || laenge > Bankprotokoll.MAX_ANFRAGE)
+                        return false;
+                    if (eingang.remaining() < Bankprotokoll.LAENGENFELD + laenge)
+                        break;
+                    if (ausgang.remaining() < Bankprotokoll.LAENGENFELD + Bankprotokoll.ANTWORT_LAENGE
+                            && !senden())
+                        break;
+                    eingang.position(anfang + Bankprotokoll.LAENGENFELD);
+                    ausfuehren(laenge);
+                    eingang.position(anfang + Bankprotokoll.LAENGENFELD + laenge);
+                }
+            } finally {
+                eingang.compact();
+            }
+            if (senden()) {
+                schluessel.interestOps(SelectionKey.OP_READ);
+            } else {
+                // der Client liest nicht schnell genug ab: erst weiterlesen, wenn alles gesendet ist
+                schluessel.interestOps(SelectionKey.OP_WRITE);
+            }
+            return true;
+        }
+
+        /**
+         * @return true, wenn der Ausgangspuffer danach leer ist
+         */
+        private boolean senden() throws IOException {
+            ausgang.flip();
+            kanal.write(ausgang);
+            boolean leer = !ausgang.hasRemaining();
+            ausgang.compact();
+            return leer;
+        }
+
+        /**
+         * führt die Anfrage ab der Position des Eingangspuffers aus und schreibt ihre Antwort
+         */
+        private void ausfuehren(int laenge) {
+            byte art = eingang.get();
+            long kennung = eingang.getLong();
+            byte status;
+            long wert = 0;
+            try {
+                switch (art) {
+                    case Bankprotokoll.KONTOSTAND -> {
+                        long konto = eingang.getLong();
+                        if (laenge != Bankprotokoll.KONTOSTAND_LAENGE) {
+                            status = Bankprotokoll.UNGUELTIG;
+                        } else if (!bank.kontoExistiert(konto)) {
+                            status = Bankprotokoll.UNBEKANNT;
+                        } else {
+                            wert = Cent.ausBetrag(bank.getKontostand(konto));
+                            status = Bankprotokoll.OK;
+                        }
+                    }
+                    case Bankprotokoll.EINZAHLUNG -> {
+                        if (laenge != Bankprotokoll.EINZAHLUNG_LAENGE) {
+                            status = Bankprotokoll.UNGUELTIG;
+                            break;
+                        }
+                        long konto = eingang.getLong();
+                        long cent = eingang.getLong();
+                        if (cent < 0) {
+                            status = Bankprotokoll.UNGUELTIG;
+                        } else if (!bank.kontoExistiert(konto)) {
+                            status = Bankprotokoll.UNBEKANNT;
+                        } else {
+                            bank.geldEinzahlen(konto, Cent.inBetrag(cent));
+                            wert = Cent.ausBetrag(bank.getKontostand(konto));
+                            status = Bankprotokoll.OK;
+                        }
+                    }
+                    case Bankprotokoll.UEBERWEISUNG -> {
+                        if (laenge < Bankprotokoll.UEBERWEISUNG_LAENGE) {
+                            status = Bankprotokoll.UNGUELTIG;
+                            break;
+                        }
+                        long von = eingang.getLong();
+                        long nach = eingang.getLong();
+                        long cent = eingang.getLong();
+                        int n = eingang.getShort() & 0xFFFF;
+                        if (laenge != Bankprotokoll.UEBERWEISUNG_LAENGE + n || cent < 0) {
+                            status = Bankprotokoll.UNGUELTIG;
+                        } else {
+                            String zweck = zweck(n);
+                            if (!bank.kontoExistiert(von) || !bank.kontoExistiert(nach))
+                                status = Bankprotokoll.UNBEKANNT;
+                            else if (bank.geldUeberweisen(von, nach, Cent.inBetrag(cent), zweck))
+                                status = Bankprotokoll.OK;
+                            else
+                                status = Bankprotokoll.ABGELEHNT;
+                        }
+                    }
+                    default -> status = Bankprotokoll.UNGUELTIG;
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                status = Bankprotokoll.UNGUELTIG;
+            } catch (RuntimeException e) {
+                status = Bankprotokoll.FEHLER;
+            }
+            ausgang.putInt(Bankprotokoll.ANTWORT_LAENGE).put(status).putLong(kennung).putLong(wert);
+        }
+
+        /**
+         * liest n Byte Verwendungszweck; gleicht er dem vorigen, wird dessen String wiederverwendet
+         */
+        private String zweck(int n) {
+            eingang.get(zweckBytes, 0, n);
+            if (n != letzteZweckLaenge || !Arrays.equals(zweckBytes, 0, n, letzterZweckBytes, 0, n)) {
+                letzterZweck = new String(zweckBytes, 0, n, StandardCharsets.UTF_8);
+                System.arraycopy(zweckBytes, 0, letzterZweckBytes, 0, n);
+                letzteZweckLaenge = n;
+            }
+            return letzterZweck;
+        }
+
+        void schliessen() {
+            schluessel.cancel();
+            try {
+                kanal.close();
+            } catch (IOException ignoriert) {
+                // die Verbindung wird ohnehin verworfen
+            }
+        }
+    }
+}
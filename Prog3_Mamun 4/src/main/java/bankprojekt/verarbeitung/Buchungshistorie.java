@@ -0,0 +1,187 @@
+package bankprojekt.verarbeitung;
+
+import generischeKlasse.Intervall;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * die Buchungen eines Kontos, in der Reihenfolge ihres Entstehens. Gespeichert wird
+ * spaltenweise in Feldern: Zeitpunkt, Betrag in Cent und Gegenkonto je als long, der
+ * Verwendungszweck als Verweis auf den übergebenen String. Wiederkehrende Verwendungszwecke
+ * wie "Einzahlung" teilen sich so einen String, ohne dass es eine Tabelle aller jemals
+ * verwendeten Zwecke gibt; die Zwecke einer Historie werden mit ihr freigegeben. Eine Buchung
+ * belegt damit bei komprimierten Verweisen {@value #BYTES_PRO_BUCHUNG} Byte zuzüglich des
+ * noch freien Platzes im letzten Block. Die Felder sind in Blöcke zu je {@value #BLOCKGROESSE} Buchungen
+ * geteilt: der erste Block wächst klein beginnend bis zu dieser Größe, danach kommen volle
+ * Blöcke hinzu, ohne dass vorhandene Buchungen kopiert werden. Das Anhängen legt also nur
+ * beim Beginnen eines Blocks Objekte an.
+ * Lange Historien kosten damit kaum mehr als ihre Buchungen, kurze nur wenige Byte.
+ * <p>
+ * Die Zeitpunkte steigen nie: geht die Uhr zurück, erhält die Buchung den Zeitpunkt der
+ * vorherigen. Abfragen eines Zeitraums suchen daher den Anfang binär und lesen dann
+ * nur die Buchungen des Zeitraums.
+ * <p>
+ * Die Historie ist nicht synchronisiert; sie wird vom {@link Konto} unter dessen Sperre verwendet.
+ */
+public final class Buchungshistorie {
+    /**
+     * Gegenkonto bei Ein- und Auszahlungen
+     */
+    public static final long KEIN_GEGENKONTO = 0;
+
+    /**
+     * Speicherbedarf einer Buchung in den Feldern bei komprimierten Verweisen (4 Byte)
+     */
+    public static final int BYTES_PRO_BUCHUNG = 8 + 8 + 8 + 4;
+
+    /**
+     * Anzahl der Buchungen eines vollen Blocks
+     */
+    public static final int BLOCKGROESSE = 1 << 10;
+
+    private static final int BLOCKBITS = 10;
+    private static final int BLOCKMASKE = BLOCKGROESSE - 1;
+    private static final int ANFANGSGROESSE = 4;
+
+    private long[][] zeitpunkte = {new long[ANFANGSGROESSE]};
+    private long[][] betraege = {new long[ANFANGSGROESSE]};
+    private long[][] gegenkonten = {new long[ANFANGSGROESSE]};
+    private String[][] zwecke = {new String[ANFANGSGROESSE]};
+    private int anzahl;
+    private long letzterZeitpunkt = Long.MIN_VALUE;
+
+    /**
+     * hängt eine Buchung an
+     *
+     * @param zeitpunkt        Zeitpunkt in Millisekunden seit 1970 (UTC)
+     * @param betragCent       Betrag in Cent, negativ für Abbuchungen
+     * @param gegenkonto       Kontonummer des Gegenkontos oder {@link #KEIN_GEGENKONTO}
+     * @param verwendungszweck der Verwendungszweck
+     * @throws IllegalArgumentException wenn verwendungszweck null ist
+     */
+    public void anhaengen(long zeitpunkt, long betragCent, long gegenkonto, String verwendungszweck) {
+        if (verwendungszweck == null)
+            throw new IllegalArgumentException("Der Verwendungszweck darf nicht null sein!");
+        int block = anzahl >>> BLOCKBITS;
+        int stelle = anzahl & BLOCKMASKE;
+        if (block == 0 ? stelle == zeitpunkte[0].length : stelle == 0)
+            platzSchaffen(block);
+        if (zeitpunkt < letzterZeitpunkt)
+            zeitpunkt = letzterZeitpunkt;
+        zeitpunkte[block][stelle] = zeitpunkt;
+        betraege[block][stelle] = betragCent;
+        gegenkonten[block][stelle] = gegenkonto;
+        zwecke[block][stelle] = verwendungszweck;
+        letzterZeitpunkt = zeitpunkt;
+        anzahl++;
+    }
+
+    /**
+     * vergrößert den ersten Block oder beginnt einen neuen, vollen Block
+     */
+    private void platzSchaffen(int block) {
+        if (block == 0) {
+            int neueGroesse = Math.min(BLOCKGROESSE, anzahl + (anzahl >> 1));
+            zeitpunkte[0] = Arrays.copyOf(zeitpunkte[0], neueGroesse);
+            betraege[0] = Arrays.copyOf(betraege[0], neueGroesse);
+            gegenkonten[0] = Arrays.copyOf(gegenkonten[0], neueGroesse);
+            zwecke[0] = Arrays.copyOf(zwecke[0], neueGroesse);
+            return;
+        }
+        if (block == zeitpunkte.length) {
+            zeitpunkte = Arrays.copyOf(zeitpunkte, 2 * block);
+            betraege = Arrays.copyOf(betraege, 2 * block);
+            gegenkonten = Arrays.copyOf(gegenkonten, 2 * block);
+            zwecke = Arrays.copyOf(zwecke, 2 * block);
+        }
+        zeitpunkte[block] = new long[BLOCKGROESSE];
+        betraege[block] = new long[BLOCKGROESSE];
+        gegenkonten[block] = new long[BLOCKGROESSE];
+        zwecke[block] = new String[BLOCKGROESSE];
+    }
+
+    /**
+     * @return Anzahl der Buchungen
+     */
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * übergibt alle Buchungen des Zeitraums in zeitlicher Reihenfolge an den Leser
+     *
+     * @param zeitraum der Zeitraum, beide Grenzen gehören dazu
+     * @param leser    erhält die Buchungen
+     * @return Anzahl der übergebenen Buchungen
+     * @throws IllegalArgumentException wenn zeitraum oder leser null ist
+     */
+    public int abfragen(Intervall<Instant> zeitraum, Buchungsleser leser) {
+        if (zeitraum == null)
+            throw new IllegalArgumentException("Der Zeitraum darf nicht null sein!");
+        return abfragen(zeitraum.getUntereGrenze().toEpochMilli(), zeitraum.getObereGrenze().toEpochMilli(), leser);
+    }
+
+    /**
+     * übergibt alle Buchungen von von bis einschließlich bis in zeitlicher Reihenfolge an den Leser
+     *
+     * @param von   Beginn in Millisekunden seit 1970
+     * @param bis   Ende in Millisekunden seit 1970
+     * @param leser erhält die Buchungen
+     * @return Anzahl der übergebenen Buchungen
+     * @throws IllegalArgumentException wenn leser null ist
+     */
+    public int abfragen(long von, long bis, Buchungsleser leser) {
+        if (leser == null)
+            throw new IllegalArgumentException("Der Leser darf nicht null sein!");
+        int i = ersteAb(von);
+        int beginn = i;
+        while (i < anzahl) {
+            int block = i >>> BLOCKBITS;
+            long[] z = zeitpunkte[block];
+            long[] b = betraege[block];
+            long[] g = gegenkonten[block];
+            String[] v = zwecke[block];
+            int ende = Math.min(anzahl - (block << BLOCKBITS), z.length);
+            for (int stelle = i & BLOCKMASKE; stelle < ende; stelle++, i++) {
+                if (z[stelle] > bis)
+                    return i - beginn;
+                leser.buchung(z[stelle], b[stelle], g[stelle], v[stelle]);
+            }
+        }
+        return i - beginn;
+    }
+
+    /**
+     * kopiert die Buchungen eines Zeitraums in eine neue Historie, z.B. um sie nach dem
+     * Freigeben einer Sperre zu lesen
+     *
+     * @param zeitraum der Zeitraum, beide Grenzen gehören dazu
+     * @return eine neue Historie mit den Buchungen des Zeitraums
+     * @throws IllegalArgumentException wenn zeitraum null ist
+     */
+    public Buchungshistorie kopieren(Intervall<Instant> zeitraum) {
+        if (zeitraum == null)
+            throw new IllegalArgumentException("Der Zeitraum darf nicht null sein!");
+        Buchungshistorie kopie = new Buchungshistorie();
+        abfragen(zeitraum.getUntereGrenze().toEpochMilli(), zeitraum.getObereGrenze().toEpochMilli(),
+                kopie::anhaengen);
+        return kopie;
+    }
+
+    /**
+     * @return Index der ersten Buchung mit einem Zeitpunkt ab von, anzahl, wenn es keine gibt
+     */
+    private int ersteAb(long von) {
+        int links = 0;
+        int rechts = anzahl;
+        while (links < rechts) {
+            int mitte = (links + rechts) >>> 1;
+            if (zeitpunkte[mitte >>> BLOCKBITS][mitte & BLOCKMASKE] < von)
+                links = mitte + 1;
+            else
+                rechts = mitte;
+        }
+        return links;
+    }
+}
@@ -0,0 +1,20 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * erhält die Buchungen bei einer Abfrage der {@link Buchungshistorie} einzeln,
+ * ohne dass dafür Objekte angelegt werden
+ */
+@FunctionalInterface
+public interface Buchungsleser {
+
+    /**
+     * eine Buchung
+     *
+     * @param zeitpunkt        Zeitpunkt der Buchung in Millisekunden seit 1970 (UTC)
+     * @param betragCent       gebuchter Betrag in Cent der Kontowährung, negativ für Abbuchungen
+     * @param gegenkonto       Kontonummer des Gegenkontos, {@link Buchungshistorie#KEIN_GEGENKONTO}
+     *                         bei Ein- und Auszahlungen
+     * @param verwendungszweck der Verwendungszweck
+     */
+    void buchung(long zeitpunkt, long betragCent, long gegenkonto, String verwendungszweck);
+}
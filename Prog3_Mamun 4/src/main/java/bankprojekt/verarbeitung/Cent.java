@@ -0,0 +1,46 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * rechnet Geldbeträge zwischen der double-Darstellung der öffentlichen
+ * Schnittstelle und der intern verwendeten Festkommadarstellung in
+ * Cent (bzw. der kleinsten Einheit der jeweiligen Währung) um.
+ * Innerhalb der Konten wird nur noch mit long-Cent gerechnet, dadurch
+ * entstehen keine Rundungsfehler und Überläufe werden erkannt.
+ */
+public final class Cent {
+    /**
+     * Cent pro Währungseinheit
+     */
+    public static final long PRO_EINHEIT = 100;
+
+    /**
+     * größter Betrag, der sich noch verlustfrei in Cent umrechnen lässt
+     */
+    private static final double GRENZE = Long.MAX_VALUE / (double) PRO_EINHEIT;
+
+    private Cent() {
+    }
+
+    /**
+     * rechnet einen Betrag in Cent um, kaufmännisch gerundet
+     *
+     * @param betrag der Betrag in Währungseinheiten
+     * @return der Betrag in Cent
+     * @throws IllegalArgumentException wenn der Betrag NaN, unendlich oder zu groß ist
+     */
+    public static long ausBetrag(double betrag) {
+        if (Double.isNaN(betrag) || Math.abs(betrag) >= GRENZE)
+            throw new IllegalArgumentException("Betrag ungültig");
+        return Math.round(betrag * PRO_EINHEIT);
+    }
+
+    /**
+     * rechnet einen Centbetrag in Währungseinheiten um
+     *
+     * @param cent der Betrag in Cent
+     * @return der Betrag in Währungseinheiten
+     */
+    public static double inBetrag(long cent) {
+        return cent / (double) PRO_EINHEIT;
+    }
+}
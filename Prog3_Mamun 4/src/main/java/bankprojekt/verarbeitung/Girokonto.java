@@ -1,5 +1,7 @@
 package bankprojekt.verarbeitung;
 
+import java.nio.ByteBuffer;
+
 /**
  * Ein Girokonto, d.h. ein Konto mit einem Dispo und der Fähigkeit,
  * Überweisungen zu senden und zu empfangen.
@@ -10,9 +12,9 @@ package bankprojekt.verarbeitung;
  */
 public class Girokonto extends Konto implements Ueberweisungsfaehig{
 	/**
-	 * Wert, bis zu dem das Konto überzogen werden darf
+	 * Wert in Cent, bis zu dem das Konto überzogen werden darf
 	 */
-	private double dispo;
+	private long dispo;
 
 	/**
 	 * erzeugt ein leeres, nicht gesperrtes Standard-Girokonto
@@ -21,7 +23,7 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
 	public Girokonto()
 	{
 		super(Kunde.MUSTERMANN, 99887766,Waehrung.EUR);
-		this.dispo = 500;
+		this.dispo = 500 * Cent.PRO_EINHEIT;
 	}
 	
 	/**
@@ -36,7 +38,7 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
 		super(inhaber, nummer,Waehrung.EUR);
 		if(dispo < 0 || Double.isNaN(dispo)|| Double.isInfinite(dispo))
 			throw new IllegalArgumentException("Der Dispo ist nicht gültig!");
-		this.dispo = dispo;
+		this.dispo = Cent.ausBetrag(dispo);
 	}
 	
 	/**
@@ -44,7 +46,7 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
 	 * @return Dispo von this
 	 */
 	public double getDispo() {
-		return dispo;
+		return Cent.inBetrag(dispo);
 	}
 
 	/**
@@ -52,10 +54,10 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
 	 * @param dispo muss größer sein als 0
 	 * @throws IllegalArgumentException wenn dispo negativ bzw. NaN ist
 	 */
-	public void setDispo(double dispo) {
+	public synchronized void setDispo(double dispo) {
 		if(dispo < 0 || Double.isNaN(dispo)|| Double.isInfinite(dispo))
 			throw new IllegalArgumentException("Der Dispo ist nicht gültig!");
-		this.dispo = dispo;
+		this.dispo = Cent.ausBetrag(dispo);
 	}
 
 	/**
@@ -68,7 +70,7 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
 	 * @throws GesperrtException
 	 */
 	@Override
-    public boolean ueberweisungAbsenden(double betrag, 
+    public synchronized boolean ueberweisungAbsenden(double betrag, 
     		String empfaenger, long nachKontonr, 
     		long nachBlz, String verwendungszweck) 
     				throws GesperrtException 
@@ -77,9 +79,10 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
             throw new GesperrtException(this.getKontonummer());
         if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag)|| empfaenger == null || verwendungszweck == null)
             throw new IllegalArgumentException("Parameter fehlerhaft");
-        if (getKontostand() - betrag >= - dispo)
+        long neuerKontostand = Math.subtractExact(getKontostandCent(), Cent.ausBetrag(betrag));
+        if (neuerKontostand >= - dispo)
         {
-            setKontostand(getKontostand() - betrag);
+            setKontostandCent(neuerKontostand);
             return true;
         }
         else
@@ -87,11 +90,11 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
     }
 
     @Override
-    public void ueberweisungEmpfangen(double betrag, String vonName, long vonKontonr, long vonBlz, String verwendungszweck)
+    public synchronized void ueberweisungEmpfangen(double betrag, String vonName, long vonKontonr, long vonBlz, String verwendungszweck)
     {
         if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag)|| vonName == null || verwendungszweck == null)
             throw new IllegalArgumentException("Parameter fehlerhaft");
-        setKontostand(getKontostand() + betrag);
+        setKontostandCent(Math.addExact(getKontostandCent(), Cent.ausBetrag(betrag)));
     }
     
     @Override
@@ -99,24 +102,47 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig{
     {
     	String ausgabe = "-- GIROKONTO --" + System.lineSeparator() +
     	super.toString()
-    	+ "Dispo: " + this.dispo + System.lineSeparator();
+    	+ "Dispo: " + getDispo() + System.lineSeparator();
     	return ausgabe;
     }
 
 	@Override
-	public boolean abheben(double betrag) throws GesperrtException{
+	public synchronized boolean abheben(double betrag) throws GesperrtException{
 		if (betrag < 0 || Double.isNaN(betrag)|| Double.isInfinite(betrag)) {
 			throw new IllegalArgumentException("Betrag ungültig");
 		}
 		if(this.isGesperrt())
 			throw new GesperrtException(this.getKontonummer());
-		if (getKontostand() - betrag >= - dispo)
+		long neuerKontostand = Math.subtractExact(getKontostandCent(), Cent.ausBetrag(betrag));
+		if (neuerKontostand >= - dispo)
 		{
-			setKontostand(getKontostand() - betrag);
+			setKontostandCent(neuerKontostand);
 			return true;
 		}
 		else
 			return false;
 	}
 
+	@Override
+	protected void betraegeUmrechnen(Wechselkurs kurs) {
+		this.dispo = kurs.umrechnen(this.dispo);
+	}
+
+	@Override
+	public int zustandGroesse() {
+		return super.zustandGroesse() + 8;
+	}
+
+	@Override
+	public synchronized void zustandSchreiben(ByteBuffer ziel) {
+		super.zustandSchreiben(ziel);
+		ziel.putLong(dispo);
+	}
+
+	@Override
+	public synchronized void zustandUebernehmen(ByteBuffer quelle) {
+		super.zustandUebernehmen(quelle);
+		this.dispo = quelle.getLong();
+	}
+
 }
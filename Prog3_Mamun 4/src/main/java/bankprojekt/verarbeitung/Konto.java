@@ -1,49 +1,62 @@
 package bankprojekt.verarbeitung;
 
 import bankprojekt.Observer.KontoObserver;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.ReadOnlyDoubleProperty;
-import javafx.beans.property.ReadOnlyDoubleWrapper;
-import javafx.beans.property.SimpleBooleanProperty;
+import generischeKlasse.Intervall;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * stellt ein allgemeines Bank-Konto dar
+ * stellt ein allgemeines Bank-Konto dar.
+ * Alle verändernden Methoden synchronisieren auf dem Konto selbst;
+ * wer mehrere Aktionen atomar ausführen will, sperrt ebenfalls das Konto-Objekt.
+ * <p>
+ * Das Konto kennt keine JavaFX-Properties. Oberflächen binden sich über
+ * {@link bankprojekt.oberflaeche.KontoAnsicht}, die sich als {@link KontoObserver}
+ * anmeldet; die Beobachter werden bei jeder Änderung von Kontostand und Sperrvermerk benachrichtigt.
  */
 public abstract class Konto implements Comparable<Konto> {
     /**
      * die Kontonummer
      */
     private final long nummer;
-    private BooleanProperty imPlus = new SimpleBooleanProperty();
-    private List<KontoObserver> observers = new ArrayList<>();
+    /**
+     * die angemeldeten Beobachter; wird erst beim ersten addObserver angelegt
+     */
+    private volatile List<KontoObserver> observers;
     /**
      * der Kontoinhaber
      */
     private Kunde inhaber;
     /**
-     * der aktuelle Kontostand
+     * der aktuelle Kontostand in Cent der Kontowährung
      */
+    private volatile long kontostand;
 
-    /**
-     * setzt den aktuellen Kontostand
-     *
-     * @param kontostand neuer Kontostand
-     */
-    private ReadOnlyDoubleWrapper kontostand = new ReadOnlyDoubleWrapper();
 
     /**
      * Waehrung
      */
     private Waehrung waehrung;
-    private double dispo;
+    /**
+     * Dispo in Cent der Kontowährung
+     */
+    private long dispo;
     /**
      * Wenn das Konto gesperrt ist (gesperrt = true), können keine Aktionen daran mehr vorgenommen werden,
      * die zum Schaden des Kontoinhabers wären (abheben, Inhaberwechsel)
      */
-    private BooleanProperty gesperrt = new SimpleBooleanProperty();
+    private volatile boolean gesperrt;
+    /**
+     * erfährt jede Änderung von Kontostand und Währung, null wenn keiner angemeldet ist
+     */
+    private volatile KontoAenderungsBeobachter aenderungsBeobachter;
+    /**
+     * die Buchungen des Kontos; wird erst bei der ersten Buchung angelegt
+     */
+    private Buchungshistorie historie;
 
     /**
      * Setzt die beiden Eigenschaften kontoinhaber und kontonummer auf die angegebenen Werte,
@@ -60,9 +73,8 @@ public abstract class Konto implements Comparable<Konto> {
         this.nummer = kontonummer;
         this.waehrung = waehrung;
         this.dispo = 0;
-        this.kontostand.set(0);
-        imPlus.set(kontostand.get() >= 0);
-        this.gesperrt.set(false);
+        this.kontostand = 0;
+        this.gesperrt = false;
     }
 
     /**
@@ -72,16 +84,71 @@ public abstract class Konto implements Comparable<Konto> {
         this(Kunde.MUSTERMANN, 1234567, Waehrung.EUR);
     }
 
-    public void addObserver(KontoObserver observer) {
+    public synchronized void addObserver(KontoObserver observer) {
+        if (observers == null)
+            observers = new CopyOnWriteArrayList<>();
         observers.add(observer);
     }
 
-    public void removeObserver(KontoObserver observer) {
-        observers.remove(observer);
+    public synchronized void removeObserver(KontoObserver observer) {
+        if (observers != null)
+            observers.remove(observer);
+    }
+
+    /**
+     * meldet den Beobachter an, der jede Änderung von Kontostand, Währung und Inhaber mit altem und
+     * neuem Wert erfährt; ein bisher angemeldeter wird ersetzt
+     *
+     * @param beobachter der Beobachter, null zum Abmelden
+     */
+    public synchronized void setAenderungsBeobachter(KontoAenderungsBeobachter beobachter) {
+        this.aenderungsBeobachter = beobachter;
+    }
+
+    /**
+     * vermerkt eine Buchung in der Buchungshistorie des Kontos. Der Kontostand wird dadurch
+     * nicht verändert; die Bank ruft die Methode nach jeder ausgeführten Buchung auf.
+     *
+     * @param zeitpunkt        Zeitpunkt in Millisekunden seit 1970 (UTC)
+     * @param betragCent       Betrag in Cent, negativ für Abbuchungen
+     * @param gegenkonto       Kontonummer des Gegenkontos oder {@link Buchungshistorie#KEIN_GEGENKONTO}
+     * @param verwendungszweck der Verwendungszweck
+     * @throws IllegalArgumentException wenn verwendungszweck null ist
+     */
+    public synchronized void buchungVermerken(long zeitpunkt, long betragCent, long gegenkonto,
+                                              String verwendungszweck) {
+        if (historie == null)
+            historie = new Buchungshistorie();
+        historie.anhaengen(zeitpunkt, betragCent, gegenkonto, verwendungszweck);
+    }
+
+    /**
+     * übergibt die vermerkten Buchungen eines Zeitraums in zeitlicher Reihenfolge an den Leser.
+     * Die Buchungen werden unter der Sperre des Kontos kopiert und erst danach übergeben,
+     * ein langsamer Leser hält also keine Buchungen auf.
+     *
+     * @param zeitraum der Zeitraum, beide Grenzen gehören dazu
+     * @param leser    erhält die Buchungen
+     * @return Anzahl der Buchungen im Zeitraum
+     * @throws IllegalArgumentException wenn zeitraum oder leser null ist
+     */
+    public int buchungenLesen(Intervall<Instant> zeitraum, Buchungsleser leser) {
+        if (zeitraum == null || leser == null)
+            throw new IllegalArgumentException("Zeitraum und Leser dürfen nicht null sein!");
+        Buchungshistorie kopie;
+        synchronized (this) {
+            if (historie == null)
+                return 0;
+            kopie = historie.kopieren(zeitraum);
+        }
+        return kopie.abfragen(zeitraum, leser);
     }
 
     protected void notifyObservers() {
-        for (KontoObserver observer : observers) {
+        List<KontoObserver> beobachter = observers;
+        if (beobachter == null)
+            return;
+        for (KontoObserver observer : beobachter) {
             observer.update(this);
         }
     }
@@ -89,8 +156,8 @@ public abstract class Konto implements Comparable<Konto> {
     /**
      * Methode zum Abheben in einer bestimmten Währung
      */
-    public boolean abheben(double betrag, Waehrung w) throws GesperrtException {
-        if (this.gesperrt.get()) {
+    public synchronized boolean abheben(double betrag, Waehrung w) throws GesperrtException {
+        if (this.gesperrt) {
             throw new GesperrtException(this.nummer);
         }
 
@@ -101,11 +168,10 @@ public abstract class Konto implements Comparable<Konto> {
          Umrechnung des Betrags in Euro
          */
 
-        double betragInEuro = w.waehrungInEuroUmrechnen(betrag);
+        long betragInEuro = Cent.ausBetrag(w.waehrungInEuroUmrechnen(betrag));
 
-        if (this.kontostand.get() - betragInEuro >= -dispo) {
-            kontostand.set(kontostand.get() - betrag);
-            notifyObservers();
+        if (this.kontostand - betragInEuro >= -dispo) {
+            setKontostandCent(Math.subtractExact(kontostand, Cent.ausBetrag(betrag)));
 
             return true;
         } else {
@@ -117,8 +183,8 @@ public abstract class Konto implements Comparable<Konto> {
      * Methode zum Einzahlen in einer bestimmten Währung
      */
 
-    public void einzahlen(double betrag, Waehrung w) throws GesperrtException {
-        if (this.gesperrt.get()) {
+    public synchronized void einzahlen(double betrag, Waehrung w) throws GesperrtException {
+        if (this.gesperrt) {
             throw new GesperrtException(this.nummer);
         }
 
@@ -128,8 +194,7 @@ public abstract class Konto implements Comparable<Konto> {
 
         // Umrechnung des Betrags in Euro
         double betragInEuro = w.waehrungInEuroUmrechnen(betrag);
-        kontostand.set(kontostand.get() + betrag);
-        notifyObservers();
+        setKontostandCent(Math.addExact(kontostand, Cent.ausBetrag(betrag)));
 
     }
 
@@ -142,28 +207,40 @@ public abstract class Konto implements Comparable<Konto> {
     }
 
     /**
-     * Neue Methode zum Wechseln der Währung
+     * Neue Methode zum Wechseln der Währung. Kontostand und Dispo werden mit dem
+     * {@link Wechselkurs} von der bisherigen direkt in die neue Währung umgerechnet.
+     *
+     * @param neu die neue Währung
      */
 
-    public void waehrungswechsel(Waehrung neu) {
+    public synchronized void waehrungswechsel(Waehrung neu) {
         if (this.waehrung != neu) {
+            Waehrung altWaehrung = this.waehrung;
+            long altKontostand = this.kontostand;
             // Aktualisieren der Währung
             this.waehrung = neu;
 
-            // Umrechnung des Kontostands und des Dispos in die neue Währung
-            double kontostandInEuro = Waehrung.EUR.waehrungInEuroUmrechnen(this.kontostand.get());
-            double dispoInEuro = Waehrung.EUR.waehrungInEuroUmrechnen(this.dispo);
-
-            // Umrechnung des zwischengespeicherten Kontostands und des Dispos in die neue Währung
-            double neuerKontostand = neu.euroInWaehrungUmrechnen(kontostandInEuro);
-            double neuerDispo = neu.euroInWaehrungUmrechnen(dispoInEuro);
-
-            // Zurückumrechnung in die neue Währung
-            this.kontostand.set(neuerKontostand);
-            this.dispo = neuerDispo;
+            // Umrechnung des Kontostands und des Dispos von der alten direkt in die neue Währung
+            Wechselkurs kurs = Wechselkurs.von(altWaehrung, neu);
+            this.kontostand = kurs.umrechnen(this.kontostand);
+            this.dispo = kurs.umrechnen(this.dispo);
+            betraegeUmrechnen(kurs);
+            KontoAenderungsBeobachter beobachter = aenderungsBeobachter;
+            if (beobachter != null)
+                beobachter.waehrungGeaendert(this, altWaehrung, altKontostand, neu, this.kontostand);
+            notifyObservers();
         }
     }
 
+    /**
+     * rechnet beim Währungswechsel weitere Beträge in Cent der Kontowährung um, die eine
+     * Unterklasse verwaltet; wird unter der Sperre des Kontos aufgerufen
+     *
+     * @param kurs der Wechselkurs von der alten in die neue Währung
+     */
+    protected void betraegeUmrechnen(Wechselkurs kurs) {
+    }
+
     /**
      * liefert den Kontoinhaber zurück
      *
@@ -180,38 +257,66 @@ public abstract class Konto implements Comparable<Konto> {
      * @throws GesperrtException        wenn das Konto gesperrt ist
      * @throws IllegalArgumentException wenn kinh null ist
      */
-    public final void setInhaber(Kunde kinh) throws GesperrtException {
+    public final synchronized void setInhaber(Kunde kinh) throws GesperrtException {
         if (kinh == null)
             throw new IllegalArgumentException("Der Inhaber darf nicht null sein!");
-        if (this.gesperrt.get())
+        if (this.gesperrt)
             throw new GesperrtException(this.nummer);
+        Kunde alt = this.inhaber;
         this.inhaber = kinh;
-
+        KontoAenderungsBeobachter beobachter = aenderungsBeobachter;
+        if (beobachter != null && alt != kinh)
+            beobachter.inhaberGeaendert(this, alt, kinh);
     }
 
+    /**
+     * liefert zurück, ob der Kontostand nicht negativ ist
+     *
+     * @return true, wenn der Kontostand mindestens 0 ist
+     */
     public boolean isImPlus() {
-        return imPlus.get();
+        return kontostand >= 0;
     }
 
-    public BooleanProperty imPlusProperty() {
-        return imPlus;
+    /**
+     * liefert den aktuellen Kontostand
+     *
+     * @return Kontostand
+     */
+    public final double getKontostand() {
+        return Cent.inBetrag(this.kontostand);
     }
 
-    public ReadOnlyDoubleProperty kontostandProperty() {
-        return kontostand.getReadOnlyProperty();
+    /**
+     * liefert den aktuellen Kontostand in Cent der Kontowährung
+     *
+     * @return Kontostand in Cent
+     */
+    public final long getKontostandCent() {
+        return this.kontostand;
     }
 
     /**
-     * liefert den aktuellen Kontostand
+     * setzt den aktuellen Kontostand
      *
-     * @return Kontostand
+     * @param kontostand neuer Kontostand
      */
-    public final double getKontostand() {
-        return this.kontostand.get();
+    protected synchronized void setKontostand(double kontostand) {
+        setKontostandCent(Cent.ausBetrag(kontostand));
     }
 
-    protected void setKontostand(double kontostand) {
-        this.kontostand.set(kontostand);
+    /**
+     * setzt den aktuellen Kontostand
+     *
+     * @param kontostand neuer Kontostand in Cent
+     */
+    protected synchronized void setKontostandCent(long kontostand) {
+        long alt = this.kontostand;
+        this.kontostand = kontostand;
+        KontoAenderungsBeobachter beobachter = aenderungsBeobachter;
+        if (beobachter != null && alt != kontostand)
+            beobachter.kontostandGeaendert(this, alt, kontostand);
+        notifyObservers();
     }
 
     /**
@@ -229,10 +334,6 @@ public abstract class Konto implements Comparable<Konto> {
      * @return true, wenn das Konto gesperrt ist
      */
     public final boolean isGesperrt() {
-        return gesperrt.get();
-    }
-
-    public BooleanProperty gesperrtProperty() {
         return gesperrt;
     }
 
@@ -241,12 +342,13 @@ public abstract class Konto implements Comparable<Konto> {
      *
      * @param betrag double
      * @throws IllegalArgumentException wenn der betrag negativ ist
+     * @throws ArithmeticException      wenn der neue Kontostand nicht mehr darstellbar ist
      */
-    public void einzahlen(double betrag) {
+    public synchronized void einzahlen(double betrag) {
         if (betrag < 0 || !Double.isFinite(betrag)) {
             throw new IllegalArgumentException("Falscher Betrag");
         }
-        setKontostand(getKontostand() + betrag);
+        setKontostandCent(Math.addExact(kontostand, Cent.ausBetrag(betrag)));
     }
 
     @Override
@@ -276,25 +378,72 @@ public abstract class Konto implements Comparable<Konto> {
     /**
      * sperrt das Konto, Aktionen zum Schaden des Benutzers sind nicht mehr möglich.
      */
-    public final void sperren() {
-        this.gesperrt.set(true);
+    public final synchronized void sperren() {
+        if (!this.gesperrt) {
+            this.gesperrt = true;
+            notifyObservers();
+        }
     }
 
     /**
      * entsperrt das Konto, alle Kontoaktionen sind wieder möglich.
      */
-    public final void entsperren() {
-        this.gesperrt.set(false);
+    public final synchronized void entsperren() {
+        if (this.gesperrt) {
+            this.gesperrt = false;
+            notifyObservers();
+        }
     }
 
 
+    /**
+     * liefert die Anzahl Bytes, die {@link #zustandSchreiben(ByteBuffer)} schreibt.
+     * Der Wert hängt nur von der Klasse ab, nicht vom Zustand.
+     *
+     * @return Größe des Zustands in Bytes
+     */
+    public int zustandGroesse() {
+        return 8 + 8 + 1 + 1;
+    }
+
+    /**
+     * schreibt den veränderlichen Zustand des Kontos (Kontostand, Dispo, Sperrvermerk, Währung)
+     * binär in den Puffer, z.B. für das Journal der Bank. Kontonummer und Inhaber
+     * gehören nicht dazu. Unterklassen mit weiterem Zustand überschreiben diese Methode,
+     * {@link #zustandUebernehmen(ByteBuffer)} und {@link #zustandGroesse()} und rufen jeweils
+     * zuerst die Methode der Oberklasse auf.
+     *
+     * @param ziel der Puffer, in den ab der aktuellen Position geschrieben wird
+     */
+    public synchronized void zustandSchreiben(ByteBuffer ziel) {
+        ziel.putLong(kontostand)
+                .putLong(dispo)
+                .put((byte) (gesperrt ? 1 : 0))
+                .put((byte) waehrung.ordinal());
+    }
+
+    /**
+     * setzt den Zustand des Kontos auf den mit {@link #zustandSchreiben(ByteBuffer)}
+     * geschriebenen. Die Beobachter, auch der {@link KontoAenderungsBeobachter},
+     * werden nicht benachrichtigt, die Methode ist für
+     * die Wiederherstellung gedacht, bevor das Konto verwendet wird.
+     *
+     * @param quelle der Puffer, aus dem ab der aktuellen Position gelesen wird
+     */
+    public synchronized void zustandUebernehmen(ByteBuffer quelle) {
+        this.kontostand = quelle.getLong();
+        this.dispo = quelle.getLong();
+        this.gesperrt = quelle.get() != 0;
+        this.waehrung = Waehrung.values()[quelle.get()];
+    }
+
     /**
      * liefert eine String-Ausgabe, wenn das Konto gesperrt ist
      *
      * @return "GESPERRT", wenn das Konto gesperrt ist, ansonsten ""
      */
     public final String getGesperrtText() {
-        if (this.gesperrt.get()) {
+        if (this.gesperrt) {
             return "GESPERRT";
         } else {
             return "";
@@ -0,0 +1,42 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * wird bei jeder Änderung von Kontostand, Währung oder Inhaber eines Kontos mit dem alten und dem
+ * neuen Wert aufgerufen, noch unter der Sperre des Kontos. Anders als ein
+ * {@link bankprojekt.Observer.KontoObserver} erfährt er also die Differenz und kann damit
+ * laufende Summen fortschreiben. Ein Konto hat höchstens einen solchen Beobachter,
+ * die Bank, die es verwaltet; er muss schnell sein und darf das Konto nicht ändern.
+ */
+public interface KontoAenderungsBeobachter {
+
+    /**
+     * der Kontostand hat sich geändert, die Währung nicht
+     *
+     * @param konto das Konto
+     * @param alt   der bisherige Kontostand in Cent
+     * @param neu   der neue Kontostand in Cent
+     */
+    void kontostandGeaendert(Konto konto, long alt, long neu);
+
+    /**
+     * die Währung und damit auch der Kontostand haben sich geändert
+     *
+     * @param konto          das Konto
+     * @param altWaehrung    die bisherige Währung
+     * @param altKontostand  der bisherige Kontostand in Cent der bisherigen Währung
+     * @param neuWaehrung    die neue Währung
+     * @param neuKontostand  der neue Kontostand in Cent der neuen Währung
+     */
+    void waehrungGeaendert(Konto konto, Waehrung altWaehrung, long altKontostand,
+                           Waehrung neuWaehrung, long neuKontostand);
+
+    /**
+     * das Konto hat einen anderen Inhaber bekommen
+     *
+     * @param konto das Konto
+     * @param alt   der bisherige Inhaber
+     * @param neu   der neue Inhaber
+     */
+    default void inhaberGeaendert(Konto konto, Kunde alt, Kunde neu) {
+    }
+}
@@ -1,8 +1,5 @@
 package bankprojekt.verarbeitung;
 
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -44,7 +41,7 @@ public class Kunde implements Comparable<Kunde> {
     /**
      * Die Adresse
      */
-    private SimpleStringProperty adresse = new SimpleStringProperty(this, "adresse", "Standardadresse");
+    private String adresse;
     /**
      * Geburtstag
      */
@@ -67,18 +64,39 @@ public class Kunde implements Comparable<Kunde> {
      * @throws IllegalArgumentException wenn einer der Parameter null ist
      */
     public Kunde(String vorname, String nachname, String adresse, LocalDate gebdat) {
+        this(vorname, nachname, adresse, gebdat, true);
+    }
+
+    private Kunde(String vorname, String nachname, String adresse, LocalDate gebdat, boolean aufraeumen) {
         if (vorname == null || nachname == null || adresse == null || gebdat == null)
             throw new IllegalArgumentException("null als Parameter nich erlaubt");
         this.vorname = vorname;
         this.nachname = nachname;
-        this.adresse.set(adresse);
+        this.adresse = adresse;
         this.geburtstag = gebdat;
 
-        Runtime umgebung = Runtime.getRuntime();
-        Runnable r = new Zerstoerer();
-        Thread t = new Thread(r);
-        umgebung.addShutdownHook(t);
+        if (aufraeumen) {
+            Runtime umgebung = Runtime.getRuntime();
+            Runnable r = new Zerstoerer();
+            Thread t = new Thread(r);
+            umgebung.addShutdownHook(t);
+        }
+    }
 
+    /**
+     * erzeugt einen Kunden mit den übergebenen Werten, ohne für ihn einen Shutdown-Hook
+     * zu registrieren. Gedacht für das Wiederherstellen sehr vieler Kunden aus Journal
+     * oder Sicherungspunkt, bei dem ein Thread-Objekt pro Kunde zu viel Speicher kosten würde.
+     *
+     * @param vorname  Vorname
+     * @param nachname Nachname
+     * @param adresse  Adresse
+     * @param gebdat   Geburtstag
+     * @return der Kunde
+     * @throws IllegalArgumentException wenn einer der Parameter null ist
+     */
+    public static Kunde wiederherstellen(String vorname, String nachname, String adresse, LocalDate gebdat) {
+        return new Kunde(vorname, nachname, adresse, gebdat, false);
     }
 
     /**
@@ -132,7 +150,7 @@ public class Kunde implements Comparable<Kunde> {
      * @return Adresse des Kunden
      */
     public String getAdresse() {
-        return adresse.get();
+        return adresse;
     }
 
     /**
@@ -144,11 +162,7 @@ public class Kunde implements Comparable<Kunde> {
     public void setAdresse(String adresse) {
         if (adresse == null)
             throw new IllegalArgumentException("Adresse darf nicht null sein");
-        this.adresse.set(adresse);
-    }
-
-    public StringProperty adresseProperty() {
-        return adresse;
+        this.adresse = adresse;
     }
 
     /**
@@ -0,0 +1,151 @@
+package bankprojekt.verarbeitung;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * liefert den aktuellen Monat als Zahl (Monate seit Januar des Jahres 0), z.B. für das
+ * monatliche Abhebelimit des {@link Sparbuch}s. Der Monat wird nicht bei jeder Abfrage aus
+ * der Uhr berechnet, sondern zwischengespeichert und nur von {@link #aktualisieren()}
+ * einmal für alle Konten fortgeschrieben; eine Abfrage liest also nur ein int.
+ * <p>
+ * {@link #SYSTEM} folgt der Systemuhr und schreibt sich selbst zu Beginn jedes Monats fort.
+ * Den Thread dafür startet erst die erste Abfrage, nicht schon das Laden der Klasse. Er wartet
+ * höchstens {@link #LAENGSTES_WARTEN_MS} am Stück, damit ein verpasster Monatswechsel, z.B.
+ * nach dem Ruhezustand des Rechners oder einem Vorstellen der Uhr, bald nachgeholt wird.
+ * Ein Kalender mit einer eigenen {@link Clock}, z.B. in Tests, wird nur durch Aufrufe von
+ * {@link #aktualisieren()} fortgeschrieben.
+ */
+public final class Monatskalender {
+    /**
+     * der Kalender der Systemuhr in der Standardzeitzone
+     */
+    public static final Monatskalender SYSTEM = new Monatskalender(Clock.systemDefaultZone(), true);
+
+    /**
+     * so lange wartet der Thread von {@link #SYSTEM} höchstens, bevor er die Uhr erneut liest
+     */
+    static final long LAENGSTES_WARTEN_MS = 60_000;
+
+    private final Clock uhr;
+    private volatile int monat;
+    /**
+     * Beginn des nächsten Monats in Millisekunden seit 1970
+     */
+    private long naechsterWechsel;
+    private final boolean selbstFortschreiben;
+    /**
+     * true, sobald der Thread zum Fortschreiben läuft oder der Kalender keinen braucht
+     */
+    private volatile boolean gestartet;
+    private ScheduledExecutorService zeitplaner;
+
+    /**
+     * erstellt einen Kalender, der den Monat beim Erstellen und bei jedem Aufruf von
+     * {@link #aktualisieren()} aus der Uhr liest
+     *
+     * @param uhr die Uhr, deren Zeitzone den Monatswechsel bestimmt
+     * @throws IllegalArgumentException wenn uhr null ist
+     */
+    public Monatskalender(Clock uhr) {
+        this(uhr, false);
+    }
+
+    private Monatskalender(Clock uhr, boolean selbstFortschreiben) {
+        if (uhr == null)
+            throw new IllegalArgumentException("Die Uhr darf nicht null sein!");
+        this.uhr = uhr;
+        this.selbstFortschreiben = selbstFortschreiben;
+        this.gestartet = !selbstFortschreiben;
+        aktualisieren();
+    }
+
+    /**
+     * @return der zwischengespeicherte aktuelle Monat in Monaten seit Januar des Jahres 0
+     */
+    public int getMonat() {
+        if (!gestartet)
+            starten();
+        return monat;
+    }
+
+    /**
+     * liest die Uhr erneut, denn seit dem Erstellen kann ein Monat vergangen sein, und startet
+     * den Thread, der den Monat fortschreibt
+     */
+    private synchronized void starten() {
+        if (gestartet)
+            return;
+        aktualisieren();
+        zeitplaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Monatskalender");
+            t.setDaemon(true);
+            return t;
+        });
+        einplanen();
+        gestartet = true;
+    }
+
+    /**
+     * @return die Uhr des Kalenders
+     */
+    public Clock getUhr() {
+        return uhr;
+    }
+
+    /**
+     * liest die Uhr und schreibt den Monat fort, wenn ein neuer begonnen hat
+     * (oder die Uhr zurückgestellt wurde)
+     *
+     * @return true, wenn sich der Monat geändert hat
+     */
+    public synchronized boolean aktualisieren() {
+        Instant jetzt = uhr.instant();
+        LocalDate heute = LocalDate.ofInstant(jetzt, uhr.getZone());
+        int neu = monatsnummer(YearMonth.from(heute));
+        naechsterWechsel = heute.withDayOfMonth(1).plusMonths(1).atStartOfDay(uhr.getZone())
+                .toInstant().toEpochMilli();
+        if (neu == monat)
+            return false;
+        monat = neu;
+        return true;
+    }
+
+    /**
+     * plant das nächste Fortschreiben zum Beginn des nächsten Monats, aber höchstens
+     * {@link #LAENGSTES_WARTEN_MS} später; die Wartezeit misst die monotone Uhr, die im
+     * Ruhezustand stehen bleibt und ein Stellen der Systemuhr nicht bemerkt. Ein zu früh
+     * ausgelöster Auftrag plant sich einfach neu.
+     */
+    private void einplanen() {
+        long warten;
+        synchronized (this) {
+            warten = Math.min(LAENGSTES_WARTEN_MS, Math.max(0, naechsterWechsel - uhr.millis()));
+        }
+        zeitplaner.schedule(() -> {
+            aktualisieren();
+            einplanen();
+        }, warten, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param monat ein Monat
+     * @return der Monat in Monaten seit Januar des Jahres 0
+     */
+    public static int monatsnummer(YearMonth monat) {
+        return monat.getYear() * 12 + monat.getMonthValue() - 1;
+    }
+
+    /**
+     * @param monatsnummer Monate seit Januar des Jahres 0
+     * @return der Monat
+     */
+    public static YearMonth monat(long monatsnummer) {
+        return YearMonth.of((int) Math.floorDiv(monatsnummer, 12), Math.floorMod(monatsnummer, 12) + 1);
+    }
+}
@@ -1,6 +1,8 @@
 package bankprojekt.verarbeitung;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
+import java.time.YearMonth;
 
 /**
  * ein Sparbuch, d.h. ein Konto, das nur recht eingeschränkt genutzt
@@ -19,22 +21,45 @@ public class Sparbuch extends Konto {
 	 * Monatlich erlaubter Gesamtbetrag für Abhebungen
 	 */
 	public static final double ABHEBESUMME = 2000;
+
+	/**
+	 * {@link #ABHEBESUMME} in Cent
+	 */
+	private static final long ABHEBESUMME_CENT = Cent.ausBetrag(ABHEBESUMME);
+
+	/**
+	 * Kontostand in Cent, der nach einer Abhebung mindestens übrig bleiben muss
+	 */
+	private static final long MINDESTSTAND_CENT = 50;
 	
 	/**
-	 * Betrag, der im aktuellen Monat bereits abgehoben wurde
+	 * Betrag in Cent, der im aktuellen Monat bereits abgehoben wurde
+	 */
+	private long bereitsAbgehoben = 0;
+
+	/**
+	 * liefert den aktuellen Monat für das Abhebelimit
+	 */
+	private final Monatskalender kalender;
+
+	/**
+	 * Monat der letzten Abhebung als {@link Monatskalender#getMonat() Monatsnummer}, 0 solange
+	 * noch nicht abgehoben wurde; beim Eröffnen wird der Kalender nicht gelesen, damit er
+	 * seinen Thread erst bei der ersten Abhebung startet
 	 */
-	private double bereitsAbgehoben = 0;
+	private int abhebungsmonat;
 
 	/**
-	 * Monat und Jahr der letzten Abhebung
+	 * der zuletzt verzinste Monat als {@link Monatskalender#getMonat() Monatsnummer}, {@link Long#MIN_VALUE} wenn noch keiner
 	 */
-	private LocalDate zeitpunkt = LocalDate.now();
+	private long letzterZinsmonat = Long.MIN_VALUE;
 	
 	/**
 	* ein Standard-Sparbuch
 	*/
 	public Sparbuch() {
 		zinssatz = 0.03;
+		kalender = Monatskalender.SYSTEM;
 	}
 
 	/**
@@ -44,8 +69,22 @@ public class Sparbuch extends Konto {
 	* @throws IllegalArgumentException wenn inhaber null ist
 	*/
 	public Sparbuch(Kunde inhaber, long kontonummer) {
+		this(inhaber, kontonummer, Monatskalender.SYSTEM);
+	}
+
+	/**
+	* ein Standard-Sparbuch, dessen Abhebelimit nach dem angegebenen Kalender monatlich zurückgesetzt wird
+	* @param inhaber der Kontoinhaber
+	* @param kontonummer die Wunsch-Kontonummer
+	* @param kalender liefert den aktuellen Monat
+	* @throws IllegalArgumentException wenn inhaber oder kalender null ist
+	*/
+	public Sparbuch(Kunde inhaber, long kontonummer, Monatskalender kalender) {
 		super(inhaber, kontonummer,Waehrung.EUR);
+		if (kalender == null)
+			throw new IllegalArgumentException("Der Kalender darf nicht null sein!");
 		zinssatz = 0.03;
+		this.kalender = kalender;
 	}
 	
 	@Override
@@ -58,7 +97,7 @@ public class Sparbuch extends Konto {
 	}
 
 	@Override
-	public boolean abheben (double betrag) throws GesperrtException{
+	public synchronized boolean abheben (double betrag) throws GesperrtException{
 		if (betrag < 0 || Double.isNaN(betrag)|| Double.isInfinite(betrag)) {
 			throw new IllegalArgumentException("Betrag ungültig");
 		}
@@ -67,21 +106,88 @@ public class Sparbuch extends Konto {
 			GesperrtException e = new GesperrtException(this.getKontonummer());
 			throw e;
 		}
-		LocalDate heute = LocalDate.now();
-		if(heute.getMonth() != zeitpunkt.getMonth() || heute.getYear() != zeitpunkt.getYear())
+		// der Kalender schreibt den Monat einmal für alle Konten fort, hier genügt ein Vergleich
+		int monat = kalender.getMonat();
+		if (monat != abhebungsmonat)
 		{
 			this.bereitsAbgehoben = 0;
+			this.abhebungsmonat = monat;
 		}
-		if (getKontostand() - betrag >= 0.50 && 
-				 bereitsAbgehoben + betrag <= Sparbuch.ABHEBESUMME)
+		long betragCent = Cent.ausBetrag(betrag);
+		long neuerKontostand = Math.subtractExact(getKontostandCent(), betragCent);
+		if (neuerKontostand >= MINDESTSTAND_CENT &&
+				 bereitsAbgehoben + betragCent <= ABHEBESUMME_CENT)
 		{
-			setKontostand(getKontostand() - betrag);
-			bereitsAbgehoben += betrag;
-			this.zeitpunkt = LocalDate.now();
+			setKontostandCent(neuerKontostand);
+			bereitsAbgehoben += betragCent;
 			return true;
 		}
 		else
 			return false;
 	}
 
+	/**
+	 * @return der Zinssatz, 0,03 entspricht 3%
+	 */
+	public double getZinssatz() {
+		return zinssatz;
+	}
+
+	/**
+	 * @return der zuletzt verzinste Monat, null wenn noch keiner
+	 */
+	public synchronized YearMonth getLetzterZinsmonat() {
+		if (letzterZinsmonat == Long.MIN_VALUE)
+			return null;
+		return Monatskalender.monat(letzterZinsmonat);
+	}
+
+	/**
+	 * schreibt die Zinsen für einen Monat gut: ein Zwölftel des Zinssatzes auf einen positiven
+	 * Kontostand, kaufmännisch auf Cent gerundet. Jeder Monat wird höchstens einmal verzinst;
+	 * ist der Monat oder ein späterer schon verzinst, ändert sich nichts. Ein wiederholter oder
+	 * nach einer Unterbrechung neu gestarteter Zinslauf schreibt also nichts doppelt gut.
+	 *
+	 * @param monat der zu verzinsende Monat
+	 * @return die gutgeschriebenen Zinsen in Cent, -1 wenn der Monat schon verzinst ist
+	 * @throws IllegalArgumentException wenn monat null ist
+	 */
+	public synchronized long zinsenGutschreiben(YearMonth monat) {
+		if (monat == null)
+			throw new IllegalArgumentException("Der Monat darf nicht null sein!");
+		long nummer = Monatskalender.monatsnummer(monat);
+		if (nummer <= letzterZinsmonat)
+			return -1;
+		letzterZinsmonat = nummer;
+		long stand = getKontostandCent();
+		long zinsen = stand > 0 ? Math.round(stand * zinssatz / 12) : 0;
+		if (zinsen != 0)
+			setKontostandCent(Math.addExact(stand, zinsen));
+		return zinsen;
+	}
+
+	@Override
+	public int zustandGroesse() {
+		return super.zustandGroesse() + 8 + 8 + 8 + 8;
+	}
+
+	@Override
+	public synchronized void zustandSchreiben(ByteBuffer ziel) {
+		super.zustandSchreiben(ziel);
+		ziel.putDouble(zinssatz)
+				.putLong(bereitsAbgehoben)
+				// der erste Tag des Monats, wie früher der Tag der letzten Abhebung
+				.putLong(Monatskalender.monat(abhebungsmonat).atDay(1).toEpochDay())
+				.putLong(letzterZinsmonat);
+	}
+
+	@Override
+	public synchronized void zustandUebernehmen(ByteBuffer quelle) {
+		super.zustandUebernehmen(quelle);
+		this.zinssatz = quelle.getDouble();
+		this.bereitsAbgehoben = quelle.getLong();
+		this.abhebungsmonat = Monatskalender.monatsnummer(YearMonth.from(LocalDate.ofEpochDay(quelle.getLong())));
+		this.letzterZinsmonat = quelle.getLong();
+	}
+
 }
@@ -8,6 +8,11 @@ public enum Waehrung {
     Dobra(24304.7429),
     Francs(490.92);
 
+    /**
+     * Beträge bis hierhin werden exakt umgerechnet: bis 2^53 Cent ist jeder Centbetrag als double darstellbar
+     */
+    private static final double GRENZE = (1L << 53) / (double) Cent.PRO_EINHEIT;
+
     private final double umrechnungskurs;
 
     /**
@@ -20,22 +25,48 @@ public enum Waehrung {
 
 
     /**
+     * @return Einheiten dieser Währung pro Euro
+     */
+    double getUmrechnungskurs() {
+        return umrechnungskurs;
+    }
+
+    /**
+     * rechnet einen Euro-Betrag in diese Währung um. Ganze Centbeträge werden exakt mit dem
+     * {@link Wechselkurs} umgerechnet, andere wie bisher mit double.
+     *
      * @param betrag
      * @return
      */
     public double euroInWaehrungUmrechnen(double betrag) {
+        long cent = Math.round(betrag * Cent.PRO_EINHEIT);
+        if (istCentbetrag(betrag, cent))
+            return Cent.inBetrag(Wechselkurs.von(EUR, this).umrechnen(cent));
         return DoubleRounder.round(betrag * this.umrechnungskurs, 2);
 
     }
 
 
     /**
+     * rechnet einen Betrag dieser Währung in Euro um. Ganze Centbeträge werden exakt mit dem
+     * {@link Wechselkurs} umgerechnet, andere wie bisher mit double.
+     *
      * @param betrag
      * @return
      */
     public double waehrungInEuroUmrechnen(double betrag){
+        long cent = Math.round(betrag * Cent.PRO_EINHEIT);
+        if (istCentbetrag(betrag, cent))
+            return Cent.inBetrag(Wechselkurs.von(this, EUR).umrechnen(cent));
         return DoubleRounder.round(betrag / this.umrechnungskurs, 2);
     }
 
+    /**
+     * @return true, wenn der Betrag genau cent Cent sind und sich verlustfrei in long-Cent darstellen lässt
+     */
+    private static boolean istCentbetrag(double betrag, long cent) {
+        return Math.abs(betrag) < GRENZE && Cent.inBetrag(cent) == betrag;
+    }
+
 
 }
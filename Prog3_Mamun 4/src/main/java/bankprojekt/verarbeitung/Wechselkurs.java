@@ -0,0 +1,248 @@
+package bankprojekt.verarbeitung;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.LongBuffer;
+import java.util.Objects;
+
+/**
+ * der Wechselkurs von einer {@link Waehrung} in eine andere als gekürzter Bruch ganzer Zahlen.
+ * Die Kurse der Währungen werden dazu mit {@value #NACHKOMMASTELLEN} Nachkommastellen
+ * exakt als long dargestellt; umgerechnet werden Beträge in Cent (bzw. der kleinsten Einheit
+ * der Währung), kaufmännisch gerundet wie bei {@code DoubleRounder.round(betrag, 2)}: Hälften
+ * werden vom Nullpunkt weg gerundet. Anders als beim Rechnen mit double ist das Ergebnis
+ * auch dann exakt, wenn das Produkt genau auf einen halben Cent fällt.
+ * <p>
+ * Die Kurse aller Währungspaare werden beim Laden der Klasse einmal berechnet.
+ * Eine Umrechnung besteht aus einer Multiplikation ganzer Zahlen und statt der teuren
+ * Division einer Multiplikation mit dem Kehrwert des Nenners samt ganzzahliger Korrektur.
+ * Die Massenumrechnung prüft zuerst, ob alle Beträge dafür klein genug sind (bei Escudo
+ * bis etwa 20 Millionen Euro, bei Dobra bis etwa 90.000 Euro), und arbeitet ganze Felder oder Puffer dann in einer
+ * Schleife ohne Verzweigungen ab.
+ */
+public final class Wechselkurs {
+    /**
+     * Anzahl der Nachkommastellen, mit denen die Kurse der Währungen dargestellt werden
+     */
+    public static final int NACHKOMMASTELLEN = 4;
+
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+    private static final Wechselkurs[][] PAARE = new Wechselkurs[WAEHRUNGEN.length][WAEHRUNGEN.length];
+
+    static {
+        for (Waehrung von : WAEHRUNGEN) {
+            for (Waehrung nach : WAEHRUNGEN) {
+                PAARE[von.ordinal()][nach.ordinal()] = new Wechselkurs(von, nach,
+                        skaliert(nach.getUmrechnungskurs()), skaliert(von.getUmrechnungskurs()));
+            }
+        }
+    }
+
+    /**
+     * bis hierhin sind ganze Zahlen als double exakt
+     */
+    private static final long GENAU = 1L << 52;
+
+    private final Waehrung von;
+    private final Waehrung nach;
+    private final long zaehler;
+    private final long nenner;
+    private final long nennerDoppelt;
+    private final double kehrwertDoppelt;
+    /**
+     * größter Betrag, der mit dem Kehrwert des Nenners statt durch Division umgerechnet wird
+     */
+    private final long schnellGrenze;
+    /**
+     * größter Betrag, dessen Produkt mit dem Zähler noch in einen long passt;
+     * größere werden selten genug umgerechnet, um sie mit BigDecimal zu rechnen
+     */
+    private final long grenze;
+
+    private Wechselkurs(Waehrung von, Waehrung nach, long zaehler, long nenner) {
+        long teiler = ggT(zaehler, nenner);
+        this.von = von;
+        this.nach = nach;
+        this.zaehler = zaehler / teiler;
+        this.nenner = nenner / teiler;
+        this.nennerDoppelt = 2 * this.nenner;
+        this.kehrwertDoppelt = 1.0 / nennerDoppelt;
+        this.schnellGrenze = (GENAU - this.nenner) / (2 * this.zaehler);
+        this.grenze = Long.MAX_VALUE / this.zaehler;
+    }
+
+    /**
+     * liefert den Wechselkurs eines Währungspaares
+     *
+     * @param von  die Währung der umzurechnenden Beträge
+     * @param nach die Währung der Ergebnisse
+     * @return der Wechselkurs
+     * @throws IllegalArgumentException wenn von oder nach null ist
+     */
+    public static Wechselkurs von(Waehrung von, Waehrung nach) {
+        if (von == null || nach == null)
+            throw new IllegalArgumentException("Die Währungen dürfen nicht null sein!");
+        return PAARE[von.ordinal()][nach.ordinal()];
+    }
+
+    /**
+     * @return die Währung der umzurechnenden Beträge
+     */
+    public Waehrung getVon() {
+        return von;
+    }
+
+    /**
+     * @return die Währung der Ergebnisse
+     */
+    public Waehrung getNach() {
+        return nach;
+    }
+
+    /**
+     * @return Zähler des gekürzten Bruchs: ein Cent der Ausgangswährung sind zaehler / nenner Cent der Zielwährung
+     */
+    public long getZaehler() {
+        return zaehler;
+    }
+
+    /**
+     * @return Nenner des gekürzten Bruchs
+     */
+    public long getNenner() {
+        return nenner;
+    }
+
+    /**
+     * rechnet einen Betrag um
+     *
+     * @param cent der Betrag in Cent der Ausgangswährung
+     * @return der kaufmännisch gerundete Betrag in Cent der Zielwährung
+     * @throws ArithmeticException wenn das Ergebnis nicht mehr als long darstellbar ist
+     */
+    public long umrechnen(long cent) {
+        if (cent > schnellGrenze || cent < -schnellGrenze)
+            return langsamUmrechnen(cent);
+        long ergebnis = schnellUmrechnen(Math.abs(cent));
+        return cent < 0 ? -ergebnis : ergebnis;
+    }
+
+    /**
+     * rechnet anzahl Beträge aus quelle ab quelleAb um und schreibt sie nach ziel ab zielAb.
+     * quelle und ziel dürfen dasselbe Feld sein.
+     *
+     * @param quelle   die Beträge in Cent der Ausgangswährung
+     * @param quelleAb erster umzurechnender Index in quelle
+     * @param ziel     nimmt die Beträge in Cent der Zielwährung auf
+     * @param zielAb   erster zu beschreibender Index in ziel
+     * @param anzahl   Anzahl der Beträge
+     * @throws ArithmeticException       wenn ein Ergebnis nicht mehr als long darstellbar ist;
+     *                                   die Beträge davor sind dann schon umgerechnet
+     * @throws IndexOutOfBoundsException wenn die Bereiche nicht in den Feldern liegen
+     */
+    public void umrechnen(long[] quelle, int quelleAb, long[] ziel, int zielAb, int anzahl) {
+        Objects.checkFromIndexSize(quelleAb, anzahl, quelle.length);
+        Objects.checkFromIndexSize(zielAb, anzahl, ziel.length);
+        // erst prüfen, ob alle Beträge klein genug sind, dann ohne Verzweigung umrechnen
+        long oder = 0;
+        for (int i = 0; i < anzahl; i++) {
+            oder |= Math.abs(quelle[quelleAb + i]);
+        }
+        if (oder < 0 || oder > schnellGrenze) {
+            for (int i = 0; i < anzahl; i++) {
+                ziel[zielAb + i] = umrechnen(quelle[quelleAb + i]);
+            }
+            return;
+        }
+        // das Vorzeichen als double anbringen: bedingtes Negieren von long übersetzt der JIT
+        // nicht in Vektorbefehle, so aber wird die ganze Schleife vektorisiert
+        for (int i = 0; i < anzahl; i++) {
+            long cent = quelle[quelleAb + i];
+            ziel[zielAb + i] = (long) (Math.signum((double) cent) * schnellUmrechnen(Math.abs(cent)));
+        }
+    }
+
+    /**
+     * rechnet alle Beträge des Feldes um
+     *
+     * @param cent die Beträge in Cent der Ausgangswährung, werden durch die umgerechneten ersetzt
+     * @throws ArithmeticException wenn ein Ergebnis nicht mehr als long darstellbar ist
+     */
+    public void umrechnen(long[] cent) {
+        umrechnen(cent, 0, cent, 0, cent.length);
+    }
+
+    /**
+     * rechnet die verbleibenden Beträge von quelle um und schreibt sie nach ziel;
+     * die Positionen beider Puffer rücken entsprechend vor
+     *
+     * @param quelle die Beträge in Cent der Ausgangswährung
+     * @param ziel   nimmt die Beträge in Cent der Zielwährung auf
+     * @throws ArithmeticException     wenn ein Ergebnis nicht mehr als long darstellbar ist
+     * @throws BufferOverflowException wenn ziel zu wenig Platz hat
+     */
+    public void umrechnen(LongBuffer quelle, LongBuffer ziel) {
+        if (ziel.remaining() < quelle.remaining())
+            throw new BufferOverflowException();
+        if (quelle.hasArray() && ziel.hasArray()) {
+            int anzahl = quelle.remaining();
+            umrechnen(quelle.array(), quelle.arrayOffset() + quelle.position(),
+                    ziel.array(), ziel.arrayOffset() + ziel.position(), anzahl);
+            quelle.position(quelle.position() + anzahl);
+            ziel.position(ziel.position() + anzahl);
+            return;
+        }
+        while (quelle.hasRemaining()) {
+            ziel.put(umrechnen(quelle.get()));
+        }
+    }
+
+    /**
+     * rechnet einen Betrag bis {@link #schnellGrenze} ohne Division und ohne Verzweigung um.
+     * Kaufmännisch gerundet ist betrag * z / n gleich (2 * betrag * z + n) / (2 * n) abgerundet.
+     * Das Produkt mit dem Kehrwert von 2 * n liegt dabei höchstens um eins neben dem
+     * abgerundeten Quotienten, der Rest der ganzzahligen Probe korrigiert das.
+     *
+     * @return der Betrag des Ergebnisses, das Vorzeichen bringt der Aufrufer an
+     */
+    private long schnellUmrechnen(long betrag) {
+        long zaehlerDoppelt = 2 * betrag * zaehler + nenner;
+        long ergebnis = (long) (zaehlerDoppelt * kehrwertDoppelt);
+        long rest = zaehlerDoppelt - ergebnis * nennerDoppelt;
+        return ergebnis + ((nennerDoppelt - 1 - rest) >>> 63) - (rest >>> 63);
+    }
+
+    /**
+     * rechnet größere Beträge durch Division um, Beträge, deren Produkt mit dem Zähler
+     * nicht mehr in einen long passt, mit BigDecimal
+     */
+    private long langsamUmrechnen(long cent) {
+        if (cent > grenze || cent < -grenze)
+            return BigDecimal.valueOf(cent).multiply(BigDecimal.valueOf(zaehler))
+                    .divide(BigDecimal.valueOf(nenner), 0, RoundingMode.HALF_UP).longValueExact();
+        long betrag = Math.abs(cent) * zaehler;
+        long ergebnis = betrag / nenner;
+        if (2 * (betrag - ergebnis * nenner) >= nenner)
+            ergebnis++;
+        return cent < 0 ? -ergebnis : ergebnis;
+    }
+
+    private static long skaliert(double kurs) {
+        return BigDecimal.valueOf(kurs).movePointRight(NACHKOMMASTELLEN).longValueExact();
+    }
+
+    private static long ggT(long a, long b) {
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
+        }
+        return a;
+    }
+
+    @Override
+    public String toString() {
+        return von + " -> " + nach + ": " + zaehler + "/" + nenner;
+    }
+}
@@ -1,11 +1,51 @@
 package bankprojekt.verwaltung;
 
+import bankprojekt.Observer.KontoKonflator;
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.persistenz.Kundenregister;
+import bankprojekt.persistenz.Sicherungspunkt;
+import bankprojekt.persistenz.Wiederherstellungsziel;
 import bankprojekt.verarbeitung.*;
+import generischeKlasse.Intervall;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+/**
+ * eine Bank, die Konten verwaltet. Alle Methoden dürfen gleichzeitig aus
+ * mehreren Threads aufgerufen werden: die Kontenliste ist ein {@link KontenIndex},
+ * und jede Kontoaktion sperrt nur das betroffene Konto (dessen Monitor).
+ * Überweisungen werden von der {@link Ueberweisungsabwicklung} als unteilbare Einheit
+ * ausgeführt; sie sperrt beide Konten immer in der Reihenfolge ihrer Kontonummern,
+ * so dass sich zwei gegenläufige Überweisungen nicht gegenseitig blockieren können.
+ * <p>
+ * Wird die Bank mit einem {@link Journal} erzeugt, wird jede Änderung, die über die Bank
+ * vorgenommen wird (Eröffnen, Löschen, Einzahlen, Abheben, Überweisen, Sperren, Entsperren,
+ * Währungsumstellung, Zinsgutschrift, Clearing), noch unter der Sperre des Kontos ins Journal geschrieben;
+ * die Methode kehrt erst zurück, wenn der Eintrag gemäß der
+ * {@link bankprojekt.persistenz.Haltbarkeit} des Journals gesichert ist.
+ * Änderungen direkt am Konto-Objekt werden nicht erfasst.
+ * <p>
+ * Überweisungen an Konten anderer Banken laufen über eine {@link Clearingstelle}, an der
+ * beide Banken angemeldet sind.
+ */
 public class Bank {
     /**
      * eine attribute bankleitzahl
@@ -15,14 +55,375 @@ public class Bank {
     /**
      * diese Hashmap wird die kontoliste gesammelt
      */
-    private HashMap<Long, Konto> kontenliste;
+    private final KontenIndex kontenliste;
+
+    /**
+     * vergibt die Kontonummern für neue Konten
+     */
+    private final KontonummernVergabe nummernVergabe;
+
+    /**
+     * nimmt alle Änderungen auf, null wenn die Bank nur im Speicher arbeitet
+     */
+    private final Journal journal;
+
+    /**
+     * die Konflatoren, die alle Konten der Bank abonniert haben
+     */
+    private final List<KontoKonflator> konflatoren = new CopyOnWriteArrayList<>();
+
+    /**
+     * ordnet den Kunden ihre Konten zu
+     */
+    private final KundenIndex kunden = new KundenIndex();
+
+    /**
+     * die laufend fortgeschriebenen Kennzahlen über alle Konten
+     */
+    private final Bankkennzahlen kennzahlen = new Bankkennzahlen();
+
+    /**
+     * der an jedem erfassten Konto angemeldete Beobachter; ein Konto hat nur einen,
+     * er gibt jede Änderung an die Kennzahlen und den Kundenindex weiter
+     */
+    private final KontoAenderungsBeobachter beobachtung = new Beobachtung(kennzahlen.getErfassung(), kunden);
+
+    /**
+     * die Clearingstelle für Überweisungen an andere Banken, null solange die Bank an keiner angemeldet ist
+     */
+    private volatile Clearingstelle clearingstelle;
+
+    /**
+     * die Nummer der Bank in ihrer Clearingstelle
+     */
+    private int clearingNummer = -1;
+
+    /**
+     * die an die Clearingstelle übergebenen, noch nicht abgerechneten Überweisungen
+     */
+    private final Clearingbuch clearingbuch = new Clearingbuch();
 
     /**
      * @param bankleitzahl konstruktur von der Klasse Bank
      */
     public Bank(long bankleitzahl) {
+        this(bankleitzahl, new KontonummernVergabe());
+    }
+
+    /**
+     * erstellt eine Bank, die ihre Kontonummern von der angegebenen Vergabe bezieht,
+     * z.B. von einer mit {@link KontonummernVergabe#laden(java.nio.file.Path)} wiederhergestellten
+     *
+     * @param bankleitzahl   die Bankleitzahl
+     * @param nummernVergabe die Kontonummernvergabe
+     * @throws IllegalArgumentException wenn nummernVergabe null ist
+     */
+    public Bank(long bankleitzahl, KontonummernVergabe nummernVergabe) {
+        if (nummernVergabe == null)
+            throw new IllegalArgumentException("Die Nummernvergabe darf nicht null sein!");
+        this.bankleitzahl = bankleitzahl;
+        this.kontenliste = new KontenIndex();
+        this.nummernVergabe = nummernVergabe;
+        this.journal = null;
+    }
+
+    /**
+     * erstellt eine Bank, die ihren Zustand aus dem Journal wiederherstellt und alle
+     * weiteren Änderungen dort anhängt. Die Kontonummernvergabe setzt hinter der
+     * höchsten wiederhergestellten Kontonummer fort. Das Journal wird von der Bank nicht geschlossen.
+     *
+     * @param bankleitzahl die Bankleitzahl
+     * @param journal      das geöffnete Journal
+     * @throws IOException              wenn das Journal nicht gelesen werden kann
+     * @throws IllegalArgumentException wenn journal null ist
+     */
+    public Bank(long bankleitzahl, Journal journal) throws IOException {
+        if (journal == null)
+            throw new IllegalArgumentException("Das Journal darf nicht null sein!");
+        this.bankleitzahl = bankleitzahl;
+        this.kontenliste = new KontenIndex();
+        this.nummernVergabe = new KontonummernVergabe();
+        journal.abspielen(new Wiederherstellung());
+        this.journal = journal;
+        kennzahlenErfassen();
+    }
+
+    /**
+     * erstellt eine Bank, die ihren Zustand aus dem Sicherungspunkt und den danach ins Journal
+     * geschriebenen Einträgen wiederherstellt und alle weiteren Änderungen ins Journal schreibt.
+     * Gibt es die Datei des Sicherungspunkts noch nicht, wird das ganze Journal abgespielt.
+     *
+     * @param bankleitzahl     die Bankleitzahl
+     * @param journal          das geöffnete Journal
+     * @param sicherungspunkt  die Datei des zuletzt mit {@link #sicherungspunktSchreiben(Path)}
+     *                         geschriebenen Sicherungspunkts
+     * @throws IOException              wenn Journal oder Sicherungspunkt nicht gelesen werden können
+     * @throws IllegalArgumentException wenn ein Parameter null ist
+     */
+    public Bank(long bankleitzahl, Journal journal, Path sicherungspunkt) throws IOException {
+        if (journal == null || sicherungspunkt == null)
+            throw new IllegalArgumentException("null als Parameter nicht erlaubt");
         this.bankleitzahl = bankleitzahl;
-        this.kontenliste = new HashMap<>();
+        this.kontenliste = new KontenIndex();
+        this.nummernVergabe = new KontonummernVergabe();
+        Wiederherstellung wiederherstellung = new Wiederherstellung();
+        // ein Kunde mit Konten im Sicherungspunkt und im Journal bleibt ein Kunden-Objekt
+        Kundenregister kundenregister = new Kundenregister();
+        long journalPosition = 0;
+        if (Files.exists(sicherungspunkt)) {
+            Sicherungspunkt gelesen = Sicherungspunkt.lesen(sicherungspunkt, wiederherstellung, kundenregister);
+            nummernVergabe.nummerVermerken(gelesen.getHoechsteNummer());
+            journalPosition = gelesen.getJournalPosition();
+        }
+        journal.abspielen(journalPosition, wiederherstellung, kundenregister);
+        this.journal = journal;
+        kennzahlenErfassen();
+    }
+
+    /**
+     * erstellt einen Shard einer {@link VerteilteBank}: eine Bank, die ihre Kontonummern von
+     * der angegebenen Vergabe bezieht und, falls ein Journal angegeben ist, ihren Zustand
+     * daraus wiederherstellt. Die Zusatzdaten der Einträge werden beim Abspielen an zusatzLeser
+     * übergeben.
+     *
+     * @param bankleitzahl   die Bankleitzahl
+     * @param nummernVergabe die Kontonummernvergabe des Shards
+     * @param journal        das geöffnete Journal oder null, wenn der Shard nur im Speicher arbeitet
+     * @param zusatzLeser    nimmt die Zusatzdaten beim Abspielen auf
+     * @throws IOException wenn das Journal nicht gelesen werden kann
+     */
+    Bank(long bankleitzahl, KontonummernVergabe nummernVergabe, Journal journal,
+         BiConsumer<Eintragsart, ByteBuffer> zusatzLeser) throws IOException {
+        this.bankleitzahl = bankleitzahl;
+        this.kontenliste = new KontenIndex();
+        this.nummernVergabe = nummernVergabe;
+        if (journal != null)
+            journal.abspielen(new Wiederherstellung(zusatzLeser));
+        this.journal = journal;
+        kennzahlenErfassen();
+    }
+
+    /**
+     * nimmt die wiederhergestellten Konten in die Kennzahlen auf; beim Wiederherstellen
+     * werden die Zustände ohne Benachrichtigung übernommen, daher erst danach
+     */
+    private void kennzahlenErfassen() {
+        kontenliste.fuerAlle((konto, nummer) -> {
+            synchronized (konto) {
+                erfassen(konto);
+            }
+        });
+    }
+
+    /**
+     * nimmt das Konto in Kennzahlen und Kundenindex auf und meldet den Beobachter daran an;
+     * der Aufrufer hält die Sperre des Kontos
+     */
+    private void erfassen(Konto konto) {
+        konto.setAenderungsBeobachter(beobachtung);
+        kennzahlen.erfassen(konto);
+        kunden.aufnehmen(konto);
+    }
+
+    /**
+     * nimmt das Konto aus Kennzahlen und Kundenindex heraus und meldet den Beobachter ab;
+     * der Aufrufer hält die Sperre des Kontos
+     */
+    private void austragen(Konto konto) {
+        konto.setAenderungsBeobachter(null);
+        kennzahlen.entfernen(konto);
+        kunden.entfernen(konto);
+    }
+
+    /**
+     * verteilt die Änderungen eines Kontos an Kennzahlen und Kundenindex
+     */
+    private record Beobachtung(KontoAenderungsBeobachter kennzahlen, KontoAenderungsBeobachter kunden)
+            implements KontoAenderungsBeobachter {
+        @Override
+        public void kontostandGeaendert(Konto konto, long alt, long neu) {
+            kennzahlen.kontostandGeaendert(konto, alt, neu);
+            kunden.kontostandGeaendert(konto, alt, neu);
+        }
+
+        @Override
+        public void waehrungGeaendert(Konto konto, Waehrung altWaehrung, long altKontostand,
+                                      Waehrung neuWaehrung, long neuKontostand) {
+            kennzahlen.waehrungGeaendert(konto, altWaehrung, altKontostand, neuWaehrung, neuKontostand);
+            kunden.waehrungGeaendert(konto, altWaehrung, altKontostand, neuWaehrung, neuKontostand);
+        }
+
+        @Override
+        public void inhaberGeaendert(Konto konto, Kunde alt, Kunde neu) {
+            kennzahlen.inhaberGeaendert(konto, alt, neu);
+            kunden.inhaberGeaendert(konto, alt, neu);
+        }
+    }
+
+    /**
+     * überträgt die Einträge des Journals in die Kontenliste
+     */
+    private class Wiederherstellung implements Wiederherstellungsziel {
+        private final BiConsumer<Eintragsart, ByteBuffer> zusatzLeser;
+
+        Wiederherstellung() {
+            this(null);
+        }
+
+        Wiederherstellung(BiConsumer<Eintragsart, ByteBuffer> zusatzLeser) {
+            this.zusatzLeser = zusatzLeser;
+        }
+
+        @Override
+        public Konto kontoSuchen(long kontonummer) {
+            return kontenliste.get(kontonummer);
+        }
+
+        @Override
+        public void kontoEinfuegen(Konto konto) {
+            kontenliste.put(konto.getKontonummer(), konto);
+            nummernVergabe.nummerVermerken(konto.getKontonummer());
+        }
+
+        @Override
+        public void kontoEntfernen(long kontonummer) {
+            kontenliste.remove(kontonummer);
+        }
+
+        @Override
+        public void kontenErwartet(long anzahl) {
+            kontenliste.kapazitaetSicherstellen(anzahl);
+        }
+
+        @Override
+        public void zusatzUebernehmen(Eintragsart art, ByteBuffer zusatz) {
+            clearingbuch.uebernehmen(art, zusatz, bankleitzahl);
+            if (zusatzLeser != null)
+                zusatzLeser.accept(art, zusatz);
+        }
+    }
+
+    /**
+     * schreibt den Zustand aller Konten in einen Sicherungspunkt, ohne die Bank anzuhalten:
+     * die Konten werden blockweise gelesen und jedes nur kurz zum Schreiben seines Zustands
+     * gesperrt. Danach werden die Journalsegmente gelöscht, die vor dem Sicherungspunkt liegen.
+     * Die noch nicht abgerechneten Überweisungen an andere Banken werden dafür hinter dem
+     * Sicherungspunkt erneut ins Journal geschrieben. Die Position des Sicherungspunkts wird
+     * nicht während einer Abrechnung der Clearingstelle festgehalten: Alle Gutschriften davor
+     * sind dann bei ihren sendenden Banken als abgerechnet gesichert und werden nie erneut
+     * eingereicht, auch wenn die Bank sie nach dem Wiederherstellen nicht mehr erkennt.
+     * Mit {@link #mockEinfuegen(Konto)} eingefügte Konten werden nicht gespeichert.
+     *
+     * @param datei die Datei des Sicherungspunkts, wird erst nach vollständigem Schreiben ersetzt
+     * @return Anzahl der gespeicherten Konten
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    public long sicherungspunktSchreiben(Path datei) throws IOException {
+        Clearingstelle stelle = clearingstelle;
+        long journalPosition = stelle == null ? journalPositionFesthalten()
+                : stelle.zwischenAbrechnungen(this::journalPositionFesthalten);
+        try (Sicherungspunkt.Schreiber schreiber = Sicherungspunkt.schreiben(datei, journalPosition,
+                nummernVergabe.getHoechsteNummer(), kontenliste.size())) {
+            long[] nummern = new long[AUFLISTUNG_BLOCK];
+            Konto[] konten = new Konto[AUFLISTUNG_BLOCK];
+            long cursor = KontenSeite.ANFANG;
+            int gelesen;
+            do {
+                gelesen = kontenliste.aufsteigendLesen(cursor, nummern, konten);
+                for (int i = 0; i < gelesen; i++) {
+                    if (konten[i].getKontonummer() == nummern[i])
+                        schreiber.kontoSchreiben(konten[i]);
+                    konten[i] = null;
+                }
+                if (gelesen > 0)
+                    cursor = nummern[gelesen - 1];
+            } while (gelesen == AUFLISTUNG_BLOCK);
+            schreiber.abschliessen();
+            if (journal != null)
+                journal.segmenteFreigeben(journalPosition);
+            return schreiber.getAnzahlKonten();
+        }
+    }
+
+    /**
+     * hält die Position für einen Sicherungspunkt fest und schreibt die noch nicht abgerechneten
+     * Überweisungen dahinter erneut ins Journal; kehrt erst zurück, wenn sie gesichert sind,
+     * denn ihre ursprünglichen Einträge werden mit dem Sicherungspunkt gelöscht
+     *
+     * @return die Position des Sicherungspunkts im Journal, 0 ohne Journal
+     */
+    private long journalPositionFesthalten() {
+        if (journal == null)
+            return 0;
+        long journalPosition = journal.getPosition();
+        long position = journalPosition;
+        for (Clearingbuch.Ausgang ausgang : clearingbuch.getOffen()) {
+            position = journal.kontenAnhaengen(Eintragsart.CLEARING_AUSGANG, Clearingbuch.ausgangKodieren(ausgang));
+        }
+        journal.sichern(position);
+        return journalPosition;
+    }
+
+    /**
+     * liefert die laufend fortgeschriebenen Kennzahlen über alle Konten der Bank; jede Abfrage
+     * kostet konstante Zeit. Erfasst werden alle eröffneten, importierten und wiederhergestellten
+     * Konten, auch mit Änderungen direkt am Konto-Objekt; mit {@link #mockEinfuegen(Konto)}
+     * eingefügte Konten nicht.
+     *
+     * @return die Kennzahlen
+     */
+    public Bankkennzahlen getKennzahlen() {
+        return kennzahlen;
+    }
+
+    /**
+     * liefert die Konten eines Kunden aus dem Kundenindex, ohne die Konten zu durchlaufen.
+     * Erfasst werden dieselben Konten wie in den {@link #getKennzahlen() Kennzahlen}, auch nach
+     * {@link Konto#setInhaber(Kunde)}. Kunden werden nach Identität unterschieden; beim
+     * Wiederherstellen aus Sicherungspunkt und Journal teilen sich alle Konten eines Kunden
+     * wieder ein Kunden-Objekt, wobei Kunden mit denselben Daten zusammenfallen.
+     *
+     * @param inhaber der Kunde
+     * @return die Kontonummern des Kunden aufsteigend sortiert, leer wenn er kein Konto hat
+     */
+    public long[] getKontonummernVon(Kunde inhaber) {
+        return kunden.kontonummern(inhaber);
+    }
+
+    /**
+     * sucht die Kunden mit mindestens einem Konto, deren Name ("Nachname, Vorname") mit dem
+     * Präfix beginnt; Groß- und Kleinschreibung werden nicht unterschieden
+     *
+     * @param praefix der Namensanfang, leer für alle Kunden
+     * @param maximal die größte Anzahl gelieferter Kunden
+     * @return die gefundenen Kunden nach Namen sortiert
+     * @throws IllegalArgumentException wenn praefix null oder maximal negativ ist
+     */
+    public List<Kunde> kundenSuchen(String praefix, int maximal) {
+        if (praefix == null || maximal < 0)
+            throw new IllegalArgumentException("Ungültige Suche");
+        return kunden.suchen(praefix, maximal);
+    }
+
+    /**
+     * sortiert einen Kunden nach {@link Kunde#setNachname(String)} oder
+     * {@link Kunde#setVorname(String)} unter seinem neuen Namen in die Kundensuche ein;
+     * bis dahin wird er weder unter dem alten noch unter dem neuen Namen gefunden
+     *
+     * @param kunde der Kunde
+     * @throws IllegalArgumentException wenn kunde null ist
+     */
+    public void kundeUmbenannt(Kunde kunde) {
+        if (kunde == null)
+            throw new IllegalArgumentException("Der Kunde darf nicht null sein!");
+        kunden.umbenennen(kunde);
+    }
+
+    /**
+     * @return die Anzahl der Kunden mit mindestens einem Konto
+     */
+    public int getAnzahlKunden() {
+        return kunden.getAnzahlKunden();
     }
 
     /**
@@ -41,7 +442,7 @@ public class Bank {
     public long girokontoErstellen(Kunde inhaber) {
         long kontonummer = generiereNeueKontonummer();
         Girokonto neuesKonto = new Girokonto(inhaber, kontonummer, 500);
-        kontenliste.put(kontonummer, neuesKonto);
+        kontoAufnehmen(kontonummer, neuesKonto);
         return kontonummer;
     }
 
@@ -54,61 +455,313 @@ public class Bank {
     public long sparbuchErstellen(Kunde inhaber) {
         long kontonummer = generiereNeueKontonummer();
         Sparbuch neuesSparbuch = new Sparbuch(inhaber, kontonummer);
-        kontenliste.put(kontonummer, neuesSparbuch);
+        kontoAufnehmen(kontonummer, neuesSparbuch);
         return kontonummer;
     }
 
+    /**
+     * trägt ein neues Konto in die Kontenliste und ins Journal ein
+     */
+    private void kontoAufnehmen(long kontonummer, Konto konto) {
+        long position;
+        synchronized (konto) {
+            kontenliste.put(kontonummer, konto);
+            erfassen(konto);
+            position = protokollieren(Eintragsart.KONTO_ANGELEGT, konto);
+        }
+        abonnieren(konto);
+        sichern(position);
+    }
+
+    /**
+     * meldet alle Konflatoren der Bank am neuen Konto an
+     */
+    private void abonnieren(Konto konto) {
+        for (KontoKonflator konflator : konflatoren) {
+            konflator.abonnieren(konto);
+        }
+    }
+
+    /**
+     * lässt den Konflator alle jetzigen und künftigen Konten der Bank abonnieren, sodass er
+     * jedes geänderte Konto je Abholung einmal meldet; gelöschte Konten werden abbestellt
+     *
+     * @param konflator der Konflator
+     * @throws IllegalArgumentException wenn konflator null ist
+     */
+    public void konflatorAnmelden(KontoKonflator konflator) {
+        if (konflator == null)
+            throw new IllegalArgumentException("Der Konflator darf nicht null sein!");
+        // erst eintragen, dann die vorhandenen Konten: gleichzeitig eröffnete Konten werden
+        // so mindestens einmal abonniert, doppeltes Abonnieren ist ohne Wirkung
+        konflatoren.add(konflator);
+        kontenliste.fuerAlle((konto, nummer) -> {
+            if (konto.getKontonummer() == nummer)
+                konflator.abonnieren(konto);
+        });
+    }
+
+    /**
+     * meldet den Konflator von allen Konten der Bank ab
+     *
+     * @param konflator der Konflator
+     */
+    public void konflatorAbmelden(KontoKonflator konflator) {
+        if (konflatoren.remove(konflator))
+            kontenliste.fuerAlle((konto, nummer) -> konflator.abbestellen(konto));
+    }
+
+    /**
+     * schreibt den Zustand der Konten ins Journal; der Aufrufer hält die Sperren der Konten
+     *
+     * @return die Position für {@link #sichern(long)}
+     */
+    private long protokollieren(Eintragsart art, Konto... konten) {
+        return journal == null ? 0 : journal.kontenAnhaengen(art, konten);
+    }
+
+    /**
+     * schreibt den Zustand der Konten mit Zusatzdaten ins Journal; der Aufrufer hält die Sperren der Konten
+     *
+     * @return die Position für {@link #sichern(long)}
+     */
+    private long protokollieren(Eintragsart art, ByteBuffer zusatz, Konto... konten) {
+        return journal == null ? 0 : journal.kontenAnhaengen(art, zusatz, konten);
+    }
+
+    /**
+     * wartet, bis das Journal bis zur Position gesichert ist; ohne Sperren aufrufen
+     */
+    private void sichern(long position) {
+        if (journal != null)
+            journal.sichern(position);
+    }
+
     /**
      * Generieren wir eine neue Konto  Nummer
      *
      * @return kontonummer
      */
     private long generiereNeueKontonummer() {
-        long kontonummer = 0;
-        for (Long nummer : kontenliste.keySet()) {
-            if (nummer > kontonummer) {
-                kontonummer = nummer;
-            }
-        }
-        return kontonummer + 1;
+        return nummernVergabe.naechsteNummer();
     }
 
     /**
-     * bekommen wir alle Konto mit diese Methode
+     * liefert die Kontonummernvergabe der Bank, z.B. um ihren Höchststand zu speichern
      *
-     * @return die liste von Konten
+     * @return die Kontonummernvergabe
      */
+    public KontonummernVergabe getKontonummernVergabe() {
+        return nummernVergabe;
+    }
+
+    /**
+     * reserviert einen Block von Kontonummern für einen Massenimport.
+     * Die Konten werden danach mit {@link #kontoImportieren(Konto)} eingefügt.
+     *
+     * @param anzahl Anzahl der benötigten Kontonummern
+     * @return die erste Nummer des Blocks
+     * @throws IllegalArgumentException wenn anzahl nicht positiv ist
+     */
+    public long kontonummernReservieren(int anzahl) {
+        return nummernVergabe.blockReservieren(anzahl);
+    }
+
+    /**
+     * fügt ein Konto unter seiner eigenen Kontonummer in die Kontenliste ein
+     *
+     * @param k das einzufügende Konto
+     * @throws IllegalArgumentException wenn k null ist oder die Kontonummer schon belegt ist
+     */
+    public void kontoImportieren(Konto k) {
+        if (k == null)
+            throw new IllegalArgumentException("Das Konto darf nicht null sein!");
+        long kontonummer = k.getKontonummer();
+        long position;
+        synchronized (k) {
+            if (kontenliste.putIfAbsent(kontonummer, k) != null)
+                throw new IllegalArgumentException("Kontonummer " + kontonummer + " ist schon vergeben!");
+            erfassen(k);
+            position = protokollieren(Eintragsart.KONTO_ANGELEGT, k);
+        }
+        abonnieren(k);
+        nummernVergabe.nummerVermerken(kontonummer);
+        sichern(position);
+    }
 
+    /**
+     * Anzahl der Konten, die beim Auflisten gemeinsam aus der Kontenliste gelesen werden
+     */
+    private static final int AUFLISTUNG_BLOCK = 256;
+
+    /**
+     * Anzahl der Kennungen in einem Journaleintrag {@link Eintragsart#CLEARING_ABGERECHNET}
+     */
+    private static final int ABGERECHNET_JE_EINTRAG = 512;
+
+    /**
+     * bekommen wir alle Konto mit diese Methode. Für viele Konten sollte
+     * {@link #alleKontenAusgeben(Appendable)} verwendet werden, das keinen
+     * String für die ganze Bank aufbaut.
+     *
+     * @return die liste von Konten, nach Kontonummer sortiert
+     */
     public String getAlleKonten() {
         StringBuilder auflistung = new StringBuilder();
-        for (Long kontonummer : kontenliste.keySet()) {
-            Konto konto = kontenliste.get(kontonummer);
-            auflistung.append("Kontonummer: ")
-                    .append(kontonummer)
-                    .append(", Kontostand: ")
-                    .append(konto.getKontostand())
-                    .append(" EUR\n");
+        try {
+            alleKontenAusgeben(auflistung);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // kommt bei einem StringBuilder nicht vor
         }
         return auflistung.toString();
     }
 
+    /**
+     * schreibt alle Konten nach Kontonummer sortiert in das Ziel, eine Zeile pro Konto
+     * im Format von {@link #getAlleKonten()}. Die Konten werden blockweise aus der
+     * Kontenliste gelesen und sofort geschrieben, der Speicherbedarf hängt also nicht von
+     * der Größe der Bank ab. Konten, die während der Ausgabe eröffnet oder gelöscht werden,
+     * erscheinen eventuell nicht bzw. noch; alle anderen erscheinen genau einmal.
+     *
+     * @param ziel das Ziel der Ausgabe, z.B. ein Writer
+     * @throws IOException              wenn das Ziel nicht beschrieben werden kann
+     * @throws IllegalArgumentException wenn ziel null ist
+     */
+    public void alleKontenAusgeben(Appendable ziel) throws IOException {
+        if (ziel == null)
+            throw new IllegalArgumentException("Das Ziel darf nicht null sein!");
+        long[] nummern = new long[AUFLISTUNG_BLOCK];
+        Konto[] konten = new Konto[AUFLISTUNG_BLOCK];
+        // ein Block wird in einem wiederverwendeten Puffer formatiert und dann auf einmal geschrieben
+        StringBuilder zeilen = new StringBuilder(AUFLISTUNG_BLOCK * 64);
+        char[] zeichen = ziel instanceof Writer ? new char[zeilen.capacity()] : null;
+        long cursor = KontenSeite.ANFANG;
+        int gelesen;
+        do {
+            gelesen = kontenliste.aufsteigendLesen(cursor, nummern, konten);
+            zeilen.setLength(0);
+            for (int i = 0; i < gelesen; i++) {
+                zeilen.append("Kontonummer: ")
+                        .append(nummern[i])
+                        .append(", Kontostand: ")
+                        .append(konten[i].getKontostand())
+                        .append(" EUR\n");
+                konten[i] = null;
+            }
+            if (zeichen != null) {
+                if (zeichen.length < zeilen.length())
+                    zeichen = new char[zeilen.capacity()];
+                zeilen.getChars(0, zeilen.length(), zeichen, 0);
+                ((Writer) ziel).write(zeichen, 0, zeilen.length());
+            } else {
+                ziel.append(zeilen);
+            }
+            if (gelesen > 0)
+                cursor = nummern[gelesen - 1];
+        } while (gelesen == AUFLISTUNG_BLOCK);
+    }
+
+    /**
+     * schreibt alle Konten wie {@link #alleKontenAusgeben(Appendable)} in den Writer
+     * und leert ihn danach. Der Writer wird nicht geschlossen.
+     *
+     * @param ziel der Writer
+     * @throws IOException              wenn nicht geschrieben werden kann
+     * @throws IllegalArgumentException wenn ziel null ist
+     */
+    public void alleKontenAusgeben(Writer ziel) throws IOException {
+        alleKontenAusgeben((Appendable) ziel);
+        ziel.flush();
+    }
+
+    /**
+     * schreibt alle Konten wie {@link #alleKontenAusgeben(Appendable)} UTF-8-kodiert
+     * und gepuffert in den Datenstrom. Der Datenstrom wird nicht geschlossen.
+     *
+     * @param ziel der Datenstrom
+     * @throws IOException              wenn nicht geschrieben werden kann
+     * @throws IllegalArgumentException wenn ziel null ist
+     */
+    public void alleKontenAusgeben(OutputStream ziel) throws IOException {
+        if (ziel == null)
+            throw new IllegalArgumentException("Das Ziel darf nicht null sein!");
+        alleKontenAusgeben(new BufferedWriter(new OutputStreamWriter(ziel, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * liefert die erste Seite der nach Kontonummer sortierten Kontenliste
+     *
+     * @param groesse höchstens so viele Konten enthält die Seite
+     * @return die Seite
+     * @throws IllegalArgumentException wenn groesse nicht positiv ist
+     */
+    public KontenSeite getKontenSeite(int groesse) {
+        return getKontenSeite(KontenSeite.ANFANG, groesse);
+    }
+
+    /**
+     * liefert die Konten mit den nächsten Kontonummern nach dem Cursor, aufsteigend sortiert.
+     * Jedes Konto, das während des Blätterns durchgehend vorhanden ist, erscheint auf
+     * genau einer Seite, auch wenn zwischendurch Konten eröffnet oder gelöscht werden.
+     *
+     * @param cursor  {@link KontenSeite#getCursor()} der vorherigen Seite oder {@link KontenSeite#ANFANG}
+     * @param groesse höchstens so viele Konten enthält die Seite
+     * @return die Seite
+     * @throws IllegalArgumentException wenn groesse nicht positiv ist
+     */
+    public KontenSeite getKontenSeite(long cursor, int groesse) {
+        if (groesse <= 0 || groesse == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Ungültige Seitengröße!");
+        // ein Konto mehr lesen, um festzustellen, ob es weitere gibt
+        long[] nummern = new long[groesse + 1];
+        Konto[] konten = new Konto[groesse + 1];
+        int gelesen = kontenliste.aufsteigendLesen(cursor, nummern, konten);
+        return new KontenSeite(cursor, nummern, konten, Math.min(gelesen, groesse), gelesen > groesse);
+    }
+
+    /**
+     * liefert alle Kontonummern als Liste
+     *
+     * @return die Kontonummern
+     */
     public List<Long> getAlleKontonummern() {
-        return new ArrayList<>(kontenliste.keySet());
+        return kontenliste.kontonummern().boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * liefert alle Kontonummern, ohne sie in Long-Objekte zu verpacken
+     *
+     * @return die Kontonummern in keiner bestimmten Reihenfolge
+     */
+    public LongStream getKontonummern() {
+        return kontenliste.kontonummern();
     }
 
     /**
      * @param von
      * @param betrag
-     * @return
+     * @return false, wenn es das Konto nicht gibt oder es die Abhebung nicht erlaubt
      * @throws GesperrtException
      */
     public boolean geldAbheben(long von, double betrag) throws GesperrtException {
         Konto konto = kontenliste.get(von);
-        if (konto != null && konto.getKontostand() >= betrag) {
-            konto.abheben(betrag);
-            return true;
+        if (konto == null) {
+            return false;
+        }
+        long position;
+        synchronized (konto) {
+            if (konto.getKontostand() < betrag) {
+                return false;
+            }
+            if (!konto.abheben(betrag)) {
+                return false;
+            }
+            position = protokollieren(Eintragsart.ABHEBUNG, konto);
+            konto.buchungVermerken(System.currentTimeMillis(), -Cent.ausBetrag(betrag),
+                    Buchungshistorie.KEIN_GEGENKONTO, "Abhebung");
         }
-        return false;
+        sichern(position);
+        return true;
     }
 
     /**
@@ -118,21 +771,83 @@ public class Bank {
     public void geldEinzahlen(long auf, double betrag) {
         Konto konto = kontenliste.get(auf);
         if (konto != null) {
-            konto.einzahlen(betrag);
+            long position;
+            synchronized (konto) {
+                konto.einzahlen(betrag);
+                position = protokollieren(Eintragsart.EINZAHLUNG, konto);
+                konto.buchungVermerken(System.currentTimeMillis(), Cent.ausBetrag(betrag),
+                        Buchungshistorie.KEIN_GEGENKONTO, "Einzahlung");
+            }
+            sichern(position);
         }
     }
 
+    /**
+     * sperrt das Konto
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt
+     */
+    public boolean kontoSperren(long nummer) {
+        return sperrvermerkSetzen(nummer, true);
+    }
+
+    /**
+     * entsperrt das Konto
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt
+     */
+    public boolean kontoEntsperren(long nummer) {
+        return sperrvermerkSetzen(nummer, false);
+    }
+
+    private boolean sperrvermerkSetzen(long nummer, boolean gesperrt) {
+        Konto konto = kontenliste.get(nummer);
+        if (konto == null) {
+            return false;
+        }
+        long position = 0;
+        synchronized (konto) {
+            if (konto.isGesperrt() != gesperrt) {
+                if (gesperrt) {
+                    konto.sperren();
+                } else {
+                    konto.entsperren();
+                }
+                position = protokollieren(gesperrt ? Eintragsart.KONTO_GESPERRT : Eintragsart.KONTO_ENTSPERRT, konto);
+            }
+        }
+        sichern(position);
+        return true;
+    }
+
     /**
      * @param nummer
      * @return
      */
 
     public boolean kontoLoeschen(long nummer) {
-        if (kontenliste.containsKey(nummer)) {
-            kontenliste.remove(nummer);
-            return true;
+        Konto konto = kontenliste.get(nummer);
+        if (konto == null) {
+            return false;
         }
-        return false;
+        long position = 0;
+        synchronized (konto) {
+            if (kontenliste.remove(nummer) == null) {
+                return false; // gleichzeitig von einem anderen Thread gelöscht
+            }
+            if (konto.getKontonummer() == nummer)
+                austragen(konto); // sonst ein Mock, der nie erfasst wurde
+            if (journal != null) {
+                position = journal.loeschungAnhaengen(nummer);
+            }
+        }
+        for (KontoKonflator konflator : konflatoren) {
+            konflator.abbestellen(konto);
+        }
+        sichern(position);
+        return true;
     }
 
     /**
@@ -145,11 +860,37 @@ public class Bank {
     public double getKontostand(long nummer) {
         Konto konto = kontenliste.get(nummer);
         if (konto != null) {
-            return konto.getKontostand();
+            synchronized (konto) {
+                return konto.getKontostand();
+            }
         }
         return 0.0;
     }
 
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn es ein Konto mit dieser Nummer gibt
+     */
+    public boolean kontoExistiert(long nummer) {
+        return kontenliste.get(nummer) != null;
+    }
+
+    /**
+     * übergibt die Buchungen eines Kontos in einem Zeitraum in zeitlicher Reihenfolge an den Leser
+     *
+     * @param nummer   die Kontonummer
+     * @param zeitraum der Zeitraum, beide Grenzen gehören dazu
+     * @param leser    erhält die Buchungen
+     * @return Anzahl der Buchungen im Zeitraum, 0 wenn es das Konto nicht gibt
+     * @throws IllegalArgumentException wenn zeitraum oder leser null ist
+     */
+    public int kontoauszug(long nummer, Intervall<Instant> zeitraum, Buchungsleser leser) {
+        if (zeitraum == null || leser == null)
+            throw new IllegalArgumentException("Zeitraum und Leser dürfen nicht null sein!");
+        Konto konto = kontenliste.get(nummer);
+        return konto == null ? 0 : konto.buchungenLesen(zeitraum, leser);
+    }
+
     /**
      * Führt eine Überweisung von einem Konto auf ein anderes Konto durch.
      *
@@ -171,33 +912,345 @@ public class Bank {
             return false; // Mindestens ein Konto existiert nicht
         }
 
-        if (vonKonto.isGesperrt() || nachKonto.isGesperrt()) {
-            return false; // Überweisung nicht möglich, da mindestens ein Konto gesperrt ist
+        return Ueberweisungsabwicklung.ausfuehren(vonKontonr, vonKonto, nachKontonr, nachKonto, betrag,
+                verwendungszweck, journal);
+    }
+
+    /**
+     * Führt eine Überweisung an ein Konto bei einer beliebigen Bank durch. Liegt das
+     * empfangende Konto bei dieser Bank, ist das dasselbe wie
+     * {@link #geldUeberweisen(long, long, double, String)}. Sonst wird der Betrag sofort vom
+     * sendenden Konto abgebucht und an die {@link Clearingstelle} übergeben; gutgeschrieben
+     * wird er erst mit deren nächster Abrechnung. Kann er dort nicht gutgeschrieben werden,
+     * bucht die Clearingstelle ihn auf das sendende Konto zurück. Die Überweisung wird mit der
+     * Abbuchung ins Journal geschrieben und nach einem Neustart erneut eingereicht, wenn sie bis
+     * dahin nicht abgerechnet war.
+     *
+     * @param vonKontonr       die Kontonummer des sendenden Kontos
+     * @param nachBlz          die Bankleitzahl der empfangenden Bank
+     * @param nachKontonr      die Kontonummer des empfangenden Kontos
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck der Überweisung
+     * @return true, wenn die Überweisung ausgeführt bzw. an die Clearingstelle übergeben wurde;
+     * false, wenn das sendende Konto nicht existiert, nicht überweisungsfähig oder gesperrt ist,
+     * seine Regeln die Abbuchung nicht erlauben oder die empfangende Bank bei der
+     * Clearingstelle dieser Bank nicht angemeldet ist
+     * @throws IllegalArgumentException wenn der Betrag negativ, NaN oder unendlich ist oder
+     *                                  verwendungszweck null ist
+     */
+    public boolean geldUeberweisen(long vonKontonr, long nachBlz, long nachKontonr, double betrag,
+                                   String verwendungszweck) {
+        if (nachBlz == bankleitzahl)
+            return geldUeberweisen(vonKontonr, nachKontonr, betrag, verwendungszweck);
+        Clearingstelle stelle = clearingstelle;
+        int ziel = stelle == null ? -1 : stelle.nummer(nachBlz);
+        Konto konto = kontenliste.get(vonKontonr);
+        if (ziel < 0 || !(konto instanceof Ueberweisungsfaehig absender))
+            return false;
+        long cent = Cent.ausBetrag(betrag);
+        long position;
+        Clearingbuch.Ausgang ausgang;
+        synchronized (konto) {
+            try {
+                if (!absender.ueberweisungAbsenden(betrag, "", nachKontonr, nachBlz, verwendungszweck))
+                    return false;
+            } catch (GesperrtException e) {
+                return false;
+            }
+            ausgang = clearingbuch.ausgangAnlegen(vonKontonr, nachBlz, nachKontonr, cent, verwendungszweck);
+            position = protokollieren(Eintragsart.CLEARING_AUSGANG, Clearingbuch.ausgangKodieren(ausgang), konto);
+            konto.buchungVermerken(System.currentTimeMillis(), -cent, nachKontonr, verwendungszweck);
+        }
+        sichern(position);
+        stelle.einreichen(clearingNummer, vonKontonr, ziel, nachKontonr, cent, verwendungszweck, ausgang.kennung());
+        return true;
+    }
+
+    /**
+     * vermerkt die Clearingstelle, an der die Bank angemeldet wurde
+     *
+     * @param stelle die Clearingstelle
+     * @param nummer die Nummer der Bank in der Clearingstelle
+     * @throws IllegalStateException wenn die Bank schon an einer Clearingstelle angemeldet ist
+     */
+    synchronized void clearingstelleSetzen(Clearingstelle stelle, int nummer) {
+        if (clearingstelle != null)
+            throw new IllegalStateException("Bank " + bankleitzahl + " ist schon an einer Clearingstelle angemeldet");
+        clearingNummer = nummer;
+        clearingstelle = stelle;
+    }
+
+    /**
+     * reicht die beim Wiederherstellen gefundenen, noch nicht abgerechneten Überweisungen bei
+     * der Clearingstelle ein, soweit die empfangende Bank dort angemeldet ist; wird von der
+     * Clearingstelle unter ihrer Sperre aufgerufen, wenn sich die angemeldeten Banken ändern
+     */
+    void offeneEinreichen() {
+        clearingbuch.einreichen(clearingstelle, clearingNummer);
+    }
+
+    /**
+     * vermerkt Überweisungen dieser Bank als abgerechnet und wartet, bis der Vermerk gesichert
+     * ist. Erst danach darf die empfangende Bank einen Sicherungspunkt hinter die Gutschriften
+     * legen, mit dem sie die Kennungen vergisst, an denen sie erneut eingereichte Überweisungen
+     * erkennt.
+     *
+     * @param kennungen die Kennungen der Überweisungen
+     * @param von       der Index der ersten Kennung
+     * @param bis       der Index hinter der letzten Kennung
+     */
+    void clearingAbgerechnet(long[] kennungen, int von, int bis) {
+        for (int i = von; i < bis; i++) {
+            clearingbuch.abgerechnet(kennungen[i]);
+        }
+        if (journal == null)
+            return;
+        long position = 0;
+        for (int i = von; i < bis; i += ABGERECHNET_JE_EINTRAG) {
+            int anzahl = Math.min(bis - i, ABGERECHNET_JE_EINTRAG);
+            ByteBuffer zusatz = ByteBuffer.allocate(anzahl * Long.BYTES);
+            zusatz.asLongBuffer().put(kennungen, i, anzahl);
+            position = journal.kontenAnhaengen(Eintragsart.CLEARING_ABGERECHNET, zusatz);
         }
+        sichern(position);
+    }
 
-        try {
-            // Abheben des Betrags vom Ursprungskonto
-            if (!vonKonto.abheben(betrag)) {
-                return false; // Nicht genügend Guthaben oder Konto gesperrt
+    /**
+     * schreibt einem Konto eine Überweisung aus der Clearingstelle gut und schreibt es ins
+     * Journal, ohne auf das Sichern zu warten
+     *
+     * @param nachKontonr das empfangende Konto
+     * @param vonBlz      die Bankleitzahl des sendenden Kontos
+     * @param vonKontonr  das sendende Konto
+     * @param cent        der Betrag in Cent
+     * @param zweck       der Verwendungszweck
+     * @param zeitpunkt   der Zeitpunkt für die Buchungshistorie
+     * @param absenderBlz die Bankleitzahl der Bank, die die Überweisung eingereicht hat; bei
+     *                    einer Rückbuchung diese Bank
+     * @param kennung     die Kennung der Überweisung bei der einreichenden Bank
+     * @return die Position für {@link #clearingSichern(long)}, 0, wenn die Überweisung laut
+     * Journal schon vor dem letzten Neustart gutgeschrieben wurde, oder -1, wenn es das Konto nicht
+     * gibt, es keine Überweisungen empfangen kann oder die Gutschrift überläuft
+     */
+    long clearingGutschreiben(long nachKontonr, long vonBlz, long vonKontonr, long cent, String zweck,
+                              long zeitpunkt, long absenderBlz, long kennung) {
+        if (clearingbuch.schonGutgeschrieben(absenderBlz, kennung))
+            return 0;
+        Konto konto = kontenliste.get(nachKontonr);
+        if (!(konto instanceof Ueberweisungsfaehig empfaenger))
+            return -1;
+        synchronized (konto) {
+            try {
+                empfaenger.ueberweisungEmpfangen(Cent.inBetrag(cent), "", vonKontonr, vonBlz, zweck);
+            } catch (ArithmeticException e) {
+                return -1;
             }
-            // Einzahlen des Betrags auf das Zielkonto
-            nachKonto.einzahlen(betrag);
-            return true; // Überweisung erfolgreich
-        } catch (GesperrtException e) {
-            // Fange die GesperrtException, falls die Konten während der Operation gesperrt wurden
+            konto.buchungVermerken(zeitpunkt, cent, vonKontonr, zweck);
+            return protokollieren(Eintragsart.CLEARING_EINGANG, Clearingbuch.eingangKodieren(absenderBlz, kennung),
+                    konto);
+        }
+    }
+
+    /**
+     * wartet, bis die Gutschriften der Clearingstelle bis zur Position gesichert sind
+     *
+     * @param position die größte von {@link #clearingGutschreiben} gelieferte Position
+     */
+    void clearingSichern(long position) {
+        sichern(position);
+    }
+
+    /**
+     * erste Phase einer Überweisung zwischen zwei Shards einer {@link VerteilteBank}: belastet
+     * das sendende Konto nach denselben Regeln wie {@link #geldUeberweisen(long, long, double, String)}
+     * und sichert die Belastung zusammen mit der Beschreibung der Überweisung im Journal
+     *
+     * @param vonKontonr  das sendende Konto
+     * @param nachKontonr das empfangende Konto im anderen Shard
+     * @param cent        der Betrag in Cent
+     * @param zweck       der Verwendungszweck
+     * @param zusatz      die Beschreibung der Überweisung für das Journal
+     * @return true, wenn das Konto belastet wurde
+     */
+    boolean transferVorbereiten(long vonKontonr, long nachKontonr, long cent, String zweck, ByteBuffer zusatz) {
+        Konto konto = kontenliste.get(vonKontonr);
+        if (!(konto instanceof Ueberweisungsfaehig absender))
             return false;
+        long position;
+        synchronized (konto) {
+            try {
+                if (!absender.ueberweisungAbsenden(Cent.inBetrag(cent), "", nachKontonr, bankleitzahl, zweck))
+                    return false;
+            } catch (GesperrtException e) {
+                return false;
+            }
+            position = protokollieren(Eintragsart.TRANSFER_VORBEREITET, zusatz, konto);
+            konto.buchungVermerken(System.currentTimeMillis(), -cent, nachKontonr, zweck);
         }
+        sichern(position);
+        return true;
+    }
+
+    /**
+     * zweite Phase einer Überweisung zwischen zwei Shards: schreibt dem empfangenden Konto den
+     * Betrag gut und sichert die Gutschrift im Journal
+     *
+     * @param nachKontonr das empfangende Konto
+     * @param vonKontonr  das sendende Konto im anderen Shard
+     * @param cent        der Betrag in Cent
+     * @param zweck       der Verwendungszweck
+     * @param zusatz      die Beschreibung der Überweisung für das Journal
+     * @return true, wenn gutgeschrieben wurde; false, wenn es das Konto nicht gibt, es keine
+     * Überweisungen empfangen kann, gesperrt ist oder die Gutschrift überläuft
+     */
+    boolean transferGutschreiben(long nachKontonr, long vonKontonr, long cent, String zweck, ByteBuffer zusatz) {
+        Konto konto = kontenliste.get(nachKontonr);
+        if (!(konto instanceof Ueberweisungsfaehig empfaenger))
+            return false;
+        long position;
+        synchronized (konto) {
+            if (konto.isGesperrt())
+                return false;
+            try {
+                empfaenger.ueberweisungEmpfangen(Cent.inBetrag(cent), "", vonKontonr, bankleitzahl, zweck);
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            position = protokollieren(Eintragsart.TRANSFER_GUTGESCHRIEBEN, zusatz, konto);
+            konto.buchungVermerken(System.currentTimeMillis(), cent, vonKontonr, zweck);
+        }
+        sichern(position);
+        return true;
+    }
+
+    /**
+     * bricht eine Überweisung zwischen zwei Shards ab, deren Gutschrift nicht möglich war,
+     * und erstattet dem sendenden Konto den Betrag
+     *
+     * @param vonKontonr  das sendende Konto
+     * @param nachKontonr das empfangende Konto im anderen Shard
+     * @param cent        der Betrag in Cent
+     * @param zusatz      die Beschreibung der Überweisung für das Journal
+     * @return false, wenn es das sendende Konto nicht mehr gibt und nichts erstattet wurde
+     */
+    boolean transferZurueckbuchen(long vonKontonr, long nachKontonr, long cent, ByteBuffer zusatz) {
+        Konto konto = kontenliste.get(vonKontonr);
+        long position;
+        if (konto == null) {
+            position = protokollieren(Eintragsart.TRANSFER_ABGEBROCHEN, zusatz);
+        } else {
+            synchronized (konto) {
+                konto.einzahlen(Cent.inBetrag(cent));
+                position = protokollieren(Eintragsart.TRANSFER_ABGEBROCHEN, zusatz, konto);
+                konto.buchungVermerken(System.currentTimeMillis(), cent, nachKontonr, "Rückbuchung");
+            }
+        }
+        sichern(position);
+        return konto != null;
+    }
+
+    /**
+     * vermerkt im Journal, dass eine Überweisung zwischen zwei Shards vollständig ausgeführt
+     * ist; wird nicht gesichert, da eine verlorene Abschlussmarke beim Wiederherstellen
+     * anhand der Gutschrift im anderen Shard ergänzt wird
+     *
+     * @param zusatz die Beschreibung der Überweisung für das Journal
+     */
+    void transferAbschliessen(ByteBuffer zusatz) {
+        protokollieren(Eintragsart.TRANSFER_ABGESCHLOSSEN, zusatz);
+    }
+
+    /**
+     * führt viele Überweisungen auf einmal aus. Das Ergebnis ist dasselbe, als ob
+     * {@link #geldUeberweisen(long, long, double, String)} für jeden Auftrag der Reihe
+     * nach aufgerufen würde, jedes Konto wird aber nur einmal nachgeschlagen und
+     * Aufträge ohne gemeinsame Konten werden parallel ausgeführt.
+     *
+     * @param auftraege die Überweisungsaufträge
+     * @return für jeden Auftrag an derselben Position true, wenn die Überweisung erfolgreich war, sonst false
+     * @throws IllegalArgumentException wenn auftraege null ist
+     */
+    public boolean[] geldUeberweisen(List<Ueberweisungsauftrag> auftraege) {
+        if (auftraege == null)
+            throw new IllegalArgumentException("Die Auftragsliste darf nicht null sein!");
+        return Sammelueberweisung.ausfuehren(auftraege, kontenliste::get, journal);
+    }
+
+    /**
+     * stellt alle Konten der Bank im gemeinsamen {@link ForkJoinPool} auf die Währung ziel um.
+     *
+     * @param ziel die neue Währung aller Konten
+     * @return die laufende Umstellung, über die Fortschritt und Umrechnungsdifferenz abgefragt werden
+     * @throws IllegalArgumentException wenn ziel null ist
+     * @see Waehrungsumstellung
+     */
+    public Waehrungsumstellung waehrungUmstellen(Waehrung ziel) {
+        return waehrungUmstellen(ziel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * stellt alle Konten der Bank im angegebenen Pool auf die Währung ziel um.
+     * Alle anderen Operationen der Bank bleiben währenddessen möglich.
+     *
+     * @param ziel die neue Währung aller Konten
+     * @param pool der Pool, in dem die Konten umgestellt werden
+     * @return die laufende Umstellung, über die Fortschritt und Umrechnungsdifferenz abgefragt werden
+     * @throws IllegalArgumentException wenn ziel oder pool null ist
+     * @see Waehrungsumstellung
+     */
+    public Waehrungsumstellung waehrungUmstellen(Waehrung ziel, ForkJoinPool pool) {
+        if (ziel == null || pool == null)
+            throw new IllegalArgumentException("Währung und Pool dürfen nicht null sein!");
+        Waehrungsumstellung umstellung = new Waehrungsumstellung(kontenliste, journal, ziel);
+        umstellung.starten(pool);
+        return umstellung;
+    }
+
+    /**
+     * schreibt allen Sparbüchern der Bank im gemeinsamen {@link ForkJoinPool} die Zinsen
+     * eines Monats gut.
+     *
+     * @param monat der zu verzinsende Monat
+     * @return der laufende Zinslauf, über den Fortschritt und Zinssumme abgefragt werden
+     * @throws IllegalArgumentException wenn monat null ist
+     * @see Zinslauf
+     */
+    public Zinslauf zinsenGutschreiben(YearMonth monat) {
+        return zinsenGutschreiben(monat, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * schreibt allen Sparbüchern der Bank im angegebenen Pool die Zinsen eines Monats gut.
+     * Jedes Sparbuch wird höchstens einmal je Monat verzinst, ein wiederholter Aufruf für
+     * denselben Monat, z.B. nach einem Absturz während des Laufs, verzinst nur die übrigen.
+     *
+     * @param monat der zu verzinsende Monat
+     * @param pool  der Pool, in dem die Sparbücher verzinst werden
+     * @return der laufende Zinslauf, über den Fortschritt und Zinssumme abgefragt werden
+     * @throws IllegalArgumentException wenn monat oder pool null ist
+     * @see Zinslauf
+     */
+    public Zinslauf zinsenGutschreiben(YearMonth monat, ForkJoinPool pool) {
+        if (monat == null || pool == null)
+            throw new IllegalArgumentException("Monat und Pool dürfen nicht null sein!");
+        Zinslauf lauf = new Zinslauf(kontenliste, journal, monat);
+        lauf.starten(pool);
+        return lauf;
     }
 
 
     /**
      * Fügt ein gegebenes Konto in die Kontenliste der Bank ein und liefert die
-     * dabei von der Bank vergebene Kontonummer zurück.
+     * dabei von der Bank vergebene Kontonummer zurück. Das Konto wird nicht ins Journal
+     * geschrieben, da seine eigene Kontonummer nicht die vergebene ist.
      *
      * @param k das Konto, das eingefügt werden soll
      * @return die Kontonummer des eingefügten Kontos
+     * @throws IllegalArgumentException wenn k null ist
      */
     public long mockEinfuegen(Konto k) {
+        if (k == null)
+            throw new IllegalArgumentException("Das Konto darf nicht null sein!");
         long kontonummer = generiereNeueKontonummer();
         kontenliste.put(kontonummer, k);
         return kontonummer;
@@ -0,0 +1,186 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.KontoAenderungsBeobachter;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * laufend fortgeschriebene Kennzahlen über alle Konten einer Bank: Anzahl der Konten
+ * je Kontoart, Anzahl der Konten im Minus sowie Guthaben und in Anspruch genommene
+ * Überziehung je Währung. Jede Abfrage kostet nur das Aufsummieren weniger Zähler,
+ * die Konten werden dafür nicht durchlaufen.
+ * <p>
+ * Die Bank meldet sich als {@link KontoAenderungsBeobachter} an jedem ihrer Konten an und
+ * schreibt bei jeder Änderung nur die Differenz in {@link LongAdder} fort, die auch unter
+ * vielen gleichzeitig buchenden Threads kaum Konflikte haben. Da die Zähler einzeln gelesen
+ * werden, kann eine Abfrage während laufender Buchungen eine Überweisung zur Hälfte sehen;
+ * ohne gleichzeitige Änderungen sind die Werte exakt.
+ */
+public final class Bankkennzahlen {
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+
+    private final LongAdder anzahlKonten = new LongAdder();
+    private final LongAdder[] anzahlJeArt = zaehler(Kontoart.values().length);
+    private final LongAdder anzahlImMinus = new LongAdder();
+    private final LongAdder[] guthaben = zaehler(WAEHRUNGEN.length);
+    private final LongAdder[] ueberziehung = zaehler(WAEHRUNGEN.length);
+    private final Erfassung erfassung = new Erfassung();
+
+    Bankkennzahlen() {
+    }
+
+    private static LongAdder[] zaehler(int anzahl) {
+        LongAdder[] zaehler = new LongAdder[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            zaehler[i] = new LongAdder();
+        }
+        return zaehler;
+    }
+
+    /**
+     * @return Anzahl aller Konten
+     */
+    public long getAnzahlKonten() {
+        return anzahlKonten.sum();
+    }
+
+    /**
+     * @param art die Kontoart
+     * @return Anzahl der Konten dieser Art
+     */
+    public long getAnzahlKonten(Kontoart art) {
+        return anzahlJeArt[art.ordinal()].sum();
+    }
+
+    /**
+     * @return Anzahl der Konten mit negativem Kontostand
+     */
+    public long getAnzahlImMinus() {
+        return anzahlImMinus.sum();
+    }
+
+    /**
+     * @param waehrung die Währung
+     * @return Summe der positiven Kontostände aller Konten in dieser Währung
+     */
+    public double getGuthaben(Waehrung waehrung) {
+        return Cent.inBetrag(guthaben[waehrung.ordinal()].sum());
+    }
+
+    /**
+     * @param waehrung die Währung
+     * @return Summe der in Anspruch genommenen Überziehung (Beträge der negativen Kontostände)
+     * aller Konten in dieser Währung
+     */
+    public double getUeberziehung(Waehrung waehrung) {
+        return Cent.inBetrag(ueberziehung[waehrung.ordinal()].sum());
+    }
+
+    /**
+     * @param waehrung die Währung
+     * @return Summe aller Kontostände in dieser Währung
+     */
+    public double getSumme(Waehrung waehrung) {
+        int w = waehrung.ordinal();
+        return Cent.inBetrag(guthaben[w].sum() - ueberziehung[w].sum());
+    }
+
+    /**
+     * @return das Guthaben aller Währungen, in Euro umgerechnet
+     */
+    public double getGesamtguthaben() {
+        double summe = 0;
+        for (Waehrung w : WAEHRUNGEN) {
+            summe += w.waehrungInEuroUmrechnen(getGuthaben(w));
+        }
+        return summe;
+    }
+
+    /**
+     * @return die Überziehung aller Währungen, in Euro umgerechnet
+     */
+    public double getGesamtueberziehung() {
+        double summe = 0;
+        for (Waehrung w : WAEHRUNGEN) {
+            summe += w.waehrungInEuroUmrechnen(getUeberziehung(w));
+        }
+        return summe;
+    }
+
+    /**
+     * @return der Beobachter, der die Kennzahlen bei jeder Änderung eines erfassten Kontos fortschreibt
+     */
+    KontoAenderungsBeobachter getErfassung() {
+        return erfassung;
+    }
+
+    /**
+     * nimmt das Konto in die Kennzahlen auf; der Aufrufer hält die Sperre des Kontos und
+     * meldet {@link #getErfassung()} daran an
+     *
+     * @param konto das Konto
+     */
+    void erfassen(Konto konto) {
+        anzahlKonten.increment();
+        Kontoart art = art(konto);
+        if (art != null)
+            anzahlJeArt[art.ordinal()].increment();
+        kontostandAendern(konto.getAktuelleWaehrung(), 0, konto.getKontostandCent());
+    }
+
+    /**
+     * nimmt das Konto aus den Kennzahlen heraus; der Aufrufer hält die Sperre des Kontos
+     *
+     * @param konto das Konto
+     */
+    void entfernen(Konto konto) {
+        anzahlKonten.decrement();
+        Kontoart art = art(konto);
+        if (art != null)
+            anzahlJeArt[art.ordinal()].decrement();
+        kontostandAendern(konto.getAktuelleWaehrung(), konto.getKontostandCent(), 0);
+    }
+
+    private static Kontoart art(Konto konto) {
+        if (konto instanceof Girokonto)
+            return Kontoart.GIROKONTO;
+        if (konto instanceof Sparbuch)
+            return Kontoart.SPARBUCH;
+        return null;
+    }
+
+    private void kontostandAendern(Waehrung waehrung, long alt, long neu) {
+        int w = waehrung.ordinal();
+        long guthabenDifferenz = Math.max(neu, 0) - Math.max(alt, 0);
+        if (guthabenDifferenz != 0)
+            guthaben[w].add(guthabenDifferenz);
+        long ueberziehungDifferenz = Math.max(-neu, 0) - Math.max(-alt, 0);
+        if (ueberziehungDifferenz != 0)
+            ueberziehung[w].add(ueberziehungDifferenz);
+        if ((alt < 0) != (neu < 0))
+            anzahlImMinus.add(neu < 0 ? 1 : -1);
+    }
+
+    /**
+     * schreibt die Kennzahlen bei jeder Änderung eines Kontos fort
+     */
+    private final class Erfassung implements KontoAenderungsBeobachter {
+        @Override
+        public void kontostandGeaendert(Konto konto, long alt, long neu) {
+            kontostandAendern(konto.getAktuelleWaehrung(), alt, neu);
+        }
+
+        @Override
+        public void waehrungGeaendert(Konto konto, Waehrung altWaehrung, long altKontostand,
+                                      Waehrung neuWaehrung, long neuKontostand) {
+            kontostandAendern(altWaehrung, altKontostand, 0);
+            kontostandAendern(neuWaehrung, 0, neuKontostand);
+        }
+    }
+}
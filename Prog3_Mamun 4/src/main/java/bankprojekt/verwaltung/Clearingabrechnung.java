@@ -0,0 +1,83 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Cent;
+
+/**
+ * die Kennzahlen einer Abrechnung der {@link Clearingstelle}
+ */
+public final class Clearingabrechnung {
+    private final int gutgeschrieben;
+    private final int zurueckgebucht;
+    private final int unzustellbar;
+    private final int ausgleiche;
+    private final long brutto;
+    private final long netto;
+    private final long dauerNanos;
+
+    Clearingabrechnung(int gutgeschrieben, int zurueckgebucht, int unzustellbar, int ausgleiche,
+                       long brutto, long netto, long dauerNanos) {
+        this.gutgeschrieben = gutgeschrieben;
+        this.zurueckgebucht = zurueckgebucht;
+        this.unzustellbar = unzustellbar;
+        this.ausgleiche = ausgleiche;
+        this.brutto = brutto;
+        this.netto = netto;
+        this.dauerNanos = dauerNanos;
+    }
+
+    /**
+     * @return die Anzahl der den empfangenden Konten gutgeschriebenen Überweisungen
+     */
+    public int getGutgeschrieben() {
+        return gutgeschrieben;
+    }
+
+    /**
+     * @return die Anzahl der Überweisungen, die an das sendende Konto zurückgebucht wurden
+     */
+    public int getZurueckgebucht() {
+        return zurueckgebucht;
+    }
+
+    /**
+     * @return die Anzahl der Überweisungen, die weder gutgeschrieben noch zurückgebucht werden konnten
+     */
+    public int getUnzustellbar() {
+        return unzustellbar;
+    }
+
+    /**
+     * @return die Anzahl der Bankenpaare, deren Salden mit einem Nettobetrag ausgeglichen wurden;
+     * ohne Verrechnung wären es {@link #getGutgeschrieben()} Ausgleiche gewesen
+     */
+    public int getAusgleiche() {
+        return ausgleiche;
+    }
+
+    /**
+     * @return die Summe aller gutgeschriebenen Überweisungen
+     */
+    public double getBrutto() {
+        return Cent.inBetrag(brutto);
+    }
+
+    /**
+     * @return die Summe der Nettobeträge, mit denen die Bankenpaare ausgeglichen wurden
+     */
+    public double getNetto() {
+        return Cent.inBetrag(netto);
+    }
+
+    /**
+     * @return die Dauer der Abrechnung in Nanosekunden
+     */
+    public long getDauerNanos() {
+        return dauerNanos;
+    }
+
+    @Override
+    public String toString() {
+        return gutgeschrieben + " gutgeschrieben, " + zurueckgebucht + " zurückgebucht, " + unzustellbar
+                + " unzustellbar, " + ausgleiche + " Ausgleiche, brutto " + getBrutto() + ", netto " + getNetto();
+    }
+}
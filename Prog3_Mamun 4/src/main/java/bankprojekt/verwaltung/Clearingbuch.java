@@ -0,0 +1,187 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * führt für eine Bank Buch über ihre Überweisungen an andere Banken, die abgebucht und der
+ * {@link Clearingstelle} übergeben, aber noch nicht abgerechnet sind, damit sie einen Absturz
+ * überstehen.
+ * <p>
+ * Jede Überweisung erhält eine je Bank eindeutige Kennung. Beim Abbuchen wird sie mit
+ * Kennung, sendendem Konto, Bankleitzahl und Konto des Empfängers, Betrag und
+ * Verwendungszweck als Zusatzdaten von {@link Eintragsart#CLEARING_AUSGANG} ins Journal
+ * geschrieben, nach der Abrechnung ihre Kennung mit {@link Eintragsart#CLEARING_ABGERECHNET}.
+ * Beim Abspielen des Journals bleiben so genau die offenen übrig; sie werden erneut
+ * eingereicht, sobald die Bank und die empfangende Bank an einer Clearingstelle angemeldet sind.
+ * <p>
+ * Endet der Prozess nach der Gutschrift, aber bevor die Abrechnung im Journal der sendenden
+ * Bank steht, wird die Überweisung ein zweites Mal eingereicht. Jede Gutschrift vermerkt
+ * deshalb Bankleitzahl der sendenden Bank und Kennung ({@link Eintragsart#CLEARING_EINGANG}),
+ * und die empfangende Bank erkennt nach dem Wiederherstellen, was ihr seit ihrem letzten
+ * Sicherungspunkt gutgeschrieben wurde. Ältere Gutschriften können nicht erneut eingereicht
+ * werden: Die Abrechnung wird bei der sendenden Bank gesichert, bevor die Clearingstelle die
+ * nächste Abrechnung beginnt, und die Position eines Sicherungspunkts wird nur zwischen zwei
+ * Abrechnungen festgehalten.
+ */
+final class Clearingbuch {
+    /**
+     * eine abgebuchte, noch nicht abgerechnete Überweisung
+     */
+    record Ausgang(long kennung, long vonKontonr, long nachBlz, long nachKontonr, long cent, String zweck) {
+    }
+
+    /**
+     * eine beim Wiederherstellen gefundene Gutschrift
+     */
+    private record Eingang(long vonBlz, long kennung) {
+    }
+
+    /**
+     * beginnt bei jedem Start hinter allen vorher vergebenen Kennungen, auch wenn deren
+     * Einträge schon aus dem Journal entfernt wurden
+     */
+    private final AtomicLong naechsteKennung = new AtomicLong(System.currentTimeMillis() << 20);
+    private final ConcurrentHashMap<Long, Ausgang> offen = new ConcurrentHashMap<>();
+    /**
+     * beim Wiederherstellen gefundene offene Überweisungen, die noch nicht wieder eingereicht
+     * wurden; nach dem Wiederherstellen nur unter der Sperre der Clearingstelle verwendet
+     */
+    private final Map<Long, Ausgang> nichtEingereicht = new LinkedHashMap<>();
+    /**
+     * beim Wiederherstellen gefundene Gutschriften; danach unverändert
+     */
+    private final Set<Eingang> gutgeschrieben = new HashSet<>();
+
+    /**
+     * vermerkt eine abgebuchte Überweisung als offen
+     *
+     * @return die Überweisung mit ihrer neuen Kennung
+     */
+    Ausgang ausgangAnlegen(long vonKontonr, long nachBlz, long nachKontonr, long cent, String zweck) {
+        Ausgang ausgang = new Ausgang(naechsteKennung.incrementAndGet(), vonKontonr, nachBlz, nachKontonr, cent, zweck);
+        offen.put(ausgang.kennung(), ausgang);
+        return ausgang;
+    }
+
+    /**
+     * vermerkt eine Überweisung als abgerechnet; erst danach darf die Abrechnung ins Journal
+     * geschrieben werden, damit ein gleichzeitiger Sicherungspunkt sie nicht wieder als offen vermerkt
+     *
+     * @param kennung die Kennung der Überweisung
+     */
+    void abgerechnet(long kennung) {
+        offen.remove(kennung);
+    }
+
+    /**
+     * @return die offenen Überweisungen
+     */
+    Collection<Ausgang> getOffen() {
+        return offen.values();
+    }
+
+    /**
+     * @param vonBlz  die Bankleitzahl der sendenden Bank
+     * @param kennung die Kennung der Überweisung
+     * @return true, wenn die Überweisung laut Journal schon gutgeschrieben wurde
+     */
+    boolean schonGutgeschrieben(long vonBlz, long kennung) {
+        return !gutgeschrieben.isEmpty() && gutgeschrieben.contains(new Eingang(vonBlz, kennung));
+    }
+
+    /**
+     * reicht die beim Wiederherstellen gefundenen offenen Überweisungen ein, deren empfangende
+     * Bank an der Clearingstelle angemeldet ist; der Aufrufer hält die Sperre der Clearingstelle
+     *
+     * @param stelle die Clearingstelle
+     * @param nummer die Nummer der Bank in der Clearingstelle
+     */
+    void einreichen(Clearingstelle stelle, int nummer) {
+        for (Iterator<Ausgang> it = nichtEingereicht.values().iterator(); it.hasNext(); ) {
+            Ausgang a = it.next();
+            int ziel = stelle.nummer(a.nachBlz());
+            if (ziel >= 0) {
+                stelle.einreichen(nummer, a.vonKontonr(), ziel, a.nachKontonr(), a.cent(), a.zweck(), a.kennung());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * übernimmt die Zusatzdaten eines Journaleintrags beim Wiederherstellen
+     *
+     * @param art          die Art des Eintrags
+     * @param zusatz       die Zusatzdaten
+     * @param bankleitzahl die Bankleitzahl der eigenen Bank
+     */
+    void uebernehmen(Eintragsart art, ByteBuffer zusatz, long bankleitzahl) {
+        switch (art) {
+            case CLEARING_AUSGANG -> {
+                Ausgang a = ausgangLesen(zusatz);
+                naechsteKennung.accumulateAndGet(a.kennung(), Math::max);
+                offen.put(a.kennung(), a);
+                nichtEingereicht.put(a.kennung(), a);
+            }
+            case CLEARING_EINGANG -> {
+                long vonBlz = zusatz.getLong(zusatz.position());
+                long kennung = zusatz.getLong(zusatz.position() + Long.BYTES);
+                gutgeschrieben.add(new Eingang(vonBlz, kennung));
+                // eine Rückbuchung schließt die eigene Überweisung ab
+                if (vonBlz == bankleitzahl)
+                    entfernen(kennung);
+            }
+            case CLEARING_ABGERECHNET -> {
+                for (int i = zusatz.position(); i + Long.BYTES <= zusatz.limit(); i += Long.BYTES) {
+                    entfernen(zusatz.getLong(i));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void entfernen(long kennung) {
+        offen.remove(kennung);
+        nichtEingereicht.remove(kennung);
+    }
+
+    /**
+     * @return die Zusatzdaten für {@link Eintragsart#CLEARING_AUSGANG}
+     */
+    static ByteBuffer ausgangKodieren(Ausgang a) {
+        byte[] zweck = a.zweck().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(5 * Long.BYTES + zweck.length)
+                .putLong(a.kennung()).putLong(a.vonKontonr()).putLong(a.nachBlz()).putLong(a.nachKontonr())
+                .putLong(a.cent()).put(zweck).flip();
+    }
+
+    private static Ausgang ausgangLesen(ByteBuffer zusatz) {
+        ByteBuffer b = zusatz.duplicate();
+        long kennung = b.getLong();
+        long vonKontonr = b.getLong();
+        long nachBlz = b.getLong();
+        long nachKontonr = b.getLong();
+        long cent = b.getLong();
+        byte[] zweck = new byte[b.remaining()];
+        b.get(zweck);
+        return new Ausgang(kennung, vonKontonr, nachBlz, nachKontonr, cent, new String(zweck, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return die Zusatzdaten für {@link Eintragsart#CLEARING_EINGANG}
+     */
+    static ByteBuffer eingangKodieren(long vonBlz, long kennung) {
+        return ByteBuffer.allocate(2 * Long.BYTES).putLong(vonBlz).putLong(kennung).flip();
+    }
+}
@@ -0,0 +1,353 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Cent;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * eine Clearingstelle, über die Banken im selben Prozess einander Geld überweisen.
+ * <p>
+ * Die Banken werden mit ihrer Bankleitzahl angemeldet. Eine Überweisung an eine andere Bank
+ * ({@link Bank#geldUeberweisen(long, long, long, double, String)}) wird bei der sendenden
+ * Bank sofort abgebucht und hier nur in eine Warteschlange gestellt. {@link #abrechnen()},
+ * von Hand oder im Takt von {@link #starten(Duration)} aufgerufen, nimmt alle bis dahin
+ * eingereichten Überweisungen auf einmal, schreibt sie den empfangenden Konten gut und
+ * gleicht die Banken untereinander nur mit einem Nettobetrag je Bankenpaar aus: Schickt
+ * Bank A in einem Takt 10.000 Überweisungen über zusammen 500.000 an Bank B und B 8.000
+ * über 420.000 an A, ändert sich der Saldo von A und B bei der Clearingstelle nur einmal
+ * um 80.000 statt 18.000 Mal.
+ * <p>
+ * Kann eine Überweisung nicht gutgeschrieben werden, weil es das Konto nicht gibt oder es
+ * keine Überweisungen empfangen kann, wird sie im selben Takt an das sendende Konto
+ * zurückgebucht und nicht ausgeglichen. Die Gutschriften einer Bank werden wie beim
+ * {@link Kontenlauf} einzeln ins Journal geschrieben und am Ende der Abrechnung einmal gesichert.
+ * <p>
+ * Die Warteschlange selbst liegt nur im Speicher. Die sendende Bank schreibt jede Überweisung
+ * aber mit der Abbuchung in ihr Journal und nach der Abrechnung einen Vermerk darüber; endet
+ * der Prozess dazwischen, reicht sie die offenen Überweisungen nach dem Wiederherstellen
+ * erneut ein, sobald sie und die empfangende Bank wieder an einer Clearingstelle angemeldet
+ * sind. Schon gutgeschriebene erkennt die empfangende Bank an deren Kennung.
+ */
+public final class Clearingstelle implements AutoCloseable {
+    /**
+     * Verwendungszweck einer Rückbuchung
+     */
+    public static final String RUECKBUCHUNG = "Rückbuchung";
+
+    /**
+     * die angemeldeten Banken, die Position ist die Nummer der Bank; wird beim Anmelden ersetzt
+     */
+    private volatile Bank[] banken = new Bank[0];
+    private volatile long[] leitzahlen = new long[0];
+    /**
+     * Saldo jeder Bank bei der Clearingstelle in Cent: positiv, wenn sie netto mehr empfangen
+     * als gesendet hat. Die Summe aller Salden ist immer 0.
+     */
+    private long[] salden = new long[0];
+    /**
+     * Summe der Überweisungen in Cent, die weder gutgeschrieben noch zurückgebucht werden konnten
+     */
+    private long verwahrt;
+
+    private final Object stapelSperre = new Object();
+    /**
+     * nimmt neue Überweisungen auf
+     */
+    private Stapel offen = new Stapel();
+    /**
+     * wird gerade abgerechnet bzw. liegt leer für den nächsten Tausch bereit
+     */
+    private Stapel abzurechnen = new Stapel();
+
+    private ScheduledExecutorService zeitplaner;
+    private volatile Clearingabrechnung letzteAbrechnung;
+
+    /**
+     * meldet eine Bank unter ihrer Bankleitzahl an. Danach reichen alle angemeldeten Banken
+     * die beim Wiederherstellen gefundenen offenen Überweisungen ein, deren empfangende Bank
+     * jetzt angemeldet ist.
+     *
+     * @param bank die Bank
+     * @throws IllegalArgumentException wenn bank null ist oder schon eine Bank mit derselben
+     *                                  Bankleitzahl angemeldet ist
+     * @throws IllegalStateException    wenn die Bank schon an einer Clearingstelle angemeldet ist
+     */
+    public synchronized void anmelden(Bank bank) {
+        if (bank == null)
+            throw new IllegalArgumentException("Die Bank darf nicht null sein!");
+        if (nummer(bank.getBankleitzahl()) >= 0)
+            throw new IllegalArgumentException("Bankleitzahl " + bank.getBankleitzahl() + " ist schon angemeldet");
+        int nummer = banken.length;
+        bank.clearingstelleSetzen(this, nummer);
+        salden = Arrays.copyOf(salden, nummer + 1);
+        long[] neueLeitzahlen = Arrays.copyOf(leitzahlen, nummer + 1);
+        neueLeitzahlen[nummer] = bank.getBankleitzahl();
+        Bank[] neueBanken = Arrays.copyOf(banken, nummer + 1);
+        neueBanken[nummer] = bank;
+        leitzahlen = neueLeitzahlen;
+        banken = neueBanken;
+        for (Bank angemeldet : neueBanken) {
+            angemeldet.offeneEinreichen();
+        }
+    }
+
+    /**
+     * @param bankleitzahl eine Bankleitzahl
+     * @return die Nummer der Bank in der Clearingstelle oder -1, wenn sie nicht angemeldet ist
+     */
+    int nummer(long bankleitzahl) {
+        long[] blz = leitzahlen;
+        for (int i = 0; i < blz.length; i++) {
+            if (blz[i] == bankleitzahl)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * stellt eine bereits abgebuchte Überweisung in die Warteschlange
+     *
+     * @param kennung die Kennung der Überweisung bei der sendenden Bank
+     */
+    void einreichen(int vonBank, long vonKontonr, int nachBank, long nachKontonr, long cent, String zweck,
+                    long kennung) {
+        synchronized (stapelSperre) {
+            offen.anhaengen(vonBank, vonKontonr, nachBank, nachKontonr, cent, zweck, kennung);
+        }
+    }
+
+    /**
+     * @return die Anzahl der eingereichten, noch nicht abgerechneten Überweisungen
+     */
+    public int getOffen() {
+        synchronized (stapelSperre) {
+            return offen.anzahl;
+        }
+    }
+
+    /**
+     * @param bankleitzahl die Bankleitzahl einer angemeldeten Bank
+     * @return der Saldo der Bank bei der Clearingstelle: positiv, wenn sie netto mehr
+     * empfangen als gesendet hat
+     * @throws IllegalArgumentException wenn keine Bank mit der Bankleitzahl angemeldet ist
+     */
+    public synchronized double getSaldo(long bankleitzahl) {
+        int nummer = nummer(bankleitzahl);
+        if (nummer < 0)
+            throw new IllegalArgumentException("Bankleitzahl " + bankleitzahl + " ist nicht angemeldet");
+        return Cent.inBetrag(salden[nummer]);
+    }
+
+    /**
+     * @return die Summe der Überweisungen, die weder gutgeschrieben noch zurückgebucht werden
+     * konnten, weil es beide Konten nicht mehr gibt
+     */
+    public synchronized double getVerwahrt() {
+        return Cent.inBetrag(verwahrt);
+    }
+
+    /**
+     * @return die Kennzahlen der letzten Abrechnung oder null, wenn noch keine stattfand
+     */
+    public Clearingabrechnung getLetzteAbrechnung() {
+        return letzteAbrechnung;
+    }
+
+    /**
+     * rechnet alle bis jetzt eingereichten Überweisungen ab: schreibt sie gut oder bucht sie
+     * zurück, gleicht die Salden je Bankenpaar mit dem Nettobetrag aus und wartet, bis die
+     * Gutschriften in den Journalen der Banken gesichert sind; erst danach vermerken die
+     * sendenden Banken die Überweisungen als abgerechnet und sichern den Vermerk. Überweisungen,
+     * die währenddessen eingereicht werden, kommen in die nächste Abrechnung.
+     *
+     * @return die Kennzahlen dieser Abrechnung
+     */
+    public synchronized Clearingabrechnung abrechnen() {
+        long start = System.nanoTime();
+        Stapel stapel;
+        synchronized (stapelSperre) {
+            stapel = offen;
+            offen = abzurechnen;
+            abzurechnen = stapel;
+        }
+        Bank[] b = banken;
+        int n = b.length;
+        // netto[von * n + nach]: Summe der gutgeschriebenen Überweisungen von Bank von an Bank nach
+        long[] netto = new long[n * n];
+        long[] positionen = new long[n];
+        long zeitpunkt = System.currentTimeMillis();
+        int gutgeschrieben = 0;
+        int zurueckgebucht = 0;
+        int unzustellbar = 0;
+        long brutto = 0;
+        for (int i = 0; i < stapel.anzahl; i++) {
+            int von = stapel.vonBank[i];
+            int nach = stapel.nachBank[i];
+            long cent = stapel.cent[i];
+            long kennung = stapel.kennung[i];
+            long position = b[nach].clearingGutschreiben(stapel.nachKontonr[i], leitzahlen[von],
+                    stapel.vonKontonr[i], cent, stapel.zweck[i], zeitpunkt, leitzahlen[von], kennung);
+            if (position >= 0) {
+                positionen[nach] = Math.max(positionen[nach], position);
+                netto[von * n + nach] += cent;
+                brutto += cent;
+                gutgeschrieben++;
+                continue;
+            }
+            position = b[von].clearingGutschreiben(stapel.vonKontonr[i], leitzahlen[nach],
+                    stapel.nachKontonr[i], cent, RUECKBUCHUNG, zeitpunkt, leitzahlen[von], kennung);
+            if (position >= 0) {
+                positionen[von] = Math.max(positionen[von], position);
+                zurueckgebucht++;
+            } else {
+                // auch das sendende Konto gibt es nicht mehr; der Betrag bleibt bei der Clearingstelle
+                unzustellbar++;
+                verwahrt += cent;
+            }
+        }
+        int ausgleiche = 0;
+        long nettoSumme = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                long differenz = netto[i * n + j] - netto[j * n + i];
+                if (differenz != 0) {
+                    salden[i] -= differenz;
+                    salden[j] += differenz;
+                    nettoSumme += Math.abs(differenz);
+                    ausgleiche++;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            b[i].clearingSichern(positionen[i]);
+        }
+        abgerechnetVermerken(stapel, b);
+        stapel.leeren();
+        Clearingabrechnung abrechnung = new Clearingabrechnung(gutgeschrieben, zurueckgebucht, unzustellbar,
+                ausgleiche, brutto, nettoSumme, System.nanoTime() - start);
+        letzteAbrechnung = abrechnung;
+        return abrechnung;
+    }
+
+    /**
+     * führt die Aktion aus, während keine Abrechnung läuft, z.B. um die Position eines
+     * Sicherungspunkts festzuhalten
+     *
+     * @param aktion die Aktion
+     * @return ihr Ergebnis
+     */
+    synchronized long zwischenAbrechnungen(LongSupplier aktion) {
+        return aktion.getAsLong();
+    }
+
+    /**
+     * übergibt jeder sendenden Bank die Kennungen ihrer abgerechneten Überweisungen, auch der
+     * unzustellbaren
+     */
+    private static void abgerechnetVermerken(Stapel stapel, Bank[] b) {
+        int[] beginn = new int[b.length + 1];
+        for (int i = 0; i < stapel.anzahl; i++) {
+            beginn[stapel.vonBank[i] + 1]++;
+        }
+        for (int i = 0; i < b.length; i++) {
+            beginn[i + 1] += beginn[i];
+        }
+        long[] kennungen = new long[stapel.anzahl];
+        int[] naechste = Arrays.copyOf(beginn, b.length);
+        for (int i = 0; i < stapel.anzahl; i++) {
+            kennungen[naechste[stapel.vonBank[i]]++] = stapel.kennung[i];
+        }
+        for (int i = 0; i < b.length; i++) {
+            if (beginn[i + 1] > beginn[i])
+                b[i].clearingAbgerechnet(kennungen, beginn[i], beginn[i + 1]);
+        }
+    }
+
+    /**
+     * rechnet ab jetzt in einem eigenen Daemon-Thread im angegebenen Takt ab
+     *
+     * @param takt der Abstand zwischen zwei Abrechnungen
+     * @throws IllegalArgumentException wenn takt null oder nicht positiv ist
+     * @throws IllegalStateException    wenn der Takt schon läuft
+     */
+    public synchronized void starten(Duration takt) {
+        if (takt == null || takt.isNegative() || takt.isZero())
+            throw new IllegalArgumentException("Der Takt muss positiv sein!");
+        if (zeitplaner != null)
+            throw new IllegalStateException("Die Clearingstelle rechnet schon im Takt ab");
+        zeitplaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Clearingstelle");
+            t.setDaemon(true);
+            return t;
+        });
+        zeitplaner.scheduleWithFixedDelay(this::abrechnen, takt.toNanos(), takt.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * hält den Takt an und rechnet die noch offenen Überweisungen ab
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService laufend;
+        synchronized (this) {
+            laufend = zeitplaner;
+            zeitplaner = null;
+        }
+        if (laufend != null) {
+            laufend.shutdown();
+            try {
+                laufend.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        abrechnen();
+    }
+
+    /**
+     * eingereichte Überweisungen in parallelen Feldern, damit das Einreichen nur beim
+     * Vergrößern Objekte anlegt
+     */
+    private static final class Stapel {
+        int anzahl;
+        int[] vonBank = new int[1024];
+        long[] vonKontonr = new long[1024];
+        int[] nachBank = new int[1024];
+        long[] nachKontonr = new long[1024];
+        long[] cent = new long[1024];
+        String[] zweck = new String[1024];
+        long[] kennung = new long[1024];
+
+        void anhaengen(int von, long vonNr, int nach, long nachNr, long betrag, String verwendungszweck,
+                       long ueberweisung) {
+            if (anzahl == cent.length) {
+                int neu = anzahl + (anzahl >> 1);
+                vonBank = Arrays.copyOf(vonBank, neu);
+                vonKontonr = Arrays.copyOf(vonKontonr, neu);
+                nachBank = Arrays.copyOf(nachBank, neu);
+                nachKontonr = Arrays.copyOf(nachKontonr, neu);
+                cent = Arrays.copyOf(cent, neu);
+                zweck = Arrays.copyOf(zweck, neu);
+                kennung = Arrays.copyOf(kennung, neu);
+            }
+            vonBank[anzahl] = von;
+            vonKontonr[anzahl] = vonNr;
+            nachBank[anzahl] = nach;
+            nachKontonr[anzahl] = nachNr;
+            cent[anzahl] = betrag;
+            zweck[anzahl] = verwendungszweck;
+            kennung[anzahl] = ueberweisung;
+            anzahl++;
+        }
+
+        void leeren() {
+            Arrays.fill(zweck, 0, anzahl, null);
+            anzahl = 0;
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * ordnet Kontonummern ihren Konten zu, ohne die Kontonummern in Long-Objekte zu verpacken.
+ * Die Schlüssel liegen in einem long-Array, die Konten in einem parallelen Array;
+ * Kollisionen werden durch lineares Sondieren aufgelöst (offene Adressierung),
+ * gelöschte Einträge durch Rückwärtsverschieben entfernt, so dass keine Grabsteine entstehen.
+ * Für das Lesen in aufsteigender Reihenfolge liegen die Kontonummern zusätzlich in sortierten
+ * Blöcken, die beim Einfügen und Löschen fortgeschrieben werden.
+ * <p>
+ * Lesen ist ohne Sperre möglich: Lesende versuchen es zuerst optimistisch und
+ * wiederholen den Zugriff nur dann unter der Lesesperre, wenn währenddessen geschrieben wurde.
+ * Schreibende Zugriffe (Einfügen, Löschen) sind untereinander serialisiert.
+ * null als Konto ist nicht erlaubt.
+ */
+public class KontenIndex {
+    /**
+     * Anfangsgröße der Tabelle, muss eine Zweierpotenz sein
+     */
+    private static final int ANFANGSKAPAZITAET = 16;
+
+    /**
+     * die Tabelle wird vergrößert, bevor sie zu mehr als der Hälfte gefüllt ist
+     */
+    private static final int MAXIMALE_FUELLUNG_PROZENT = 50;
+
+    /**
+     * Schlüssel und Werte; wird beim Vergrößern als Ganzes ersetzt, damit Lesende
+     * nie ein neues Schlüssel-Array mit einem alten Werte-Array kombinieren
+     */
+    private static final class Tabelle {
+        final long[] schluessel;
+        final Konto[] werte;
+
+        Tabelle(int kapazitaet) {
+            schluessel = new long[kapazitaet];
+            werte = new Konto[kapazitaet];
+        }
+    }
+
+    private final StampedLock sperre = new StampedLock();
+    private Tabelle tabelle = new Tabelle(ANFANGSKAPAZITAET);
+    private int anzahl;
+
+    /**
+     * die Kontonummern aufsteigend; nur unter der Sperre verwenden
+     */
+    private final Nummernfolge folge = new Nummernfolge();
+
+    /**
+     * Anzahl der Konten, die beim aufsteigenden Lesen unter einer Lesesperre gelesen werden,
+     * bevor sie für Schreibende kurz freigegeben wird
+     */
+    private static final int NUMMERN_PRO_SPERRE = 1024;
+
+    /**
+     * höchste Anzahl Kontonummern in einem Block der {@link Nummernfolge}
+     */
+    static final int BLOCKGROESSE = 1024;
+
+    /**
+     * vergrößert die Tabelle vorab so, dass die angegebene Anzahl Einträge ohne
+     * weiteres Vergrößern Platz hat, z.B. vor dem Laden eines Sicherungspunkts
+     *
+     * @param anzahl die erwartete Anzahl der Einträge
+     */
+    public void kapazitaetSicherstellen(long anzahl) {
+        long stempel = sperre.writeLock();
+        try {
+            while ((long) tabelle.werte.length * MAXIMALE_FUELLUNG_PROZENT < anzahl * 100
+                    && tabelle.werte.length < 1 << 30) {
+                vergroessern();
+            }
+        } finally {
+            sperre.unlockWrite(stempel);
+        }
+    }
+
+    /**
+     * liefert das Konto mit der angegebenen Kontonummer
+     *
+     * @param nummer die Kontonummer
+     * @return das Konto oder null, wenn es keines gibt
+     */
+    public Konto get(long nummer) {
+        long stempel = sperre.tryOptimisticRead();
+        Konto konto = suchen(tabelle, nummer);
+        if (sperre.validate(stempel))
+            return konto;
+        stempel = sperre.readLock();
+        try {
+            return suchen(tabelle, nummer);
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn es ein Konto mit dieser Nummer gibt
+     */
+    public boolean containsKey(long nummer) {
+        return get(nummer) != null;
+    }
+
+    /**
+     * ordnet der Kontonummer das Konto zu
+     *
+     * @param nummer die Kontonummer
+     * @param konto  das Konto
+     * @return das bisher zugeordnete Konto oder null
+     * @throws IllegalArgumentException wenn konto null ist
+     */
+    public Konto put(long nummer, Konto konto) {
+        return einfuegen(nummer, konto, true);
+    }
+
+    /**
+     * ordnet der Kontonummer das Konto zu, wenn sie noch frei ist
+     *
+     * @param nummer die Kontonummer
+     * @param konto  das Konto
+     * @return das bereits zugeordnete Konto oder null, wenn konto eingefügt wurde
+     * @throws IllegalArgumentException wenn konto null ist
+     */
+    public Konto putIfAbsent(long nummer, Konto konto) {
+        return einfuegen(nummer, konto, false);
+    }
+
+    /**
+     * entfernt die Kontonummer
+     *
+     * @param nummer die Kontonummer
+     * @return das bisher zugeordnete Konto oder null, wenn es keines gab
+     */
+    public Konto remove(long nummer) {
+        long stempel = sperre.writeLock();
+        try {
+            Tabelle t = tabelle;
+            int maske = t.werte.length - 1;
+            int platz = streuen(nummer) & maske;
+            while (t.werte[platz] != null && t.schluessel[platz] != nummer) {
+                platz = (platz + 1) & maske;
+            }
+            Konto alt = t.werte[platz];
+            if (alt == null)
+                return null;
+            // nachfolgende Einträge derselben Sondierungskette in die Lücke ziehen
+            int luecke = platz;
+            int naechster = (luecke + 1) & maske;
+            while (t.werte[naechster] != null) {
+                int heimat = streuen(t.schluessel[naechster]) & maske;
+                // der Eintrag darf in die Lücke, wenn seine Heimat nicht zwischen Lücke und ihm liegt
+                if (((naechster - heimat) & maske) >= ((naechster - luecke) & maske)) {
+                    t.schluessel[luecke] = t.schluessel[naechster];
+                    t.werte[luecke] = t.werte[naechster];
+                    luecke = naechster;
+                }
+                naechster = (naechster + 1) & maske;
+            }
+            t.werte[luecke] = null;
+            t.schluessel[luecke] = 0;
+            anzahl--;
+            folge.entfernen(nummer);
+            return alt;
+        } finally {
+            sperre.unlockWrite(stempel);
+        }
+    }
+
+    /**
+     * @return Anzahl der Einträge
+     */
+    public int size() {
+        long stempel = sperre.tryOptimisticRead();
+        int ergebnis = anzahl;
+        if (sperre.validate(stempel))
+            return ergebnis;
+        stempel = sperre.readLock();
+        try {
+            return anzahl;
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * liefert alle Kontonummern, ohne sie zu verpacken. Grundlage ist ein
+     * Schnappschuss zum Zeitpunkt des Aufrufs, spätere Änderungen sind nicht enthalten.
+     *
+     * @return die Kontonummern in keiner bestimmten Reihenfolge
+     */
+    public LongStream kontonummern() {
+        long stempel = sperre.readLock();
+        try {
+            Tabelle t = tabelle;
+            long[] nummern = new long[anzahl];
+            int i = 0;
+            for (int platz = 0; platz < t.werte.length; platz++) {
+                if (t.werte[platz] != null)
+                    nummern[i++] = t.schluessel[platz];
+            }
+            return LongStream.of(nummern);
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * ruft die Aktion für jedes Konto mit seiner Kontonummer auf. Grundlage ist ein
+     * Schnappschuss zum Zeitpunkt des Aufrufs; die Aktion läuft ohne Sperre des Index
+     * und darf den Index daher auch verändern.
+     *
+     * @param aktion wird mit Konto und Kontonummer aufgerufen
+     */
+    public void fuerAlle(ObjLongConsumer<Konto> aktion) {
+        long[] nummern;
+        Konto[] konten;
+        long stempel = sperre.readLock();
+        try {
+            Tabelle t = tabelle;
+            nummern = new long[anzahl];
+            konten = new Konto[anzahl];
+            int i = 0;
+            for (int platz = 0; platz < t.werte.length; platz++) {
+                if (t.werte[platz] != null) {
+                    nummern[i] = t.schluessel[platz];
+                    konten[i++] = t.werte[platz];
+                }
+            }
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+        for (int i = 0; i < nummern.length; i++) {
+            aktion.accept(konten[i], nummern[i]);
+        }
+    }
+
+    /**
+     * liest die Konten mit den nächsten Kontonummern größer als nachNummer in aufsteigender
+     * Reihenfolge, höchstens so viele wie in die Arrays passen. Die Stelle von nachNummer wird
+     * in den sortierten Blöcken mit binärer Suche gefunden; der Aufwand hängt also nur
+     * logarithmisch von der Anzahl der Konten ab und gar nicht von der Spanne ihrer Nummern,
+     * und gleichzeitiges Einfügen oder Löschen macht nichts ungültig, was neu sortiert werden müsste.
+     * <p>
+     * Jedes Konto, das während des gesamten Lesens vorhanden ist, wird genau einmal geliefert,
+     * auch wenn gleichzeitig andere Konten eingefügt oder gelöscht werden.
+     *
+     * @param nachNummer die zuletzt gelesene Kontonummer, {@link Long#MIN_VALUE} für den Anfang
+     * @param nummern    nimmt die gefundenen Kontonummern auf
+     * @param konten     nimmt die zugehörigen Konten auf, gleich lang wie nummern
+     * @return Anzahl der gelesenen Konten; ist sie kleiner als die Länge der Arrays,
+     * gibt es keine weiteren Konten
+     * @throws IllegalArgumentException wenn die Arrays unterschiedlich lang sind
+     */
+    public int aufsteigendLesen(long nachNummer, long[] nummern, Konto[] konten) {
+        return bereichLesen(nachNummer, Long.MAX_VALUE, nummern, konten);
+    }
+
+    /**
+     * wie {@link #aufsteigendLesen(long, long[], Konto[])}, liest aber nur Kontonummern bis
+     * einschließlich bisNummer. So lässt sich der Nummernbereich in Teile zerlegen, die
+     * unabhängig voneinander gelesen werden.
+     *
+     * @param nachNummer die zuletzt gelesene Kontonummer, {@link Long#MIN_VALUE} für den Anfang
+     * @param bisNummer  die größte zu lesende Kontonummer
+     * @param nummern    nimmt die gefundenen Kontonummern auf
+     * @param konten     nimmt die zugehörigen Konten auf, gleich lang wie nummern
+     * @return Anzahl der gelesenen Konten; ist sie kleiner als die Länge der Arrays,
+     * gibt es im Bereich keine weiteren Konten
+     * @throws IllegalArgumentException wenn die Arrays unterschiedlich lang sind
+     */
+    public int bereichLesen(long nachNummer, long bisNummer, long[] nummern, Konto[] konten) {
+        if (nummern.length != konten.length)
+            throw new IllegalArgumentException("Die Arrays müssen gleich lang sein!");
+        int gelesen = 0;
+        long naechste = nachNummer;
+        while (gelesen < nummern.length) {
+            long stempel = sperre.readLock();
+            try {
+                int bis = Math.min(nummern.length, gelesen + NUMMERN_PRO_SPERRE);
+                int neu = folge.lesen(naechste, bisNummer, nummern, gelesen, bis);
+                Tabelle t = tabelle;
+                for (int i = gelesen; i < gelesen + neu; i++) {
+                    konten[i] = suchen(t, nummern[i]);
+                }
+                gelesen += neu;
+                if (gelesen < bis)
+                    return gelesen;
+                naechste = nummern[gelesen - 1];
+            } finally {
+                sperre.unlockRead(stempel);
+            }
+        }
+        return gelesen;
+    }
+
+    /**
+     * liefert alle Kontonummern aufsteigend sortiert. Grundlage ist ein Schnappschuss zum
+     * Zeitpunkt des Aufrufs.
+     *
+     * @return die Kontonummern aufsteigend
+     */
+    public long[] kontonummernSortiert() {
+        long stempel = sperre.readLock();
+        try {
+            return folge.alle(anzahl);
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * @return die kleinste vorhandene Kontonummer, {@link Long#MAX_VALUE} wenn es keine gibt
+     */
+    public long getKleinsteNummer() {
+        long stempel = sperre.readLock();
+        try {
+            return folge.kleinste();
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * @return die größte vorhandene Kontonummer, {@link Long#MIN_VALUE} wenn es keine gibt
+     */
+    public long getGroessteNummer() {
+        long stempel = sperre.readLock();
+        try {
+            return folge.groesste();
+        } finally {
+            sperre.unlockRead(stempel);
+        }
+    }
+
+    /**
+     * verteilt Kontonummern gleichmäßig über eine Hashtabelle (Fibonacci-Hashing)
+     *
+     * @param nummer die Kontonummer
+     * @return ein gut gestreuter Hashwert
+     */
+    static int streuen(long nummer) {
+        long h = nummer * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * sucht die Nummer in der Tabelle. Wird auch ohne Sperre aufgerufen; die Anzahl
+     * der Sondierungen ist daher begrenzt, falls die Tabelle gerade verändert wird.
+     */
+    private static Konto suchen(Tabelle t, long nummer) {
+        long[] schluessel = t.schluessel;
+        Konto[] werte = t.werte;
+        int maske = werte.length - 1;
+        int platz = streuen(nummer) & maske;
+        for (int versuche = 0; versuche <= maske; versuche++) {
+            Konto konto = werte[platz];
+            if (konto == null)
+                return null;
+            if (schluessel[platz] == nummer)
+                return konto;
+            platz = (platz + 1) & maske;
+        }
+        return null;
+    }
+
+    private Konto einfuegen(long nummer, Konto konto, boolean ersetzen) {
+        if (konto == null)
+            throw new IllegalArgumentException("Das Konto darf nicht null sein!");
+        long stempel = sperre.writeLock();
+        try {
+            Tabelle t = tabelle;
+            int maske = t.werte.length - 1;
+            int platz = streuen(nummer) & maske;
+            while (t.werte[platz] != null) {
+                if (t.schluessel[platz] == nummer) {
+                    Konto alt = t.werte[platz];
+                    if (ersetzen)
+                        t.werte[platz] = konto;
+                    return alt;
+                }
+                platz = (platz + 1) & maske;
+            }
+            t.schluessel[platz] = nummer;
+            t.werte[platz] = konto;
+            anzahl++;
+            folge.einfuegen(nummer);
+            if (anzahl * 100L > (long) t.werte.length * MAXIMALE_FUELLUNG_PROZENT)
+                vergroessern();
+            return null;
+        } finally {
+            sperre.unlockWrite(stempel);
+        }
+    }
+
+    /**
+     * verdoppelt die Tabelle; wird unter der Schreibsperre aufgerufen
+     */
+    private void vergroessern() {
+        Tabelle alt = tabelle;
+        Tabelle neu = new Tabelle(alt.werte.length * 2);
+        int maske = neu.werte.length - 1;
+        for (int i = 0; i < alt.werte.length; i++) {
+            if (alt.werte[i] != null) {
+                int platz = streuen(alt.schluessel[i]) & maske;
+                while (neu.werte[platz] != null) {
+                    platz = (platz + 1) & maske;
+                }
+                neu.schluessel[platz] = alt.schluessel[i];
+                neu.werte[platz] = alt.werte[i];
+            }
+        }
+        tabelle = neu;
+    }
+
+    /**
+     * die Kontonummern aufsteigend in sortierten Blöcken von höchstens {@link #BLOCKGROESSE}
+     * Nummern. Einfügen und Löschen verschieben nur innerhalb eines Blocks, ein voller Block wird
+     * geteilt, ein fast leerer mit seinem Nachbarn zusammengelegt; der Speicher wächst und
+     * schrumpft so mit der Anzahl der Nummern. Nicht threadsicher, der Index hält seine Sperre.
+     */
+    private static final class Nummernfolge {
+        private long[][] bloecke = new long[4][];
+        private int[] laengen = new int[4];
+        private int anzahlBloecke;
+
+        /**
+         * @return der Index des letzten Blocks, dessen erste Nummer nicht größer als nummer ist,
+         * oder 0; es muss mindestens einen Block geben
+         */
+        private int block(long nummer) {
+            int unten = 0;
+            int oben = anzahlBloecke - 1;
+            while (unten < oben) {
+                int mitte = (unten + oben + 1) >>> 1;
+                if (bloecke[mitte][0] <= nummer)
+                    unten = mitte;
+                else
+                    oben = mitte - 1;
+            }
+            return unten;
+        }
+
+        /**
+         * fügt eine Nummer ein, die noch nicht enthalten ist
+         */
+        void einfuegen(long nummer) {
+            if (anzahlBloecke == 0) {
+                blockEinfuegen(0, neuerBlock(nummer), 1);
+                return;
+            }
+            int b = block(nummer);
+            long[] block = bloecke[b];
+            int laenge = laengen[b];
+            int stelle = -Arrays.binarySearch(block, 0, laenge, nummer) - 1;
+            if (laenge == BLOCKGROESSE) {
+                if (stelle == laenge && b == anzahlBloecke - 1) {
+                    // fortlaufende Vergabe: einen neuen Block beginnen, statt den vollen zu teilen
+                    blockEinfuegen(b + 1, neuerBlock(nummer), 1);
+                    return;
+                }
+                int haelfte = BLOCKGROESSE / 2;
+                long[] rechts = new long[BLOCKGROESSE];
+                System.arraycopy(block, haelfte, rechts, 0, BLOCKGROESSE - haelfte);
+                laengen[b] = haelfte;
+                blockEinfuegen(b + 1, rechts, BLOCKGROESSE - haelfte);
+                if (stelle > haelfte) {
+                    b++;
+                    stelle -= haelfte;
+                    block = rechts;
+                }
+                laenge = laengen[b];
+            } else if (laenge == block.length) {
+                block = Arrays.copyOf(block, Math.min(BLOCKGROESSE, 2 * laenge));
+                bloecke[b] = block;
+            }
+            System.arraycopy(block, stelle, block, stelle + 1, laenge - stelle);
+            block[stelle] = nummer;
+            laengen[b]++;
+        }
+
+        /**
+         * entfernt die Nummer, wenn sie enthalten ist
+         */
+        void entfernen(long nummer) {
+            if (anzahlBloecke == 0)
+                return;
+            int b = block(nummer);
+            long[] block = bloecke[b];
+            int stelle = Arrays.binarySearch(block, 0, laengen[b], nummer);
+            if (stelle < 0)
+                return;
+            System.arraycopy(block, stelle + 1, block, stelle, laengen[b] - stelle - 1);
+            laengen[b]--;
+            if (laengen[b] == 0) {
+                blockEntfernen(b);
+            } else if (laengen[b] < BLOCKGROESSE / 4) {
+                if (b + 1 < anzahlBloecke && laengen[b] + laengen[b + 1] <= BLOCKGROESSE)
+                    zusammenlegen(b);
+                else if (b > 0 && laengen[b - 1] + laengen[b] <= BLOCKGROESSE)
+                    zusammenlegen(b - 1);
+            }
+        }
+
+        /**
+         * liest ab der Stelle ab bis vor die Stelle bis die Nummern größer als nachNummer und
+         * höchstens bisNummer
+         *
+         * @return Anzahl der gelesenen Nummern
+         */
+        int lesen(long nachNummer, long bisNummer, long[] ziel, int ab, int bis) {
+            if (anzahlBloecke == 0)
+                return 0;
+            int b = block(nachNummer);
+            int stelle = Arrays.binarySearch(bloecke[b], 0, laengen[b], nachNummer);
+            stelle = stelle >= 0 ? stelle + 1 : -stelle - 1;
+            int gelesen = 0;
+            while (ab + gelesen < bis && b < anzahlBloecke) {
+                if (stelle == laengen[b]) {
+                    b++;
+                    stelle = 0;
+                    continue;
+                }
+                long nummer = bloecke[b][stelle++];
+                if (nummer > bisNummer)
+                    break;
+                ziel[ab + gelesen++] = nummer;
+            }
+            return gelesen;
+        }
+
+        /**
+         * @return alle Nummern aufsteigend
+         */
+        long[] alle(int anzahl) {
+            long[] alle = new long[anzahl];
+            int i = 0;
+            for (int b = 0; b < anzahlBloecke; b++) {
+                System.arraycopy(bloecke[b], 0, alle, i, laengen[b]);
+                i += laengen[b];
+            }
+            return alle;
+        }
+
+        long kleinste() {
+            return anzahlBloecke == 0 ? Long.MAX_VALUE : bloecke[0][0];
+        }
+
+        long groesste() {
+            return anzahlBloecke == 0 ? Long.MIN_VALUE : bloecke[anzahlBloecke - 1][laengen[anzahlBloecke - 1] - 1];
+        }
+
+        /**
+         * @return ein kleiner Block, der nur die Nummer enthält; wächst bei Bedarf bis {@link #BLOCKGROESSE}
+         */
+        private static long[] neuerBlock(long nummer) {
+            long[] block = new long[16];
+            block[0] = nummer;
+            return block;
+        }
+
+        /**
+         * fügt an der Stelle b einen Block mit der angegebenen Anzahl Nummern ein
+         */
+        private void blockEinfuegen(int b, long[] block, int laenge) {
+            if (anzahlBloecke == bloecke.length) {
+                bloecke = Arrays.copyOf(bloecke, 2 * anzahlBloecke);
+                laengen = Arrays.copyOf(laengen, 2 * anzahlBloecke);
+            }
+            System.arraycopy(bloecke, b, bloecke, b + 1, anzahlBloecke - b);
+            System.arraycopy(laengen, b, laengen, b + 1, anzahlBloecke - b);
+            bloecke[b] = block;
+            laengen[b] = laenge;
+            anzahlBloecke++;
+        }
+
+        private void blockEntfernen(int b) {
+            System.arraycopy(bloecke, b + 1, bloecke, b, anzahlBloecke - b - 1);
+            System.arraycopy(laengen, b + 1, laengen, b, anzahlBloecke - b - 1);
+            anzahlBloecke--;
+            bloecke[anzahlBloecke] = null;
+        }
+
+        /**
+         * hängt den Block b + 1 an den Block b an
+         */
+        private void zusammenlegen(int b) {
+            int laenge = laengen[b] + laengen[b + 1];
+            if (bloecke[b].length < laenge)
+                bloecke[b] = Arrays.copyOf(bloecke[b], BLOCKGROESSE);
+            System.arraycopy(bloecke[b + 1], 0, bloecke[b], laengen[b], laengen[b + 1]);
+            laengen[b] = laenge;
+            blockEntfernen(b + 1);
+        }
+    }
+}
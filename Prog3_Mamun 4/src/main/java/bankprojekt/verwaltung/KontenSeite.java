@@ -0,0 +1,68 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * eine Seite der nach Kontonummer sortierten Kontenliste einer Bank.
+ * Die nächste Seite erhält man, indem man {@link #getCursor()} an
+ * {@link Bank#getKontenSeite(long, int)} übergibt.
+ */
+public final class KontenSeite {
+    /**
+     * Cursor für die erste Seite
+     */
+    public static final long ANFANG = Long.MIN_VALUE;
+
+    private final long[] kontonummern;
+    private final List<Konto> konten;
+    private final boolean weitere;
+    private final long cursor;
+
+    KontenSeite(long nachNummer, long[] kontonummern, Konto[] konten, int anzahl, boolean weitere) {
+        this.cursor = anzahl == 0 ? nachNummer : kontonummern[anzahl - 1];
+        this.kontonummern = Arrays.copyOf(kontonummern, anzahl);
+        this.konten = Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(konten, anzahl)));
+        this.weitere = weitere;
+    }
+
+    /**
+     * @return die Kontonummern dieser Seite in aufsteigender Reihenfolge
+     */
+    public long[] getKontonummern() {
+        return kontonummern.clone();
+    }
+
+    /**
+     * @return die Konten dieser Seite in derselben Reihenfolge wie {@link #getKontonummern()}
+     */
+    public List<Konto> getKonten() {
+        return konten;
+    }
+
+    /**
+     * @return Anzahl der Konten auf dieser Seite
+     */
+    public int getAnzahl() {
+        return kontonummern.length;
+    }
+
+    /**
+     * @return true, wenn es nach dieser Seite noch weitere Konten gibt
+     */
+    public boolean hatWeitere() {
+        return weitere;
+    }
+
+    /**
+     * liefert den Cursor für die nächste Seite, d.h. die letzte Kontonummer dieser Seite
+     *
+     * @return der Cursor, auf einer leeren Seite der Cursor, mit dem sie abgerufen wurde
+     */
+    public long getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,158 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ein Lauf, der alle Konten einer Bank einzeln bearbeitet, z.B. eine Währungsumstellung
+ * oder eine Zinsgutschrift.
+ * <p>
+ * Beim Start werden die vorhandenen Kontonummern aufsteigend kopiert; diese Liste wird
+ * rekursiv halbiert, bis ein Teil höchstens {@value #KONTEN_PRO_TEIL} Konten umfasst, so dass
+ * die Anzahl der Teile nur von der Anzahl der Konten abhängt, nicht von der Spanne ihrer
+ * Nummern. Die Teile werden in einem {@link ForkJoinPool} parallel bearbeitet, der Durchsatz
+ * wächst also mit der Anzahl der Kerne. Jeder Teil schlägt seine Konten im {@link KontenIndex}
+ * nach und sichert das Journal erst nach dem letzten Konto einmal für alle seine Einträge.
+ * Die Unterklasse bearbeitet jedes Konto unter seiner Sperre, alle anderen Operationen der
+ * Bank laufen währenddessen weiter.
+ * Bearbeitet werden die Konten, die es beim Start gibt und die bis zu ihrer Bearbeitung
+ * nicht gelöscht werden; Mock-Konten werden übersprungen.
+ */
+public abstract class Kontenlauf {
+    /**
+     * Anzahl der Konten, die ein Teil höchstens umfasst
+     */
+    static final int KONTEN_PRO_TEIL = 4096;
+
+    private final KontenIndex kontenliste;
+    /**
+     * die Kontonummern beim Start, aufsteigend
+     */
+    private final long[] nummern;
+    /**
+     * nimmt die Änderungen auf, null wenn die Bank nur im Speicher arbeitet
+     */
+    final Journal journal;
+    private final long gesamt;
+    private final LongAdder bearbeitet = new LongAdder();
+    private final long beginn = System.nanoTime();
+    private volatile long ende;
+    private ForkJoinTask<?> aufgabe;
+
+    Kontenlauf(KontenIndex kontenliste, Journal journal) {
+        this.kontenliste = kontenliste;
+        this.journal = journal;
+        this.nummern = kontenliste.kontonummernSortiert();
+        this.gesamt = nummern.length;
+    }
+
+    /**
+     * beginnt den Lauf im Pool
+     */
+    void starten(ForkJoinPool pool) {
+        aufgabe = pool.submit(() -> {
+            new Teil(0, nummern.length).invoke();
+            ende = System.nanoTime();
+        });
+    }
+
+    /**
+     * bearbeitet ein Konto; wird für jedes Konto genau einmal aus einem der Threads des Pools aufgerufen
+     *
+     * @param konto das Konto
+     * @return die Position hinter dem Journaleintrag des Kontos oder 0, wenn nichts geschrieben wurde
+     */
+    abstract long bearbeiten(Konto konto);
+
+    /**
+     * @return Anzahl der Konten beim Start
+     */
+    public long getGesamt() {
+        return gesamt;
+    }
+
+    /**
+     * @return Anzahl der bisher bearbeiteten Konten
+     */
+    public long getBearbeitet() {
+        return bearbeitet.sum();
+    }
+
+    /**
+     * @return Anteil der bearbeiteten Konten zwischen 0 und 1; kann wegen gleichzeitig
+     * eröffneter oder gelöschter Konten vor dem Ende schon 1 erreichen
+     */
+    public double getFortschritt() {
+        if (isFertig() || gesamt == 0)
+            return 1;
+        return Math.min(1, getBearbeitet() / (double) gesamt);
+    }
+
+    /**
+     * @return Dauer des Laufs in Nanosekunden, bis jetzt, wenn er noch läuft
+     */
+    public long getDauerNanos() {
+        long e = ende;
+        return (e == 0 ? System.nanoTime() : e) - beginn;
+    }
+
+    /**
+     * @return true, wenn alle Konten bearbeitet sind oder der Lauf abgebrochen ist
+     */
+    public boolean isFertig() {
+        return aufgabe.isDone();
+    }
+
+    /**
+     * wartet auf das Ende des Laufs
+     *
+     * @throws RuntimeException die Ausnahme, mit der der Lauf abgebrochen ist
+     */
+    public void abwarten() {
+        aufgabe.join();
+    }
+
+    /**
+     * ein Teil der Kontonummern beim Start, von einschließlich bis ausschließlich
+     */
+    private final class Teil extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int von;
+        private final int bis;
+
+        Teil(int von, int bis) {
+            this.von = von;
+            this.bis = bis;
+        }
+
+        @Override
+        protected void compute() {
+            if (bis - von > KONTEN_PRO_TEIL) {
+                int mitte = (von + bis) >>> 1;
+                invokeAll(new Teil(von, mitte), new Teil(mitte, bis));
+            } else {
+                teilBearbeiten();
+            }
+        }
+
+        private void teilBearbeiten() {
+            long position = 0;
+            for (int i = von; i < bis; i++) {
+                Konto konto = kontenliste.get(nummern[i]);
+                // gelöschte Konten fehlen, Mock-Konten stehen unter einer anderen Nummer
+                if (konto != null && konto.getKontonummer() == nummern[i]) {
+                    position = Math.max(position, bearbeiten(konto));
+                    bearbeitet.increment();
+                }
+            }
+            if (journal != null)
+                journal.sichern(position);
+        }
+    }
+}
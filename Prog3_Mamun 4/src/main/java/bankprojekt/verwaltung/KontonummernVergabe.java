@@ -0,0 +1,114 @@
+package bankprojekt.verwaltung;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * vergibt Kontonummern streng aufsteigend, d.h. jede neue Nummer ist
+ * die bisher höchste vergebene Nummer + 1.
+ * Die Vergabe kostet O(1) und ist threadsicher. Für Massenimporte können
+ * ganze Nummernblöcke auf einmal reserviert werden. Der Höchststand kann
+ * gespeichert und beim Start wiederhergestellt werden.
+ */
+public class KontonummernVergabe {
+    /**
+     * die bisher höchste vergebene Kontonummer
+     */
+    private final AtomicLong hoechsteNummer;
+
+    /**
+     * erzeugt eine Vergabe, deren erste Nummer 1 ist
+     */
+    public KontonummernVergabe() {
+        this(0);
+    }
+
+    /**
+     * erzeugt eine Vergabe, die nach der angegebenen Nummer weiterzählt
+     *
+     * @param hoechsteNummer die bisher höchste vergebene Kontonummer
+     * @throws IllegalArgumentException wenn hoechsteNummer negativ ist
+     */
+    public KontonummernVergabe(long hoechsteNummer) {
+        if (hoechsteNummer < 0)
+            throw new IllegalArgumentException("Die höchste Kontonummer darf nicht negativ sein!");
+        this.hoechsteNummer = new AtomicLong(hoechsteNummer);
+    }
+
+    /**
+     * liefert die nächste freie Kontonummer
+     *
+     * @return bisher höchste Nummer + 1
+     */
+    public long naechsteNummer() {
+        return hoechsteNummer.incrementAndGet();
+    }
+
+    /**
+     * reserviert anzahl aufeinanderfolgende Kontonummern auf einmal
+     *
+     * @param anzahl Anzahl der benötigten Nummern
+     * @return die erste Nummer des Blocks, der Block reicht bis erste Nummer + anzahl - 1
+     * @throws IllegalArgumentException wenn anzahl nicht positiv ist
+     */
+    public long blockReservieren(int anzahl) {
+        if (anzahl <= 0)
+            throw new IllegalArgumentException("Die Anzahl muss positiv sein!");
+        return hoechsteNummer.getAndAdd(anzahl) + 1;
+    }
+
+    /**
+     * vermerkt eine von außen vergebene Kontonummer, damit sie
+     * nicht noch einmal vergeben wird
+     *
+     * @param nummer die bereits verwendete Kontonummer
+     */
+    public void nummerVermerken(long nummer) {
+        hoechsteNummer.accumulateAndGet(nummer, Math::max);
+    }
+
+    /**
+     * liefert die bisher höchste vergebene Kontonummer
+     *
+     * @return höchste Kontonummer, 0 wenn noch keine vergeben wurde
+     */
+    public long getHoechsteNummer() {
+        return hoechsteNummer.get();
+    }
+
+    /**
+     * speichert den Höchststand in die angegebene Datei. Es wird zuerst eine
+     * temporäre Datei geschrieben und dann umbenannt, damit nach einem Absturz
+     * nie eine halb geschriebene Datei übrig bleibt.
+     *
+     * @param datei Zieldatei
+     * @throws IOException wenn die Datei nicht geschrieben werden kann
+     */
+    public void speichern(Path datei) throws IOException {
+        Path temp = datei.resolveSibling(datei.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(getHoechsteNummer()), StandardCharsets.UTF_8);
+        Files.move(temp, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * stellt eine Vergabe mit dem in der Datei gespeicherten Höchststand her
+     *
+     * @param datei die mit {@link #speichern(Path)} geschriebene Datei
+     * @return die wiederhergestellte Vergabe; gibt es die Datei noch nicht, beginnt sie bei 1
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder keinen gültigen Höchststand enthält
+     */
+    public static KontonummernVergabe laden(Path datei) throws IOException {
+        if (!Files.exists(datei))
+            return new KontonummernVergabe();
+        String inhalt = Files.readString(datei, StandardCharsets.UTF_8).trim();
+        try {
+            return new KontonummernVergabe(Long.parseLong(inhalt));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Ungültiger Höchststand in " + datei + ": " + inhalt, e);
+        }
+    }
+}
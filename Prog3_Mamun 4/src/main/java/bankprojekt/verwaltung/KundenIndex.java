@@ -0,0 +1,217 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.KontoAenderungsBeobachter;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * ordnet den Kunden einer Bank ihre Kontonummern zu und findet Kunden über den Anfang
+ * ihres Namens ("Nachname, Vorname"), ohne die Konten zu durchlaufen.
+ * <p>
+ * Je Kunde wird ein unveränderliches {@link Eintrag} mit den aufsteigend sortierten
+ * Kontonummern gehalten und bei jeder Änderung ersetzt; ein Kunde hat nur wenige Konten,
+ * das Kopieren ist also billig, und Lesende brauchen keine Sperre. Kunden werden wie in
+ * {@link Kunde} selbst nach Identität unterschieden. Die Namen liegen klein geschrieben
+ * sortiert in einer {@link ConcurrentSkipListMap}, eine Suche nach einem Namensanfang
+ * beginnt also beim ersten passenden Namen und endet beim ersten nicht mehr passenden.
+ * <p>
+ * Die Bank nimmt jedes Konto beim Erfassen auf und entfernt es beim Löschen; Inhaberwechsel
+ * erfährt der Index als {@link KontoAenderungsBeobachter} des Kontos, jeweils unter der Sperre
+ * des Kontos. Ändert sich der Name eines Kunden, muss die Bank {@link #umbenennen(Kunde)}
+ * aufrufen; bis dahin wird der Kunde unter seinem neuen Namen nicht gefunden, unter dem alten
+ * auch nicht mehr.
+ */
+final class KundenIndex implements KontoAenderungsBeobachter {
+    private static final long[] KEINE_KONTEN = new long[0];
+
+    /**
+     * die Kontonummern eines Kunden und der Name, unter dem er einsortiert ist
+     */
+    private record Eintrag(String schluessel, long[] konten) {
+    }
+
+    private final ConcurrentHashMap<Kunde, Eintrag> kunden = new ConcurrentHashMap<>();
+    /**
+     * klein geschriebener Name auf die Kunden dieses Namens; Namen sind nicht eindeutig
+     */
+    private final ConcurrentSkipListMap<String, Kunde[]> namen = new ConcurrentSkipListMap<>();
+
+    /**
+     * nimmt das Konto unter seinem Inhaber auf; der Aufrufer hält die Sperre des Kontos
+     *
+     * @param konto das Konto
+     */
+    void aufnehmen(Konto konto) {
+        kontoHinzufuegen(konto.getInhaber(), konto.getKontonummer());
+    }
+
+    /**
+     * entfernt das Konto bei seinem Inhaber; der Aufrufer hält die Sperre des Kontos
+     *
+     * @param konto das Konto
+     */
+    void entfernen(Konto konto) {
+        kontoEntfernen(konto.getInhaber(), konto.getKontonummer());
+    }
+
+    /**
+     * trägt das Konto vom bisherigen beim neuen Inhaber ein; wird unter der Sperre des Kontos aufgerufen
+     */
+    @Override
+    public void inhaberGeaendert(Konto konto, Kunde alt, Kunde neu) {
+        kontoEntfernen(alt, konto.getKontonummer());
+        kontoHinzufuegen(neu, konto.getKontonummer());
+    }
+
+    /**
+     * der Kontostand betrifft den Index nicht
+     */
+    @Override
+    public void kontostandGeaendert(Konto konto, long alt, long neu) {
+    }
+
+    /**
+     * die Währung betrifft den Index nicht
+     */
+    @Override
+    public void waehrungGeaendert(Konto konto, Waehrung altWaehrung, long altKontostand,
+                                  Waehrung neuWaehrung, long neuKontostand) {
+    }
+
+    /**
+     * sortiert den Kunden unter seinem jetzigen Namen ein
+     *
+     * @param kunde der Kunde
+     */
+    void umbenennen(Kunde kunde) {
+        kunden.computeIfPresent(kunde, (k, eintrag) -> {
+            String neu = schluessel(k);
+            if (neu.equals(eintrag.schluessel()))
+                return eintrag;
+            nameEntfernen(eintrag.schluessel(), k);
+            nameHinzufuegen(neu, k);
+            return new Eintrag(neu, eintrag.konten());
+        });
+    }
+
+    /**
+     * @param kunde ein Kunde
+     * @return seine Kontonummern aufsteigend sortiert, leer wenn er kein Konto hat
+     */
+    long[] kontonummern(Kunde kunde) {
+        Eintrag eintrag = kunde == null ? null : kunden.get(kunde);
+        return eintrag == null ? KEINE_KONTEN : eintrag.konten().clone();
+    }
+
+    /**
+     * @return die Anzahl der Kunden mit mindestens einem Konto
+     */
+    int getAnzahlKunden() {
+        return kunden.size();
+    }
+
+    /**
+     * sucht die Kunden, deren Name ("Nachname, Vorname") mit dem Präfix beginnt, ohne
+     * Groß- und Kleinschreibung zu unterscheiden
+     *
+     * @param praefix der Namensanfang, leer für alle Kunden
+     * @param maximal die größte Anzahl gelieferter Kunden
+     * @return die Kunden nach Namen sortiert
+     */
+    List<Kunde> suchen(String praefix, int maximal) {
+        String anfang = praefix.toLowerCase(Locale.ROOT);
+        List<Kunde> gefunden = new ArrayList<>(Math.min(maximal, 16));
+        for (Map.Entry<String, Kunde[]> e : namen.tailMap(anfang).entrySet()) {
+            if (gefunden.size() >= maximal || !e.getKey().startsWith(anfang))
+                break;
+            for (Kunde k : e.getValue()) {
+                // ein umbenannter Kunde steht bis zu umbenennen() noch unter dem alten Namen
+                if (gefunden.size() < maximal && schluessel(k).startsWith(anfang))
+                    gefunden.add(k);
+            }
+        }
+        return gefunden;
+    }
+
+    private void kontoHinzufuegen(Kunde kunde, long nummer) {
+        kunden.compute(kunde, (k, eintrag) -> {
+            if (eintrag == null) {
+                String schluessel = schluessel(k);
+                nameHinzufuegen(schluessel, k);
+                return new Eintrag(schluessel, new long[]{nummer});
+            }
+            long[] konten = eintrag.konten();
+            int stelle = Arrays.binarySearch(konten, nummer);
+            if (stelle >= 0)
+                return eintrag;
+            stelle = -stelle - 1;
+            long[] neu = new long[konten.length + 1];
+            System.arraycopy(konten, 0, neu, 0, stelle);
+            neu[stelle] = nummer;
+            System.arraycopy(konten, stelle, neu, stelle + 1, konten.length - stelle);
+            return new Eintrag(eintrag.schluessel(), neu);
+        });
+    }
+
+    private void kontoEntfernen(Kunde kunde, long nummer) {
+        kunden.computeIfPresent(kunde, (k, eintrag) -> {
+            long[] konten = eintrag.konten();
+            int stelle = Arrays.binarySearch(konten, nummer);
+            if (stelle < 0)
+                return eintrag;
+            if (konten.length == 1) {
+                nameEntfernen(eintrag.schluessel(), k);
+                return null;
+            }
+            long[] neu = new long[konten.length - 1];
+            System.arraycopy(konten, 0, neu, 0, stelle);
+            System.arraycopy(konten, stelle + 1, neu, stelle, neu.length - stelle);
+            return new Eintrag(eintrag.schluessel(), neu);
+        });
+    }
+
+    private static String schluessel(Kunde kunde) {
+        return kunde.getName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * die Funktionen an {@link ConcurrentSkipListMap#compute} können mehrfach aufgerufen
+     * werden und erzeugen deshalb jeweils ein neues Array
+     */
+    private void nameHinzufuegen(String schluessel, Kunde kunde) {
+        namen.compute(schluessel, (s, gleichnamige) -> {
+            if (gleichnamige == null)
+                return new Kunde[]{kunde};
+            Kunde[] neu = Arrays.copyOf(gleichnamige, gleichnamige.length + 1);
+            neu[gleichnamige.length] = kunde;
+            return neu;
+        });
+    }
+
+    private void nameEntfernen(String schluessel, Kunde kunde) {
+        namen.computeIfPresent(schluessel, (s, gleichnamige) -> {
+            int stelle = -1;
+            for (int i = 0; i < gleichnamige.length; i++) {
+                if (gleichnamige[i] == kunde)
+                    stelle = i;
+            }
+            if (stelle < 0)
+                return gleichnamige;
+            if (gleichnamige.length == 1)
+                return null;
+            Kunde[] neu = new Kunde[gleichnamige.length - 1];
+            System.arraycopy(gleichnamige, 0, neu, 0, stelle);
+            System.arraycopy(gleichnamige, stelle + 1, neu, stelle, neu.length - stelle);
+            return neu;
+        });
+    }
+}
@@ -0,0 +1,281 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * führt viele Überweisungen auf einmal aus. Statt jeden Auftrag einzeln
+ * nachzuschlagen und zu sperren, wird
+ * <ol>
+ *     <li>jede beteiligte Kontonummer genau einmal nachgeschlagen,</li>
+ *     <li>die Aufträge in Gruppen zerlegt, die kein Konto gemeinsam haben
+ *     (Zusammenhangskomponenten über die beteiligten Konten),</li>
+ *     <li>jede Gruppe in der ursprünglichen Reihenfolge ihrer Aufträge ausgeführt,
+ *     wobei die Konten von jeweils {@link #SPERRBLOCK} Aufträgen nur einmal gesperrt werden,</li>
+ *     <li>die voneinander unabhängigen Gruppen in wenigen großen Abschnitten parallel ausgeführt.</li>
+ * </ol>
+ * Steht nur ein Prozessor zur Verfügung oder ist die Liste kurz, entfällt die Gruppenbildung
+ * und die Aufträge werden blockweise in ihrer ursprünglichen Reihenfolge ausgeführt.
+ * Da sich die Gruppen kein Konto teilen und innerhalb einer Gruppe die Reihenfolge
+ * erhalten bleibt, ist das Ergebnis dasselbe wie bei einer Ausführung nacheinander.
+ * Die Konten werden wie bei der {@link Ueberweisungsabwicklung} in aufsteigender
+ * Kontonummer gesperrt.
+ * <p>
+ * Mit einem Journal wird jede ausgeführte Überweisung unter den Sperren ihres Blocks
+ * angehängt; gesichert wird nur einmal am Ende der ganzen Sammelüberweisung.
+ */
+final class Sammelueberweisung {
+    /**
+     * Anzahl der Aufträge, deren Konten gemeinsam gesperrt werden
+     */
+    static final int SPERRBLOCK = 16;
+
+    private Sammelueberweisung() {
+    }
+
+    /**
+     * führt alle Aufträge aus
+     *
+     * @param auftraege  die Überweisungsaufträge
+     * @param kontoSuche liefert zu einer Kontonummer das Konto oder null
+     * @return für jeden Auftrag an derselben Position true, wenn er ausgeführt wurde,
+     * sonst false (unbekanntes oder gleiches Konto, gesperrt, ungültiger Betrag,
+     * Kontoregeln verletzt)
+     */
+    static boolean[] ausfuehren(List<Ueberweisungsauftrag> auftraege, LongFunction<Konto> kontoSuche) {
+        return ausfuehren(auftraege, kontoSuche, null);
+    }
+
+    /**
+     * führt alle Aufträge aus und schreibt sie ins Journal
+     *
+     * @param auftraege  die Überweisungsaufträge
+     * @param kontoSuche liefert zu einer Kontonummer das Konto oder null
+     * @param journal    das Journal der Bank oder null
+     * @return für jeden Auftrag an derselben Position true, wenn er ausgeführt wurde
+     */
+    static boolean[] ausfuehren(List<Ueberweisungsauftrag> auftraege, LongFunction<Konto> kontoSuche,
+                                Journal journal) {
+        return ausfuehren(auftraege, kontoSuche, ForkJoinPool.getCommonPoolParallelism(), journal);
+    }
+
+    /**
+     * führt alle Aufträge aus und verteilt sie auf höchstens etwa 4 * parallelitaet Abschnitte
+     *
+     * @param auftraege     die Überweisungsaufträge
+     * @param kontoSuche    liefert zu einer Kontonummer das Konto oder null
+     * @param parallelitaet Anzahl der verfügbaren Threads, bei 1 entfällt die Gruppenbildung
+     * @return für jeden Auftrag an derselben Position true, wenn er ausgeführt wurde
+     */
+    static boolean[] ausfuehren(List<Ueberweisungsauftrag> auftraege, LongFunction<Konto> kontoSuche,
+                                int parallelitaet) {
+        return ausfuehren(auftraege, kontoSuche, parallelitaet, null);
+    }
+
+    private static boolean[] ausfuehren(List<Ueberweisungsauftrag> auftraege, LongFunction<Konto> kontoSuche,
+                                        int parallelitaet, Journal journal) {
+        int anzahlAuftraege = auftraege.size();
+        boolean[] ergebnisse = new boolean[anzahlAuftraege];
+        Ueberweisungsauftrag[] auftrag = auftraege.toArray(new Ueberweisungsauftrag[0]);
+
+        // jede Kontonummer nur einmal nachschlagen; die Konten bekommen fortlaufende Indizes
+        int kapazitaet = Integer.highestOneBit(Math.max(4 * anzahlAuftraege, 4) - 1) << 1;
+        long[] tabellenNummer = new long[kapazitaet];
+        int[] tabellenIndex = new int[kapazitaet];
+        long[] nummern = new long[2 * anzahlAuftraege];
+        int[] von = new int[anzahlAuftraege];
+        int[] nach = new int[anzahlAuftraege];
+        int anzahlKonten = 0;
+        for (int i = 0; i < anzahlAuftraege; i++) {
+            Ueberweisungsauftrag a = auftrag[i];
+            if (a == null) {
+                von[i] = -1;
+                continue;
+            }
+            for (int seite = 0; seite < 2; seite++) {
+                long nummer = seite == 0 ? a.getVonKontonr() : a.getNachKontonr();
+                int platz = KontenIndex.streuen(nummer) & (kapazitaet - 1);
+                // Index + 1 wird gespeichert, damit 0 einen freien Platz markiert
+                while (tabellenIndex[platz] != 0 && tabellenNummer[platz] != nummer) {
+                    platz = (platz + 1) & (kapazitaet - 1);
+                }
+                if (tabellenIndex[platz] == 0) {
+                    tabellenNummer[platz] = nummer;
+                    nummern[anzahlKonten] = nummer;
+                    tabellenIndex[platz] = ++anzahlKonten;
+                }
+                if (seite == 0) {
+                    von[i] = tabellenIndex[platz] - 1;
+                } else {
+                    nach[i] = tabellenIndex[platz] - 1;
+                }
+            }
+        }
+        Konto[] konten = new Konto[anzahlKonten];
+        for (int k = 0; k < anzahlKonten; k++) {
+            konten[k] = kontoSuche.apply(nummern[k]);
+        }
+
+        for (int i = 0; i < anzahlAuftraege; i++) {
+            if (von[i] >= 0 && (von[i] == nach[i] || konten[von[i]] == null || konten[nach[i]] == null)) {
+                von[i] = -1; // ungültiger Auftrag, wird nicht ausgeführt
+            }
+        }
+
+        if (parallelitaet <= 1 || anzahlAuftraege < 8 * SPERRBLOCK) {
+            // nur ein Abschnitt: die Aufträge einfach in ihrer ursprünglichen Reihenfolge ausführen
+            int[] reihenfolge = new int[anzahlAuftraege];
+            int anzahlGueltige = 0;
+            for (int i = 0; i < anzahlAuftraege; i++) {
+                if (von[i] >= 0) {
+                    reihenfolge[anzahlGueltige++] = i;
+                }
+            }
+            long position = abschnittAusfuehren(auftrag, konten, nummern, von, nach, reihenfolge,
+                    0, anzahlGueltige, ergebnisse, journal);
+            if (journal != null)
+                journal.sichern(position);
+            return ergebnisse;
+        }
+
+        // Konten, die in einem gemeinsamen Auftrag vorkommen, zu Gruppen verbinden
+        int[] vertreter = new int[anzahlKonten];
+        for (int k = 0; k < anzahlKonten; k++) {
+            vertreter[k] = k;
+        }
+        for (int i = 0; i < anzahlAuftraege; i++) {
+            if (von[i] >= 0) {
+                vertreter[finden(vertreter, von[i])] = finden(vertreter, nach[i]);
+            }
+        }
+
+        // Aufträge stabil nach Gruppe sortieren (Zählsortierung), Reihenfolge innerhalb der Gruppe bleibt erhalten
+        int[] gruppenBeginn = new int[anzahlKonten + 1];
+        int[] gruppe = new int[anzahlAuftraege];
+        for (int i = 0; i < anzahlAuftraege; i++) {
+            if (von[i] >= 0) {
+                gruppe[i] = finden(vertreter, von[i]);
+                gruppenBeginn[gruppe[i] + 1]++;
+            }
+        }
+        for (int k = 0; k < anzahlKonten; k++) {
+            gruppenBeginn[k + 1] += gruppenBeginn[k];
+        }
+        int[] reihenfolge = new int[gruppenBeginn[anzahlKonten]];
+        int[] naechsterPlatz = Arrays.copyOf(gruppenBeginn, anzahlKonten);
+        for (int i = 0; i < anzahlAuftraege; i++) {
+            if (von[i] >= 0) {
+                reihenfolge[naechsterPlatz[gruppe[i]]++] = i;
+            }
+        }
+
+        // die nach Gruppen geordneten Aufträge in Abschnitte teilen, die an Gruppengrenzen enden,
+        // und die Abschnitte parallel ausführen
+        int anzahlGueltige = reihenfolge.length;
+        int abschnitte = Math.max(1, Math.min(anzahlGueltige / (4 * SPERRBLOCK),
+                4 * parallelitaet));
+        int[] abschnittsGrenze = new int[abschnitte + 1];
+        for (int t = 1; t < abschnitte; t++) {
+            int grenze = Math.max(abschnittsGrenze[t - 1], (int) ((long) anzahlGueltige * t / abschnitte));
+            while (grenze > 0 && grenze < anzahlGueltige && gruppe[reihenfolge[grenze]] == gruppe[reihenfolge[grenze - 1]]) {
+                grenze++;
+            }
+            abschnittsGrenze[t] = grenze;
+        }
+        abschnittsGrenze[abschnitte] = anzahlGueltige;
+        long position = IntStream.range(0, abschnitte)
+                .parallel()
+                .mapToLong(t -> abschnittAusfuehren(auftrag, konten, nummern, von, nach, reihenfolge,
+                        abschnittsGrenze[t], abschnittsGrenze[t + 1], ergebnisse, journal))
+                .max().orElse(0);
+        if (journal != null)
+            journal.sichern(position);
+        return ergebnisse;
+    }
+
+    /**
+     * führt die Aufträge reihenfolge[beginn..ende) blockweise aus. Ein Block darf Aufträge
+     * mehrerer Gruppen enthalten, da zusätzliche Sperren die Reihenfolge nicht verändern.
+     *
+     * @return die Journalposition hinter der letzten ausgeführten Überweisung, 0 ohne Journal
+     */
+    private static long abschnittAusfuehren(Ueberweisungsauftrag[] auftrag, Konto[] konten, long[] nummern,
+                                            int[] von, int[] nach, int[] reihenfolge, int beginn, int ende,
+                                            boolean[] ergebnisse, Journal journal) {
+        long[] position = new long[1];
+        int[] sperren = new int[2 * SPERRBLOCK];
+        for (int blockBeginn = beginn; blockBeginn < ende; blockBeginn += SPERRBLOCK) {
+            int blockEnde = Math.min(blockBeginn + SPERRBLOCK, ende);
+            int anzahlSperren = 0;
+            for (int j = blockBeginn; j < blockEnde; j++) {
+                sperren[anzahlSperren++] = von[reihenfolge[j]];
+                sperren[anzahlSperren++] = nach[reihenfolge[j]];
+            }
+            // nach Kontonummer sortieren (Sperrreihenfolge) und doppelte Konten entfernen
+            int anzahlKonten = 0;
+            for (int s = 0; s < anzahlSperren; s++) {
+                int k = sperren[s];
+                int platz = anzahlKonten;
+                while (platz > 0 && nummern[sperren[platz - 1]] > nummern[k]) {
+                    platz--;
+                }
+                if (platz > 0 && sperren[platz - 1] == k) {
+                    continue;
+                }
+                System.arraycopy(sperren, platz, sperren, platz + 1, anzahlKonten - platz);
+                sperren[platz] = k;
+                anzahlKonten++;
+            }
+            int ersterAuftrag = blockBeginn;
+            gesperrtAusfuehren(konten, sperren, anzahlKonten, 0, () -> {
+                for (int j = ersterAuftrag; j < blockEnde; j++) {
+                    int i = reihenfolge[j];
+                    ergebnisse[i] = einzelnAusfuehren(konten[von[i]], konten[nach[i]], auftrag[i]);
+                    if (ergebnisse[i] && journal != null)
+                        position[0] = journal.kontenAnhaengen(Eintragsart.UEBERWEISUNG, konten[von[i]], konten[nach[i]]);
+                }
+            });
+        }
+        return position[0];
+    }
+
+    private static boolean einzelnAusfuehren(Konto vonKonto, Konto nachKonto, Ueberweisungsauftrag auftrag) {
+        try {
+            return Ueberweisungsabwicklung.ausfuehrenGesperrt(vonKonto, nachKonto, auftrag.getBetrag(),
+                    auftrag.getVerwendungszweck());
+        } catch (RuntimeException e) {
+            return false; // ungültiger Betrag o.ä., betrifft nur diesen Auftrag
+        }
+    }
+
+    /**
+     * sperrt die Konten sperren[i..anzahl) nacheinander und führt dann die Aktion aus
+     */
+    private static void gesperrtAusfuehren(Konto[] konten, int[] sperren, int anzahl, int i, Runnable aktion) {
+        if (i == anzahl) {
+            aktion.run();
+            return;
+        }
+        synchronized (konten[sperren[i]]) {
+            gesperrtAusfuehren(konten, sperren, anzahl, i + 1, aktion);
+        }
+    }
+
+    /**
+     * Union-Find: liefert den Vertreter der Gruppe von k (mit Pfadhalbierung)
+     */
+    private static int finden(int[] vertreter, int k) {
+        while (vertreter[k] != k) {
+            vertreter[k] = vertreter[vertreter[k]];
+            k = vertreter[k];
+        }
+        return k;
+    }
+}
@@ -0,0 +1,112 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Konto;
+
+/**
+ * führt eine Überweisung zwischen zwei Konten derselben Bank als eine
+ * unteilbare Einheit aus: Beide Konten werden gesperrt, dann werden die
+ * Sperrvermerke geprüft, abgebucht und gutgeschrieben, erst danach werden
+ * die Konten wieder freigegeben. Ein gleichzeitiges sperren() oder eine
+ * andere Buchung kann sich also nicht zwischen Abbuchung und Gutschrift schieben.
+ * <p>
+ * Die Konten werden immer in der Reihenfolge ihrer Kontonummern gesperrt,
+ * so dass keine Verklemmung entstehen kann. Es gibt keine globale Sperre.
+ * <p>
+ * Eine ausgeführte Überweisung wird, noch unter den Sperren, in der Buchungshistorie
+ * beider Konten mit dem jeweils anderen Konto als Gegenkonto vermerkt.
+ */
+final class Ueberweisungsabwicklung {
+
+    private Ueberweisungsabwicklung() {
+    }
+
+    /**
+     * überweist betrag von vonKonto auf nachKonto. Entweder werden beide
+     * Buchungen ausgeführt oder keine.
+     *
+     * @param vonKontonr  Kontonummer des sendenden Kontos, bestimmt die Sperrreihenfolge
+     * @param vonKonto    das sendende Konto
+     * @param nachKontonr Kontonummer des empfangenden Kontos, bestimmt die Sperrreihenfolge
+     * @param nachKonto   das empfangende Konto
+     * @param betrag      der zu überweisende Betrag
+     * @return true, wenn die Überweisung ausgeführt wurde, false, wenn eines der Konten
+     * gesperrt ist oder die Kontoregeln die Abbuchung nicht erlauben
+     * @throws IllegalArgumentException wenn der Betrag negativ, NaN oder unendlich ist
+     */
+    static boolean ausfuehren(long vonKontonr, Konto vonKonto, long nachKontonr, Konto nachKonto, double betrag) {
+        return ausfuehren(vonKontonr, vonKonto, nachKontonr, nachKonto, betrag, "", null);
+    }
+
+    /**
+     * überweist betrag von vonKonto auf nachKonto und schreibt beide Konten in einem
+     * Eintrag ins Journal, solange sie noch gesperrt sind. Gesichert wird erst nach
+     * der Freigabe der Konten.
+     *
+     * @param vonKontonr  Kontonummer des sendenden Kontos, bestimmt die Sperrreihenfolge
+     * @param vonKonto    das sendende Konto
+     * @param nachKontonr Kontonummer des empfangenden Kontos, bestimmt die Sperrreihenfolge
+     * @param nachKonto   das empfangende Konto
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck für die Buchungshistorie
+     * @param journal          das Journal der Bank oder null
+     * @return true, wenn die Überweisung ausgeführt wurde
+     * @throws IllegalArgumentException wenn der Betrag negativ, NaN oder unendlich ist
+     */
+    static boolean ausfuehren(long vonKontonr, Konto vonKonto, long nachKontonr, Konto nachKonto, double betrag,
+                              String verwendungszweck, Journal journal) {
+        Konto erstesKonto = vonKontonr < nachKontonr ? vonKonto : nachKonto;
+        Konto zweitesKonto = vonKontonr < nachKontonr ? nachKonto : vonKonto;
+        long position;
+        synchronized (erstesKonto) {
+            synchronized (zweitesKonto) {
+                if (!ausfuehrenGesperrt(vonKonto, nachKonto, betrag, verwendungszweck)) {
+                    return false;
+                }
+                if (journal == null) {
+                    return true;
+                }
+                position = journal.kontenAnhaengen(Eintragsart.UEBERWEISUNG, vonKonto, nachKonto);
+            }
+        }
+        journal.sichern(position);
+        return true;
+    }
+
+    /**
+     * führt die Überweisung aus; der Aufrufer hält bereits die Monitore beider Konten
+     *
+     * @param vonKonto         das sendende Konto
+     * @param nachKonto        das empfangende Konto
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck für die Buchungshistorie, null wird als "" vermerkt
+     * @return true, wenn die Überweisung ausgeführt wurde
+     * @throws ArithmeticException wenn der Kontostand des empfangenden Kontos überlaufen würde;
+     *                             beide Konten bleiben dann unverändert
+     */
+    static boolean ausfuehrenGesperrt(Konto vonKonto, Konto nachKonto, double betrag, String verwendungszweck) {
+        if (vonKonto.isGesperrt() || nachKonto.isGesperrt()) {
+            return false;
+        }
+        // vor der Abbuchung prüfen, denn eine Abbuchung lässt sich nicht spurlos zurücknehmen
+        // (ein Sparbuch hätte sein Monatslimit schon verbraucht)
+        Math.addExact(nachKonto.getKontostandCent(), Cent.ausBetrag(betrag));
+        try {
+            if (!vonKonto.abheben(betrag)) {
+                return false; // Kontoregeln verbieten die Abbuchung, es wurde nichts verändert
+            }
+        } catch (GesperrtException e) {
+            return false; // kann nicht auftreten, da der Sperrvermerk unter derselben Sperre geprüft wurde
+        }
+        nachKonto.einzahlen(betrag);
+        long zeitpunkt = System.currentTimeMillis();
+        long betragCent = Cent.ausBetrag(betrag);
+        String zweck = verwendungszweck == null ? "" : verwendungszweck;
+        vonKonto.buchungVermerken(zeitpunkt, -betragCent, nachKonto.getKontonummer(), zweck);
+        nachKonto.buchungVermerken(zeitpunkt, betragCent, vonKonto.getKontonummer(), zweck);
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package bankprojekt.verwaltung;
+
+/**
+ * ein einzelner Auftrag innerhalb einer Sammelüberweisung, siehe
+ * {@link Bank#geldUeberweisen(java.util.List)}
+ */
+public final class Ueberweisungsauftrag {
+    /**
+     * Kontonummer des sendenden Kontos
+     */
+    private final long vonKontonr;
+    /**
+     * Kontonummer des empfangenden Kontos
+     */
+    private final long nachKontonr;
+    /**
+     * der zu überweisende Betrag
+     */
+    private final double betrag;
+    /**
+     * der Verwendungszweck
+     */
+    private final String verwendungszweck;
+
+    /**
+     * erstellt einen Überweisungsauftrag
+     *
+     * @param vonKontonr       die Kontonummer des sendenden Kontos
+     * @param nachKontonr      die Kontonummer des empfangenden Kontos
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck der Überweisung
+     */
+    public Ueberweisungsauftrag(long vonKontonr, long nachKontonr, double betrag, String verwendungszweck) {
+        this.vonKontonr = vonKontonr;
+        this.nachKontonr = nachKontonr;
+        this.betrag = betrag;
+        this.verwendungszweck = verwendungszweck;
+    }
+
+    /**
+     * @return die Kontonummer des sendenden Kontos
+     */
+    public long getVonKontonr() {
+        return vonKontonr;
+    }
+
+    /**
+     * @return die Kontonummer des empfangenden Kontos
+     */
+    public long getNachKontonr() {
+        return nachKontonr;
+    }
+
+    /**
+     * @return der zu überweisende Betrag
+     */
+    public double getBetrag() {
+        return betrag;
+    }
+
+    /**
+     * @return der Verwendungszweck
+     */
+    public String getVerwendungszweck() {
+        return verwendungszweck;
+    }
+}
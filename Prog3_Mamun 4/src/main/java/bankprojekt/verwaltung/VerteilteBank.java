@@ -0,0 +1,854 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.Observer.KontoKonflator;
+import bankprojekt.verarbeitung.Buchungsleser;
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import generischeKlasse.Intervall;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * eine Bank, deren Konten auf mehrere Shards verteilt sind. Jeder Shard ist eine eigene
+ * {@link Bank} mit eigener Kontenliste, eigenem Journal und einem eigenen Thread
+ * (Executor), so dass sich Shards weder Sperren noch Journal teilen. Die Methoden entsprechen
+ * denen der Bank.
+ * <p>
+ * Die Konten werden nach Nummernbereichen verteilt: Shard i vergibt die Nummern ab
+ * i * {@value #NUMMERN_PRO_SHARD} + 1, der Shard eines Kontos ergibt sich also aus seiner
+ * Nummer ohne Nachschlagen. Neue Konten werden reihum auf die Shards verteilt.
+ * <p>
+ * Überweisungen innerhalb eines Shards führt dessen Bank direkt aus. Überweisungen zwischen
+ * zwei Shards laufen in zwei Phasen, jede mit eigenem, gesichertem Journaleintrag:
+ * <ol>
+ *     <li>der sendende Shard belastet das Konto und schreibt die Überweisung
+ *     ({@link Eintragsart#TRANSFER_VORBEREITET}),</li>
+ *     <li>der empfangende Shard schreibt sie gut ({@link Eintragsart#TRANSFER_GUTGESCHRIEBEN});
+ *     ist das nicht möglich, erstattet der sendende Shard den Betrag
+ *     ({@link Eintragsart#TRANSFER_ABGEBROCHEN}),</li>
+ *     <li>der sendende Shard vermerkt den Abschluss ({@link Eintragsart#TRANSFER_ABGESCHLOSSEN}).</li>
+ * </ol>
+ * Endet der Prozess zwischen den Phasen, findet {@link #oeffnen} beim nächsten Start die
+ * vorbereiteten, aber nicht abgeschlossenen Überweisungen und führt sie zu Ende: schon
+ * gutgeschriebene werden nur abgeschlossen, die übrigen werden gutgeschrieben oder erstattet.
+ * Dafür müssen die Journale mit {@link Haltbarkeit#GRUPPE} oder {@link Haltbarkeit#SYNCHRON}
+ * geöffnet sein; {@link #oeffnen} lehnt {@link Haltbarkeit#ASYNCHRON} ab, denn dann könnte nach
+ * einem Absturz des Rechners die Gutschrift erhalten sein, die Vorbereitung aber fehlen. Eine Ausnahme in der zweiten Phase, z.B. ein Schreibfehler im Journal,
+ * lässt die Überweisung ebenso bis zum nächsten Start offen, statt zu raten.
+ * <p>
+ * Die synchronen Methoden laufen im aufrufenden Thread und sperren nur die betroffenen
+ * Konten. {@link #geldUeberweisenAsync} führt jede Phase im Executor des jeweiligen Shards aus,
+ * so dass jeder Shard seine Aufträge ohne Wettbewerb um Sperren nacheinander abarbeitet.
+ * <p>
+ * Kann eine Überweisung weder gutgeschrieben noch erstattet werden, weil das sendende Konto
+ * inzwischen gelöscht wurde, wird der Betrag wie bei der {@link Clearingstelle} verwahrt
+ * ({@link #getVerwahrt()}) und nicht als erstattet gezählt.
+ * <p>
+ * Nicht angeboten werden Sicherungspunkte, da sie die Einträge offener Überweisungen aus dem
+ * Journal entfernen könnten, Überweisungen an andere Banken, Sammelüberweisungen, Mock-Konten
+ * und das Reservieren von Kontonummern, das an die Vergabe eines Shards gebunden ist. Die
+ * {@link Bankkennzahlen} gibt es nur je Shard.
+ */
+public final class VerteilteBank implements AutoCloseable {
+    /**
+     * so viele Kontonummern umfasst der Bereich eines Shards
+     */
+    public static final long NUMMERN_PRO_SHARD = 1L << 40;
+    /**
+     * Verwendungszweck einer beim Wiederherstellen zu Ende geführten Überweisung
+     */
+    static final String WIEDERHERGESTELLT = "Überweisung (wiederhergestellt)";
+
+    /**
+     * Länge der Beschreibung einer Überweisung im Journal: Kennung, von, nach, Cent
+     */
+    private static final int TRANSFER_GROESSE = 4 * Long.BYTES;
+    private static final int NICHT_VORBEREITET = 0;
+    private static final int GUTGESCHRIEBEN = 1;
+    private static final int NICHT_GUTGESCHRIEBEN = 2;
+
+    private final long bankleitzahl;
+    private final Shard[] shards;
+    private final List<Journal> journale;
+    private final AtomicLong naechsteKennung = new AtomicLong();
+    private final AtomicLong naechsterShard = new AtomicLong();
+    private final LongAdder uebergreifend = new LongAdder();
+    private final LongAdder zurueckgebucht = new LongAdder();
+    /**
+     * Summe der Überweisungen in Cent, die weder gutgeschrieben noch erstattet werden konnten
+     */
+    private final LongAdder verwahrt = new LongAdder();
+    /**
+     * Anzahl der mit {@link #geldUeberweisenAsync} begonnenen, noch nicht beendeten Überweisungen
+     */
+    private final AtomicLong laufend = new AtomicLong();
+    /**
+     * wird benachrichtigt, wenn {@link #laufend} 0 erreicht
+     */
+    private final Object alleBeendet = new Object();
+
+    /**
+     * wird zwischen den beiden Phasen einer Überweisung zwischen Shards aufgerufen;
+     * Tests simulieren damit einen Absturz
+     */
+    volatile Runnable zwischenDenPhasen;
+
+    /**
+     * ein Shard mit seiner Bank und seinem Executor
+     */
+    private static final class Shard {
+        final Bank bank;
+        final ExecutorService ausfuehrung;
+        /**
+         * nur während des Wiederherstellens belegt
+         */
+        Transferbuch buch;
+
+        Shard(Bank bank, ExecutorService ausfuehrung, Transferbuch buch) {
+            this.bank = bank;
+            this.ausfuehrung = ausfuehrung;
+            this.buch = buch;
+        }
+    }
+
+    /**
+     * erstellt eine Bank mit anzahlShards Shards, die nur im Speicher arbeiten
+     *
+     * @param bankleitzahl die Bankleitzahl
+     * @param anzahlShards die Anzahl der Shards
+     * @throws IllegalArgumentException wenn anzahlShards nicht positiv ist
+     */
+    public VerteilteBank(long bankleitzahl, int anzahlShards) {
+        this(bankleitzahl, anzahlShardsPruefen(anzahlShards), null);
+    }
+
+    private VerteilteBank(long bankleitzahl, int anzahlShards, List<Journal> journale) {
+        this.bankleitzahl = bankleitzahl;
+        this.shards = new Shard[anzahlShards];
+        this.journale = journale;
+        List<Future<Bank>> banken = new ArrayList<>(anzahlShards);
+        ExecutorService[] ausfuehrungen = new ExecutorService[anzahlShards];
+        Transferbuch[] buecher = new Transferbuch[anzahlShards];
+        for (int i = 0; i < anzahlShards; i++) {
+            String name = "Shard-" + bankleitzahl + "-" + i;
+            ausfuehrungen[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+            Journal journal = journale == null ? null : journale.get(i);
+            buecher[i] = journal == null ? null : new Transferbuch();
+            KontonummernVergabe vergabe = new KontonummernVergabe(i * NUMMERN_PRO_SHARD);
+            Transferbuch buch = buecher[i];
+            // die Shards werden in ihren eigenen Threads gleichzeitig wiederhergestellt
+            banken.add(ausfuehrungen[i].submit(() -> new Bank(bankleitzahl, vergabe, journal, buch)));
+        }
+        try {
+            for (int i = 0; i < anzahlShards; i++) {
+                shards[i] = new Shard(banken.get(i).get(), ausfuehrungen[i], buecher[i]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            herunterfahren(ausfuehrungen);
+            throw new IllegalStateException("Beim Wiederherstellen unterbrochen", e);
+        } catch (ExecutionException e) {
+            herunterfahren(ausfuehrungen);
+            if (e.getCause() instanceof IOException io)
+                throw new UncheckedIOException(io);
+            throw new IllegalStateException("Shard konnte nicht erstellt werden", e.getCause());
+        }
+    }
+
+    /**
+     * öffnet eine Bank, deren Shards ihre Journale in den Unterverzeichnissen {@code shard-i}
+     * des Verzeichnisses führen, stellt alle Shards wieder her und führt die beim letzten
+     * Lauf offen gebliebenen Überweisungen zwischen Shards zu Ende
+     *
+     * @param bankleitzahl die Bankleitzahl
+     * @param anzahlShards die Anzahl der Shards, muss bei jedem Öffnen dieselbe sein
+     * @param verzeichnis  das Verzeichnis der Journale
+     * @param haltbarkeit  die Haltbarkeit der Journale, {@link Haltbarkeit#GRUPPE} oder
+     *                     {@link Haltbarkeit#SYNCHRON}
+     * @return die wiederhergestellte Bank; {@link #close()} schließt auch die Journale
+     * @throws IOException              wenn ein Journal nicht gelesen werden kann
+     * @throws IllegalArgumentException wenn ein Parameter null ist, haltbarkeit
+     *                                  {@link Haltbarkeit#ASYNCHRON} ist, anzahlShards nicht
+     *                                  positiv ist oder das Verzeichnis mehr Shards enthält
+     */
+    public static VerteilteBank oeffnen(long bankleitzahl, int anzahlShards, Path verzeichnis,
+                                        Haltbarkeit haltbarkeit) throws IOException {
+        if (verzeichnis == null || haltbarkeit == null)
+            throw new IllegalArgumentException("null als Parameter nicht erlaubt");
+        if (haltbarkeit == Haltbarkeit.ASYNCHRON)
+            throw new IllegalArgumentException("Überweisungen zwischen Shards brauchen Haltbarkeit GRUPPE oder SYNCHRON");
+        anzahlShardsPruefen(anzahlShards);
+        if (Files.exists(verzeichnis.resolve("shard-" + anzahlShards)))
+            throw new IllegalArgumentException("Das Verzeichnis enthält mehr als " + anzahlShards + " Shards");
+        List<Journal> journale = new ArrayList<>(anzahlShards);
+        VerteilteBank bank;
+        try {
+            for (int i = 0; i < anzahlShards; i++) {
+                journale.add(Journal.oeffnen(verzeichnis.resolve("shard-" + i), haltbarkeit));
+            }
+            bank = new VerteilteBank(bankleitzahl, anzahlShards, journale);
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            for (Journal j : journale) {
+                j.close();
+            }
+            if (e instanceof UncheckedIOException u)
+                throw u.getCause();
+            throw e;
+        }
+        bank.offeneTransfersAbschliessen();
+        return bank;
+    }
+
+    private static int anzahlShardsPruefen(int anzahlShards) {
+        if (anzahlShards <= 0)
+            throw new IllegalArgumentException("Es muss mindestens einen Shard geben!");
+        return anzahlShards;
+    }
+
+    /**
+     * führt die Überweisungen zu Ende, die in einem Shard vorbereitet, aber nicht
+     * abgeschlossen oder abgebrochen wurden
+     */
+    private void offeneTransfersAbschliessen() {
+        long hoechsteKennung = 0;
+        for (Shard s : shards) {
+            hoechsteKennung = Math.max(hoechsteKennung, s.buch.hoechsteKennung);
+        }
+        naechsteKennung.set(hoechsteKennung);
+        for (Shard s : shards) {
+            for (Map.Entry<Long, long[]> offen : s.buch.offen.entrySet()) {
+                long[] t = offen.getValue();
+                Shard d = shard(t[1]);
+                ByteBuffer zusatz = transfer(offen.getKey(), t[0], t[1], t[2]);
+                if (d != null && d.buch.gutgeschrieben.contains(offen.getKey())) {
+                    s.bank.transferAbschliessen(zusatz);
+                } else if (d != null) {
+                    zweitePhase(s, d, zusatz, t[0], t[1], t[2], WIEDERHERGESTELLT);
+                } else {
+                    zurueckbuchen(s, zusatz, t[0], t[1], t[2]);
+                }
+            }
+        }
+        for (Shard s : shards) {
+            s.buch = null;
+        }
+    }
+
+    /**
+     * @return die Bankleitzahl
+     */
+    public long getBankleitzahl() {
+        return bankleitzahl;
+    }
+
+    /**
+     * @return die Anzahl der Shards
+     */
+    public int getAnzahlShards() {
+        return shards.length;
+    }
+
+    /**
+     * @param nummer eine Kontonummer
+     * @return der Shard, in dessen Nummernbereich die Kontonummer liegt, oder -1
+     */
+    public int getShard(long nummer) {
+        if (nummer <= 0)
+            return -1;
+        long shard = (nummer - 1) / NUMMERN_PRO_SHARD;
+        return shard < shards.length ? (int) shard : -1;
+    }
+
+    private Shard shard(long nummer) {
+        int i = getShard(nummer);
+        return i < 0 ? null : shards[i];
+    }
+
+    private Bank naechsteBank() {
+        return shards[(int) Math.floorMod(naechsterShard.getAndIncrement(), (long) shards.length)].bank;
+    }
+
+    /**
+     * @param inhaber der Inhaber
+     * @return die Kontonummer des neuen Girokontos
+     * @see Bank#girokontoErstellen(Kunde)
+     */
+    public long girokontoErstellen(Kunde inhaber) {
+        return naechsteBank().girokontoErstellen(inhaber);
+    }
+
+    /**
+     * @param inhaber der Inhaber
+     * @return die Kontonummer des neuen Sparbuchs
+     * @see Bank#sparbuchErstellen(Kunde)
+     */
+    public long sparbuchErstellen(Kunde inhaber) {
+        return naechsteBank().sparbuchErstellen(inhaber);
+    }
+
+    /**
+     * @param auf    die Kontonummer
+     * @param betrag der Betrag
+     * @see Bank#geldEinzahlen(long, double)
+     */
+    public void geldEinzahlen(long auf, double betrag) {
+        Shard s = shard(auf);
+        if (s != null)
+            s.bank.geldEinzahlen(auf, betrag);
+    }
+
+    /**
+     * @param von    die Kontonummer
+     * @param betrag der Betrag
+     * @return true, wenn abgehoben wurde
+     * @throws GesperrtException wenn das Konto gesperrt ist
+     * @see Bank#geldAbheben(long, double)
+     */
+    public boolean geldAbheben(long von, double betrag) throws GesperrtException {
+        Shard s = shard(von);
+        return s != null && s.bank.geldAbheben(von, betrag);
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return der Kontostand, 0 wenn es das Konto nicht gibt
+     */
+    public double getKontostand(long nummer) {
+        Shard s = shard(nummer);
+        return s == null ? 0.0 : s.bank.getKontostand(nummer);
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn es ein Konto mit dieser Nummer gibt
+     */
+    public boolean kontoExistiert(long nummer) {
+        Shard s = shard(nummer);
+        return s != null && s.bank.kontoExistiert(nummer);
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt
+     * @see Bank#kontoSperren(long)
+     */
+    public boolean kontoSperren(long nummer) {
+        Shard s = shard(nummer);
+        return s != null && s.bank.kontoSperren(nummer);
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt
+     * @see Bank#kontoEntsperren(long)
+     */
+    public boolean kontoEntsperren(long nummer) {
+        Shard s = shard(nummer);
+        return s != null && s.bank.kontoEntsperren(nummer);
+    }
+
+    /**
+     * @param nummer die Kontonummer
+     * @return true, wenn das Konto gelöscht wurde
+     * @see Bank#kontoLoeschen(long)
+     */
+    public boolean kontoLoeschen(long nummer) {
+        Shard s = shard(nummer);
+        return s != null && s.bank.kontoLoeschen(nummer);
+    }
+
+    /**
+     * @param nummer   die Kontonummer
+     * @param zeitraum der Zeitraum
+     * @param leser    nimmt die Buchungen auf
+     * @return die Anzahl der gelesenen Buchungen
+     * @see Bank#kontoauszug(long, Intervall, Buchungsleser)
+     */
+    public int kontoauszug(long nummer, Intervall<Instant> zeitraum, Buchungsleser leser) {
+        Shard s = shard(nummer);
+        return s == null ? 0 : s.bank.kontoauszug(nummer, zeitraum, leser);
+    }
+
+    /**
+     * @return die Kontonummern aller Shards, je Shard in dessen Reihenfolge
+     */
+    public LongStream getKontonummern() {
+        LongStream alle = LongStream.empty();
+        for (Shard s : shards) {
+            alle = LongStream.concat(alle, s.bank.getKontonummern());
+        }
+        return alle;
+    }
+
+    /**
+     * @param inhaber der Kunde
+     * @return die Kontonummern des Kunden in allen Shards aufsteigend sortiert
+     * @see Bank#getKontonummernVon(Kunde)
+     */
+    public long[] getKontonummernVon(Kunde inhaber) {
+        long[] alle = new long[0];
+        for (Shard s : shards) {
+            long[] konten = s.bank.getKontonummernVon(inhaber);
+            if (konten.length > 0) {
+                int bisher = alle.length;
+                alle = Arrays.copyOf(alle, bisher + konten.length);
+                System.arraycopy(konten, 0, alle, bisher, konten.length);
+            }
+        }
+        // die Nummernbereiche der Shards sind aufsteigend, die Liste ist also schon sortiert
+        return alle;
+    }
+
+    /**
+     * @param praefix der Namensanfang, leer für alle Kunden
+     * @param maximal die größte Anzahl gelieferter Kunden
+     * @return die Kunden aller Shards, deren Name mit dem Präfix beginnt, nach Namen sortiert;
+     * ein Kunde mit Konten in mehreren Shards wird nur einmal geliefert
+     * @throws IllegalArgumentException wenn praefix null oder maximal negativ ist
+     * @see Bank#kundenSuchen(String, int)
+     */
+    public List<Kunde> kundenSuchen(String praefix, int maximal) {
+        List<Kunde> gefunden = new ArrayList<>();
+        Set<Kunde> gesehen = new HashSet<>();
+        for (Shard s : shards) {
+            for (Kunde k : s.bank.kundenSuchen(praefix, maximal)) {
+                if (gesehen.add(k))
+                    gefunden.add(k);
+            }
+        }
+        gefunden.sort(Comparator.comparing(k -> k.getName().toLowerCase(Locale.ROOT)));
+        return gefunden.size() > maximal ? new ArrayList<>(gefunden.subList(0, maximal)) : gefunden;
+    }
+
+    /**
+     * @param kunde der umbenannte Kunde
+     * @see Bank#kundeUmbenannt(Kunde)
+     */
+    public void kundeUmbenannt(Kunde kunde) {
+        for (Shard s : shards) {
+            s.bank.kundeUmbenannt(kunde);
+        }
+    }
+
+    /**
+     * durchläuft dafür alle Kunden, da ein Kunde Konten in mehreren Shards haben kann
+     *
+     * @return die Anzahl der Kunden mit mindestens einem Konto in einem der Shards
+     * @see Bank#getAnzahlKunden()
+     */
+    public int getAnzahlKunden() {
+        Set<Kunde> kunden = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Shard s : shards) {
+            kunden.addAll(s.bank.kundenSuchen("", Integer.MAX_VALUE));
+        }
+        return kunden.size();
+    }
+
+    /**
+     * @param shard die Nummer des Shards
+     * @return die Kennzahlen der Konten dieses Shards
+     * @throws IllegalArgumentException wenn es den Shard nicht gibt
+     * @see Bank#getKennzahlen()
+     */
+    public Bankkennzahlen getKennzahlen(int shard) {
+        if (shard < 0 || shard >= shards.length)
+            throw new IllegalArgumentException("Shard " + shard + " gibt es nicht!");
+        return shards[shard].bank.getKennzahlen();
+    }
+
+    /**
+     * fügt ein Konto unter seiner eigenen Kontonummer in den Shard ein, in dessen
+     * Nummernbereich sie liegt
+     *
+     * @param k das einzufügende Konto
+     * @throws IllegalArgumentException wenn k null ist, die Kontonummer in keinem Shard liegt
+     *                                  oder schon belegt ist
+     * @see Bank#kontoImportieren(Konto)
+     */
+    public void kontoImportieren(Konto k) {
+        if (k == null)
+            throw new IllegalArgumentException("Das Konto darf nicht null sein!");
+        Shard s = shard(k.getKontonummer());
+        if (s == null)
+            throw new IllegalArgumentException("Kontonummer " + k.getKontonummer() + " liegt in keinem Shard!");
+        s.bank.kontoImportieren(k);
+    }
+
+    /**
+     * @param konflator der Konflator
+     * @throws IllegalArgumentException wenn konflator null ist
+     * @see Bank#konflatorAnmelden(KontoKonflator)
+     */
+    public void konflatorAnmelden(KontoKonflator konflator) {
+        for (Shard s : shards) {
+            s.bank.konflatorAnmelden(konflator);
+        }
+    }
+
+    /**
+     * @param konflator der Konflator
+     * @see Bank#konflatorAbmelden(KontoKonflator)
+     */
+    public void konflatorAbmelden(KontoKonflator konflator) {
+        for (Shard s : shards) {
+            s.bank.konflatorAbmelden(konflator);
+        }
+    }
+
+    /**
+     * @return die Konten aller Shards, nach Kontonummer sortiert
+     * @see Bank#getAlleKonten()
+     */
+    public String getAlleKonten() {
+        StringBuilder auflistung = new StringBuilder();
+        for (Shard s : shards) {
+            auflistung.append(s.bank.getAlleKonten());
+        }
+        return auflistung.toString();
+    }
+
+    /**
+     * schreibt die Konten aller Shards nacheinander in das Ziel; da die Nummernbereiche der
+     * Shards aufsteigen, ist die Ausgabe nach Kontonummer sortiert
+     *
+     * @param ziel das Ziel der Ausgabe
+     * @throws IOException              wenn das Ziel nicht beschrieben werden kann
+     * @throws IllegalArgumentException wenn ziel null ist
+     * @see Bank#alleKontenAusgeben(Appendable)
+     */
+    public void alleKontenAusgeben(Appendable ziel) throws IOException {
+        if (ziel == null)
+            throw new IllegalArgumentException("Das Ziel darf nicht null sein!");
+        for (Shard s : shards) {
+            s.bank.alleKontenAusgeben(ziel);
+        }
+    }
+
+    /**
+     * @param groesse höchstens so viele Konten enthält die Seite
+     * @return die erste Seite der nach Kontonummer sortierten Konten aller Shards
+     * @throws IllegalArgumentException wenn groesse nicht positiv ist
+     * @see Bank#getKontenSeite(int)
+     */
+    public KontenSeite getKontenSeite(int groesse) {
+        return getKontenSeite(KontenSeite.ANFANG, groesse);
+    }
+
+    /**
+     * liefert die Konten mit den nächsten Kontonummern nach dem Cursor aus allen Shards; reicht
+     * ein Shard nicht für die Seite, wird sie mit den folgenden Shards aufgefüllt
+     *
+     * @param cursor  {@link KontenSeite#getCursor()} der vorherigen Seite oder {@link KontenSeite#ANFANG}
+     * @param groesse höchstens so viele Konten enthält die Seite
+     * @return die Seite
+     * @throws IllegalArgumentException wenn groesse nicht positiv ist
+     * @see Bank#getKontenSeite(long, int)
+     */
+    public KontenSeite getKontenSeite(long cursor, int groesse) {
+        if (groesse <= 0 || groesse >= Integer.MAX_VALUE - 1)
+            throw new IllegalArgumentException("Ungültige Seitengröße!");
+        // ein Konto mehr lesen, um festzustellen, ob es weitere gibt
+        long[] nummern = new long[groesse + 1];
+        Konto[] konten = new Konto[groesse + 1];
+        int gelesen = 0;
+        // in den Shards vor dem des Cursors liegen nur kleinere Kontonummern
+        int erster = cursor <= 0 ? 0 : (int) Math.min((cursor - 1) / NUMMERN_PRO_SHARD, shards.length);
+        for (int i = erster; i < shards.length && gelesen <= groesse; i++) {
+            KontenSeite teil = shards[i].bank.getKontenSeite(cursor, groesse + 1 - gelesen);
+            System.arraycopy(teil.getKontonummern(), 0, nummern, gelesen, teil.getAnzahl());
+            for (Konto k : teil.getKonten()) {
+                konten[gelesen++] = k;
+            }
+        }
+        return new KontenSeite(cursor, nummern, konten, Math.min(gelesen, groesse), gelesen > groesse);
+    }
+
+    /**
+     * stellt die Konten aller Shards im angegebenen Pool auf die Währung ziel um
+     *
+     * @param ziel die neue Währung aller Konten
+     * @param pool der Pool, in dem die Konten umgestellt werden
+     * @return die laufenden Umstellungen, eine je Shard
+     * @throws IllegalArgumentException wenn ziel oder pool null ist
+     * @see Bank#waehrungUmstellen(Waehrung, ForkJoinPool)
+     */
+    public List<Waehrungsumstellung> waehrungUmstellen(Waehrung ziel, ForkJoinPool pool) {
+        List<Waehrungsumstellung> umstellungen = new ArrayList<>(shards.length);
+        for (Shard s : shards) {
+            umstellungen.add(s.bank.waehrungUmstellen(ziel, pool));
+        }
+        return umstellungen;
+    }
+
+    /**
+     * schreibt den Sparbüchern aller Shards im angegebenen Pool die Zinsen eines Monats gut
+     *
+     * @param monat der zu verzinsende Monat
+     * @param pool  der Pool, in dem die Sparbücher verzinst werden
+     * @return die laufenden Zinsläufe, einer je Shard
+     * @throws IllegalArgumentException wenn monat oder pool null ist
+     * @see Bank#zinsenGutschreiben(YearMonth, ForkJoinPool)
+     */
+    public List<Zinslauf> zinsenGutschreiben(YearMonth monat, ForkJoinPool pool) {
+        List<Zinslauf> laeufe = new ArrayList<>(shards.length);
+        for (Shard s : shards) {
+            laeufe.add(s.bank.zinsenGutschreiben(monat, pool));
+        }
+        return laeufe;
+    }
+
+    /**
+     * Führt eine Überweisung von einem Konto auf ein anderes Konto durch, innerhalb eines
+     * Shards direkt, zwischen zwei Shards in zwei Phasen.
+     *
+     * @param vonKontonr       die Kontonummer des sendenden Kontos
+     * @param nachKontonr      die Kontonummer des empfangenden Kontos
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck der Überweisung
+     * @return true, wenn die Überweisung erfolgreich war, sonst false
+     * @throws IllegalArgumentException wenn der Betrag negativ, NaN oder unendlich ist
+     * @see Bank#geldUeberweisen(long, long, double, String)
+     */
+    public boolean geldUeberweisen(long vonKontonr, long nachKontonr, double betrag, String verwendungszweck) {
+        Shard s = shard(vonKontonr);
+        Shard d = shard(nachKontonr);
+        if (s == null || d == null)
+            return false;
+        if (s == d)
+            return s.bank.geldUeberweisen(vonKontonr, nachKontonr, betrag, verwendungszweck);
+        long cent = centPruefen(betrag);
+        String zweck = verwendungszweck == null ? "" : verwendungszweck;
+        // die meisten Überweisungen an nicht vorhandene Konten gar nicht erst vorbereiten
+        if (!d.bank.kontoExistiert(nachKontonr))
+            return false;
+        ByteBuffer zusatz = transfer(naechsteKennung.incrementAndGet(), vonKontonr, nachKontonr, cent);
+        if (!s.bank.transferVorbereiten(vonKontonr, nachKontonr, cent, zweck, zusatz))
+            return false;
+        Runnable unterbrechung = zwischenDenPhasen;
+        if (unterbrechung != null)
+            unterbrechung.run();
+        return zweitePhase(s, d, zusatz, vonKontonr, nachKontonr, cent, zweck);
+    }
+
+    /**
+     * führt eine Überweisung wie {@link #geldUeberweisen(long, long, double, String)} aus,
+     * aber jede Phase im Executor des betroffenen Shards
+     *
+     * @param vonKontonr       die Kontonummer des sendenden Kontos
+     * @param nachKontonr      die Kontonummer des empfangenden Kontos
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck der Überweisung
+     * @return wird mit true erfüllt, wenn die Überweisung erfolgreich war, sonst mit false
+     * @throws IllegalArgumentException wenn der Betrag negativ, NaN oder unendlich ist
+     */
+    public CompletableFuture<Boolean> geldUeberweisenAsync(long vonKontonr, long nachKontonr, double betrag,
+                                                           String verwendungszweck) {
+        Shard s = shard(vonKontonr);
+        Shard d = shard(nachKontonr);
+        if (s == null || d == null)
+            return CompletableFuture.completedFuture(false);
+        if (s == d)
+            return CompletableFuture.supplyAsync(
+                    () -> s.bank.geldUeberweisen(vonKontonr, nachKontonr, betrag, verwendungszweck), s.ausfuehrung);
+        long cent = centPruefen(betrag);
+        String zweck = verwendungszweck == null ? "" : verwendungszweck;
+        ByteBuffer zusatz = transfer(naechsteKennung.incrementAndGet(), vonKontonr, nachKontonr, cent);
+        laufend.incrementAndGet();
+        CompletableFuture<Boolean> ueberweisung = CompletableFuture
+                .supplyAsync(() -> d.bank.kontoExistiert(nachKontonr)
+                        && s.bank.transferVorbereiten(vonKontonr, nachKontonr, cent, zweck, zusatz), s.ausfuehrung)
+                .thenApplyAsync(vorbereitet -> !vorbereitet ? NICHT_VORBEREITET
+                        : d.bank.transferGutschreiben(nachKontonr, vonKontonr, cent, zweck, zusatz)
+                        ? GUTGESCHRIEBEN : NICHT_GUTGESCHRIEBEN, d.ausfuehrung)
+                .thenApplyAsync(ergebnis -> {
+                    if (ergebnis == NICHT_VORBEREITET)
+                        return false;
+                    uebergreifend.increment();
+                    if (ergebnis == GUTGESCHRIEBEN) {
+                        s.bank.transferAbschliessen(zusatz);
+                        return true;
+                    }
+                    zurueckbuchen(s, zusatz, vonKontonr, nachKontonr, cent);
+                    return false;
+                }, s.ausfuehrung);
+        ueberweisung.whenComplete((erfolg, fehler) -> {
+            if (laufend.decrementAndGet() == 0) {
+                synchronized (alleBeendet) {
+                    alleBeendet.notifyAll();
+                }
+            }
+        });
+        return ueberweisung;
+    }
+
+    /**
+     * schreibt die vorbereitete Überweisung im empfangenden Shard gut und schließt sie ab
+     * oder erstattet sie
+     */
+    private boolean zweitePhase(Shard s, Shard d, ByteBuffer zusatz, long von, long nach, long cent, String zweck) {
+        uebergreifend.increment();
+        if (d.bank.transferGutschreiben(nach, von, cent, zweck, zusatz)) {
+            s.bank.transferAbschliessen(zusatz);
+            return true;
+        }
+        zurueckbuchen(s, zusatz, von, nach, cent);
+        return false;
+    }
+
+    /**
+     * erstattet dem sendenden Konto den Betrag; gibt es das Konto nicht mehr, wird er verwahrt
+     */
+    private void zurueckbuchen(Shard s, ByteBuffer zusatz, long von, long nach, long cent) {
+        if (s.bank.transferZurueckbuchen(von, nach, cent, zusatz))
+            zurueckgebucht.increment();
+        else
+            verwahrt.add(cent);
+    }
+
+    private static long centPruefen(double betrag) {
+        long cent = Cent.ausBetrag(betrag);
+        if (cent < 0)
+            throw new IllegalArgumentException("Betrag ungültig");
+        return cent;
+    }
+
+    private static ByteBuffer transfer(long kennung, long von, long nach, long cent) {
+        return ByteBuffer.allocate(TRANSFER_GROESSE).putLong(kennung).putLong(von).putLong(nach).putLong(cent).flip();
+    }
+
+    /**
+     * @return die Anzahl der Überweisungen zwischen zwei Shards, die die zweite Phase erreicht haben
+     */
+    public long getUebergreifend() {
+        return uebergreifend.sum();
+    }
+
+    /**
+     * @return die Anzahl der Überweisungen zwischen zwei Shards, die nicht gutgeschrieben
+     * werden konnten und erstattet wurden
+     */
+    public long getZurueckgebucht() {
+        return zurueckgebucht.sum();
+    }
+
+    /**
+     * @return die Summe der Überweisungen zwischen zwei Shards, die weder gutgeschrieben noch
+     * erstattet werden konnten, weil das sendende Konto inzwischen gelöscht wurde
+     */
+    public double getVerwahrt() {
+        return Cent.inBetrag(verwahrt.sum());
+    }
+
+    /**
+     * wartet, bis alle mit {@link #geldUeberweisenAsync} begonnenen Überweisungen beendet sind,
+     * beendet die Executoren der Shards und schließt die mit {@link #oeffnen} geöffneten Journale
+     *
+     * @throws IOException wenn ein Journal nicht geschlossen werden kann
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (alleBeendet) {
+            try {
+                while (laufend.get() > 0) {
+                    alleBeendet.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ExecutorService[] ausfuehrungen = new ExecutorService[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            ausfuehrungen[i] = shards[i].ausfuehrung;
+        }
+        herunterfahren(ausfuehrungen);
+        if (journale != null) {
+            for (Journal j : journale) {
+                j.close();
+            }
+        }
+    }
+
+    private static void herunterfahren(ExecutorService[] ausfuehrungen) {
+        for (ExecutorService e : ausfuehrungen) {
+            if (e != null)
+                e.shutdown();
+        }
+        try {
+            for (ExecutorService e : ausfuehrungen) {
+                if (e != null)
+                    e.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * sammelt beim Abspielen eines Shard-Journals die Überweisungen zwischen Shards
+     */
+    private static final class Transferbuch implements BiConsumer<Eintragsart, ByteBuffer> {
+        /**
+         * vorbereitet, aber weder abgeschlossen noch abgebrochen: Kennung auf von, nach, Cent
+         */
+        final Map<Long, long[]> offen = new HashMap<>();
+        /**
+         * Kennungen der in diesem Shard gutgeschriebenen Überweisungen
+         */
+        final Set<Long> gutgeschrieben = new HashSet<>();
+        long hoechsteKennung;
+
+        @Override
+        public void accept(Eintragsart art, ByteBuffer zusatz) {
+            if (zusatz.remaining() < TRANSFER_GROESSE)
+                return;
+            long kennung = zusatz.getLong(0);
+            hoechsteKennung = Math.max(hoechsteKennung, kennung);
+            switch (art) {
+                case TRANSFER_VORBEREITET ->
+                        offen.put(kennung, new long[]{zusatz.getLong(8), zusatz.getLong(16), zusatz.getLong(24)});
+                case TRANSFER_GUTGESCHRIEBEN -> gutgeschrieben.add(kennung);
+                case TRANSFER_ABGEBROCHEN, TRANSFER_ABGESCHLOSSEN -> offen.remove(kennung);
+                default -> {
+                }
+            }
+        }
+    }
+}
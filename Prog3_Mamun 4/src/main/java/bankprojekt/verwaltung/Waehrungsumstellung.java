@@ -0,0 +1,84 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verarbeitung.Wechselkurs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * stellt alle Konten einer Bank auf eine Währung um, z.B. bei einer Währungsreform.
+ * <p>
+ * Die Konten werden als {@link Kontenlauf} parallel bearbeitet: jedes wird einzeln unter
+ * seiner Sperre mit {@link Konto#waehrungswechsel(Waehrung)} umgestellt und im Journal
+ * vermerkt. Alle anderen Operationen der Bank sehen jedes Konto entweder ganz in der alten
+ * oder ganz in der neuen Währung. Umgestellt werden die Konten, die es beim Start gibt;
+ * später eröffnete Konten behalten ihre Währung.
+ * <p>
+ * Fortschritt und Umrechnungsdifferenz lassen sich jederzeit abfragen. Die Differenz ist die
+ * Summe der Rundungen aller Kontostände: neuer Stand minus exakt umgerechneter alter Stand,
+ * in Cent der Zielwährung.
+ */
+public final class Waehrungsumstellung extends Kontenlauf {
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+
+    private final Waehrung ziel;
+    private final LongAdder umgestellt = new LongAdder();
+    /**
+     * Rundungsdifferenzen je Ausgangswährung in Einheiten von 1 / nenner Cent der Zielwährung
+     */
+    private final LongAdder[] differenzen = new LongAdder[WAEHRUNGEN.length];
+
+    Waehrungsumstellung(KontenIndex kontenliste, Journal journal, Waehrung ziel) {
+        super(kontenliste, journal);
+        this.ziel = ziel;
+        for (int i = 0; i < differenzen.length; i++) {
+            differenzen[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return die Währung, auf die umgestellt wird
+     */
+    public Waehrung getZielwaehrung() {
+        return ziel;
+    }
+
+    /**
+     * @return Anzahl der bisher tatsächlich umgestellten Konten; die übrigen bearbeiteten
+     * wurden schon vorher in der Zielwährung geführt
+     */
+    public long getUmgestellt() {
+        return umgestellt.sum();
+    }
+
+    /**
+     * @return Summe der Rundungsdifferenzen aller bisher umgestellten Kontostände in Cent der Zielwährung
+     */
+    public double getUmrechnungsdifferenz() {
+        double summe = 0;
+        for (Waehrung von : WAEHRUNGEN) {
+            summe += differenzen[von.ordinal()].sum() / (double) Wechselkurs.von(von, ziel).getNenner();
+        }
+        return summe;
+    }
+
+    @Override
+    long bearbeiten(Konto konto) {
+        synchronized (konto) {
+            Waehrung alt = konto.getAktuelleWaehrung();
+            if (alt == ziel)
+                return 0;
+            long vorher = konto.getKontostandCent();
+            konto.waehrungswechsel(ziel);
+            Wechselkurs kurs = Wechselkurs.von(alt, ziel);
+            // der wahre Wert ist höchstens nenner / 2, ein Überlauf der Produkte hebt sich daher auf
+            differenzen[alt.ordinal()].add(konto.getKontostandCent() * kurs.getNenner()
+                    - vorher * kurs.getZaehler());
+            umgestellt.increment();
+            return journal == null ? 0 : journal.kontenAnhaengen(Eintragsart.WAEHRUNGSWECHSEL, konto);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Eintragsart;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Buchungshistorie;
+import bankprojekt.verarbeitung.Cent;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.time.YearMonth;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * schreibt allen Sparbüchern einer Bank die Zinsen eines Monats gut, siehe
+ * {@link Sparbuch#zinsenGutschreiben(YearMonth)}.
+ * <p>
+ * Die Konten werden als {@link Kontenlauf} parallel bearbeitet; jede Gutschrift wird unter
+ * der Sperre des Sparbuchs ins Journal geschrieben, das jeder Teil erst nach seinem letzten
+ * Konto einmal sichert. Das Sparbuch merkt sich den verzinsten Monat in seinem Zustand, der
+ * mit der Gutschrift ins Journal und in jeden Sicherungspunkt kommt. Wird der Lauf
+ * unterbrochen, setzt ein neuer Lauf für denselben Monat nach der Wiederherstellung der Bank
+ * dort fort: bereits verzinste Sparbücher werden nur gezählt, nicht noch einmal verzinst.
+ */
+public final class Zinslauf extends Kontenlauf {
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+
+    private final YearMonth monat;
+    private final String verwendungszweck;
+    /**
+     * Zeitpunkt aller Zinsbuchungen dieses Laufs
+     */
+    private final long zeitpunkt = System.currentTimeMillis();
+    private final LongAdder verzinst = new LongAdder();
+    private final LongAdder schonVerzinst = new LongAdder();
+    /**
+     * Summe der gutgeschriebenen Zinsen in Cent je Währung
+     */
+    private final LongAdder[] zinsen = new LongAdder[WAEHRUNGEN.length];
+
+    Zinslauf(KontenIndex kontenliste, Journal journal, YearMonth monat) {
+        super(kontenliste, journal);
+        this.monat = monat;
+        this.verwendungszweck = "Zinsen " + monat;
+        for (int i = 0; i < zinsen.length; i++) {
+            zinsen[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return der verzinste Monat
+     */
+    public YearMonth getMonat() {
+        return monat;
+    }
+
+    /**
+     * @return Anzahl der Sparbücher, die in diesem Lauf verzinst wurden
+     */
+    public long getVerzinst() {
+        return verzinst.sum();
+    }
+
+    /**
+     * @return Anzahl der Sparbücher, die schon vorher für den Monat verzinst waren
+     */
+    public long getSchonVerzinst() {
+        return schonVerzinst.sum();
+    }
+
+    /**
+     * @param waehrung die Währung
+     * @return Summe der bisher gutgeschriebenen Zinsen auf Sparbücher in dieser Währung
+     */
+    public double getZinsen(Waehrung waehrung) {
+        return Cent.inBetrag(zinsen[waehrung.ordinal()].sum());
+    }
+
+    @Override
+    long bearbeiten(Konto konto) {
+        if (!(konto instanceof Sparbuch sparbuch))
+            return 0;
+        synchronized (sparbuch) {
+            long gutschrift = sparbuch.zinsenGutschreiben(monat);
+            if (gutschrift < 0) {
+                schonVerzinst.increment();
+                return 0;
+            }
+            verzinst.increment();
+            if (gutschrift > 0) {
+                zinsen[sparbuch.getAktuelleWaehrung().ordinal()].add(gutschrift);
+                sparbuch.buchungVermerken(zeitpunkt, gutschrift, Buchungshistorie.KEIN_GEGENKONTO,
+                        verwendungszweck);
+            }
+            // auch ohne Gutschrift, damit der verzinste Monat wiederhergestellt wird
+            return journal == null ? 0 : journal.kontenAnhaengen(Eintragsart.ZINSGUTSCHRIFT, sparbuch);
+        }
+    }
+}
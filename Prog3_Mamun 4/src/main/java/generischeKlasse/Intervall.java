@@ -13,6 +13,20 @@ public class Intervall<T extends Comparable<T>> {
         this.obereGrenze = obereGrenze;
     }
 
+    /**
+     * @return die untere Grenze, sie gehört zum Intervall
+     */
+    public T getUntereGrenze() {
+        return untereGrenze;
+    }
+
+    /**
+     * @return die obere Grenze, sie gehört zum Intervall
+     */
+    public T getObereGrenze() {
+        return obereGrenze;
+    }
+
     // prüft ob das intervall leer ist
 
     /**
@@ -1,4 +1,5 @@
 import bankprojekt.Observer.KontoObserver;
+import bankprojekt.oberflaeche.KontoAnsicht;
 import bankprojekt.verarbeitung.GesperrtException;
 import bankprojekt.verarbeitung.Girokonto;
 import bankprojekt.verarbeitung.Kunde;
@@ -105,6 +106,33 @@ class KontoTest {
         assertThrows(IllegalArgumentException.class, () -> konto.abheben(-100));
     }
 
+    @Test
+    void testEinzahlenOhneRundungsfehler() {
+        for (int i = 0; i < 10; i++) {
+            konto.einzahlen(0.1);
+        }
+        assertEquals(1001, konto.getKontostand());
+        assertEquals(100100, konto.getKontostandCent());
+    }
+
+    @Test
+    void testEinzahlenUeberlauf() {
+        konto.einzahlen(9.0e16);
+        assertThrows(ArithmeticException.class, () -> konto.einzahlen(9.0e16));
+        assertEquals(9_000_000_000_000_000_000L + 100_000L, konto.getKontostandCent());
+    }
+
+    @Test
+    void testKontoAnsichtFolgtKonto() throws GesperrtException {
+        KontoAnsicht ansicht = new KontoAnsicht(konto);
+        assertEquals(1000, ansicht.kontostandProperty().get());
+        konto.abheben(1250.5);
+        assertEquals(-250.5, ansicht.kontostandProperty().get());
+        assertFalse(ansicht.imPlusProperty().get());
+        ansicht.gesperrtProperty().set(true);
+        assertTrue(konto.isGesperrt());
+    }
+
     @Test
     void testAbhebenUeberDispo() throws GesperrtException {
         System.out.println("kontostand: " + konto.getKontostand());
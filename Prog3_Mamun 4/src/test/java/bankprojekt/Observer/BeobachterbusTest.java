@@ -0,0 +1,132 @@
+package bankprojekt.Observer;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den Beobachterbus
+ */
+class BeobachterbusTest {
+
+    /**
+     * ein Beobachter, der beim ersten Aufruf wartet, bis er freigegeben wird
+     */
+    private static class WartenderBeobachter implements KontoObserver {
+        final CountDownLatch angekommen = new CountDownLatch(1);
+        final CountDownLatch freigabe = new CountDownLatch(1);
+        final List<Double> kontostaende = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void update(Konto konto) {
+            angekommen.countDown();
+            try {
+                freigabe.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            kontostaende.add(konto.getKontostand());
+        }
+    }
+
+    /**
+     * Testet, dass ein langsamer Beobachter in einem Verbraucher-Thread aufgerufen wird
+     * und die Einzahlung nicht aufhält
+     */
+    @Test
+    void langsamerBeobachterHaeltEinzahlungNichtAuf() throws InterruptedException {
+        Girokonto konto = new Girokonto(Kunde.MUSTERMANN, 1, 0);
+        WartenderBeobachter beobachter = new WartenderBeobachter();
+        try (Beobachterbus bus = new Beobachterbus(16, Ueberlaufstrategie.BLOCKIEREN)) {
+            konto.addObserver(bus.asynchron(beobachter));
+            konto.einzahlen(100);
+            konto.einzahlen(50);
+            assertTrue(beobachter.angekommen.await(5, TimeUnit.SECONDS));
+            assertTrue(beobachter.kontostaende.isEmpty());
+            beobachter.freigabe.countDown();
+            bus.abwarten();
+            assertEquals(2, beobachter.kontostaende.size());
+            assertEquals(150, beobachter.kontostaende.get(1));
+        }
+    }
+
+    /**
+     * Testet, dass bei vollem Puffer die ältesten Ereignisse verworfen werden
+     */
+    @Test
+    void aeltestesVerwerfen() throws InterruptedException {
+        WartenderBeobachter beobachter = new WartenderBeobachter();
+        try (Beobachterbus bus = new Beobachterbus(4, Ueberlaufstrategie.AELTESTES_VERWERFEN)) {
+            KontoObserver asynchron = bus.asynchron(beobachter);
+            for (int i = 0; i < 11; i++) {
+                Girokonto konto = new Girokonto(Kunde.MUSTERMANN, i, 0);
+                konto.addObserver(asynchron);
+                konto.einzahlen(i);
+                if (i == 0)
+                    assertTrue(beobachter.angekommen.await(5, TimeUnit.SECONDS));
+            }
+            beobachter.freigabe.countDown();
+            bus.abwarten();
+            assertEquals(6, bus.getVerworfen());
+            assertEquals(List.of(0.0, 7.0, 8.0, 9.0, 10.0), beobachter.kontostaende);
+        }
+    }
+
+    /**
+     * Testet, dass ausstehende Ereignisse desselben Kontos zusammengefasst werden
+     * und der Beobachter den neuesten Stand sieht
+     */
+    @Test
+    void zusammenfassen() throws InterruptedException {
+        Girokonto konto = new Girokonto(Kunde.MUSTERMANN, 1, 0);
+        WartenderBeobachter beobachter = new WartenderBeobachter();
+        try (Beobachterbus bus = new Beobachterbus(2, Ueberlaufstrategie.ZUSAMMENFASSEN)) {
+            konto.addObserver(bus.asynchron(beobachter));
+            konto.einzahlen(1);
+            assertTrue(beobachter.angekommen.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 1000; i++) {
+                konto.einzahlen(1);
+            }
+            beobachter.freigabe.countDown();
+            bus.abwarten();
+            assertEquals(2, beobachter.kontostaende.size());
+            assertEquals(1001, beobachter.kontostaende.get(1));
+            assertEquals(0, bus.getVerworfen());
+        }
+    }
+
+    /**
+     * Testet, dass beim Blockieren kein Ereignis verloren geht, auch mit mehreren Verbrauchern
+     */
+    @Test
+    void blockierenVerliertNichts() throws InterruptedException {
+        AtomicInteger zugestellt = new AtomicInteger();
+        Beobachterbus bus = new Beobachterbus(2, 3, Ueberlaufstrategie.BLOCKIEREN);
+        KontoObserver asynchron = bus.asynchron(konto -> zugestellt.incrementAndGet());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Girokonto konto = new Girokonto(Kunde.MUSTERMANN, t, 0);
+            konto.addObserver(asynchron);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    konto.einzahlen(1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.close();
+        assertEquals(4000, zugestellt.get());
+    }
+}
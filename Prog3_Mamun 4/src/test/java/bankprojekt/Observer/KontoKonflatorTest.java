@@ -0,0 +1,110 @@
+package bankprojekt.Observer;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den KontoKonflator
+ */
+class KontoKonflatorTest {
+
+    /**
+     * Testet, dass viele Änderungen eines Kontos zu einer Meldung mit dem neuesten Stand werden
+     */
+    @Test
+    void eineMeldungJeKonto() {
+        Girokonto viel = new Girokonto(Kunde.MUSTERMANN, 1, 0);
+        Girokonto wenig = new Girokonto(Kunde.MUSTERMANN, 2, 0);
+        KontoKonflator konflator = new KontoKonflator();
+        konflator.abonnieren(viel);
+        konflator.abonnieren(wenig);
+        konflator.abonnieren(viel);
+        for (int i = 0; i < 10_000; i++) {
+            viel.einzahlen(1);
+        }
+        wenig.einzahlen(5);
+        wenig.sperren();
+
+        List<Kontomeldung> meldungen = new ArrayList<>();
+        assertEquals(2, konflator.abholen(meldungen::add));
+        Kontomeldung erste = meldungen.get(0).getKontonummer() == 1 ? meldungen.get(0) : meldungen.get(1);
+        Kontomeldung zweite = erste == meldungen.get(0) ? meldungen.get(1) : meldungen.get(0);
+        assertEquals(10_000, erste.getKontostand());
+        assertFalse(erste.isGesperrt());
+        assertEquals(500, zweite.getKontostandCent());
+        assertTrue(zweite.isGesperrt());
+        assertEquals(0, konflator.abholen(meldungen::add));
+
+        konflator.abbestellen(viel);
+        viel.einzahlen(1);
+        assertEquals(0, konflator.abholen(meldungen::add));
+    }
+
+    /**
+     * Testet den Konflator an einer Bank: neue Konten werden abonniert, gelöschte abbestellt
+     */
+    @Test
+    void konflatorAnDerBank() {
+        Bank bank = new Bank(1);
+        long alt = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        KontoKonflator konflator = new KontoKonflator();
+        bank.konflatorAnmelden(konflator);
+        long neu = bank.sparbuchErstellen(Kunde.MUSTERMANN);
+        bank.geldEinzahlen(alt, 10);
+        bank.geldEinzahlen(neu, 20);
+        bank.geldUeberweisen(alt, neu, 5, "Test");
+
+        Map<Long, Double> staende = new ConcurrentHashMap<>();
+        assertEquals(2, konflator.abholen(m -> staende.put(m.getKontonummer(), m.getKontostand())));
+        assertEquals(Map.of(alt, 5.0, neu, 25.0), staende);
+
+        bank.kontoLoeschen(neu);
+        assertEquals(1, konflator.getAnzahlAbonnements());
+        bank.konflatorAbmelden(konflator);
+        assertEquals(0, konflator.getAnzahlAbonnements());
+    }
+
+    /**
+     * Testet das regelmäßige Abholen, während mehrere Threads buchen: am Ende muss der
+     * zuletzt gemeldete Stand jedes Kontos sein tatsächlicher Stand sein
+     */
+    @Test
+    void regelmaessigesAbholen() throws InterruptedException {
+        Bank bank = new Bank(1);
+        long[] nummern = new long[20];
+        for (int i = 0; i < nummern.length; i++) {
+            nummern[i] = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        }
+        Map<Long, Double> staende = new ConcurrentHashMap<>();
+        try (KontoKonflator konflator = new KontoKonflator()) {
+            bank.konflatorAnmelden(konflator);
+            konflator.starten(Duration.ofMillis(1), m -> staende.put(m.getKontonummer(), m.getKontostand()));
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        bank.geldEinzahlen(nummern[i % nummern.length], 1);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        for (long nummer : nummern) {
+            assertEquals(4000, bank.getKontostand(nummer));
+            assertEquals(4000, staende.get(nummer), "beim Schließen wird zuletzt noch abgeholt");
+        }
+    }
+}
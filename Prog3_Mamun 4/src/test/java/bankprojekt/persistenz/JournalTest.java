@@ -0,0 +1,176 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.Ueberweisungsauftrag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für das Journal der Bank
+ */
+class JournalTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet, dass eine Bank nach dem erneuten Öffnen des Journals denselben Zustand hat
+     */
+    @Test
+    void wiederherstellenNachSchliessen() throws IOException, GesperrtException {
+        Kunde kunde = new Kunde("Anna", "Alt", "Berlin", LocalDate.of(1990, 5, 17));
+        long giro, spar, geloescht;
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(2424553, journal);
+            giro = bank.girokontoErstellen(kunde);
+            spar = bank.sparbuchErstellen(kunde);
+            geloescht = bank.girokontoErstellen(new Kunde());
+            bank.geldEinzahlen(giro, 1000);
+            bank.geldEinzahlen(spar, 300.25);
+            assertTrue(bank.geldAbheben(spar, 100));
+            assertTrue(bank.geldUeberweisen(giro, geloescht, 250, "Miete"));
+            bank.geldUeberweisen(List.of(new Ueberweisungsauftrag(giro, spar, 50, "Sparen")));
+            assertTrue(bank.kontoSperren(giro));
+            assertTrue(bank.kontoLoeschen(geloescht));
+        }
+
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(2424553, journal);
+            assertEquals(700, bank.getKontostand(giro));
+            assertEquals(250.25, bank.getKontostand(spar));
+            assertEquals(2, bank.getKontonummern().count());
+            assertThrows(GesperrtException.class, () -> bank.geldAbheben(giro, 1));
+            assertFalse(bank.geldUeberweisen(spar, giro, 10, "an gesperrtes Konto"));
+            assertEquals(geloescht + 1, bank.girokontoErstellen(kunde));
+        }
+    }
+
+    /**
+     * Testet, dass wiederhergestellte Konten Kontoart, Dispo, Sparbuchstand und Inhaber behalten
+     */
+    @Test
+    void kontozustandBleibtErhalten() throws IOException {
+        Kunde kunde = new Kunde("Bernd", "Brot", "Köln", LocalDate.of(1970, 1, 2));
+        Girokonto konto = new Girokonto(kunde, 42, 1234.5);
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.SYNCHRON)) {
+            Bank bank = new Bank(1, journal);
+            bank.kontoImportieren(konto);
+            bank.geldEinzahlen(42, 10);
+        }
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.SYNCHRON)) {
+            Bank bank = new Bank(1, journal);
+            Girokonto wiederhergestellt = (Girokonto) bank.getKontenSeite(10).getKonten().get(0);
+            assertEquals(1234.5, wiederhergestellt.getDispo());
+            assertEquals(10, wiederhergestellt.getKontostand());
+            assertEquals("Brot, Bernd", wiederhergestellt.getInhaber().getName());
+            assertEquals("Köln", wiederhergestellt.getInhaber().getAdresse());
+            assertEquals(LocalDate.of(1970, 1, 2), wiederhergestellt.getInhaber().getGeburtstag());
+        }
+    }
+
+    /**
+     * Testet viele Einträge über mehrere kleine Segmente hinweg
+     */
+    @Test
+    void mehrereSegmente() throws IOException {
+        long nummer;
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.ASYNCHRON, 4096)) {
+            Bank bank = new Bank(1, journal);
+            nummer = bank.girokontoErstellen(new Kunde());
+            for (int i = 0; i < 2000; i++) {
+                bank.geldEinzahlen(nummer, 1);
+            }
+        }
+        try (Stream<Path> dateien = Files.list(verzeichnis)) {
+            assertTrue(dateien.count() > 10);
+        }
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.ASYNCHRON, 4096)) {
+            Bank bank = new Bank(1, journal);
+            assertEquals(2000, bank.getKontostand(nummer));
+            bank.geldEinzahlen(nummer, 1);
+        }
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.ASYNCHRON, 4096)) {
+            assertEquals(2001, new Bank(1, journal).getKontostand(nummer));
+        }
+    }
+
+    /**
+     * Testet, dass ein beim Absturz nur teilweise geschriebener letzter Eintrag verworfen wird
+     * und danach wieder korrekt angehängt werden kann
+     */
+    @Test
+    void abgebrochenerEintragWirdVerworfen() throws IOException {
+        long nummer;
+        long vorLetztem;
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            Bank bank = new Bank(1, journal);
+            nummer = bank.girokontoErstellen(new Kunde());
+            bank.geldEinzahlen(nummer, 5);
+            vorLetztem = journal.getPosition();
+            bank.geldEinzahlen(nummer, 7);
+        }
+        Path segment;
+        try (Stream<Path> dateien = Files.list(verzeichnis)) {
+            segment = dateien.findFirst().orElseThrow();
+        }
+        try (FileChannel kanal = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            kanal.write(ByteBuffer.wrap(new byte[]{0x55}), vorLetztem + 20); // Inhalt des letzten Eintrags zerstören
+        }
+
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            assertEquals(vorLetztem, journal.getPosition());
+            Bank bank = new Bank(1, journal);
+            assertEquals(5, bank.getKontostand(nummer));
+            bank.geldEinzahlen(nummer, 1);
+        }
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            assertEquals(6, new Bank(1, journal).getKontostand(nummer));
+        }
+    }
+
+    /**
+     * Testet, dass gleichzeitige Buchungen mit Gruppen-Commit und mit einzelnem fsync alle
+     * gesichert werden, auch über Segmentgrenzen hinweg
+     */
+    @Test
+    void gleichzeitigeBuchungen() throws Exception {
+        for (Haltbarkeit haltbarkeit : new Haltbarkeit[]{Haltbarkeit.GRUPPE, Haltbarkeit.SYNCHRON}) {
+            Path ordner = verzeichnis.resolve(haltbarkeit.name());
+            long nummer;
+            try (Journal journal = Journal.oeffnen(ordner, haltbarkeit, 4096)) {
+                Bank bank = new Bank(1, journal);
+                nummer = bank.girokontoErstellen(new Kunde());
+                Thread[] threads = new Thread[8];
+                for (int t = 0; t < threads.length; t++) {
+                    threads[t] = new Thread(() -> {
+                        for (int i = 0; i < 100; i++) {
+                            bank.geldEinzahlen(nummer, 1);
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            }
+            try (Journal journal = Journal.oeffnen(ordner, haltbarkeit)) {
+                assertEquals(800, new Bank(1, journal).getKontostand(nummer), haltbarkeit.name());
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package bankprojekt.persistenz;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den Sicherungspunkt der Bank
+ */
+class SicherungspunktTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet das Wiederherstellen aus Sicherungspunkt und späteren Journaleinträgen
+     */
+    @Test
+    void sicherungspunktUndJournal() throws IOException, GesperrtException {
+        Path journalVerzeichnis = verzeichnis.resolve("journal");
+        Path datei = verzeichnis.resolve("bank.sicherung");
+        Kunde kunde = new Kunde("Clara", "Code", "Hamburg", LocalDate.of(1985, 3, 4));
+        long giro, spar;
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            Bank bank = new Bank(1, journal, datei);
+            giro = bank.girokontoErstellen(kunde);
+            spar = bank.sparbuchErstellen(kunde);
+            for (int i = 0; i < 200; i++) {
+                bank.geldEinzahlen(giro, 10);
+            }
+            bank.geldEinzahlen(spar, 100);
+            bank.geldAbheben(spar, 30);
+            bank.kontoSperren(spar);
+
+            assertEquals(2, bank.sicherungspunktSchreiben(datei));
+
+            bank.geldUeberweisen(giro, spar, 500, "nach dem Sicherungspunkt");
+            bank.kontoEntsperren(spar);
+            bank.geldUeberweisen(giro, spar, 500, "nach dem Entsperren");
+        }
+        try (Stream<Path> segmente = Files.list(journalVerzeichnis)) {
+            assertEquals(1, segmente.count(), "Segmente vor dem Sicherungspunkt werden gelöscht");
+        }
+
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            Bank bank = new Bank(1, journal, datei);
+            assertEquals(1500, bank.getKontostand(giro));
+            assertEquals(570, bank.getKontostand(spar));
+            Konto[] konten = bank.getKontenSeite(2).getKonten().toArray(new Konto[0]);
+            assertSame(konten[0].getInhaber(), konten[1].getInhaber(), "gemeinsamer Kunde bleibt gemeinsam");
+            assertEquals("Hamburg", konten[0].getInhaber().getAdresse());
+            Sparbuch sparbuch = (Sparbuch) konten[1];
+            assertFalse(sparbuch.isGesperrt());
+            // 30 von 2000 € wurden in diesem Monat schon abgehoben
+            sparbuch.einzahlen(5000);
+            assertFalse(sparbuch.abheben(1971));
+            assertTrue(sparbuch.abheben(1970));
+            assertEquals(spar + 1, bank.girokontoErstellen(kunde));
+        }
+    }
+
+    /**
+     * Testet, dass ein Kunde mit Konten im Sicherungspunkt und im Journal dahinter nach dem
+     * Wiederherstellen ein Kunde bleibt
+     */
+    @Test
+    void kundeInSicherungspunktUndJournal() throws IOException {
+        Path journalVerzeichnis = verzeichnis.resolve("journal");
+        Path datei = verzeichnis.resolve("bank.sicherung");
+        Kunde kunde = Kunde.wiederherstellen("Clara", "Code", "Hamburg", LocalDate.of(1985, 3, 4));
+        long vorher, nachher;
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            Bank bank = new Bank(1, journal, datei);
+            vorher = bank.girokontoErstellen(kunde);
+            bank.sicherungspunktSchreiben(datei);
+            nachher = bank.sparbuchErstellen(kunde);
+            bank.geldEinzahlen(vorher, 10);
+        }
+
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.GRUPPE, 4096)) {
+            Bank bank = new Bank(1, journal, datei);
+            Konto[] konten = bank.getKontenSeite(2).getKonten().toArray(new Konto[0]);
+            assertEquals(2, konten.length);
+            assertSame(konten[0].getInhaber(), konten[1].getInhaber(), "ein Kunde-Objekt für beide Konten");
+            assertEquals(1, bank.getAnzahlKunden());
+            assertArrayEquals(new long[]{vorher, nachher}, bank.getKontonummernVon(konten[0].getInhaber()));
+        }
+    }
+
+    /**
+     * Testet einen Sicherungspunkt, während gleichzeitig überwiesen wird: nach dem Wiederherstellen
+     * müssen alle Kontostände mit denen der laufenden Bank übereinstimmen
+     */
+    @Test
+    void sicherungspunktWaehrendUeberweisungen() throws Exception {
+        Path journalVerzeichnis = verzeichnis.resolve("journal");
+        Path datei = verzeichnis.resolve("bank.sicherung");
+        Map<Long, Double> erwartet = new HashMap<>();
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.ASYNCHRON, 1 << 16)) {
+            Bank bank = new Bank(1, journal, datei);
+            Kunde kunde = new Kunde();
+            for (int i = 0; i < 2000; i++) {
+                bank.geldEinzahlen(bank.girokontoErstellen(kunde), 100);
+            }
+            AtomicBoolean fertig = new AtomicBoolean();
+            Thread last = new Thread(() -> {
+                Random zufall = new Random(1);
+                while (!fertig.get()) {
+                    bank.geldUeberweisen(1 + zufall.nextInt(2000), 1 + zufall.nextInt(2000), 1, "Last");
+                }
+            });
+            last.start();
+            for (int i = 0; i < 5; i++) {
+                bank.sicherungspunktSchreiben(datei);
+            }
+            fertig.set(true);
+            last.join();
+            bank.getKontonummern().forEach(n -> erwartet.put(n, bank.getKontostand(n)));
+        }
+
+        try (Journal journal = Journal.oeffnen(journalVerzeichnis, Haltbarkeit.ASYNCHRON, 1 << 16)) {
+            Bank bank = new Bank(1, journal, datei);
+            assertEquals(2000, bank.getKontonummern().count());
+            for (Map.Entry<Long, Double> konto : erwartet.entrySet()) {
+                assertEquals(konto.getValue(), bank.getKontostand(konto.getKey()), "Konto " + konto.getKey());
+            }
+        }
+    }
+
+    /**
+     * Testet, dass ein beschädigter Sicherungspunkt erkannt wird
+     */
+    @Test
+    void beschaedigterSicherungspunkt() throws IOException {
+        Path datei = verzeichnis.resolve("bank.sicherung");
+        Bank bank = new Bank(1);
+        for (int i = 0; i < 10; i++) {
+            bank.girokontoErstellen(Kunde.MUSTERMANN);
+        }
+        bank.sicherungspunktSchreiben(datei);
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.WRITE)) {
+            kanal.write(ByteBuffer.wrap(new byte[]{0x7F}), 100);
+        }
+
+        assertThrows(IOException.class, () -> Sicherungspunkt.lesen(datei, new Wiederherstellungsziel() {
+            @Override
+            public Konto kontoSuchen(long kontonummer) {
+                return null;
+            }
+
+            @Override
+            public void kontoEinfuegen(Konto konto) {
+            }
+
+            @Override
+            public void kontoEntfernen(long kontonummer) {
+            }
+        }));
+    }
+}
@@ -0,0 +1,123 @@
+package bankprojekt.server;
+
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den HTTP-Dienst der Bank über eine echte Verbindung auf localhost
+ */
+class BankserverTest {
+
+    private Bank bank;
+    private Bankserver dienst;
+    private HttpClient client;
+    private String basis;
+
+    @BeforeEach
+    void starten() throws IOException {
+        bank = new Bank(12030000);
+        dienst = Bankserver.starten(bank, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        basis = "http://localhost:" + dienst.getAdresse().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void beenden() {
+        client.close();
+        dienst.close();
+    }
+
+    private HttpResponse<String> get(String pfad) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(basis + pfad)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String pfad) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(basis + pfad))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long nummer(HttpResponse<String> antwort) {
+        String text = antwort.body();
+        int start = text.indexOf("\"nummer\":") + 9;
+        int ende = start;
+        while (ende < text.length() && Character.isDigit(text.charAt(ende)))
+            ende++;
+        return Long.parseLong(text.substring(start, ende));
+    }
+
+    /**
+     * Testet Eröffnung, Einzahlung, Abhebung, Überweisung und Kontostand über HTTP
+     */
+    @Test
+    void buchungen() throws IOException, InterruptedException {
+        HttpResponse<String> eroeffnet = post("/konten?art=GIROKONTO&vorname=Max&nachname=Meier&geburtstag=1990-05-01");
+        assertEquals(201, eroeffnet.statusCode());
+        long von = nummer(eroeffnet);
+        long nach = nummer(post("/konten?art=girokonto"));
+
+        assertEquals(200, post("/konten/" + von + "/einzahlung?betrag=100").statusCode());
+        assertEquals(200, post("/konten/" + von + "/abhebung?betrag=30.5").statusCode());
+        assertEquals(409, post("/konten/" + von + "/abhebung?betrag=1000").statusCode());
+
+        long sparbuch = nummer(post("/konten?art=SPARBUCH"));
+        assertEquals(200, post("/konten/" + sparbuch + "/einzahlung?betrag=5000").statusCode());
+        assertEquals(409, post("/konten/" + sparbuch + "/abhebung?betrag=2500").statusCode(),
+                "Guthaben reicht, aber das Sparbuch erlaubt die Abhebung nicht");
+        assertEquals(5000.0, bank.getKontostand(sparbuch));
+
+        HttpRequest ueberweisung = HttpRequest.newBuilder(URI.create(basis + "/ueberweisungen"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("von=" + von + "&nach=" + nach + "&betrag=20&zweck=Miete%20Mai"))
+                .build();
+        assertEquals(200, client.send(ueberweisung, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(409, post("/ueberweisungen?von=" + von + "&nach=" + von + "&betrag=1").statusCode());
+
+        HttpResponse<String> stand = get("/konten/" + von);
+        assertEquals(200, stand.statusCode());
+        assertTrue(stand.body().contains("\"kontostand\":49.5"), stand.body());
+        assertEquals(20.0, bank.getKontostand(nach));
+    }
+
+    /**
+     * Testet die seitenweise Kontenliste
+     */
+    @Test
+    void kontenAuflisten() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++)
+            assertEquals(201, post("/konten?art=SPARBUCH").statusCode());
+        HttpResponse<String> seite = get("/konten?anzahl=3");
+        assertEquals(200, seite.statusCode());
+        assertTrue(seite.body().contains("\"weitere\":true"), seite.body());
+        assertEquals(3, seite.body().split("\"kontostand\"").length - 1);
+        assertEquals(400, get("/konten?anzahl=" + (Bankserver.MAX_SEITE + 1)).statusCode());
+    }
+
+    /**
+     * Testet die Statuscodes für fehlerhafte Anfragen
+     */
+    @Test
+    void fehler() throws IOException, InterruptedException {
+        long nummer = nummer(post("/konten"));
+        assertEquals(404, get("/konten/999999").statusCode());
+        assertEquals(404, post("/ueberweisungen?von=" + nummer + "&nach=999999&betrag=1").statusCode());
+        assertEquals(400, get("/konten/abc").statusCode());
+        assertEquals(400, post("/konten/" + nummer + "/einzahlung?betrag=-1").statusCode());
+        assertEquals(400, post("/konten/" + nummer + "/einzahlung").statusCode());
+        assertEquals(400, post("/konten?art=BAUSPARVERTRAG").statusCode());
+        assertEquals(405, post("/konten/" + nummer).statusCode());
+        assertEquals(404, post("/konten/" + nummer + "/zinsen?betrag=1").statusCode());
+    }
+}
@@ -0,0 +1,122 @@
+package bankprojekt.server;
+
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für das binäre Protokoll über eine echte Verbindung auf localhost
+ */
+class BinaerserverTest {
+
+    private Bank bank;
+    private Binaerserver dienst;
+    private Binaerclient client;
+
+    @BeforeEach
+    void starten() throws IOException {
+        bank = new Bank(12030000);
+        dienst = Binaerserver.starten(bank, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        client = Binaerclient.verbinden(dienst.getAdresse());
+    }
+
+    @AfterEach
+    void beenden() throws IOException {
+        client.close();
+        dienst.close();
+    }
+
+    private void erwarten(long kennung, byte status, long wert) throws IOException {
+        client.antwortLesen();
+        assertEquals(kennung, client.getKennung());
+        assertEquals(status, client.getStatus(), "Status der Anfrage " + kennung);
+        assertEquals(wert, client.getWert(), "Wert der Anfrage " + kennung);
+    }
+
+    /**
+     * Testet, dass hintereinander gesendete Anfragen in ihrer Reihenfolge ausgeführt und beantwortet werden
+     */
+    @Test
+    void pipelining() throws IOException {
+        long a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long b = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long sparbuch = bank.sparbuchErstellen(Kunde.MUSTERMANN);
+
+        client.einzahlen(1, a, 10_000);
+        client.ueberweisen(2, a, b, 2_550, "Miete März");
+        client.kontostandAbfragen(3, a);
+        client.kontostandAbfragen(4, b);
+        client.ueberweisen(5, a, b, 1, "");
+        client.kontostandAbfragen(6, 999_999);
+        client.einzahlen(7, a, -1);
+        client.ueberweisen(8, sparbuch, a, 1, "Miete März");
+        client.ueberweisen(9, a, 999_999, 1, "Miete März");
+        assertEquals(9, client.getAusstehend());
+
+        erwarten(1, Bankprotokoll.OK, 10_000);
+        erwarten(2, Bankprotokoll.OK, 0);
+        erwarten(3, Bankprotokoll.OK, 7_450);
+        erwarten(4, Bankprotokoll.OK, 2_550);
+        erwarten(5, Bankprotokoll.OK, 0);
+        erwarten(6, Bankprotokoll.UNBEKANNT, 0);
+        erwarten(7, Bankprotokoll.UNGUELTIG, 0);
+        erwarten(8, Bankprotokoll.ABGELEHNT, 0);
+        erwarten(9, Bankprotokoll.UNBEKANNT, 0);
+        assertEquals(0, client.getAusstehend());
+        assertEquals(74.49, bank.getKontostand(a), 1e-9);
+    }
+
+    /**
+     * Testet viele ausstehende Anfragen, die über mehrere Puffer und Rahmengrenzen hinweg gelesen werden
+     */
+    @Test
+    void vieleAusstehend() throws IOException {
+        long a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long b = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        bank.geldEinzahlen(a, 1000);
+        int anzahl = 20_000;
+        int fenster = 2_000;
+        int gelesen = 0;
+        for (int i = 0; i < anzahl; i++) {
+            client.ueberweisen(i, a, b, 1, i % 3 == 0 ? "Clearing" : "Clearing " + (i % 7));
+            if (client.getAusstehend() == fenster) {
+                client.senden();
+                while (client.getAusstehend() > fenster / 2) {
+                    erwarten(gelesen++, Bankprotokoll.OK, 0);
+                }
+            }
+        }
+        while (client.getAusstehend() > 0) {
+            erwarten(gelesen++, Bankprotokoll.OK, 0);
+        }
+        assertEquals(anzahl, gelesen);
+        assertEquals(1000 - anzahl / 100.0, bank.getKontostand(a), 1e-9);
+        assertEquals(anzahl / 100.0, bank.getKontostand(b), 1e-9);
+    }
+
+    /**
+     * Testet, dass mehrere Verbindungen unabhängig voneinander bedient werden
+     */
+    @Test
+    void mehrereVerbindungen() throws IOException {
+        long a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        try (Binaerclient zweiter = Binaerclient.verbinden(dienst.getAdresse())) {
+            zweiter.einzahlen(7, a, 500);
+            client.einzahlen(1, a, 500);
+            zweiter.antwortLesen();
+            assertEquals(7, zweiter.getKennung());
+            client.antwortLesen();
+            assertEquals(1, client.getKennung());
+        }
+        client.kontostandAbfragen(2, a);
+        erwarten(2, Bankprotokoll.OK, 1000);
+    }
+}
@@ -0,0 +1,94 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für das monatliche Abhebelimit des Sparbuchs mit einer verstellbaren Uhr
+ */
+class SparbuchTest {
+
+    /**
+     * eine Uhr, die nur vorrückt, wenn der Test sie stellt
+     */
+    private static final class VerstellbareUhr extends Clock {
+        private Instant jetzt;
+
+        VerstellbareUhr(Instant jetzt) {
+            this.jetzt = jetzt;
+        }
+
+        void stellen(Instant jetzt) {
+            this.jetzt = jetzt;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return jetzt;
+        }
+    }
+
+    /**
+     * Testet, dass das Limit erst zurückgesetzt wird, wenn der Kalender den neuen Monat fortgeschrieben hat
+     */
+    @Test
+    void limitJeMonat() throws GesperrtException {
+        VerstellbareUhr uhr = new VerstellbareUhr(Instant.parse("2026-01-31T23:59:59Z"));
+        Monatskalender kalender = new Monatskalender(uhr);
+        assertEquals(Monatskalender.monatsnummer(YearMonth.of(2026, 1)), kalender.getMonat());
+        Sparbuch sparbuch = new Sparbuch(Kunde.MUSTERMANN, 1, kalender);
+        sparbuch.einzahlen(5000);
+
+        assertTrue(sparbuch.abheben(1500));
+        assertFalse(sparbuch.abheben(600), "mehr als 2000 € im Monat");
+
+        uhr.stellen(Instant.parse("2026-02-01T00:00:00Z"));
+        assertFalse(sparbuch.abheben(600), "der Kalender ist noch nicht fortgeschrieben");
+        assertTrue(kalender.aktualisieren());
+        assertEquals(YearMonth.of(2026, 2), Monatskalender.monat(kalender.getMonat()));
+        assertTrue(sparbuch.abheben(600));
+        assertTrue(sparbuch.abheben(1400));
+        assertFalse(sparbuch.abheben(0.01));
+        assertFalse(kalender.aktualisieren(), "im selben Monat ändert sich nichts");
+    }
+
+    /**
+     * Testet, dass der Monat der letzten Abhebung mit dem Zustand gesichert wird
+     */
+    @Test
+    void zustandMitAbhebungsmonat() throws GesperrtException {
+        VerstellbareUhr uhr = new VerstellbareUhr(Instant.parse("2026-03-15T12:00:00Z"));
+        Monatskalender kalender = new Monatskalender(uhr);
+        Sparbuch sparbuch = new Sparbuch(Kunde.MUSTERMANN, 1, kalender);
+        sparbuch.einzahlen(5000);
+        assertTrue(sparbuch.abheben(2000));
+
+        ByteBuffer puffer = ByteBuffer.allocate(sparbuch.zustandGroesse());
+        sparbuch.zustandSchreiben(puffer);
+        Sparbuch kopie = new Sparbuch(Kunde.MUSTERMANN, 1, kalender);
+        kopie.zustandUebernehmen(puffer.flip());
+        assertFalse(kopie.abheben(1), "das Limit des Monats ist ausgeschöpft");
+
+        uhr.stellen(Instant.parse("2026-04-01T00:00:00Z"));
+        kalender.aktualisieren();
+        assertTrue(kopie.abheben(1));
+    }
+}
@@ -0,0 +1,77 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die Umrechnung mit festen Wechselkursen
+ */
+class WechselkursTest {
+
+    private static final double[] KURSE = {1, 109.8269, 24304.7429, 490.92};
+
+    /**
+     * Testet alle Währungspaare gegen die exakte Rechnung mit BigDecimal
+     */
+    @Test
+    void exaktGerundet() {
+        Random zufall = new Random(1);
+        for (Waehrung von : Waehrung.values()) {
+            for (Waehrung nach : Waehrung.values()) {
+                Wechselkurs kurs = Wechselkurs.von(von, nach);
+                BigDecimal faktor = BigDecimal.valueOf(KURSE[nach.ordinal()]);
+                BigDecimal teiler = BigDecimal.valueOf(KURSE[von.ordinal()]);
+                for (int i = 0; i < 20_000; i++) {
+                    long cent = i < 10_000 ? i - 5_000 : zufall.nextLong(-100_000_000_000_000L, 100_000_000_000_000L);
+                    long erwartet = BigDecimal.valueOf(cent).multiply(faktor)
+                            .divide(teiler, 0, RoundingMode.HALF_UP).longValueExact();
+                    assertEquals(erwartet, kurs.umrechnen(cent), kurs + " " + cent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Testet, dass ein genau halber Cent aufgerundet wird, auch wenn das double-Produkt knapp darunter liegt
+     */
+    @Test
+    void halberCent() {
+        // 50 € * 109,8269 = 5491,345 Escudo, als double 5491,34499999...
+        assertEquals(549135, Wechselkurs.von(Waehrung.EUR, Waehrung.ESCUDO).umrechnen(5000));
+        assertEquals(5491.35, Waehrung.ESCUDO.euroInWaehrungUmrechnen(50));
+        assertEquals(-549135, Wechselkurs.von(Waehrung.EUR, Waehrung.ESCUDO).umrechnen(-5000));
+    }
+
+    /**
+     * Testet, dass Massenumrechnung, Puffer und einzelne Umrechnung dasselbe liefern
+     */
+    @Test
+    void massenumrechnung() {
+        Wechselkurs kurs = Wechselkurs.von(Waehrung.Dobra, Waehrung.Francs);
+        long[] betraege = new Random(2).longs(1000, -1_000_000_000L, 1_000_000_000L).toArray();
+        long[] erwartet = new long[betraege.length];
+        for (int i = 0; i < betraege.length; i++) {
+            erwartet[i] = kurs.umrechnen(betraege[i]);
+        }
+
+        long[] feld = betraege.clone();
+        kurs.umrechnen(feld);
+        assertArrayEquals(erwartet, feld);
+
+        LongBuffer quelle = ByteBuffer.allocateDirect(8 * betraege.length).asLongBuffer().put(betraege).flip();
+        LongBuffer ziel = LongBuffer.allocate(betraege.length);
+        kurs.umrechnen(quelle, ziel);
+        assertArrayEquals(erwartet, ziel.array());
+        assertFalse(quelle.hasRemaining());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> kurs.umrechnen(feld, 10, feld, 0, feld.length));
+        assertThrows(ArithmeticException.class, () -> Wechselkurs.von(Waehrung.EUR, Waehrung.Dobra).umrechnen(Long.MAX_VALUE));
+    }
+}
@@ -1,14 +1,27 @@
 package bankprojekt.verwaltung;
 
 import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
 import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +46,7 @@ class BankTest {
     @Mock
     private Konto mockKonto2;
 
+    @Mock
     private Konto mockKonto3;
 
 
@@ -132,6 +146,191 @@ class BankTest {
         verify(mockKonto2, never()).einzahlen(anyDouble());
     }
 
+    /**
+     * Testet, dass bei vielen gleichzeitigen Überweisungen kein Geld verloren geht oder entsteht
+     *
+     * @throws InterruptedException wenn das Warten auf die Threads unterbrochen wird
+     */
+    @Test
+    void geldUeberweisen_GleichzeitigBleibtSummeErhalten() throws InterruptedException {
+        Bank echteBank = new Bank(2424553);
+        Kunde kunde = new Kunde();
+        long[] nummern = new long[20];
+        for (int i = 0; i < nummern.length; i++) {
+            nummern[i] = echteBank.girokontoErstellen(kunde);
+            echteBank.geldEinzahlen(nummern[i], 100);
+        }
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            Random zufall = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    long von = nummern[zufall.nextInt(nummern.length)];
+                    long nach = nummern[zufall.nextInt(nummern.length)];
+                    echteBank.geldUeberweisen(von, nach, 1 + zufall.nextInt(50), "Test");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double summe = 0;
+        for (long nummer : nummern) {
+            summe += echteBank.getKontostand(nummer);
+        }
+        assertEquals(2000, summe);
+    }
+
+    /**
+     * Testet eine Sammelüberweisung mit gültigen und ungültigen Aufträgen
+     */
+    @Test
+    void geldUeberweisen_Sammelueberweisung() {
+        Bank echteBank = new Bank(2424553);
+        Kunde kunde = new Kunde();
+        long a = echteBank.girokontoErstellen(kunde);
+        long b = echteBank.girokontoErstellen(kunde);
+        long c = echteBank.girokontoErstellen(kunde);
+        long d = echteBank.girokontoErstellen(kunde);
+        echteBank.geldEinzahlen(a, 100);
+
+        boolean[] ergebnisse = echteBank.geldUeberweisen(List.of(
+                new Ueberweisungsauftrag(a, b, 300, "erlaubt mit Dispo"),
+                new Ueberweisungsauftrag(b, c, 300, "erst nach dem ersten Auftrag gedeckt"),
+                new Ueberweisungsauftrag(a, b, 500, "übersteigt den Dispo"),
+                new Ueberweisungsauftrag(c, c, 1, "gleiches Konto"),
+                new Ueberweisungsauftrag(d, 999, 1, "unbekanntes Konto"),
+                new Ueberweisungsauftrag(d, a, -1, "ungültiger Betrag")));
+
+        assertArrayEquals(new boolean[]{true, true, false, false, false, false}, ergebnisse);
+        assertEquals(-200, echteBank.getKontostand(a));
+        assertEquals(0, echteBank.getKontostand(b));
+        assertEquals(300, echteBank.getKontostand(c));
+        assertEquals(0, echteBank.getKontostand(d));
+    }
+
+    /**
+     * Testet, dass eine Überweisung, deren Gutschrift überlaufen würde, nichts abbucht und
+     * das Monatslimit des sendenden Sparbuchs nicht verbraucht
+     */
+    @Test
+    void ueberweisung_UeberlaufOhneAbbuchung() throws GesperrtException {
+        Kunde kunde = new Kunde();
+        Sparbuch sparbuch = new Sparbuch(kunde, 1);
+        sparbuch.einzahlen(5000);
+        Girokonto voll = new Girokonto(kunde, 2, 0);
+        voll.einzahlen(9e16);
+        voll.einzahlen(2.23e15);
+        voll.einzahlen(3_720_368_540_000.0);
+        voll.einzahlen(7000); // bis zum größten Kontostand fehlen noch 758,07
+        long vorher = voll.getKontostandCent();
+
+        assertThrows(ArithmeticException.class,
+                () -> Ueberweisungsabwicklung.ausfuehren(1, sparbuch, 2, voll, 1000));
+
+        assertEquals(5000, sparbuch.getKontostand());
+        assertEquals(vorher, voll.getKontostandCent());
+        assertTrue(sparbuch.abheben(2000), "das Monatslimit ist unverbraucht");
+    }
+
+    /**
+     * Testet, dass die parallele Ausführung in Gruppen dieselben Ergebnisse liefert
+     * wie die Ausführung der Aufträge nacheinander
+     */
+    @Test
+    void sammelueberweisung_GruppenWieNacheinander() {
+        Kunde kunde = new Kunde();
+        Map<Long, Konto> parallel = new HashMap<>();
+        Map<Long, Konto> nacheinander = new HashMap<>();
+        for (long nummer = 1; nummer <= 300; nummer++) {
+            parallel.put(nummer, new Girokonto(kunde, nummer, 50));
+            nacheinander.put(nummer, new Girokonto(kunde, nummer, 50));
+        }
+        Random zufall = new Random(7);
+        List<Ueberweisungsauftrag> auftraege = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            auftraege.add(new Ueberweisungsauftrag(1 + zufall.nextInt(310), 1 + zufall.nextInt(310),
+                    1 + zufall.nextInt(40), "Test"));
+        }
+
+        boolean[] ergebnisse = Sammelueberweisung.ausfuehren(auftraege, parallel::get, 4);
+
+        for (int i = 0; i < auftraege.size(); i++) {
+            Ueberweisungsauftrag a = auftraege.get(i);
+            Konto von = nacheinander.get(a.getVonKontonr());
+            Konto nach = nacheinander.get(a.getNachKontonr());
+            boolean erwartet = von != null && nach != null && von != nach
+                    && Ueberweisungsabwicklung.ausfuehren(a.getVonKontonr(), von, a.getNachKontonr(), nach, a.getBetrag());
+            assertEquals(erwartet, ergebnisse[i], "Auftrag " + i);
+        }
+        for (long nummer = 1; nummer <= 300; nummer++) {
+            assertEquals(nacheinander.get(nummer).getKontostand(), parallel.get(nummer).getKontostand());
+        }
+    }
+
+    /**
+     * Testet, dass die Auflistung als Datenstrom dieselben Zeilen liefert wie getAlleKonten
+     */
+    @Test
+    void alleKontenAusgeben_WieGetAlleKonten() throws IOException {
+        Bank echteBank = new Bank(2424553);
+        Kunde kunde = new Kunde();
+        for (int i = 0; i < 600; i++) {
+            long nummer = echteBank.girokontoErstellen(kunde);
+            echteBank.geldEinzahlen(nummer, i);
+        }
+        echteBank.kontoLoeschen(17);
+
+        ByteArrayOutputStream ausgabe = new ByteArrayOutputStream();
+        echteBank.alleKontenAusgeben(ausgabe);
+
+        String auflistung = ausgabe.toString(StandardCharsets.UTF_8);
+        assertEquals(echteBank.getAlleKonten(), auflistung);
+        assertEquals(599, auflistung.lines().count());
+        assertTrue(auflistung.startsWith("Kontonummer: 1, Kontostand: 0.0 EUR\n"));
+        assertFalse(auflistung.contains("Kontonummer: 17,"));
+        assertTrue(auflistung.endsWith("Kontonummer: 600, Kontostand: 599.0 EUR\n"));
+    }
+
+    /**
+     * Testet das seitenweise Blättern durch die Kontenliste mit Lücken in den Kontonummern
+     */
+    @Test
+    void getKontenSeite_Blaettern() {
+        Bank echteBank = new Bank(2424553);
+        Kunde kunde = new Kunde();
+        for (int i = 0; i < 25; i++) {
+            echteBank.girokontoErstellen(kunde);
+        }
+        echteBank.kontonummernReservieren(5000);
+        long importiert = echteBank.kontonummernReservieren(1);
+        echteBank.kontoImportieren(new Girokonto(kunde, importiert, 500));
+        echteBank.kontoLoeschen(10);
+
+        List<Long> gelesen = new ArrayList<>();
+        KontenSeite seite = echteBank.getKontenSeite(10);
+        while (true) {
+            for (long nummer : seite.getKontonummern()) {
+                gelesen.add(nummer);
+            }
+            if (!seite.hatWeitere())
+                break;
+            seite = echteBank.getKontenSeite(seite.getCursor(), 10);
+        }
+
+        assertEquals(25, gelesen.size());
+        assertEquals(25, gelesen.stream().distinct().count());
+        assertEquals(1, gelesen.get(0));
+        assertFalse(gelesen.contains(10L));
+        assertEquals(importiert, gelesen.get(24));
+        assertEquals(5, seite.getAnzahl());
+        assertEquals(importiert, seite.getCursor());
+        assertThrows(IllegalArgumentException.class, () -> echteBank.getKontenSeite(0));
+    }
+
     /**
      * Testet das Löschen eines Kontos.
      */
@@ -157,5 +356,49 @@ class BankTest {
         assertFalse(deletionSuccess);
     }
 
+    /**
+     * Testet, dass neue Kontonummern weiterhin "höchste Nummer + 1" sind
+     */
+    @Test
+    void girokontoErstellen_NaechsteNummer() {
+        long nummer = bank.girokontoErstellen(new Kunde());
+
+        assertEquals(kontoNummer3 + 1, nummer);
+    }
+
+    /**
+     * Testet, dass ein reservierter Nummernblock nicht noch einmal vergeben wird
+     */
+    @Test
+    void kontonummernReservieren_BlockWirdUebersprungen() {
+        long erste = bank.kontonummernReservieren(100);
+        bank.kontoImportieren(new Girokonto(new Kunde(), erste + 99, 500));
+
+        assertEquals(kontoNummer3 + 1, erste);
+        assertEquals(erste + 100, bank.sparbuchErstellen(new Kunde()));
+    }
+
+    /**
+     * Testet, dass eine schon belegte Kontonummer nicht importiert werden kann
+     */
+    @Test
+    void kontoImportieren_NummerVergeben() {
+        Girokonto doppelt = new Girokonto(new Kunde(), kontoNummer1, 500);
+
+        assertThrows(IllegalArgumentException.class, () -> bank.kontoImportieren(doppelt));
+    }
+
+    /**
+     * Testet, dass der gespeicherte Höchststand beim Laden wiederhergestellt wird
+     */
+    @Test
+    void kontonummernVergabe_SpeichernUndLaden(@TempDir Path verzeichnis) throws IOException {
+        Path datei = verzeichnis.resolve("kontonummern");
+        bank.getKontonummernVergabe().speichern(datei);
+
+        Bank neueBank = new Bank(2424553, KontonummernVergabe.laden(datei));
+
+        assertEquals(kontoNummer3 + 1, neueBank.girokontoErstellen(new Kunde()));
+    }
 
 }
@@ -0,0 +1,115 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die laufend fortgeschriebenen Kennzahlen der Bank
+ */
+class BankkennzahlenTest {
+
+    /**
+     * Testet die Kennzahlen nach Eröffnen, Buchen, Überweisen und Löschen
+     */
+    @Test
+    void kennzahlenNachBuchungen() throws GesperrtException {
+        Bank bank = new Bank(1);
+        Bankkennzahlen kennzahlen = bank.getKennzahlen();
+        long giro1 = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long giro2 = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long spar = bank.sparbuchErstellen(Kunde.MUSTERMANN);
+        bank.geldEinzahlen(giro1, 100);
+        bank.geldEinzahlen(spar, 50);
+        assertFalse(bank.geldAbheben(giro2, 300), "die Bank lässt nicht ins Minus abheben");
+        bank.geldUeberweisen(giro1, giro2, 120, "Test");
+        bank.geldUeberweisen(spar, giro2, 10, "Test");
+
+        assertEquals(3, kennzahlen.getAnzahlKonten());
+        assertEquals(2, kennzahlen.getAnzahlKonten(Kontoart.GIROKONTO));
+        assertEquals(1, kennzahlen.getAnzahlKonten(Kontoart.SPARBUCH));
+        assertEquals(1, kennzahlen.getAnzahlImMinus());
+        assertEquals(170, kennzahlen.getGuthaben(Waehrung.EUR));
+        assertEquals(20, kennzahlen.getUeberziehung(Waehrung.EUR));
+        assertEquals(150, kennzahlen.getSumme(Waehrung.EUR));
+
+        bank.kontoLoeschen(giro1);
+        assertEquals(2, kennzahlen.getAnzahlKonten());
+        assertEquals(1, kennzahlen.getAnzahlKonten(Kontoart.GIROKONTO));
+        assertEquals(0, kennzahlen.getAnzahlImMinus());
+        assertEquals(0, kennzahlen.getUeberziehung(Waehrung.EUR));
+        assertEquals(170, kennzahlen.getGesamtguthaben());
+    }
+
+    /**
+     * Testet, dass ein Währungswechsel die Summen zwischen den Währungen verschiebt
+     * und auch Änderungen direkt am Konto erfasst werden
+     */
+    @Test
+    void waehrungswechselUndDirekteAenderung() {
+        Bank bank = new Bank(1);
+        Girokonto konto = new Girokonto(Kunde.MUSTERMANN, bank.kontonummernReservieren(1), 500);
+        konto.einzahlen(10);
+        bank.kontoImportieren(konto);
+        konto.einzahlen(5);
+        assertEquals(15, bank.getKennzahlen().getSumme(Waehrung.EUR));
+
+        konto.waehrungswechsel(Waehrung.ESCUDO);
+        assertEquals(0, bank.getKennzahlen().getSumme(Waehrung.EUR));
+        assertEquals(konto.getKontostand(), bank.getKennzahlen().getSumme(Waehrung.ESCUDO));
+    }
+
+    /**
+     * Testet, dass gleichzeitige Überweisungen die Gesamtsumme nicht verändern und die
+     * Kennzahlen danach mit einer vollständigen Zählung übereinstimmen
+     */
+    @Test
+    void gleichzeitigeUeberweisungen() throws InterruptedException {
+        Bank bank = new Bank(1);
+        long[] nummern = new long[100];
+        for (int i = 0; i < nummern.length; i++) {
+            nummern[i] = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            bank.geldEinzahlen(nummern[i], 10);
+        }
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random zufall = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    bank.geldUeberweisen(nummern[zufall.nextInt(nummern.length)],
+                            nummern[zufall.nextInt(nummern.length)], 1 + zufall.nextInt(20), "Last");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Bankkennzahlen kennzahlen = bank.getKennzahlen();
+        assertEquals(1000, kennzahlen.getSumme(Waehrung.EUR), 1e-9);
+        double guthaben = 0, ueberziehung = 0;
+        long imMinus = 0;
+        for (long nummer : nummern) {
+            double stand = bank.getKontostand(nummer);
+            if (stand < 0) {
+                ueberziehung -= stand;
+                imMinus++;
+            } else {
+                guthaben += stand;
+            }
+        }
+        assertEquals(guthaben, kennzahlen.getGuthaben(Waehrung.EUR), 1e-6);
+        assertEquals(ueberziehung, kennzahlen.getUeberziehung(Waehrung.EUR), 1e-6);
+        assertEquals(imMinus, kennzahlen.getAnzahlImMinus());
+        assertEquals(guthaben, kennzahlen.getGesamtguthaben(), 1e-6);
+    }
+}
@@ -0,0 +1,116 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungshistorie;
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Kunde;
+import generischeKlasse.Intervall;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die Buchungshistorie der Konten
+ */
+class BuchungshistorieTest {
+
+    /**
+     * Testet Abfragen von Zeiträumen einschließlich ihrer Grenzen
+     */
+    @Test
+    void zeitraumAbfragen() {
+        Buchungshistorie historie = new Buchungshistorie();
+        for (int i = 0; i < 5000; i++) {
+            historie.anhaengen(10L * i, i, Buchungshistorie.KEIN_GEGENKONTO, i % 2 == 0 ? "gerade" : "ungerade");
+        }
+        List<Long> betraege = new ArrayList<>();
+        List<String> zwecke = new ArrayList<>();
+        int anzahl = historie.abfragen(100, 130, (zeitpunkt, betrag, gegenkonto, zweck) -> {
+            betraege.add(betrag);
+            zwecke.add(zweck);
+        });
+
+        assertEquals(4, anzahl);
+        assertEquals(List.of(10L, 11L, 12L, 13L), betraege);
+        assertEquals(List.of("gerade", "ungerade", "gerade", "ungerade"), zwecke);
+        assertEquals(0, historie.abfragen(50_000, 60_000, (z, b, g, v) -> fail()));
+        assertEquals(5000, historie.abfragen(new Intervall<>(Instant.EPOCH, Instant.ofEpochMilli(49_990)),
+                (z, b, g, v) -> { }));
+        // über die Grenze zwischen zwei Blöcken
+        List<Long> ueberGrenze = new ArrayList<>();
+        assertEquals(3, historie.abfragen(10_230, 10_250, (z, betrag, g, v) -> ueberGrenze.add(betrag)));
+        assertEquals(List.of(1023L, 1024L, 1025L), ueberGrenze);
+        assertThrows(IllegalArgumentException.class,
+                () -> historie.anhaengen(0, 1, Buchungshistorie.KEIN_GEGENKONTO, null));
+    }
+
+    /**
+     * Testet, dass eine zurückgehende Uhr die Reihenfolge der Zeitpunkte nicht zerstört
+     */
+    @Test
+    void zeitpunkteSteigenNie() {
+        Buchungshistorie historie = new Buchungshistorie();
+        historie.anhaengen(500, 1, Buchungshistorie.KEIN_GEGENKONTO, "");
+        historie.anhaengen(400, 2, Buchungshistorie.KEIN_GEGENKONTO, "");
+        historie.anhaengen(600, 3, Buchungshistorie.KEIN_GEGENKONTO, "");
+        List<Long> zeitpunkte = new ArrayList<>();
+
+        assertEquals(2, historie.abfragen(500, 500, (zeitpunkt, b, g, v) -> zeitpunkte.add(zeitpunkt)));
+        assertEquals(List.of(500L, 500L), zeitpunkte);
+    }
+
+    /**
+     * Testet, dass die Bank Ein- und Auszahlungen sowie Überweisungen auf beiden Seiten vermerkt
+     */
+    @Test
+    void kontoauszugDerBank() throws GesperrtException {
+        Bank bank = new Bank(1);
+        long giro = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        long spar = bank.sparbuchErstellen(Kunde.MUSTERMANN);
+        bank.geldEinzahlen(giro, 100);
+        bank.geldAbheben(giro, 20.5);
+        bank.geldUeberweisen(giro, spar, 30, "Miete");
+        bank.geldUeberweisen(giro, spar, 1000, "abgelehnt");
+        Intervall<Instant> immer = new Intervall<>(Instant.EPOCH, Instant.now().plusSeconds(60));
+
+        List<String> giroBuchungen = new ArrayList<>();
+        assertEquals(3, bank.kontoauszug(giro, immer,
+                (zeitpunkt, betrag, gegenkonto, zweck) -> giroBuchungen.add(zweck + " " + betrag + " " + gegenkonto)));
+        assertEquals(List.of("Einzahlung 10000 0", "Abhebung -2050 0", "Miete -3000 " + spar), giroBuchungen);
+
+        List<String> sparBuchungen = new ArrayList<>();
+        assertEquals(1, bank.kontoauszug(spar, immer,
+                (zeitpunkt, betrag, gegenkonto, zweck) -> sparBuchungen.add(zweck + " " + betrag + " " + gegenkonto)));
+        assertEquals(List.of("Miete 3000 " + giro), sparBuchungen);
+
+        assertEquals(0, bank.kontoauszug(4711, immer, (z, b, g, v) -> fail()));
+        assertEquals(0, bank.kontoauszug(giro, new Intervall<>(Instant.EPOCH, Instant.EPOCH), (z, b, g, v) -> fail()));
+    }
+
+    /**
+     * Testet, dass der Leser eines Kontoauszugs nicht unter der Sperre des Kontos aufgerufen wird
+     * und Buchungen während des Lesens nicht im Auszug erscheinen
+     */
+    @Test
+    void leserOhneSperre() {
+        Bank bank = new Bank(1);
+        long giro = bank.girokontoErstellen(Kunde.MUSTERMANN);
+        bank.geldEinzahlen(giro, 100);
+        bank.geldEinzahlen(giro, 50);
+        Intervall<Instant> immer = new Intervall<>(Instant.EPOCH, Instant.now().plusSeconds(60));
+
+        List<Long> betraege = new ArrayList<>();
+        assertEquals(2, bank.kontoauszug(giro, immer, (zeitpunkt, betrag, gegenkonto, zweck) -> {
+            betraege.add(betrag);
+            // ein anderer Thread bucht auf dasselbe Konto, während der Leser läuft
+            CompletableFuture.runAsync(() -> bank.geldEinzahlen(giro, 1)).orTimeout(5, TimeUnit.SECONDS).join();
+        }));
+        assertEquals(List.of(10000L, 5000L), betraege);
+        assertEquals(152, bank.getKontostand(giro), 1e-9);
+    }
+}
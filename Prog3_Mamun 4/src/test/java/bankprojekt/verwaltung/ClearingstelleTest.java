@@ -0,0 +1,277 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für Überweisungen zwischen Banken über die Clearingstelle
+ */
+class ClearingstelleTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet, dass Überweisungen erst mit der Abrechnung gutgeschrieben werden und die
+     * Salden je Bankenpaar nur um den Nettobetrag ausgeglichen werden
+     */
+    @Test
+    void nettoAusgleich() throws IOException {
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank a = new Bank(100);
+            Bank b = new Bank(200, journal);
+            Bank c = new Bank(300);
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(a);
+            stelle.anmelden(b);
+            stelle.anmelden(c);
+            long kontoA = a.girokontoErstellen(Kunde.MUSTERMANN);
+            long kontoB = b.girokontoErstellen(Kunde.MUSTERMANN);
+            long kontoC = c.girokontoErstellen(Kunde.MUSTERMANN);
+            a.geldEinzahlen(kontoA, 1000);
+            b.geldEinzahlen(kontoB, 1000);
+
+            for (int i = 0; i < 100; i++) {
+                assertTrue(a.geldUeberweisen(kontoA, 200, kontoB, 5, "Rechnung " + i));
+                assertTrue(b.geldUeberweisen(kontoB, 100, kontoA, 2, "Gutschrift"));
+            }
+            assertTrue(b.geldUeberweisen(kontoB, 300, kontoC, 50, "Miete"));
+            assertEquals(500, a.getKontostand(kontoA), 1e-9, "sofort abgebucht");
+            assertEquals(750, b.getKontostand(kontoB), 1e-9);
+            assertEquals(0, c.getKontostand(kontoC), "noch nicht gutgeschrieben");
+            assertEquals(201, stelle.getOffen());
+
+            Clearingabrechnung abrechnung = stelle.abrechnen();
+            assertEquals(201, abrechnung.getGutgeschrieben());
+            assertEquals(0, abrechnung.getZurueckgebucht());
+            assertEquals(2, abrechnung.getAusgleiche());
+            assertEquals(750, abrechnung.getBrutto(), 1e-9);
+            assertEquals(350, abrechnung.getNetto(), 1e-9);
+            assertEquals(0, stelle.getOffen());
+
+            assertEquals(700, a.getKontostand(kontoA), 1e-9);
+            assertEquals(1250, b.getKontostand(kontoB), 1e-9);
+            assertEquals(50, c.getKontostand(kontoC), 1e-9);
+            assertEquals(-300, stelle.getSaldo(100), 1e-9);
+            assertEquals(250, stelle.getSaldo(200), 1e-9);
+            assertEquals(50, stelle.getSaldo(300), 1e-9);
+
+            Bank wiederhergestellt = new Bank(200, journal);
+            assertEquals(1250, wiederhergestellt.getKontostand(kontoB), 1e-9, "Gutschriften stehen im Journal");
+        }
+    }
+
+    /**
+     * Testet die Rückbuchung an das sendende Konto und Überweisungen an unbekannte Banken
+     */
+    @Test
+    void rueckbuchung() {
+        Bank a = new Bank(100);
+        Bank b = new Bank(200);
+        Clearingstelle stelle = new Clearingstelle();
+        stelle.anmelden(a);
+        stelle.anmelden(b);
+        long konto = a.girokontoErstellen(Kunde.MUSTERMANN);
+        long sparbuch = b.sparbuchErstellen(Kunde.MUSTERMANN);
+        a.geldEinzahlen(konto, 100);
+
+        assertFalse(a.geldUeberweisen(konto, 999, 1, 10, "unbekannte Bank"));
+        assertTrue(a.geldUeberweisen(konto, 200, 424242, 10, "unbekanntes Konto"));
+        assertTrue(a.geldUeberweisen(konto, 200, sparbuch, 20, "kann nicht empfangen"));
+        assertEquals(70, a.getKontostand(konto), 1e-9);
+
+        Clearingabrechnung abrechnung = stelle.abrechnen();
+        assertEquals(0, abrechnung.getGutgeschrieben());
+        assertEquals(2, abrechnung.getZurueckgebucht());
+        assertEquals(0, abrechnung.getAusgleiche());
+        assertEquals(100, a.getKontostand(konto), 1e-9);
+        assertEquals(0, stelle.getSaldo(100));
+
+        assertThrows(IllegalArgumentException.class, () -> stelle.anmelden(new Bank(200)));
+        assertThrows(IllegalStateException.class, () -> new Clearingstelle().anmelden(a));
+    }
+
+    /**
+     * Testet, dass bei gleichzeitigem Einreichen und getakteter Abrechnung kein Geld verloren geht
+     */
+    @Test
+    void gleichzeitigImTakt() throws InterruptedException {
+        int anzahlBanken = 4;
+        int kontenJeBank = 50;
+        Bank[] banken = new Bank[anzahlBanken];
+        long[][] konten = new long[anzahlBanken][kontenJeBank];
+        Clearingstelle stelle = new Clearingstelle();
+        for (int i = 0; i < anzahlBanken; i++) {
+            banken[i] = new Bank(1000 + i);
+            stelle.anmelden(banken[i]);
+            for (int k = 0; k < kontenJeBank; k++) {
+                konten[i][k] = banken[i].girokontoErstellen(Kunde.MUSTERMANN);
+                banken[i].geldEinzahlen(konten[i][k], 1000);
+            }
+        }
+        stelle.starten(Duration.ofMillis(2));
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    int von = zufall.nextInt(anzahlBanken);
+                    int nach = zufall.nextInt(anzahlBanken);
+                    banken[von].geldUeberweisen(konten[von][zufall.nextInt(kontenJeBank)], 1000 + nach,
+                            konten[nach][zufall.nextInt(kontenJeBank)], 1 + zufall.nextInt(20), "Last");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        stelle.close();
+        assertEquals(0, stelle.getOffen());
+
+        double gesamt = 0;
+        double salden = 0;
+        for (int i = 0; i < anzahlBanken; i++) {
+            double bankSumme = 0;
+            for (long konto : konten[i]) {
+                bankSumme += banken[i].getKontostand(konto);
+            }
+            assertEquals(kontenJeBank * 1000 + stelle.getSaldo(1000 + i), bankSumme, 1e-6,
+                    "Saldo der Bank " + i + " entspricht ihrem Zu- bzw. Abfluss");
+            gesamt += bankSumme;
+            salden += stelle.getSaldo(1000 + i);
+        }
+        assertEquals(anzahlBanken * kontenJeBank * 1000, gesamt, 1e-6);
+        assertEquals(0, salden, 1e-6);
+    }
+
+    /**
+     * Testet, dass abgebuchte, noch nicht abgerechnete Überweisungen einen Neustart überstehen
+     * und nach der erneuten Anmeldung genau einmal gutgeschrieben werden
+     */
+    @Test
+    void absturzVorDerAbrechnung() throws IOException {
+        Path verzeichnisA = verzeichnis.resolve("a");
+        Path verzeichnisB = verzeichnis.resolve("b");
+        long kontoA;
+        long kontoB;
+        try (Journal journalA = Journal.oeffnen(verzeichnisA, Haltbarkeit.SYNCHRON);
+             Journal journalB = Journal.oeffnen(verzeichnisB, Haltbarkeit.SYNCHRON)) {
+            Bank a = new Bank(100, journalA);
+            Bank b = new Bank(200, journalB);
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(a);
+            stelle.anmelden(b);
+            kontoA = a.girokontoErstellen(Kunde.MUSTERMANN);
+            kontoB = b.girokontoErstellen(Kunde.MUSTERMANN);
+            a.geldEinzahlen(kontoA, 100);
+            assertTrue(a.geldUeberweisen(kontoA, 200, kontoB, 30, "vor dem Absturz"));
+            assertTrue(a.geldUeberweisen(kontoA, 200, kontoB, 20, "zweite"));
+            assertEquals(2, stelle.getOffen());
+            // die Clearingstelle endet, ohne abzurechnen
+        }
+        Path kopieA = verzeichnis.resolve("kopie");
+        try (Journal journalA = Journal.oeffnen(verzeichnisA, Haltbarkeit.SYNCHRON);
+             Journal journalB = Journal.oeffnen(verzeichnisB, Haltbarkeit.SYNCHRON)) {
+            Bank a = new Bank(100, journalA);
+            Bank b = new Bank(200, journalB);
+            assertEquals(50, a.getKontostand(kontoA), 1e-9, "Abbuchung steht im Journal");
+            assertEquals(0, b.getKontostand(kontoB));
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(a);
+            assertEquals(0, stelle.getOffen(), "empfangende Bank noch nicht angemeldet");
+            stelle.anmelden(b);
+            assertEquals(2, stelle.getOffen(), "erneut eingereicht");
+            kopieren(verzeichnisA, kopieA);
+
+            Clearingabrechnung abrechnung = stelle.abrechnen();
+            assertEquals(2, abrechnung.getGutgeschrieben());
+            assertEquals(50, a.getKontostand(kontoA), 1e-9);
+            assertEquals(50, b.getKontostand(kontoB), 1e-9);
+            assertEquals(50, stelle.getSaldo(200), 1e-9);
+        }
+        try (Journal journalA = Journal.oeffnen(verzeichnisA, Haltbarkeit.SYNCHRON)) {
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(new Bank(100, journalA));
+            stelle.anmelden(new Bank(200));
+            assertEquals(0, stelle.getOffen(), "Abrechnung steht im Journal");
+        }
+        // ohne den Vermerk der Abrechnung wird erneut eingereicht, aber nicht doppelt gutgeschrieben
+        try (Journal journalA = Journal.oeffnen(kopieA, Haltbarkeit.SYNCHRON);
+             Journal journalB = Journal.oeffnen(verzeichnisB, Haltbarkeit.SYNCHRON)) {
+            Bank b = new Bank(200, journalB);
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(new Bank(100, journalA));
+            stelle.anmelden(b);
+            assertEquals(2, stelle.getOffen());
+            stelle.abrechnen();
+            assertEquals(50, b.getKontostand(kontoB), 1e-9, "nicht doppelt gutgeschrieben");
+        }
+    }
+
+    /**
+     * Testet, dass eine offene Überweisung erhalten bleibt, wenn ein Sicherungspunkt die
+     * Journalsegmente mit ihrer Abbuchung löscht
+     */
+    @Test
+    void offeneUeberweisungImSicherungspunkt() throws IOException {
+        Path journalA = verzeichnis.resolve("a");
+        Path sicherungspunkt = verzeichnis.resolve("a.sicherung");
+        Bank b = new Bank(200);
+        long kontoB = b.girokontoErstellen(Kunde.MUSTERMANN);
+        long kontoA;
+        try (Journal journal = Journal.oeffnen(journalA, Haltbarkeit.GRUPPE, 4096)) {
+            Bank a = new Bank(100, journal, sicherungspunkt);
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(a);
+            stelle.anmelden(b);
+            kontoA = a.girokontoErstellen(Kunde.MUSTERMANN);
+            a.geldEinzahlen(kontoA, 100);
+            assertTrue(a.geldUeberweisen(kontoA, 200, kontoB, 30, "offen"));
+            for (int i = 0; i < 200; i++) {
+                a.geldEinzahlen(kontoA, 1);
+            }
+            a.sicherungspunktSchreiben(sicherungspunkt);
+        }
+        try (Stream<Path> dateien = Files.list(journalA)) {
+            assertTrue(dateien.noneMatch(d -> d.getFileName().toString().startsWith("0000000000000000")),
+                    "das Segment mit der Abbuchung ist gelöscht");
+        }
+        try (Journal journal = Journal.oeffnen(journalA, Haltbarkeit.GRUPPE, 4096)) {
+            Bank a = new Bank(100, journal, sicherungspunkt);
+            assertEquals(270, a.getKontostand(kontoA), 1e-9);
+            Clearingstelle stelle = new Clearingstelle();
+            stelle.anmelden(new Bank(300));
+            stelle.anmelden(a);
+            assertEquals(0, stelle.getOffen(), "empfangende Bank noch nicht angemeldet");
+            Bank neuB = new Bank(200);
+            long neuesKonto = neuB.girokontoErstellen(Kunde.MUSTERMANN);
+            assertEquals(kontoB, neuesKonto);
+            stelle.anmelden(neuB);
+            assertEquals(1, stelle.getOffen());
+            stelle.abrechnen();
+            assertEquals(30, neuB.getKontostand(neuesKonto), 1e-9);
+        }
+    }
+
+    private static void kopieren(Path von, Path nach) throws IOException {
+        Files.createDirectories(nach);
+        try (Stream<Path> dateien = Files.list(von)) {
+            for (Path datei : dateien.toList()) {
+                Files.copy(datei, nach.resolve(datei.getFileName()));
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den KontenIndex
+ */
+class KontenIndexTest {
+
+    private KontenIndex index;
+    private Kunde kunde;
+
+    @BeforeEach
+    void setUp() {
+        index = new KontenIndex();
+        kunde = new Kunde();
+    }
+
+    /**
+     * Testet Einfügen, Suchen und Ersetzen
+     */
+    @Test
+    void putUndGet() {
+        Konto konto = new Girokonto(kunde, 0, 100);
+        Konto anderes = new Girokonto(kunde, 0, 200);
+
+        assertNull(index.put(0, konto));
+        assertSame(konto, index.get(0));
+        assertSame(konto, index.putIfAbsent(0, anderes));
+        assertSame(konto, index.put(0, anderes));
+        assertSame(anderes, index.get(0));
+        assertNull(index.get(1));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Testet, dass null nicht eingefügt werden kann
+     */
+    @Test
+    void putNull() {
+        assertThrows(IllegalArgumentException.class, () -> index.put(1, null));
+    }
+
+    /**
+     * vergleicht viele zufällige Einfüge- und Löschoperationen mit einer HashMap,
+     * dabei wird die Tabelle mehrfach vergrößert und die Sondierungsketten beim Löschen verschoben
+     */
+    @Test
+    void zufaelligeOperationenWieHashMap() {
+        Map<Long, Konto> erwartet = new HashMap<>();
+        Random zufall = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            long nummer = zufall.nextInt(5000) * 1024L; // viele Kollisionen in den unteren Bits
+            if (zufall.nextBoolean()) {
+                Konto konto = new Girokonto(kunde, nummer, 0);
+                assertSame(erwartet.put(nummer, konto), index.put(nummer, konto));
+            } else {
+                assertSame(erwartet.remove(nummer), index.remove(nummer));
+            }
+        }
+        assertEquals(erwartet.size(), index.size());
+        for (Map.Entry<Long, Konto> eintrag : erwartet.entrySet()) {
+            assertSame(eintrag.getValue(), index.get(eintrag.getKey()));
+        }
+        assertEquals(erwartet.keySet(), index.kontonummern().boxed().collect(Collectors.toSet()));
+    }
+
+    /**
+     * Testet, dass fuerAlle jedes Konto genau einmal liefert
+     */
+    @Test
+    void fuerAlle() {
+        for (long nummer = 1; nummer <= 100; nummer++) {
+            index.put(nummer, new Girokonto(kunde, nummer, 0));
+        }
+        long[] summe = new long[1];
+        index.fuerAlle((konto, nummer) -> {
+            assertEquals(nummer, konto.getKontonummer());
+            summe[0] += nummer;
+        });
+        assertEquals(5050, summe[0]);
+    }
+
+    /**
+     * Testet, dass das aufsteigende Lesen weit auseinander liegender Kontonummern nur von der
+     * Anzahl der Konten abhängt und auch bei gleichzeitigem Löschen jedes Konto einmal liefert
+     */
+    @Test
+    void aufsteigendLesenDuennBesetzt() {
+        long[] erwartet = {1, 77, 5_000_000_000L, 6_000_000_000L, 9_000_000_000_000L, Long.MAX_VALUE - 1};
+        for (int i = erwartet.length - 1; i >= 0; i--) {
+            index.put(erwartet[i], new Girokonto(kunde, erwartet[i], 0));
+        }
+        long[] nummern = new long[2];
+        Konto[] konten = new Konto[2];
+        long[] gelesen = new long[erwartet.length];
+        int anzahl = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            int n = 0;
+            long cursor = Long.MIN_VALUE;
+            int seite;
+            do {
+                seite = index.aufsteigendLesen(cursor, nummern, konten);
+                for (int i = 0; i < seite; i++) {
+                    assertEquals(nummern[i], konten[i].getKontonummer());
+                    gelesen[n++] = nummern[i];
+                }
+                if (seite > 0)
+                    cursor = nummern[seite - 1];
+                index.remove(6_000_000_000L); // ändert den Index vor dem Lesen dieser Nummer
+            } while (seite == nummern.length);
+            return n;
+        });
+        assertEquals(5, anzahl);
+        assertArrayEquals(new long[]{1, 77, 5_000_000_000L, 9_000_000_000_000L, Long.MAX_VALUE - 1},
+                Arrays.copyOf(gelesen, anzahl));
+        assertEquals(2, index.bereichLesen(1, 5_000_000_000L, nummern, konten));
+        assertArrayEquals(new long[]{77, 5_000_000_000L}, nummern);
+        assertArrayEquals(new long[]{1, 77, 5_000_000_000L, 9_000_000_000_000L, Long.MAX_VALUE - 1},
+                index.kontonummernSortiert());
+    }
+
+    /**
+     * vergleicht die aufsteigende Reihenfolge bei vielen zufälligen und fortlaufenden
+     * Einfüge- und Löschoperationen mit einem TreeSet, dabei werden Blöcke geteilt und
+     * zusammengelegt; die kleinste und größte Nummer folgen auch dem Löschen
+     */
+    @Test
+    void aufsteigendWieTreeSet() {
+        TreeSet<Long> erwartet = new TreeSet<>();
+        Random zufall = new Random(7);
+        long[] nummern = new long[100];
+        Konto[] konten = new Konto[100];
+        long fortlaufend = 1_000_000;
+        for (int i = 0; i < 200_000; i++) {
+            int wahl = zufall.nextInt(10);
+            if (wahl < 3) {
+                fortlaufend++;
+                erwartet.add(fortlaufend);
+                index.put(fortlaufend, new Girokonto(kunde, fortlaufend, 0));
+            } else if (wahl < 6) {
+                long nummer = zufall.nextLong(3 * KontenIndex.BLOCKGROESSE * 10L);
+                erwartet.add(nummer);
+                index.put(nummer, new Girokonto(kunde, nummer, 0));
+            } else if (!erwartet.isEmpty()) {
+                Long nummer = erwartet.ceiling(zufall.nextLong(fortlaufend + 1));
+                if (nummer == null)
+                    nummer = erwartet.first();
+                erwartet.remove(nummer);
+                assertNotNull(index.remove(nummer));
+            }
+            if (i % 5000 == 0 && !erwartet.isEmpty()) {
+                assertEquals(erwartet.first(), index.getKleinsteNummer());
+                assertEquals(erwartet.last(), index.getGroessteNummer());
+                long cursor = zufall.nextLong(fortlaufend);
+                int seite = index.aufsteigendLesen(cursor, nummern, konten);
+                Long naechste = erwartet.higher(cursor);
+                for (int k = 0; k < seite; k++) {
+                    assertEquals(naechste, nummern[k]);
+                    assertEquals(nummern[k], konten[k].getKontonummer());
+                    naechste = erwartet.higher(naechste);
+                }
+                assertTrue(seite == nummern.length || naechste == null);
+            }
+        }
+        assertArrayEquals(erwartet.stream().mapToLong(Long::longValue).toArray(), index.kontonummernSortiert());
+        for (Long nummer : erwartet) {
+            index.remove(nummer);
+        }
+        assertEquals(Long.MAX_VALUE, index.getKleinsteNummer());
+        assertEquals(Long.MIN_VALUE, index.getGroessteNummer());
+        assertEquals(0, index.aufsteigendLesen(Long.MIN_VALUE, nummern, konten));
+    }
+}
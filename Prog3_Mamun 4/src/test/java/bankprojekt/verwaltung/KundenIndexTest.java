@@ -0,0 +1,162 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für den Kundenindex der Bank
+ */
+class KundenIndexTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    private Bank bank;
+    private Kunde meier;
+    private Kunde meyer;
+    private Kunde mueller;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank(12030000);
+        meier = Kunde.wiederherstellen("Anna", "Meier", "Berlin", LocalDate.of(1980, 1, 1));
+        meyer = Kunde.wiederherstellen("Bernd", "Meyer", "Hamburg", LocalDate.of(1975, 5, 5));
+        mueller = Kunde.wiederherstellen("Clara", "Müller", "Köln", LocalDate.of(1990, 9, 9));
+    }
+
+    /**
+     * eröffnet ein Girokonto über den Import, damit der Test das Konto-Objekt in der Hand hat
+     */
+    private Konto importieren(Kunde inhaber) {
+        Konto konto = new Girokonto(inhaber, bank.kontonummernReservieren(1), 500);
+        bank.kontoImportieren(konto);
+        return konto;
+    }
+
+    /**
+     * Testet die Konten je Kunde beim Eröffnen, Inhaberwechsel und Löschen
+     */
+    @Test
+    void kontenJeKunde() throws GesperrtException {
+        Konto giroKonto = importieren(meier);
+        long giro = giroKonto.getKontonummer();
+        Konto konto = importieren(meier);
+        long zweites = konto.getKontonummer();
+        long anderes = bank.girokontoErstellen(meyer);
+        assertArrayEquals(new long[]{giro, zweites}, bank.getKontonummernVon(meier));
+        assertArrayEquals(new long[]{anderes}, bank.getKontonummernVon(meyer));
+        assertEquals(0, bank.getKontonummernVon(mueller).length);
+        assertEquals(0, bank.getKontonummernVon(null).length);
+        assertEquals(2, bank.getAnzahlKunden());
+
+        konto.setInhaber(mueller);
+        assertArrayEquals(new long[]{giro}, bank.getKontonummernVon(meier));
+        assertArrayEquals(new long[]{zweites}, bank.getKontonummernVon(mueller));
+
+        bank.kontoSperren(giro);
+        assertThrows(GesperrtException.class, () -> giroKonto.setInhaber(mueller));
+        assertArrayEquals(new long[]{giro}, bank.getKontonummernVon(meier), "unverändert");
+
+        bank.kontoLoeschen(anderes);
+        assertEquals(0, bank.getKontonummernVon(meyer).length);
+        assertEquals(2, bank.getAnzahlKunden());
+        konto.setInhaber(meier);
+        assertEquals(1, bank.getAnzahlKunden());
+    }
+
+    /**
+     * Testet die Suche nach dem Namensanfang und das Umbenennen
+     */
+    @Test
+    void suche() {
+        bank.girokontoErstellen(mueller);
+        bank.girokontoErstellen(meyer);
+        bank.girokontoErstellen(meier);
+        bank.sparbuchErstellen(meier);
+        Kunde zweiteAnna = Kunde.wiederherstellen("Anna", "Meier", "München", LocalDate.of(2000, 2, 2));
+        bank.girokontoErstellen(zweiteAnna);
+
+        assertEquals(List.of(meier, zweiteAnna, meyer), bank.kundenSuchen("me", 10));
+        assertEquals(List.of(meier, zweiteAnna), bank.kundenSuchen("MEIER, a", 10));
+        assertEquals(List.of(meier), bank.kundenSuchen("meier", 1));
+        assertEquals(4, bank.kundenSuchen("", 10).size());
+        assertTrue(bank.kundenSuchen("Schmidt", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bank.kundenSuchen(null, 10));
+
+        meyer.setNachname("Schmidt");
+        assertEquals(List.of(meier, zweiteAnna), bank.kundenSuchen("me", 10), "nicht mehr unter dem alten Namen");
+        assertTrue(bank.kundenSuchen("schmidt", 10).isEmpty(), "noch nicht umsortiert");
+        bank.kundeUmbenannt(meyer);
+        assertEquals(List.of(meyer), bank.kundenSuchen("schmidt", 10));
+    }
+
+    /**
+     * Testet, dass der Index nach dem Wiederherstellen und nach gleichzeitigen
+     * Inhaberwechseln zu den Konten passt
+     */
+    @Test
+    void wiederherstellenUndGleichzeitig() throws IOException, InterruptedException {
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.ASYNCHRON)) {
+            Bank mitJournal = new Bank(12030000, journal);
+            long a = mitJournal.girokontoErstellen(meier);
+            long b = mitJournal.girokontoErstellen(meyer);
+            mitJournal.girokontoErstellen(meyer);
+            mitJournal.kontoLoeschen(b);
+            journal.sichern(journal.getPosition());
+
+            Bank wiederhergestellt = new Bank(12030000, journal);
+            assertEquals(2, wiederhergestellt.getAnzahlKunden());
+            List<Kunde> gefunden = wiederhergestellt.kundenSuchen("meier", 10);
+            assertEquals(1, gefunden.size());
+            assertArrayEquals(new long[]{a}, wiederhergestellt.getKontonummernVon(gefunden.get(0)));
+        }
+
+        Kunde[] kunden = {meier, meyer, mueller};
+        Konto[] konten = new Konto[30];
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = importieren(kunden[i % 3]);
+        }
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                for (int i = 0; i < 10_000; i++) {
+                    try {
+                        konten[zufall.nextInt(konten.length)].setInhaber(kunden[zufall.nextInt(3)]);
+                    } catch (GesperrtException e) {
+                        fail(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (Konto konto : konten) {
+            long[] nummern = bank.getKontonummernVon(konto.getInhaber());
+            assertTrue(Arrays.binarySearch(nummern, konto.getKontonummer()) >= 0);
+        }
+        int summe = 0;
+        for (Kunde k : kunden) {
+            summe += bank.getKontonummernVon(k).length;
+        }
+        assertEquals(konten.length, summe, "jedes Konto bei genau einem Kunden");
+    }
+}
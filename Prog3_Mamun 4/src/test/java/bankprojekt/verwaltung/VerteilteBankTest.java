@@ -0,0 +1,221 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die auf Shards verteilte Bank
+ */
+class VerteilteBankTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet die Verteilung der Konten auf die Shards und Überweisungen innerhalb eines Shards
+     */
+    @Test
+    void verteilungUndInnerhalbEinesShards() throws IOException {
+        try (VerteilteBank bank = new VerteilteBank(12030000, 3)) {
+            long[] konten = new long[6];
+            for (int i = 0; i < konten.length; i++) {
+                konten[i] = bank.girokontoErstellen(Kunde.MUSTERMANN);
+                assertEquals(i % 3, bank.getShard(konten[i]), "reihum verteilt");
+                bank.geldEinzahlen(konten[i], 100);
+            }
+            assertEquals(6, bank.getKontonummern().count());
+            assertEquals(-1, bank.getShard(0));
+            assertEquals(-1, bank.getShard(3 * VerteilteBank.NUMMERN_PRO_SHARD + 1));
+            assertFalse(bank.kontoExistiert(3 * VerteilteBank.NUMMERN_PRO_SHARD + 1));
+
+            assertTrue(bank.geldUeberweisen(konten[0], konten[3], 40, "gleicher Shard"));
+            assertEquals(60, bank.getKontostand(konten[0]), 1e-9);
+            assertEquals(140, bank.getKontostand(konten[3]), 1e-9);
+            assertEquals(0, bank.getUebergreifend());
+            assertFalse(bank.geldUeberweisen(konten[0], 424242, 10, "unbekannt"));
+            assertThrows(IllegalArgumentException.class, () -> bank.geldUeberweisen(konten[0], konten[1], -1, "x"));
+        }
+    }
+
+    /**
+     * Testet Überweisungen zwischen Shards und die Erstattung, wenn nicht gutgeschrieben werden kann
+     */
+    @Test
+    void zwischenShards() throws Exception {
+        try (VerteilteBank bank = new VerteilteBank(12030000, 2)) {
+            long a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            long b = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            long sparbuch = bank.sparbuchErstellen(Kunde.MUSTERMANN);
+            long c = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            assertNotEquals(bank.getShard(a), bank.getShard(b));
+            bank.geldEinzahlen(a, 100);
+
+            assertTrue(bank.geldUeberweisen(a, b, 30, "Miete"));
+            assertTrue(bank.geldUeberweisenAsync(a, b, 20, "Strom").get());
+            assertEquals(50, bank.getKontostand(a), 1e-9);
+            assertEquals(50, bank.getKontostand(b), 1e-9);
+
+            bank.kontoSperren(c);
+            assertFalse(bank.geldUeberweisen(a, c, 10, "gesperrt"));
+            assertFalse(bank.geldUeberweisenAsync(a, c, 10, "gesperrt").get());
+            assertFalse(bank.geldUeberweisen(b, sparbuch, 10, "Sparbuch empfängt keine Überweisungen"));
+            assertEquals(50, bank.getKontostand(a), 1e-9, "erstattet");
+            assertEquals(50, bank.getKontostand(b), 1e-9, "erstattet");
+            assertEquals(3, bank.getZurueckgebucht());
+            assertFalse(bank.geldUeberweisen(a, b, 1000, "nicht gedeckt"));
+            assertEquals(5, bank.getUebergreifend());
+        }
+    }
+
+    /**
+     * Testet, dass der Betrag verwahrt und nicht als erstattet gezählt wird, wenn das
+     * sendende Konto vor der Erstattung gelöscht wurde
+     */
+    @Test
+    void senderVorDerErstattungGeloescht() throws IOException {
+        try (VerteilteBank bank = new VerteilteBank(12030000, 2)) {
+            long a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            long b = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            bank.geldEinzahlen(a, 100);
+            bank.zwischenDenPhasen = () -> {
+                assertTrue(bank.kontoLoeschen(a));
+                bank.kontoSperren(b);
+            };
+            assertFalse(bank.geldUeberweisen(a, b, 30, "Miete"));
+            assertEquals(0, bank.getZurueckgebucht());
+            assertEquals(30, bank.getVerwahrt(), 1e-9);
+            assertEquals(0, bank.getKontostand(b), 1e-9);
+        }
+    }
+
+    /**
+     * Testet die an die Shards weitergereichten Abfragen über alle Konten
+     */
+    @Test
+    void ueberAlleShards() throws IOException {
+        try (VerteilteBank bank = new VerteilteBank(12030000, 3)) {
+            Kunde kunde = Kunde.wiederherstellen("Clara", "Code", "Hamburg", LocalDate.of(1985, 3, 4));
+            long[] konten = new long[5];
+            for (int i = 0; i < konten.length; i++) {
+                konten[i] = i < 2 ? bank.girokontoErstellen(kunde) : bank.sparbuchErstellen(Kunde.MUSTERMANN);
+            }
+            long importiert = 2 * VerteilteBank.NUMMERN_PRO_SHARD + 77;
+            bank.kontoImportieren(new Sparbuch(kunde, importiert));
+            assertThrows(IllegalArgumentException.class,
+                    () -> bank.kontoImportieren(new Sparbuch(kunde, 3 * VerteilteBank.NUMMERN_PRO_SHARD + 1)));
+            assertEquals(2, bank.getAnzahlKunden(), "ein Kunde mit Konten in drei Shards zählt einmal");
+
+            long[] erwartet = LongStream.concat(LongStream.of(konten), LongStream.of(importiert)).sorted().toArray();
+            long[] geblaettert = new long[0];
+            KontenSeite seite = bank.getKontenSeite(4);
+            while (true) {
+                int bisher = geblaettert.length;
+                geblaettert = Arrays.copyOf(geblaettert, bisher + seite.getAnzahl());
+                System.arraycopy(seite.getKontonummern(), 0, geblaettert, bisher, seite.getAnzahl());
+                if (!seite.hatWeitere())
+                    break;
+                seite = bank.getKontenSeite(seite.getCursor(), 4);
+            }
+            assertArrayEquals(erwartet, geblaettert);
+            assertEquals(erwartet.length, bank.getAlleKonten().lines().count());
+            assertTrue(bank.getAlleKonten().startsWith("Kontonummer: " + erwartet[0] + ","));
+
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                List<Zinslauf> laeufe = bank.zinsenGutschreiben(YearMonth.of(2026, 9), pool);
+                assertEquals(3, laeufe.size());
+                long gesamt = 0;
+                for (Zinslauf lauf : laeufe) {
+                    lauf.abwarten();
+                    gesamt += lauf.getGesamt();
+                }
+                assertEquals(6, gesamt);
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(2, bank.getKennzahlen(2).getAnzahlKonten());
+            assertThrows(IllegalArgumentException.class, () -> bank.getKennzahlen(3));
+        }
+    }
+
+    /**
+     * Testet, dass eine zwischen den Phasen abgebrochene Überweisung beim nächsten Öffnen
+     * zu Ende geführt wird und gleichzeitige Überweisungen kein Geld erzeugen oder vernichten
+     */
+    @Test
+    void absturzZwischenDenPhasen() throws Exception {
+        long a;
+        long b;
+        try (VerteilteBank bank = VerteilteBank.oeffnen(12030000, 2, verzeichnis, Haltbarkeit.GRUPPE)) {
+            a = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            b = bank.girokontoErstellen(Kunde.MUSTERMANN);
+            bank.geldEinzahlen(a, 100);
+            bank.zwischenDenPhasen = () -> {
+                throw new IllegalStateException("Absturz");
+            };
+            assertThrows(IllegalStateException.class, () -> bank.geldUeberweisen(a, b, 30, "Miete"));
+            assertEquals(70, bank.getKontostand(a), 1e-9);
+            assertEquals(0, bank.getKontostand(b), 1e-9, "noch nicht gutgeschrieben");
+        }
+
+        try (VerteilteBank bank = VerteilteBank.oeffnen(12030000, 2, verzeichnis, Haltbarkeit.GRUPPE)) {
+            assertEquals(70, bank.getKontostand(a), 1e-9);
+            assertEquals(30, bank.getKontostand(b), 1e-9, "beim Öffnen gutgeschrieben");
+            assertEquals(1, bank.getUebergreifend());
+
+            long[] konten = new long[8];
+            konten[0] = a;
+            konten[1] = b;
+            for (int i = 2; i < konten.length; i++) {
+                konten[i] = bank.girokontoErstellen(Kunde.MUSTERMANN);
+                bank.geldEinzahlen(konten[i], 100);
+            }
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                    CompletableFuture<?> letzte = null;
+                    for (int i = 0; i < 2000; i++) {
+                        long von = konten[zufall.nextInt(konten.length)];
+                        long nach = konten[zufall.nextInt(konten.length)];
+                        if (i % 2 == 0)
+                            bank.geldUeberweisen(von, nach, 1 + zufall.nextInt(5), "Last");
+                        else
+                            letzte = bank.geldUeberweisenAsync(von, nach, 1 + zufall.nextInt(5), "Last");
+                    }
+                    letzte.join();
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        }
+
+        try (VerteilteBank bank = VerteilteBank.oeffnen(12030000, 2, verzeichnis, Haltbarkeit.GRUPPE)) {
+            double summe = bank.getKontonummern().mapToDouble(bank::getKontostand).sum();
+            assertEquals(700, summe, 1e-6);
+            assertEquals(0, bank.getUebergreifend(), "nichts mehr offen");
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> VerteilteBank.oeffnen(12030000, 1, verzeichnis, Haltbarkeit.GRUPPE));
+        assertThrows(IllegalArgumentException.class,
+                () -> VerteilteBank.oeffnen(12030000, 2, verzeichnis, Haltbarkeit.ASYNCHRON));
+    }
+}
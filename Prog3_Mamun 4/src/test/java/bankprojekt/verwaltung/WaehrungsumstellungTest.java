@@ -0,0 +1,156 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verarbeitung.Wechselkurs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die Umstellung aller Konten einer Bank auf eine andere Währung
+ */
+class WaehrungsumstellungTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet, dass alle Konten einzeln richtig umgerechnet werden und Fortschritt,
+     * Umrechnungsdifferenz und Kennzahlen dazu passen
+     */
+    @Test
+    void alleKontenUmstellen() {
+        Bank bank = new Bank(1);
+        int anzahl = 3 * Kontenlauf.KONTEN_PRO_TEIL + 17;
+        Konto[] konten = kontenAnlegen(bank, anzahl, new Random(1));
+        long[] vorher = new long[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            vorher[i] = konten[i].getKontostandCent();
+        }
+        Girokonto mock = new Girokonto(Kunde.MUSTERMANN, 4711, 0);
+        bank.mockEinfuegen(mock);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Waehrungsumstellung umstellung = bank.waehrungUmstellen(Waehrung.ESCUDO, pool);
+            umstellung.abwarten();
+
+            assertTrue(umstellung.isFertig());
+            assertEquals(1, umstellung.getFortschritt());
+            assertEquals(anzahl + 1, umstellung.getGesamt());
+            assertEquals(anzahl, umstellung.getUmgestellt());
+            assertEquals(anzahl, umstellung.getBearbeitet());
+            assertTrue(Math.abs(umstellung.getUmrechnungsdifferenz()) <= anzahl / 2.0);
+
+            Wechselkurs kurs = Wechselkurs.von(Waehrung.EUR, Waehrung.ESCUDO);
+            long summe = 0;
+            for (int i = 0; i < anzahl; i++) {
+                Konto konto = konten[i];
+                assertEquals(Waehrung.ESCUDO, konto.getAktuelleWaehrung());
+                assertEquals(kurs.umrechnen(vorher[i]), konto.getKontostandCent());
+                summe += konto.getKontostandCent();
+            }
+            assertEquals(Waehrung.EUR, mock.getAktuelleWaehrung());
+            assertEquals(summe / 100.0, bank.getKennzahlen().getSumme(Waehrung.ESCUDO), 1e-6);
+            assertEquals(0, bank.getKennzahlen().getSumme(Waehrung.EUR));
+
+            Waehrungsumstellung nochmal = bank.waehrungUmstellen(Waehrung.ESCUDO, pool);
+            nochmal.abwarten();
+            assertEquals(0, nochmal.getUmgestellt());
+            assertEquals(anzahl, nochmal.getBearbeitet());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Testet, dass Überweisungen während der Umstellung weiterlaufen und hinterher
+     * alle Konten umgestellt sind und die Kennzahlen stimmen
+     */
+    @Test
+    void gleichzeitigUeberweisen() throws InterruptedException {
+        Bank bank = new Bank(1);
+        int anzahl = 20_000;
+        Konto[] konten = kontenAnlegen(bank, anzahl, new Random(3));
+        long anfang = konten[0].getKontonummer();
+        AtomicBoolean ende = new AtomicBoolean();
+        Thread ueberweiser = new Thread(() -> {
+            Random zufall = new Random(2);
+            while (!ende.get()) {
+                bank.geldUeberweisen(anfang + zufall.nextInt(anzahl), anfang + zufall.nextInt(anzahl), 1, "Test");
+            }
+        });
+        ueberweiser.start();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            bank.waehrungUmstellen(Waehrung.Francs, pool).abwarten();
+        } finally {
+            ende.set(true);
+            ueberweiser.join();
+            pool.shutdown();
+        }
+
+        long summe = 0;
+        for (Konto konto : konten) {
+            assertEquals(Waehrung.Francs, konto.getAktuelleWaehrung());
+            summe += konto.getKontostandCent();
+        }
+        assertEquals(summe / 100.0, bank.getKennzahlen().getSumme(Waehrung.Francs), 1e-6);
+        assertEquals(0, bank.getKennzahlen().getSumme(Waehrung.EUR));
+    }
+
+    /**
+     * Testet, dass die Umstellung im Journal steht und wiederhergestellt wird
+     */
+    @Test
+    void wiederherstellen() throws IOException {
+        long[] nummern = new long[100];
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(1, journal);
+            for (int i = 0; i < nummern.length; i++) {
+                nummern[i] = bank.girokontoErstellen(Kunde.MUSTERMANN);
+                bank.geldEinzahlen(nummern[i], i);
+            }
+            bank.waehrungUmstellen(Waehrung.Dobra).abwarten();
+        }
+        Wechselkurs kurs = Wechselkurs.von(Waehrung.EUR, Waehrung.Dobra);
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(1, journal);
+            double summe = 0;
+            for (int i = 0; i < nummern.length; i++) {
+                assertEquals(kurs.umrechnen(100L * i) / 100.0, bank.getKontostand(nummern[i]));
+                summe += bank.getKontostand(nummern[i]);
+            }
+            assertEquals(summe, bank.getKennzahlen().getSumme(Waehrung.Dobra), 1e-3);
+            assertEquals(0, bank.getKennzahlen().getSumme(Waehrung.EUR));
+        }
+    }
+
+    /**
+     * legt Girokonten und Sparbücher mit zufälligen Kontoständen in Euro an
+     */
+    private static Konto[] kontenAnlegen(Bank bank, int anzahl, Random zufall) {
+        long erste = bank.kontonummernReservieren(anzahl);
+        Konto[] konten = new Konto[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            konten[i] = i % 3 == 0 ? new Sparbuch(Kunde.MUSTERMANN, erste + i)
+                    : new Girokonto(Kunde.MUSTERMANN, erste + i, 500);
+            konten[i].einzahlen(zufall.nextInt(1_000_000) / 100.0);
+            bank.kontoImportieren(konten[i]);
+        }
+        return konten;
+    }
+}
@@ -0,0 +1,171 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.persistenz.Haltbarkeit;
+import bankprojekt.persistenz.Journal;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Sparbuch;
+import bankprojekt.verarbeitung.Waehrung;
+import generischeKlasse.Intervall;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testklasse für die monatliche Zinsgutschrift auf alle Sparbücher
+ */
+class ZinslaufTest {
+
+    private static final YearMonth MONAT = YearMonth.of(2026, 9);
+
+    @TempDir
+    Path verzeichnis;
+
+    /**
+     * Testet, dass jedes Sparbuch genau einmal je Monat verzinst wird und Girokonten unverändert bleiben
+     */
+    @Test
+    void einmalJeMonat() {
+        Bank bank = new Bank(1);
+        int anzahl = 2 * Kontenlauf.KONTEN_PRO_TEIL + 5;
+        long erste = bank.kontonummernReservieren(anzahl);
+        Konto[] konten = new Konto[anzahl];
+        Random zufall = new Random(1);
+        long summe = 0;
+        for (int i = 0; i < anzahl; i++) {
+            konten[i] = i % 4 == 0 ? new Girokonto(Kunde.MUSTERMANN, erste + i, 100)
+                    : new Sparbuch(Kunde.MUSTERMANN, erste + i);
+            konten[i].einzahlen(zufall.nextInt(10_000_000) / 100.0);
+            bank.kontoImportieren(konten[i]);
+        }
+        long[] vorher = new long[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            vorher[i] = konten[i].getKontostandCent();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Zinslauf lauf = bank.zinsenGutschreiben(MONAT, pool);
+            lauf.abwarten();
+            int sparbuecher = 0;
+            for (int i = 0; i < anzahl; i++) {
+                long zinsen = konten[i].getKontostandCent() - vorher[i];
+                if (konten[i] instanceof Sparbuch) {
+                    sparbuecher++;
+                    assertEquals(Math.round(vorher[i] * 0.03 / 12), zinsen);
+                    summe += zinsen;
+                } else {
+                    assertEquals(0, zinsen);
+                }
+            }
+            assertEquals(sparbuecher, lauf.getVerzinst());
+            assertEquals(0, lauf.getSchonVerzinst());
+            assertEquals(anzahl, lauf.getBearbeitet());
+            assertEquals(summe / 100.0, lauf.getZinsen(Waehrung.EUR), 1e-6);
+            assertEquals(MONAT, ((Sparbuch) konten[1]).getLetzterZinsmonat());
+
+            long[] nachher = new long[anzahl];
+            for (int i = 0; i < anzahl; i++) {
+                nachher[i] = konten[i].getKontostandCent();
+            }
+            Zinslauf nochmal = bank.zinsenGutschreiben(MONAT, pool);
+            nochmal.abwarten();
+            Zinslauf frueher = bank.zinsenGutschreiben(MONAT.minusMonths(1), pool);
+            frueher.abwarten();
+            assertEquals(0, nochmal.getVerzinst());
+            assertEquals(sparbuecher, nochmal.getSchonVerzinst());
+            assertEquals(0, frueher.getVerzinst());
+            for (int i = 0; i < anzahl; i++) {
+                assertEquals(nachher[i], konten[i].getKontostandCent());
+            }
+
+            bank.zinsenGutschreiben(MONAT.plusMonths(1), pool).abwarten();
+            assertTrue(konten[1].getKontostandCent() > nachher[1]);
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] buchungen = new int[1];
+        bank.kontoauszug(erste + 1, new Intervall<>(Instant.EPOCH, Instant.now()),
+                (zeitpunkt, betrag, gegenkonto, zweck) -> {
+                    if (zweck.startsWith("Zinsen"))
+                        buchungen[0]++;
+                });
+        assertEquals(2, buchungen[0]);
+    }
+
+    /**
+     * Testet, dass ein nach einer Unterbrechung wiederholter Lauf nur die noch nicht
+     * verzinsten Sparbücher verzinst, auch nach dem Wiederherstellen aus dem Journal
+     */
+    @Test
+    void fortsetzenNachWiederherstellung() throws IOException {
+        long[] nummern = new long[200];
+        long[] verzinst = new long[nummern.length];
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(1, journal);
+            long erste = bank.kontonummernReservieren(nummern.length);
+            for (int i = 0; i < nummern.length; i++) {
+                Sparbuch sparbuch = new Sparbuch(Kunde.MUSTERMANN, erste + i);
+                sparbuch.einzahlen(1000);
+                // die erste Hälfte hat der unterbrochene Lauf schon verzinst
+                if (i < nummern.length / 2)
+                    sparbuch.zinsenGutschreiben(MONAT);
+                bank.kontoImportieren(sparbuch);
+                nummern[i] = erste + i;
+            }
+            Zinslauf lauf = bank.zinsenGutschreiben(MONAT);
+            lauf.abwarten();
+            assertEquals(nummern.length / 2, lauf.getVerzinst());
+            assertEquals(nummern.length / 2, lauf.getSchonVerzinst());
+            for (int i = 0; i < nummern.length; i++) {
+                verzinst[i] = Math.round(bank.getKontostand(nummern[i]) * 100);
+                assertEquals(100_250, verzinst[i]);
+            }
+        }
+        try (Journal journal = Journal.oeffnen(verzeichnis, Haltbarkeit.GRUPPE)) {
+            Bank bank = new Bank(1, journal);
+            Zinslauf lauf = bank.zinsenGutschreiben(MONAT);
+            lauf.abwarten();
+            assertEquals(0, lauf.getVerzinst());
+            assertEquals(nummern.length, lauf.getSchonVerzinst());
+            for (int i = 0; i < nummern.length; i++) {
+                assertEquals(verzinst[i], Math.round(bank.getKontostand(nummern[i]) * 100));
+            }
+        }
+    }
+
+    /**
+     * Testet, dass weit auseinanderliegende Kontonummern den Lauf nicht in leere Teile zerlegen
+     */
+    @Test
+    void duennBesetzteNummern() {
+        Bank bank = new Bank(1);
+        long[] nummern = {3, 5_000_000_000L, 9_000_000_000_000L, Long.MAX_VALUE - 1};
+        for (long nummer : nummern) {
+            Sparbuch sparbuch = new Sparbuch(Kunde.MUSTERMANN, nummer);
+            sparbuch.einzahlen(1000);
+            bank.kontoImportieren(sparbuch);
+        }
+        Zinslauf lauf = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            Zinslauf l = bank.zinsenGutschreiben(MONAT);
+            l.abwarten();
+            return l;
+        });
+        assertEquals(nummern.length, lauf.getGesamt());
+        assertEquals(nummern.length, lauf.getVerzinst());
+        for (long nummer : nummern) {
+            assertEquals(1002.5, bank.getKontostand(nummer), 1e-9);
+        }
+    }
+}